@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.adapter.reactor;
 
+import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
@@ -38,33 +39,65 @@ public final class ReactorSphU {
         return entryWith(resourceName, EntryType.OUT, actual);
     }
 
+    /**
+     * Wrap the {@link Mono} with Sentinel entry. If the entry is paced by rules (e.g. rate limiter flow rules),
+     * the subscription to the actual {@link Mono} is delayed on the timer of Reactor rather than blocking
+     * the subscribing thread.
+     */
     public static <R> Mono<R> entryWith(String resourceName, EntryType entryType, Mono<R> actual) {
-        final AtomicReference<AsyncEntry> entryWrapper = new AtomicReference<>(null);
         return Mono.defer(() -> {
+            final AsyncEntry entry;
             try {
-                AsyncEntry entry = SphU.asyncEntry(resourceName, entryType);
-                entryWrapper.set(entry);
-                return actual.subscriberContext(context -> {
-                    if (entry == null) {
-                        return context;
+                entry = SphU.asyncEntryWithDelay(resourceName, entryType, 1);
+            } catch (BlockException ex) {
+                return Mono.error(ex);
+            }
+            // Held until the entry is exited, which happens only once on termination, block or cancel.
+            final AtomicReference<AsyncEntry> entryWrapper = new AtomicReference<>(entry);
+            Mono<R> guarded = actual.subscriberContext(context -> {
+                Context sentinelContext = entry.getAsyncContext();
+                if (sentinelContext == null) {
+                    return context;
+                }
+                // TODO: check GC friendly?
+                return context.put(SentinelReactorConstants.SENTINEL_CONTEXT_KEY, sentinelContext);
+            }).doOnSuccessOrError((o, t) -> {
+                if (entryWrapper.compareAndSet(entry, null)) {
+                    if (t != null) {
+                        Tracer.traceContext(t, 1, entry.getAsyncContext());
                     }
-                    Context sentinelContext = entry.getAsyncContext();
-                    if (sentinelContext == null) {
-                        return context;
+                    entry.exit();
+                }
+            });
+            Mono<R> result;
+            if (!entry.isPassDecided()) {
+                // Decided later by asynchronous checks (e.g. cluster flow rules).
+                result = Mono.<Long>create(sink -> entry.whenDecided(new AsyncEntry.PassDecisionCallback() {
+                    @Override
+                    public void onPass() {
+                        sink.success(entry.getPassDelayMs());
                     }
-                    // TODO: check GC friendly?
-                    return context.put(SentinelReactorConstants.SENTINEL_CONTEXT_KEY, sentinelContext);
-                }).doOnSuccessOrError((o, t) -> {
-                    if (entry != null && entryWrapper.compareAndSet(entry, null)) {
-                        if (t != null) {
-                            Tracer.traceContext(t, 1, entry.getAsyncContext());
+
+                    @Override
+                    public void onBlocked(BlockException ex) {
+                        // Already exited if cancelled before the decision.
+                        if (entryWrapper.compareAndSet(entry, null)) {
+                            entry.exit();
+                            sink.error(ex);
                         }
-                        entry.exit();
                     }
-                });
-            } catch (BlockException ex) {
-                return Mono.error(ex);
+                })).flatMap(delayMs -> delayMs > 0 ? Mono.delay(Duration.ofMillis(delayMs)).then(guarded)
+                    : guarded);
+            } else {
+                long delayMs = entry.getPassDelayMs();
+                result = delayMs > 0 ? Mono.delay(Duration.ofMillis(delayMs)).then(guarded) : guarded;
             }
+            // Cancelled before the decision, during the pass delay or during the actual call.
+            return result.doOnCancel(() -> {
+                if (entryWrapper.compareAndSet(entry, null)) {
+                    entry.exit();
+                }
+            });
         });
     }
 
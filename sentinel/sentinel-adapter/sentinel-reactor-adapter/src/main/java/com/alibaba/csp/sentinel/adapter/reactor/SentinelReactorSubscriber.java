@@ -16,7 +16,9 @@
 package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.SphU;
@@ -28,6 +30,8 @@ import com.alibaba.csp.sentinel.util.function.Supplier;
 
 import org.reactivestreams.Subscription;
 import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Operators;
+import reactor.core.scheduler.Schedulers;
 import reactor.util.context.Context;
 
 /**
@@ -44,6 +48,13 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
     private volatile AsyncEntry currentEntry;
     private final AtomicBoolean entryExited = new AtomicBoolean(false);
 
+    /**
+     * Whether the entry has passed (after the pass delay if paced). Requests of the downstream are held in
+     * {@code pendingRequested} until then, so nothing will be requested from the upstream before the pass.
+     */
+    private volatile boolean passed = false;
+    private final AtomicLong pendingRequested = new AtomicLong(0);
+
     public SentinelReactorSubscriber(EntryConfig entryConfig,
                                      CoreSubscriber<? super T> actual,
                                      boolean unary) {
@@ -89,17 +100,29 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
             ContextUtil.enter(sentinelContextConfig.getContextName(), sentinelContextConfig.getOrigin());
         }
         try {
-            AsyncEntry entry = SphU.asyncEntry(entryConfig.getResourceName(), entryConfig.getResourceType(),
-                entryConfig.getEntryType(), entryConfig.getAcquireCount(), entryConfig.getArgs());
+            AsyncEntry entry = SphU.asyncEntryWithDelay(entryConfig.getResourceName(),
+                entryConfig.getResourceType(), entryConfig.getEntryType(), entryConfig.getAcquireCount(),
+                entryConfig.getArgs());
             this.currentEntry = entry;
+            // The downstream is always subscribed before any terminal signal, while the pass might be
+            // decided later by asynchronous checks (e.g. cluster flow rules).
             actual.onSubscribe(this);
+            entry.whenDecided(new AsyncEntry.PassDecisionCallback() {
+                @Override
+                public void onPass() {
+                    passWhenDelayed(entry);
+                }
+
+                @Override
+                public void onBlocked(BlockException ex) {
+                    signalBlocked(ex);
+                }
+            });
         } catch (BlockException ex) {
             // Mark as completed (exited) explicitly.
             entryExited.set(true);
-            // Signal cancel and propagate the {@code BlockException}.
-            cancel();
             actual.onSubscribe(this);
-            actual.onError(ex);
+            signalBlocked(ex);
         } finally {
             if (sentinelContextConfig != null) {
                 ContextUtil.exit();
@@ -107,6 +130,67 @@ public class SentinelReactorSubscriber<T> extends InheritableBaseSubscriber<T> {
         }
     }
 
+    private void passWhenDelayed(AsyncEntry entry) {
+        long delayMs = entry.getPassDelayMs();
+        if (delayMs > 0) {
+            // Paced by rules. Instead of blocking current thread, the held requests are released
+            // on the timer after the delay, so nothing will be requested before the pass time.
+            Schedulers.parallel().schedule(this::pass, delayMs, TimeUnit.MILLISECONDS);
+        } else {
+            pass();
+        }
+    }
+
+    private void pass() {
+        passed = true;
+        drainPendingRequested();
+    }
+
+    private void drainPendingRequested() {
+        long n = pendingRequested.getAndSet(0);
+        if (n > 0) {
+            super.request(n);
+        }
+    }
+
+    @Override
+    public void request(long n) {
+        if (passed) {
+            super.request(n);
+            return;
+        }
+        if (!Operators.validate(n)) {
+            return;
+        }
+        for (;;) {
+            long r = pendingRequested.get();
+            if (pendingRequested.compareAndSet(r, Operators.addCap(r, n))) {
+                break;
+            }
+        }
+        // The entry may have passed concurrently, in which case the requests should not be held anymore.
+        if (passed) {
+            drainPendingRequested();
+        }
+    }
+
+    /**
+     * Cancel the upstream and propagate the {@code BlockException}, unless the subscriber has
+     * been terminated or cancelled, so that the downstream won't receive more than one terminal signal.
+     */
+    private void signalBlocked(BlockException ex) {
+        Subscription s = S.getAndSet(this, Operators.cancelledSubscription());
+        if (s == Operators.cancelledSubscription()) {
+            return;
+        }
+        if (s != null) {
+            s.cancel();
+        }
+        // The entry has passed the synchronous checks if blocked asynchronously, so it should be exited.
+        tryCompleteEntry();
+        actual.onError(ex);
+    }
+
     @Override
     protected void hookOnSubscribe(Subscription subscription) {
         doWithContextOrCurrent(() -> currentContext().getOrEmpty(SentinelReactorConstants.SENTINEL_CONTEXT_KEY),
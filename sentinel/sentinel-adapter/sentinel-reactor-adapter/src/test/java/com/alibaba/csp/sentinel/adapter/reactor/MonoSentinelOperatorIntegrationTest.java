@@ -3,12 +3,16 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.EntranceNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
@@ -184,6 +188,91 @@ public class MonoSentinelOperatorIntegrationTest {
         FlowRuleManager.loadRules(new ArrayList<>());
     }
 
+    @Test
+    public void testTransformMonoDelayedWhenPaced() throws Exception {
+        String resourceName = createResourceName("testTransformMonoDelayedWhenPaced");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(5)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(1000)
+        ));
+        StepVerifier.create(Mono.just(1).transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectNext(1)
+            .verifyComplete();
+
+        // The second request is paced by 200ms, but the subscribing thread should not be blocked.
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        Mono.just(2).transform(new SentinelReactorTransformer<>(resourceName)).subscribe(e -> latch.countDown());
+        // Not delivered synchronously as the subscribing thread didn't wait.
+        assertEquals(1, latch.getCount());
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 100);
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        // The entry might exit after the element is delivered, so check the pass count.
+        assertEquals(2, cn.totalPass());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testSubscribedBeforePassWhenPaced() {
+        String resourceName = createResourceName("testSubscribedBeforePassWhenPaced");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(5)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(1000)
+        ));
+        StepVerifier.create(Mono.just(1).transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectNext(1)
+            .verifyComplete();
+
+        // The downstream is subscribed at once, while the element is only delivered after the pass delay.
+        StepVerifier.create(Mono.just(2).transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectSubscription()
+            .expectNoEvent(Duration.ofMillis(100))
+            .expectNext(2)
+            .verifyComplete();
+
+        // An empty upstream may complete before the pass, which is signaled after the subscription.
+        StepVerifier.create(Mono.<Integer>empty().transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectSubscription()
+            .verifyComplete();
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testEntryExitedWhenCancelledDuringPassDelay() throws Exception {
+        String resourceName = createResourceName("testEntryExitedWhenCancelledDuringPassDelay");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(5)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(1000)
+        ));
+        StepVerifier.create(Mono.just(1).transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectNext(1)
+            .verifyComplete();
+
+        AtomicInteger requested = new AtomicInteger();
+        StepVerifier.create(Mono.fromCallable(requested::incrementAndGet)
+            .transform(new SentinelReactorTransformer<>(resourceName)))
+            .expectSubscription()
+            .thenCancel()
+            .verify();
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(0, cn.curThreadNum());
+        // Nothing is requested from the upstream after cancelled.
+        TimeUnit.MILLISECONDS.sleep(300);
+        assertEquals(0, requested.get());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
     private String createResourceName(String resourceName) {
         return "reactor_test_mono_" + resourceName;
     }
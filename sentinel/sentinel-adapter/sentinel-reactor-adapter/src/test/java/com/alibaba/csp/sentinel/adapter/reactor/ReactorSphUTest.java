@@ -2,14 +2,18 @@ package com.alibaba.csp.sentinel.adapter.reactor;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 
 import org.junit.Test;
+import reactor.core.Disposable;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 import reactor.test.StepVerifier;
@@ -68,6 +72,59 @@ public class ReactorSphUTest {
         assertEquals(1, cn.totalException());
     }
 
+    @Test
+    public void testReactorEntryDelayedWhenPaced() throws Exception {
+        String resourceName = createResourceName("testReactorEntryDelayedWhenPaced");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(5)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(1000)
+        ));
+        StepVerifier.create(ReactorSphU.entryWith(resourceName, Mono.just(1)))
+            .expectNext(1)
+            .verifyComplete();
+
+        // The second request is paced by 200ms, but the subscribing thread should not be blocked.
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.currentTimeMillis();
+        ReactorSphU.entryWith(resourceName, Mono.just(2)).subscribe(e -> latch.countDown());
+        // Not delivered synchronously as the subscribing thread didn't wait.
+        assertEquals(1, latch.getCount());
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.currentTimeMillis() - start >= 100);
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(2, cn.totalSuccess());
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
+    @Test
+    public void testReactorEntryExitedWhenCancelledDuringPassDelay() throws Exception {
+        String resourceName = createResourceName("testReactorEntryExitedWhenCancelledDuringPassDelay");
+        FlowRuleManager.loadRules(Collections.singletonList(
+            new FlowRule(resourceName).setCount(5)
+                .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+                .setMaxQueueingTimeMs(1000)
+        ));
+        StepVerifier.create(ReactorSphU.entryWith(resourceName, Mono.just(1)))
+            .expectNext(1)
+            .verifyComplete();
+
+        // The second request is paced, and cancelled before the pass delay elapses.
+        CountDownLatch latch = new CountDownLatch(1);
+        Disposable disposable = ReactorSphU.entryWith(resourceName, Mono.just(2)).subscribe(e -> latch.countDown());
+        disposable.dispose();
+
+        ClusterNode cn = ClusterBuilderSlot.getClusterNode(resourceName);
+        assertNotNull(cn);
+        assertEquals(0, cn.curThreadNum());
+        assertFalse(latch.await(300, TimeUnit.MILLISECONDS));
+
+        FlowRuleManager.loadRules(new ArrayList<>());
+    }
+
     private String createResourceName(String resourceName) {
         return "reactor_test_SphU_" + resourceName;
     }
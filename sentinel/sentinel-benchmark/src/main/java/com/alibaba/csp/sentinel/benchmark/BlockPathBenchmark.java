@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryResult;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for the rejection path, where every request is blocked by a flow rule.</p>
+ * <p>
+ * The {@code exception} mode catches the {@link BlockException} thrown by {@link ResourceHandle#entry()},
+ * while the {@code result} mode checks the {@link EntryResult} of {@link ResourceHandle#tryEntry()}.
+ * Run with {@code -prof gc} to see the allocation per rejection ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+public class BlockPathBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-block-path";
+
+    @Param({"exception", "result"})
+    private String mode;
+
+    private ResourceHandle handle;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(RESOURCE_NAME).setCount(0)));
+        handle = SphU.resource(RESOURCE_NAME, EntryType.IN);
+        ContextUtil.enter("benchmark-block-path-context");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ContextUtil.exit();
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+    }
+
+    private boolean doEntry() {
+        if ("result".equals(mode)) {
+            EntryResult result = handle.tryEntry();
+            result.exit();
+            return result.isBlocked();
+        }
+        Entry entry = null;
+        try {
+            entry = handle.entry();
+            return false;
+        } catch (BlockException e) {
+            return true;
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testSingleThread() {
+        return doEntry();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean test4Threads() {
+        return doEntry();
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.util.AdaptiveClock;
+import com.alibaba.csp.sentinel.util.Clock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link Clock#currentTimeMillis()} in each mode of {@link AdaptiveClock}:
+ * <ul>
+ * <li>{@code ticking}: pinned to ticking mode, reads the cached tick</li>
+ * <li>{@code idle}: pinned to idle mode, reads the OS time and counts the read</li>
+ * <li>{@code adaptive}: default thresholds, switches by itself</li>
+ * <li>{@code system}: plain {@link System#currentTimeMillis()} as the baseline</li>
+ * </ul>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ClockBenchmark {
+
+    @Param({"ticking", "idle", "adaptive", "system"})
+    private String mode;
+
+    private Clock clock;
+
+    @Setup
+    public void prepare() {
+        if ("ticking".equals(mode)) {
+            clock = new AdaptiveClock(AdaptiveClock.DEFAULT_CHECK_INTERVAL_MS, 0, 0);
+        } else if ("idle".equals(mode)) {
+            clock = new AdaptiveClock(AdaptiveClock.DEFAULT_CHECK_INTERVAL_MS, Long.MAX_VALUE, 0);
+        } else if ("adaptive".equals(mode)) {
+            clock = new AdaptiveClock();
+        } else {
+            clock = new Clock() {
+                @Override
+                public long currentTimeMillis() {
+                    return System.currentTimeMillis();
+                }
+            };
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long testSingleThread() {
+        return clock.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long test4Threads() {
+        return clock.currentTimeMillis();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long test16Threads() {
+        return clock.currentTimeMillis();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.client.NettyTransportClient;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.flow.DefaultTokenService;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.server.SentinelDefaultTokenServer;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerFlowConfig;
+import com.alibaba.csp.sentinel.cluster.server.config.ServerTransportConfig;
+import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+/**
+ * <p>Benchmark for the cluster token server under concurrent token clients. Each benchmark thread sends
+ * flow token requests through one of the {@code connections} transport clients, while the in-process benchmark
+ * calls the token service directly, which shows the contention on the cluster metric of a single flow.</p>
+ * <p>
+ * The threshold can be low enough to block most requests (so the block path is measured as well),
+ * or high enough to pass all of them.
+ * </p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ClusterTokenServerBenchmark {
+
+    private static final int PORT = 18730;
+    private static final String NAMESPACE = "cluster-benchmark";
+    private static final Long FLOW_ID = 666L;
+
+    @Param({"1", "4", "16"})
+    private int connections;
+
+    @Param({"1000", "100000000"})
+    private double threshold;
+
+    private final DefaultTokenService tokenService = new DefaultTokenService();
+    private SentinelDefaultTokenServer server;
+    private NettyTransportClient[] clients;
+
+    @Setup(Level.Trial)
+    public void prepare() throws Exception {
+        ClusterServerConfigManager.loadGlobalTransportConfig(new ServerTransportConfig().setPort(PORT));
+        ClusterServerConfigManager.loadGlobalFlowConfig(new ServerFlowConfig().setMaxAllowedQps(1e9));
+        ClusterServerConfigManager.loadServerNamespaceSet(Collections.singleton(NAMESPACE));
+        ClusterFlowRuleManager.loadRules(NAMESPACE, Collections.singletonList(new FlowRule("clusterBenchmark")
+            .setCount(threshold)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(FLOW_ID)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL))));
+
+        server = new SentinelDefaultTokenServer();
+        server.start();
+
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(1000));
+        clients = new NettyTransportClient[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = new NettyTransportClient("127.0.0.1", PORT);
+            clients[i].start();
+        }
+        for (NettyTransportClient client : clients) {
+            while (!client.isReady()) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        for (NettyTransportClient client : clients) {
+            client.stop();
+        }
+        server.stop();
+    }
+
+    /**
+     * The transport client of a benchmark thread, i.e. threads share the connections evenly.
+     */
+    @State(Scope.Thread)
+    public static class Connection {
+
+        private NettyTransportClient client;
+        private ClusterRequest<FlowRequestData> request;
+
+        @Setup(Level.Trial)
+        public void prepare(ClusterTokenServerBenchmark benchmark, ThreadParams threadParams) {
+            client = benchmark.clients[threadParams.getThreadIndex() % benchmark.connections];
+            request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, new FlowRequestData()
+                .setFlowId(FLOW_ID)
+                .setCount(1)
+                .setPriority(false));
+        }
+    }
+
+    @Benchmark
+    @Threads(16)
+    public ClusterResponse testRequestToken(Connection connection) throws Exception {
+        return connection.client.sendRequest(connection.request);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public TokenResult testRequestTokenInProcess() {
+        return tokenService.requestToken(FLOW_ID, 1, false);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Latency distribution of {@link LeapArray#currentWindow()} on a shared (hot) sliding window.</p>
+ * <p>
+ * The sample-time mode reports the percentiles (p0.99, p0.999, ...) of each call. With a short
+ * {@code windowLengthInMs} the bucket rotates almost every tick, so the tail reflects the cost that
+ * threads pay at window boundaries.
+ * </p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class LeapArrayRotationBenchmark {
+
+    @Param({"1", "10", "500"})
+    private int windowLengthInMs;
+
+    private LeapArray<MetricBucket> leapArray;
+
+    @Setup
+    public void prepare() {
+        leapArray = new BucketLeapArray(2, windowLengthInMs * 2);
+    }
+
+    private MetricBucket doAddPass() {
+        MetricBucket bucket = leapArray.currentWindow().value();
+        bucket.addPass(1);
+        return bucket;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public MetricBucket testSingleThread() {
+        return doAddPass();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public MetricBucket test4Threads() {
+        return doAddPass();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public MetricBucket test16Threads() {
+        return doAddPass();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public MetricBucket test64Threads() {
+        return doAddPass();
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowChecker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for checking parameter flow rules of {@code long} IDs, comparing the object path (boxed keys in
+ * LRU maps) with the primitive path (rules with declared parameter type {@code long}).</p>
+ * <p>
+ * The threshold is high enough that the requests are mostly passed, so the cost is the check itself.
+ * </p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ParamFlowCheckerBenchmark {
+
+    @Param({"object", "long"})
+    private String path;
+
+    @Param({"1000", "1000000"})
+    private int distinctValues;
+
+    private ResourceWrapper resource;
+    private ParamFlowRule rule;
+    private long[] ids;
+    private List<Long> idList;
+
+    @Setup
+    public void prepare() {
+        String resourceName = "paramFlowBenchmark";
+        resource = new StringResourceWrapper(resourceName, EntryType.IN);
+        rule = new ParamFlowRule(resourceName)
+            .setParamIdx(0)
+            .setCount(1000000000);
+        if ("long".equals(path)) {
+            rule.setParamType("long");
+        }
+        ParameterMetricStorage.initParamMetricsFor(resource, rule);
+
+        ids = new long[1 << 16];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ThreadLocalRandom.current().nextInt(distinctValues);
+        }
+        idList = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            idList.add(ids[i]);
+        }
+    }
+
+    private long nextId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testSingleValue() {
+        return ParamFlowChecker.passCheck(resource, rule, 1, nextId());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean testSingleValue4Threads() {
+        return ParamFlowChecker.passCheck(resource, rule, 1, nextId());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testArray() {
+        long id = nextId();
+        return ParamFlowChecker.passCheck(resource, rule, 1, (Object)new long[] {id, id + 1, id + 2, id + 3});
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testCollection() {
+        return ParamFlowChecker.passCheck(resource, rule, 1, idList);
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.ResourceHandle;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for entering a resource by name and by a pre-resolved {@link ResourceHandle}.</p>
+ * <p>
+ * Run with {@code -prof gc} to see the allocation per operation ({@code gc.alloc.rate.norm}).
+ * The {@code explicit} context is entered once per thread, while the {@code default} context
+ * is created on each entry as {@link SphU#entry(String)} does without {@link ContextUtil#enter(String)}.
+ * </p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class ResourceHandleBenchmark {
+
+    private static final String RESOURCE_NAME = "benchmark-handle";
+
+    @Param({"name", "handle"})
+    private String mode;
+
+    @Param({"explicit", "default"})
+    private String context;
+
+    private ResourceHandle handle;
+
+    @Setup
+    public void prepare() {
+        handle = SphU.resource(RESOURCE_NAME, EntryType.OUT);
+        if ("explicit".equals(context)) {
+            ContextUtil.enter("benchmark-handle-context");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ContextUtil.exit();
+    }
+
+    private Entry doEntry() throws BlockException {
+        if ("handle".equals(mode)) {
+            return handle.entry();
+        }
+        return SphU.entry(RESOURCE_NAME);
+    }
+
+    private Entry doEntryAndExit() {
+        Entry entry = null;
+        try {
+            entry = doEntry();
+        } catch (BlockException e) {
+            // Not expected, as there is no rule.
+        } finally {
+            if (entry != null) {
+                entry.exit();
+            }
+        }
+        return entry;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Entry testSingleThread() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Entry test4Threads() {
+        return doEntryAndExit();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.BucketLeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.StripedArrayMetric;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the sliding window metrics, comparing the {@link BucketLeapArray} based {@link ArrayMetric}
+ * and the {@link StripedArrayMetric} under 1 to 64 threads. Each operation records an entry and an exit
+ * on the same shared metric, as {@code StatisticSlot} does, and reads the pass count like the flow checker.
+ */
+@Warmup(iterations = 10)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class SlidingWindowMetricBenchmark {
+
+    @Param({"bucket", "striped"})
+    private String type;
+
+    private Metric metric;
+
+    @Setup
+    public void prepare() {
+        if ("striped".equals(type)) {
+            metric = new StripedArrayMetric(2, 1000, false, Runtime.getRuntime().availableProcessors());
+        } else {
+            metric = new ArrayMetric(new BucketLeapArray(2, 1000));
+        }
+    }
+
+    private long doEntryAndExit() {
+        long pass = metric.pass();
+        metric.addPass(1);
+        metric.addSuccess(1);
+        metric.addRT(1);
+        return pass;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long testSingleThread() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long test4Threads() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public long test8Threads() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long test16Threads() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public long test32Threads() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long test64Threads() {
+        return doEntryAndExit();
+    }
+}
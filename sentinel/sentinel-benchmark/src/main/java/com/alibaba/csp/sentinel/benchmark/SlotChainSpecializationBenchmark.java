@@ -0,0 +1,123 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.system.SystemRule;
+import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of an entry and exit on a resource with zero, one or many rules, with and without
+ * slot chain specialization. None of the rules will block the entry.
+ * Each parameter combination runs in a forked JVM, so the startup switch takes effect.
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SlotChainSpecializationBenchmark {
+
+    private static final String RESOURCE = "specialization-benchmark";
+
+    @Param({"0", "1", "many"})
+    private String rules;
+
+    @Param({"true", "false"})
+    private String specialize;
+
+    @Setup
+    public void prepare() {
+        // Set before Sentinel config is initialized.
+        System.setProperty(SentinelConfig.SLOT_CHAIN_SPECIALIZE_ENABLED, specialize);
+        if ("0".equals(rules)) {
+            return;
+        }
+        List<FlowRule> flowRules = new ArrayList<>();
+        flowRules.add(new FlowRule(RESOURCE).setCount(Integer.MAX_VALUE));
+        if ("1".equals(rules)) {
+            FlowRuleManager.loadRules(flowRules);
+            return;
+        }
+        for (int i = 0; i < 4; i++) {
+            FlowRule rule = new FlowRule(RESOURCE).setCount(Integer.MAX_VALUE);
+            rule.setLimitApp("app" + i);
+            flowRules.add(rule);
+        }
+        FlowRuleManager.loadRules(flowRules);
+        DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(RESOURCE)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT).setCount(Integer.MAX_VALUE).setTimeWindow(10)));
+        AuthorityRule authorityRule = new AuthorityRule();
+        authorityRule.setStrategy(RuleConstant.AUTHORITY_BLACK);
+        authorityRule.setResource(RESOURCE);
+        authorityRule.setLimitApp("blocked-app");
+        AuthorityRuleManager.loadRules(Collections.singletonList(authorityRule));
+        SystemRule systemRule = new SystemRule();
+        systemRule.setQps(Integer.MAX_VALUE);
+        SystemRuleManager.loadRules(Collections.singletonList(systemRule));
+    }
+
+    private Entry doEntryAndExit() {
+        Entry e = null;
+        try {
+            e = SphU.entry(RESOURCE);
+        } catch (BlockException ex) {
+            // Should not happen.
+        } finally {
+            if (e != null) {
+                e.exit();
+            }
+        }
+        return e;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Entry testSingleThread() {
+        return doEntryAndExit();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Entry test4Threads() {
+        return doEntryAndExit();
+    }
+}
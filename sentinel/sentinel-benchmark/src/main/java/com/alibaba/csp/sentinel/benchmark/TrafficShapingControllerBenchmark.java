@@ -0,0 +1,97 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.RateLimiterController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.ShardedTokenBucketController;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * <p>Benchmark for QPS traffic shaping controllers of an extremely hot resource under concurrency.</p>
+ * <p>
+ * The threshold is high enough that the requests are mostly passed, so the cost is the check itself.
+ * Like the flow slot, passed requests are recorded to the node, which {@link DefaultController} reads.
+ * </p>
+ */
+@Warmup(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class TrafficShapingControllerBenchmark {
+
+    @Param({"default", "rateLimiter", "shardedTokenBucket"})
+    private String controllerType;
+
+    @Param({"1000000000"})
+    private double count;
+
+    private TrafficShapingController controller;
+    private StatisticNode node;
+
+    @Setup
+    public void prepare() {
+        node = new StatisticNode();
+        if ("rateLimiter".equals(controllerType)) {
+            controller = new RateLimiterController(500, count);
+        } else if ("shardedTokenBucket".equals(controllerType)) {
+            controller = new ShardedTokenBucketController(count);
+        } else {
+            controller = new DefaultController(count, RuleConstant.FLOW_GRADE_QPS);
+        }
+    }
+
+    private boolean doCheck() {
+        boolean pass = controller.canPass(node, 1);
+        if (pass) {
+            node.addPassRequest(1);
+        }
+        return pass;
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean testSingleThread() {
+        return doCheck();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean test4Threads() {
+        return doCheck();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean test8Threads() {
+        return doCheck();
+    }
+}
@@ -15,13 +15,26 @@
  */
 package com.alibaba.csp.sentinel.cluster.client;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.alibaba.csp.sentinel.cluster.AsyncClusterTransportClient;
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterResponseCallback;
 import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
+import com.alibaba.csp.sentinel.cluster.ConsistentHashRing;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultCallback;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
@@ -29,26 +42,61 @@ import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager
 import com.alibaba.csp.sentinel.cluster.client.config.ServerChangeObserver;
 import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
 import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowLeaseRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
 import com.alibaba.csp.sentinel.cluster.request.data.ParamFlowRequestData;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
 import com.alibaba.csp.sentinel.log.RecordLog;
-import com.alibaba.csp.sentinel.util.StringUtil;
 
 /**
- * Default implementation of {@link ClusterTokenClient}.
+ * Default implementation of {@link ClusterTokenClient}, which also supports asynchronous token requests.
  *
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class DefaultClusterTokenClient implements ClusterTokenClient {
+public class DefaultClusterTokenClient implements AsyncClusterTokenClient, LeasingClusterTokenClient,
+    ConcurrentTokenService {
 
-    private ClusterTransportClient transportClient;
-    private TokenServerDescriptor serverDescriptor;
+    /**
+     * Connections to the token servers. Flow IDs are routed by consistent hashing if there are several servers.
+     */
+    private volatile ConsistentHashRing<ServerShard> shardRing = new ConsistentHashRing<>(
+        Collections.<String, ServerShard>emptyMap());
 
     private final AtomicBoolean shouldStart = new AtomicBoolean(false);
 
+    /**
+     * Callback of releasing concurrency tokens, which never blocks the exit of entries.
+     */
+    private static final TokenResultCallback RELEASE_CALLBACK = new TokenResultCallback() {
+        @Override
+        public void onComplete(TokenResult result) {
+            if (result.getStatus() != TokenResultStatus.OK) {
+                ClusterClientStatLogUtil.log("concurrent|release_fail");
+            }
+        }
+    };
+
+    private final TokenLeaseManager leaseManager = new TokenLeaseManager(new TokenLeaseManager.LeaseSender() {
+        @Override
+        public TokenResult requestLease(long flowId, int count, int returnCount, int returnAgeMs) {
+            FlowLeaseRequestData data = new FlowLeaseRequestData().setFlowId(flowId).setCount(count)
+                .setReturnCount(returnCount).setReturnAgeMs(returnAgeMs);
+            ClusterRequest<FlowLeaseRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_LEASE,
+                data);
+            try {
+                TokenResult result = sendTokenRequest(shardRing.route(flowId), request);
+                logForResult(result);
+                return result;
+            } catch (Exception ex) {
+                ClusterClientStatLogUtil.log(ex.getMessage());
+                return new TokenResult(TokenResultStatus.FAIL);
+            }
+        }
+    });
+
     public DefaultClusterTokenClient() {
         ClusterClientConfigManager.addServerChangeObserver(new ServerChangeObserver() {
             @Override
@@ -59,64 +107,102 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         initNewConnection();
     }
 
-    private boolean serverEqual(TokenServerDescriptor descriptor, ClusterClientAssignConfig config) {
-        if (descriptor == null || config == null) {
-            return false;
+    private void initNewConnection() {
+        if (!shardRing.isEmpty()) {
+            return;
+        }
+        List<TokenServerDescriptor> servers = ClusterClientConfigManager.resolveServers(
+            ClusterClientConfigManager.getAssignConfig());
+        if (servers.isEmpty()) {
+            return;
         }
-        return descriptor.getHost().equals(config.getServerHost()) && descriptor.getPort() == config.getServerPort();
+        applyServers(servers);
     }
 
-    private void initNewConnection() {
-        if (transportClient != null) {
-            return;
+    private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
+        applyServers(ClusterClientConfigManager.resolveServers(config));
+    }
+
+    /**
+     * Connect to the new set of token servers, while connections to unchanged servers are kept. The flow IDs
+     * of the leaving servers are routed to the remaining ones, and only a part of the flow IDs are moved
+     * to the joining servers.
+     */
+    private synchronized void applyServers(List<TokenServerDescriptor> servers) {
+        Map<String, ServerShard> currentShards = shardRing.getNodes();
+        Map<String, ServerShard> newShards = new LinkedHashMap<>();
+        List<ServerShard> createdShards = new ArrayList<>();
+        for (TokenServerDescriptor descriptor : servers) {
+            String key = ClusterClientConfigManager.serverKey(descriptor);
+            ServerShard shard = currentShards.get(key);
+            if (shard == null) {
+                try {
+                    // Replace with new, even if the new client is not ready.
+                    shard = new ServerShard(descriptor,
+                        new NettyTransportClient(descriptor.getHost(), descriptor.getPort()));
+                    createdShards.add(shard);
+                    RecordLog.info("[DefaultClusterTokenClient] New client created: " + descriptor);
+                } catch (Exception ex) {
+                    RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client for "
+                        + descriptor, ex);
+                    continue;
+                }
+            }
+            newShards.put(key, shard);
         }
-        String host = ClusterClientConfigManager.getServerHost();
-        int port = ClusterClientConfigManager.getServerPort();
-        if (StringUtil.isBlank(host) || port <= 0) {
+        if (createdShards.isEmpty() && newShards.keySet().equals(currentShards.keySet())) {
             return;
         }
 
+        this.shardRing = new ConsistentHashRing<>(newShards);
+        // Flows might be routed to other servers, where the leased tokens are not valid.
+        leaseManager.clear();
+        for (Map.Entry<String, ServerShard> entry : currentShards.entrySet()) {
+            if (!newShards.containsKey(entry.getKey())) {
+                stopShard(entry.getValue());
+            }
+        }
+        if (shouldStart.get()) {
+            for (ServerShard shard : createdShards) {
+                startShard(shard);
+            }
+        }
+    }
+
+    private void startShard(ServerShard shard) {
         try {
-            this.transportClient = new NettyTransportClient(host, port);
-            this.serverDescriptor = new TokenServerDescriptor(host, port);
-            RecordLog.info("[DefaultClusterTokenClient] New client created: " + serverDescriptor);
+            shard.transportClient.start();
         } catch (Exception ex) {
-            RecordLog.warn("[DefaultClusterTokenClient] Failed to initialize new token client", ex);
+            RecordLog.warn("[DefaultClusterTokenClient] Failed to start transport client of "
+                + shard.descriptor, ex);
         }
     }
 
-    private void changeServer(/*@Valid*/ ClusterClientAssignConfig config) {
-        if (serverEqual(serverDescriptor, config)) {
-            return;
-        }
+    private void stopShard(ServerShard shard) {
         try {
-            if (transportClient != null) {
-                transportClient.stop();
-            }
-            // Replace with new, even if the new client is not ready.
-            this.transportClient = new NettyTransportClient(config.getServerHost(), config.getServerPort());
-            this.serverDescriptor = new TokenServerDescriptor(config.getServerHost(), config.getServerPort());
-            startClientIfScheduled();
-            RecordLog.info("[DefaultClusterTokenClient] New client created: " + serverDescriptor);
+            shard.transportClient.stop();
         } catch (Exception ex) {
-            RecordLog.warn("[DefaultClusterTokenClient] Failed to change remote token server", ex);
+            RecordLog.warn("[DefaultClusterTokenClient] Failed to stop transport client of "
+                + shard.descriptor, ex);
         }
     }
 
-    private void startClientIfScheduled() throws Exception {
+    private void startClientIfScheduled() {
         if (shouldStart.get()) {
-            if (transportClient != null) {
-                transportClient.start();
-            } else {
+            Collection<ServerShard> shards = shardRing.getNodes().values();
+            if (shards.isEmpty()) {
                 RecordLog.warn("[DefaultClusterTokenClient] Cannot start transport client: client not created");
             }
+            for (ServerShard shard : shards) {
+                startShard(shard);
+            }
         }
     }
 
-    private void stopClientIfStarted() throws Exception {
+    private void stopClientIfStarted() {
         if (shouldStart.compareAndSet(true, false)) {
-            if (transportClient != null) {
-                transportClient.stop();
+            for (ServerShard shard : shardRing.getNodes().values()) {
+                stopShard(shard);
             }
         }
     }
@@ -133,17 +219,45 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         stopClientIfStarted();
     }
 
+    /**
+     * Get state of the client, which is {@link ClientConstants#CLIENT_STATUS_PENDING} if only some of
+     * the token servers are connected.
+     */
     @Override
     public int getState() {
-        if (transportClient == null) {
+        Collection<ServerShard> shards = shardRing.getNodes().values();
+        int readyCount = 0;
+        for (ServerShard shard : shards) {
+            if (shard.transportClient.isReady()) {
+                readyCount++;
+            }
+        }
+        if (readyCount == 0) {
             return ClientConstants.CLIENT_STATUS_OFF;
         }
-        return transportClient.isReady() ? ClientConstants.CLIENT_STATUS_STARTED : ClientConstants.CLIENT_STATUS_OFF;
+        return readyCount == shards.size() ? ClientConstants.CLIENT_STATUS_STARTED
+            : ClientConstants.CLIENT_STATUS_PENDING;
     }
 
+    /**
+     * Get current token server, which is the first one if there are several servers.
+     */
     @Override
     public TokenServerDescriptor currentServer() {
-        return serverDescriptor;
+        Iterator<ServerShard> shards = shardRing.getNodes().values().iterator();
+        return shards.hasNext() ? shards.next().descriptor : null;
+    }
+
+    /**
+     * @return all connected token servers
+     * @since 1.8.0
+     */
+    public List<TokenServerDescriptor> currentServers() {
+        List<TokenServerDescriptor> servers = new ArrayList<>();
+        for (ServerShard shard : shardRing.getNodes().values()) {
+            servers.add(shard.descriptor);
+        }
+        return servers;
     }
 
     @Override
@@ -151,11 +265,19 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         if (notValidRequest(flowId, acquireCount)) {
             return badRequest();
         }
+        ServerShard shard = shardRing.route(flowId);
+        int lingerMicros = ClusterClientConfigManager.getBatchLingerMicros();
+        if (lingerMicros > 0 && shard != null) {
+            TokenResultFuture future = new TokenResultFuture();
+            shard.batcher.add(flowId, acquireCount, prioritized, future, lingerMicros);
+            return future.get(TimeUnit.MILLISECONDS.toMicros(ClusterClientConfigManager.getRequestTimeout())
+                + lingerMicros);
+        }
         FlowRequestData data = new FlowRequestData().setCount(acquireCount)
             .setFlowId(flowId).setPriority(prioritized);
         ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(shard, request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -164,6 +286,21 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
+    @Override
+    public TokenResult requestLeasedToken(Long flowId, int acquireCount) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return badRequest();
+        }
+        // Leases are only used by rules in lease mode, so the reconciliation is started on demand.
+        leaseManager.start();
+        TokenResult result = leaseManager.acquire(flowId, acquireCount);
+        if (result == null) {
+            // Not served by current lease (e.g. the next lease is not ready yet).
+            return requestToken(flowId, acquireCount, false);
+        }
+        return result;
+    }
+
     @Override
     public TokenResult requestParamToken(Long flowId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(flowId, acquireCount) || params == null || params.isEmpty()) {
@@ -173,7 +310,7 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
             .setFlowId(flowId).setParams(params);
         ClusterRequest<ParamFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_PARAM_FLOW, data);
         try {
-            TokenResult result = sendTokenRequest(request);
+            TokenResult result = sendTokenRequest(routeParamRequest(flowId, params), request);
             logForResult(result);
             return result;
         } catch (Exception ex) {
@@ -182,7 +319,57 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private void logForResult(TokenResult result) {
+    @Override
+    public TokenResult requestConcurrentToken(Long flowId, int acquireCount) {
+        if (notValidRequest(flowId, acquireCount)) {
+            return badRequest();
+        }
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(
+            ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_ACQUIRE, data);
+        try {
+            TokenResult result = sendTokenRequest(shardRing.route(flowId), request);
+            logForResult(result);
+            return result;
+        } catch (Exception ex) {
+            ClusterClientStatLogUtil.log(ex.getMessage());
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long flowId, long tokenId) {
+        if (flowId == null || flowId <= 0) {
+            return;
+        }
+        // Tokens not released (e.g. failed to send) will be reclaimed by the token server once this client
+        // is disconnected, or after the timeout of the rule if configured.
+        ClusterRequest<ConcurrentFlowReleaseRequestData> request = new ClusterRequest<>(
+            ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_RELEASE, new ConcurrentFlowReleaseRequestData()
+            .setTokenId(tokenId));
+        sendTokenRequestAsync(shardRing.route(flowId), request, RELEASE_CALLBACK);
+    }
+
+    @Override
+    public void requestTokenAsync(Long flowId, int acquireCount, boolean prioritized, TokenResultCallback callback) {
+        if (notValidRequest(flowId, acquireCount)) {
+            callback.onComplete(badRequest());
+            return;
+        }
+        ServerShard shard = shardRing.route(flowId);
+        int lingerMicros = ClusterClientConfigManager.getBatchLingerMicros();
+        if (lingerMicros > 0 && shard != null) {
+            shard.batcher.add(flowId, acquireCount, prioritized, callback, lingerMicros);
+            return;
+        }
+        FlowRequestData data = new FlowRequestData().setCount(acquireCount)
+            .setFlowId(flowId).setPriority(prioritized);
+        ClusterRequest<FlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+        sendTokenRequestAsync(shard, request, callback);
+    }
+
+    static void logForResult(TokenResult result) {
         switch (result.getStatus()) {
             case TokenResultStatus.NO_RULE_EXISTS:
                 ClusterClientStatLogUtil.log(ClusterErrorMessages.NO_RULES_IN_SERVER);
@@ -194,22 +381,133 @@ public class DefaultClusterTokenClient implements ClusterTokenClient {
         }
     }
 
-    private TokenResult sendTokenRequest(ClusterRequest request) throws Exception {
-        if (transportClient == null) {
+    /**
+     * Route the request of a parameter flow rule. Requests with a single parameter are routed by the parameter,
+     * so that the parameter values of a rule can be sharded among token servers.
+     */
+    private ServerShard routeParamRequest(long flowId, Collection<Object> params) {
+        if (params.size() == 1) {
+            return shardRing.route(flowId, params.iterator().next());
+        }
+        return shardRing.route(flowId);
+    }
+
+    private TokenResult sendTokenRequest(ServerShard shard, ClusterRequest request) throws Exception {
+        if (shard == null) {
             RecordLog.warn(
                 "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
             return clientFail();
         }
-        ClusterResponse response = transportClient.sendRequest(request);
+        ClusterResponse response = shard.transportClient.sendRequest(request);
+        return toTokenResult(response);
+    }
+
+    private void sendTokenRequestAsync(ServerShard shard, ClusterRequest request,
+                                       final TokenResultCallback callback) {
+        if (shard == null) {
+            RecordLog.warn(
+                "[DefaultClusterTokenClient] Client not created, please check your config for cluster client");
+            callback.onComplete(clientFail());
+            return;
+        }
+        sendRequestAsync(shard.transportClient, request, new ClusterResponseCallback() {
+            @Override
+            public void onResponse(ClusterResponse response) {
+                TokenResult result;
+                try {
+                    result = toTokenResult(response);
+                    logForResult(result);
+                } catch (Exception ex) {
+                    ClusterClientStatLogUtil.log(ex.getMessage());
+                    result = clientFail();
+                }
+                callback.onComplete(result);
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                ClusterClientStatLogUtil.log(ex.getMessage());
+                callback.onComplete(clientFail());
+            }
+        });
+    }
+
+    /**
+     * Send the request without blocking if supported by the transport client, otherwise send it synchronously
+     * and complete the callback in current thread.
+     */
+    private static void sendRequestAsync(ClusterTransportClient transportClient, ClusterRequest request,
+                                         ClusterResponseCallback callback) {
+        if (transportClient instanceof AsyncClusterTransportClient) {
+            ((AsyncClusterTransportClient)transportClient).sendRequestAsync(request, callback);
+            return;
+        }
+        ClusterResponse response;
+        try {
+            response = transportClient.sendRequest(request);
+        } catch (Throwable ex) {
+            callback.onFailure(ex);
+            return;
+        }
+        callback.onResponse(response);
+    }
+
+    private TokenResult toTokenResult(ClusterResponse response) {
         TokenResult result = new TokenResult(response.getStatus());
         if (response.getData() != null) {
             FlowTokenResponseData responseData = (FlowTokenResponseData)response.getData();
             result.setRemaining(responseData.getRemainingCount())
-                .setWaitInMs(responseData.getWaitInMs());
+                .setWaitInMs(responseData.getWaitInMs())
+                .setTokenId(responseData.getTokenId());
         }
         return result;
     }
 
+    private static class TokenResultFuture implements TokenResultCallback {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private volatile TokenResult result;
+
+        @Override
+        public void onComplete(TokenResult result) {
+            this.result = result;
+            latch.countDown();
+        }
+
+        TokenResult get(long timeoutMicros) {
+            try {
+                if (latch.await(timeoutMicros, TimeUnit.MICROSECONDS)) {
+                    return result;
+                }
+                ClusterClientStatLogUtil.log(ClusterErrorMessages.REQUEST_TIME_OUT);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+    }
+
+    /**
+     * Connection to a token server, with the batcher of the requests to the server.
+     */
+    private static class ServerShard {
+
+        private final TokenServerDescriptor descriptor;
+        private final ClusterTransportClient transportClient;
+        private final TokenRequestBatcher batcher;
+
+        ServerShard(TokenServerDescriptor descriptor, final ClusterTransportClient transportClient) {
+            this.descriptor = descriptor;
+            this.transportClient = transportClient;
+            this.batcher = new TokenRequestBatcher(new TokenRequestBatcher.BatchSender() {
+                @Override
+                public void send(ClusterRequest request, ClusterResponseCallback callback) {
+                    sendRequestAsync(transportClient, request, callback);
+                }
+            });
+        }
+    }
+
     private boolean notValidRequest(Long id, int count) {
         return id == null || id <= 0 || count <= 0;
     }
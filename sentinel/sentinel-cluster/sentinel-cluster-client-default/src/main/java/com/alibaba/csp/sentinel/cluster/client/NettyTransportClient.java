@@ -22,8 +22,9 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import com.alibaba.csp.sentinel.cluster.AsyncClusterTransportClient;
 import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
-import com.alibaba.csp.sentinel.cluster.ClusterTransportClient;
+import com.alibaba.csp.sentinel.cluster.ClusterResponseCallback;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyRequestEncoder;
 import com.alibaba.csp.sentinel.cluster.client.codec.netty.NettyResponseDecoder;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
@@ -41,6 +42,7 @@ import io.netty.bootstrap.Bootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.ChannelPipeline;
@@ -50,7 +52,9 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.channel.socket.nio.NioSocketChannel;
 import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.LengthFieldPrepender;
+import io.netty.util.concurrent.Future;
 import io.netty.util.concurrent.GenericFutureListener;
+import io.netty.util.concurrent.ScheduledFuture;
 
 /**
  * Netty transport client implementation for Sentinel cluster transport.
@@ -58,7 +62,7 @@ import io.netty.util.concurrent.GenericFutureListener;
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class NettyTransportClient implements ClusterTransportClient {
+public class NettyTransportClient implements AsyncClusterTransportClient {
 
     @SuppressWarnings("PMD.ThreadPoolCreationRule")
     private static final ScheduledExecutorService SCHEDULER = Executors.newScheduledThreadPool(1,
@@ -73,7 +77,12 @@ public class NettyTransportClient implements ClusterTransportClient {
     private NioEventLoopGroup eventLoopGroup;
     private TokenClientHandler clientHandler;
 
-    private final AtomicInteger idGenerator = new AtomicInteger(0);
+    /**
+     * Request IDs are shared among all transport clients (e.g. of sharded token servers),
+     * as the pending promises are held in {@link TokenClientPromiseHolder} by ID.
+     */
+    private static final AtomicInteger ID_GENERATOR = new AtomicInteger(0);
+
     private final AtomicInteger currentState = new AtomicInteger(ClientConstants.CLIENT_STATUS_OFF);
     private final AtomicInteger failConnectedTime = new AtomicInteger(0);
 
@@ -217,11 +226,12 @@ public class NettyTransportClient implements ClusterTransportClient {
         try {
             request.setId(xid);
 
-            channel.writeAndFlush(request);
-
+            // Register the promise before writing, otherwise a fast response might be dropped.
             ChannelPromise promise = channel.newPromise();
             TokenClientPromiseHolder.putPromise(xid, promise);
 
+            channel.writeAndFlush(request);
+
             if (!promise.await(ClusterClientConfigManager.getRequestTimeout())) {
                 throw new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT);
             }
@@ -238,33 +248,69 @@ public class NettyTransportClient implements ClusterTransportClient {
     }
 
     private int getCurrentId() {
-        if (idGenerator.get() > MAX_ID) {
-            idGenerator.set(0);
+        if (ID_GENERATOR.get() > MAX_ID) {
+            ID_GENERATOR.set(0);
         }
-        return idGenerator.incrementAndGet();
+        return ID_GENERATOR.incrementAndGet();
     }
 
-    /*public CompletableFuture<ClusterResponse> sendRequestAsync(ClusterRequest request) {
-        // Uncomment this when min target JDK is 1.8.
+    @Override
+    public void sendRequestAsync(ClusterRequest request, final ClusterResponseCallback callback) {
+        Channel channel = this.channel;
+        if (channel == null || !isReady()) {
+            callback.onFailure(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return;
+        }
         if (!validRequest(request)) {
-            return CompletableFuture.failedFuture(new IllegalArgumentException("Bad request"));
+            callback.onFailure(new SentinelClusterException(ClusterErrorMessages.BAD_REQUEST));
+            return;
         }
-        int xid = getCurrentId();
+        final int xid = getCurrentId();
         request.setId(xid);
 
-        CompletableFuture<ClusterResponse> future = new CompletableFuture<>();
-        channel.writeAndFlush(request)
-            .addListener(f -> {
-                if (f.isSuccess()) {
-                    future.complete(someResult);
-                } else if (f.cause() != null) {
-                    future.completeExceptionally(f.cause());
+        final ChannelPromise promise = channel.newPromise();
+        TokenClientPromiseHolder.putPromise(xid, promise);
+        // The promise is completed by the response, the timeout or the failure of writing, whichever comes first.
+        final ScheduledFuture<?> timeoutFuture;
+        try {
+            timeoutFuture = channel.eventLoop().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    promise.tryFailure(new SentinelClusterException(ClusterErrorMessages.REQUEST_TIME_OUT));
+                }
+            }, ClusterClientConfigManager.getRequestTimeout(), TimeUnit.MILLISECONDS);
+        } catch (Exception ex) {
+            // The event loop has been shut down.
+            TokenClientPromiseHolder.remove(xid);
+            callback.onFailure(new SentinelClusterException(ClusterErrorMessages.CLIENT_NOT_READY));
+            return;
+        }
+        promise.addListener(new GenericFutureListener<Future<Void>>() {
+            @Override
+            public void operationComplete(Future<Void> future) {
+                timeoutFuture.cancel(false);
+                SimpleEntry<ChannelPromise, ClusterResponse> entry = TokenClientPromiseHolder.getEntry(xid);
+                TokenClientPromiseHolder.remove(xid);
+                if (!future.isSuccess()) {
+                    callback.onFailure(future.cause());
+                } else if (entry == null || entry.getValue() == null) {
+                    // Should not go through here.
+                    callback.onFailure(new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
                 } else {
-                    future.cancel(false);
+                    callback.onResponse(entry.getValue());
                 }
-            });
-        return future;
-    }*/
+            }
+        });
+        channel.writeAndFlush(request).addListener(new ChannelFutureListener() {
+            @Override
+            public void operationComplete(ChannelFuture future) {
+                if (!future.isSuccess()) {
+                    promise.tryFailure(future.cause() != null ? future.cause()
+                        : new SentinelClusterException(ClusterErrorMessages.UNEXPECTED_STATUS));
+                }
+            }
+        });
+    }
 
     private static final int MAX_ID = 999_999_999;
 }
@@ -0,0 +1,377 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * Manager of the tokens leased from the token server for flow rules in lease mode. Token requests are served
+ * locally from the lease of the flow, which never waits for the token server: the next lease is prefetched
+ * asynchronously when the current one is running low or about to expire, and requests that the current lease
+ * cannot serve (e.g. before the first lease arrives) are not served from the lease, so that the caller could
+ * request the token server directly. The unused tokens of the previous lease are returned once the next lease
+ * arrives, or by the periodic reconciliation once the lease expired.
+ * </p>
+ * <p>
+ * The size of the next lease follows the demand observed in the previous lease (with some headroom),
+ * while the token server caps the lease against the global threshold.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class TokenLeaseManager {
+
+    /**
+     * Max count of tokens to lease at once.
+     */
+    public static final int MAX_LEASE_COUNT = 1 << 20;
+
+    private static final double LEASE_HEADROOM = 1.5;
+    /**
+     * The next lease is prefetched once the remaining tokens or the remaining validity drop below this ratio.
+     */
+    private static final double PREFETCH_RATIO = 0.2;
+    private static final long RECONCILE_INTERVAL_MS = 100;
+    /**
+     * Min interval between lease requests of a flow after a rejected or failed one.
+     */
+    private static final long RETRY_INTERVAL_MS = 100;
+    private static final int LEASE_REQUEST_THREADS = 4;
+
+    /**
+     * Scheduler of the periodic reconciliation only, which never sends requests itself.
+     */
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService LEASE_SCHEDULER = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-lease-task", true));
+
+    /**
+     * Bounded pool of the (blocking) lease requests. Renewals rejected by the pool are retried on later
+     * acquisitions, and unused tokens that fail to be returned are released by the token server once they
+     * leave its sliding window.
+     */
+    private static final ThreadPoolExecutor LEASE_REQUEST_EXECUTOR = newLeaseRequestExecutor();
+
+    private final LeaseSender sender;
+    private final Executor requestExecutor;
+    private final ConcurrentMap<Long, LeaseSlot> slots = new ConcurrentHashMap<>();
+    private final AtomicBoolean started = new AtomicBoolean(false);
+
+    public TokenLeaseManager(LeaseSender sender) {
+        this(sender, LEASE_REQUEST_EXECUTOR);
+    }
+
+    /**
+     * @param sender          sender of lease requests
+     * @param requestExecutor executor of the lease requests, including returning unused tokens
+     */
+    public TokenLeaseManager(LeaseSender sender, Executor requestExecutor) {
+        AssertUtil.notNull(sender, "sender cannot be null");
+        AssertUtil.notNull(requestExecutor, "requestExecutor cannot be null");
+        this.sender = sender;
+        this.requestExecutor = requestExecutor;
+    }
+
+    /**
+     * Start the periodic reconciliation, which returns the unused tokens of expired leases.
+     * It's cheap to call again once started.
+     */
+    public void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            LEASE_SCHEDULER.scheduleAtFixedRate(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        reconcile();
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[TokenLeaseManager] Unexpected error when returning expired leases", ex);
+                    }
+                }
+            }, RECONCILE_INTERVAL_MS, RECONCILE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Acquire tokens from the lease of the flow without blocking, and prefetch the next lease if the current
+     * one is running low, exhausted or expired.
+     *
+     * @param flowId       the flow ID
+     * @param acquireCount token count to acquire
+     * @return OK if acquired from the lease, or null if the current lease cannot serve the request
+     */
+    public TokenResult acquire(long flowId, int acquireCount) {
+        LeaseSlot slot = getOrCreateSlot(flowId);
+        long now = TimeUtil.currentTimeMillis();
+        Lease lease = slot.lease;
+        if (lease != null && lease.tryAcquire(acquireCount, now)) {
+            if (lease.shouldPrefetch(now)) {
+                renewAsync(flowId, slot, now);
+            }
+            return okResult(lease);
+        }
+        renewAsync(flowId, slot, now);
+        // The lease might have been renewed meanwhile.
+        lease = slot.lease;
+        if (lease != null && lease.tryAcquire(acquireCount, TimeUtil.currentTimeMillis())) {
+            return okResult(lease);
+        }
+        slot.missed.addAndGet(acquireCount);
+        return null;
+    }
+
+    private void renewAsync(final long flowId, final LeaseSlot slot, long now) {
+        if (now < slot.nextRenewTime || !slot.renewing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            requestExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        renew(flowId, slot);
+                    } catch (Throwable ex) {
+                        RecordLog.warn("[TokenLeaseManager] Unexpected error when renewing lease", ex);
+                    } finally {
+                        slot.renewing.set(false);
+                    }
+                }
+            });
+        } catch (Throwable ex) {
+            slot.renewing.set(false);
+            RecordLog.warn("[TokenLeaseManager] Failed to schedule lease renewal", ex);
+        }
+    }
+
+    private void renew(long flowId, LeaseSlot slot) {
+        long now = TimeUtil.currentTimeMillis();
+        Lease previous = slot.lease;
+        int missed = slot.missed.getAndSet(0);
+        int leaseCount = previous == null ? Math.max(Math.min(missed, MAX_LEASE_COUNT), 1)
+            : previous.nextLeaseCount(now, missed);
+
+        // Request without holding any lock, the current lease keeps serving meanwhile.
+        TokenResult result = sender.requestLease(flowId, leaseCount, 0, 0);
+        if (result == null || result.getStatus() != TokenResultStatus.OK || result.getRemaining() <= 0) {
+            slot.nextRenewTime = TimeUtil.currentTimeMillis() + RETRY_INTERVAL_MS;
+            return;
+        }
+        Lease lease = new Lease(now, result.getRemaining(), result.getWaitInMs());
+        Lease current;
+        int unused = 0;
+        synchronized (slot) {
+            current = slot.lease;
+            slot.lease = lease;
+            if (current != null) {
+                unused = current.drain();
+            }
+        }
+        if (unused > 0) {
+            // Already in the executor of lease requests.
+            int ageMs = (int)Math.min(TimeUtil.currentTimeMillis() - current.leaseTime, Integer.MAX_VALUE);
+            sender.requestLease(flowId, 0, unused, ageMs);
+        }
+    }
+
+    private void returnAsync(final long flowId, final int unused, final int ageMs) {
+        try {
+            requestExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    sender.requestLease(flowId, 0, unused, ageMs);
+                }
+            });
+        } catch (Throwable ex) {
+            // The returned tokens will be released when leaving the window of the server.
+            RecordLog.warn("[TokenLeaseManager] Failed to schedule returning unused tokens", ex);
+        }
+    }
+
+    /**
+     * Return the unused tokens of expired leases to the token server.
+     */
+    public void reconcile() {
+        long now = TimeUtil.currentTimeMillis();
+        for (Map.Entry<Long, LeaseSlot> entry : slots.entrySet()) {
+            LeaseSlot slot = entry.getValue();
+            Lease lease = slot.lease;
+            if (lease == null || !lease.isExpired(now)) {
+                continue;
+            }
+            int unused;
+            synchronized (slot) {
+                if (slot.lease != lease) {
+                    continue;
+                }
+                // Keep the drained lease, whose usage decides the size of next lease.
+                unused = lease.drain();
+            }
+            if (unused > 0) {
+                returnAsync(entry.getKey(), unused, (int)Math.min(now - lease.leaseTime, Integer.MAX_VALUE));
+            }
+        }
+    }
+
+    /**
+     * Drop all leases, e.g. when the token server changes.
+     */
+    public void clear() {
+        slots.clear();
+    }
+
+    /**
+     * @param flowId the flow ID
+     * @return remaining tokens in current lease of the flow, or -1 if no valid lease
+     */
+    int getLeasedRemaining(long flowId) {
+        LeaseSlot slot = slots.get(flowId);
+        Lease lease = slot == null ? null : slot.lease;
+        if (lease == null || lease.isExpired(TimeUtil.currentTimeMillis())) {
+            return -1;
+        }
+        return lease.remaining.get();
+    }
+
+    private LeaseSlot getOrCreateSlot(long flowId) {
+        LeaseSlot slot = slots.get(flowId);
+        if (slot == null) {
+            LeaseSlot newSlot = new LeaseSlot();
+            slot = slots.putIfAbsent(flowId, newSlot);
+            if (slot == null) {
+                slot = newSlot;
+            }
+        }
+        return slot;
+    }
+
+    private static ThreadPoolExecutor newLeaseRequestExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(LEASE_REQUEST_THREADS, LEASE_REQUEST_THREADS,
+            60, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1024),
+            new NamedThreadFactory("sentinel-cluster-lease-request", true), new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static TokenResult okResult(Lease lease) {
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(lease.remaining.get())
+            .setWaitInMs(0);
+    }
+
+    /**
+     * Sender of lease requests, which blocks until the response arrives.
+     */
+    public interface LeaseSender {
+
+        /**
+         * Lease tokens from the token server.
+         *
+         * @param flowId      the flow ID
+         * @param count       count of tokens to lease, 0 if only returning tokens
+         * @param returnCount count of unused tokens returned
+         * @param returnAgeMs time elapsed since the returned tokens were leased (in milliseconds)
+         * @return the result with the leased count as remaining count and the validity as wait time
+         */
+        TokenResult requestLease(long flowId, int count, int returnCount, int returnAgeMs);
+    }
+
+    private static class LeaseSlot {
+        private volatile Lease lease;
+        private final AtomicBoolean renewing = new AtomicBoolean(false);
+        private volatile long nextRenewTime = 0;
+        /**
+         * Count of tokens requested while the lease could not serve them, since the last renewal.
+         */
+        private final AtomicInteger missed = new AtomicInteger(0);
+    }
+
+    private static class Lease {
+
+        private final long leaseTime;
+        private final int count;
+        private final int validityMs;
+        private final AtomicInteger remaining;
+        /**
+         * Count of unused tokens drained, guarded by the slot.
+         */
+        private int drained = 0;
+
+        Lease(long leaseTime, int count, int validityMs) {
+            this.leaseTime = leaseTime;
+            this.count = count;
+            this.validityMs = validityMs;
+            this.remaining = new AtomicInteger(count);
+        }
+
+        boolean isExpired(long now) {
+            return now - leaseTime >= validityMs;
+        }
+
+        boolean tryAcquire(int acquireCount, long now) {
+            if (isExpired(now)) {
+                return false;
+            }
+            while (true) {
+                int current = remaining.get();
+                if (current < acquireCount) {
+                    return false;
+                }
+                if (remaining.compareAndSet(current, current - acquireCount)) {
+                    return true;
+                }
+            }
+        }
+
+        boolean shouldPrefetch(long now) {
+            return remaining.get() < count * PREFETCH_RATIO
+                || now - leaseTime >= validityMs * (1 - PREFETCH_RATIO);
+        }
+
+        int drain() {
+            int unused = remaining.getAndSet(0);
+            drained += unused;
+            return unused;
+        }
+
+        /**
+         * Estimate the demand in the validity of next lease from the usage of this lease, including the
+         * tokens requested while the lease could not serve them.
+         */
+        int nextLeaseCount(long now, int missed) {
+            int used = count - drained - remaining.get() + missed;
+            long elapsed = Math.max(Math.min(now - leaseTime, validityMs), 1);
+            double demand = used * LEASE_HEADROOM * validityMs / elapsed;
+            return (int)Math.max(Math.min(Math.ceil(demand), MAX_LEASE_COUNT), 1);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterResponseCallback;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultCallback;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.log.ClusterClientStatLogUtil;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Batcher of flow token requests. Concurrent requests within the linger time are sent in one
+ * {@link ClusterConstants#MSG_TYPE_FLOW_BATCH} frame, while non-prioritized requests of the same flow ID
+ * are coalesced into one aggregated acquire.
+ * </p>
+ * <p>
+ * The aggregated acquire is marked as partial, so the token server grants as many tokens as available
+ * rather than blocking it as a whole. The granted tokens are then split across the coalesced requests in order,
+ * and the requests which the rest of the granted tokens are not enough for are blocked.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class TokenRequestBatcher {
+
+    /**
+     * Max count of flow requests in a batch frame, bounded by the max frame length (1024 bytes) of the transport.
+     */
+    public static final int MAX_BATCH_SIZE = 64;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService FLUSH_SCHEDULER = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-batch-flush-task", true));
+
+    private final BatchSender sender;
+
+    private final Object lock = new Object();
+    private Map<Long, PendingAcquire> coalescedAcquires = new HashMap<>();
+    private List<PendingAcquire> pendingAcquires = new ArrayList<>();
+    private boolean flushScheduled = false;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    public TokenRequestBatcher(BatchSender sender) {
+        AssertUtil.notNull(sender, "sender cannot be null");
+        this.sender = sender;
+    }
+
+    /**
+     * Add a flow token request to current batch. The batch is sent after the linger time since its first request,
+     * or as soon as it's full.
+     *
+     * @param flowId       the flow ID
+     * @param acquireCount token count to acquire
+     * @param prioritized  whether the request is prioritized, which won't be coalesced
+     * @param callback     callback of the request
+     * @param lingerMicros max linger time in microseconds
+     */
+    public void add(long flowId, int acquireCount, boolean prioritized, TokenResultCallback callback,
+                    long lingerMicros) {
+        List<PendingAcquire> fullBatch = null;
+        boolean scheduleFlush = false;
+        synchronized (lock) {
+            PendingAcquire acquire = prioritized ? null : coalescedAcquires.get(flowId);
+            if (acquire == null) {
+                acquire = new PendingAcquire(flowId, prioritized);
+                pendingAcquires.add(acquire);
+                if (!prioritized) {
+                    coalescedAcquires.put(flowId, acquire);
+                }
+            }
+            acquire.add(acquireCount, callback);
+
+            if (pendingAcquires.size() >= MAX_BATCH_SIZE) {
+                fullBatch = drain();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush = true;
+            }
+        }
+        if (fullBatch != null) {
+            send(fullBatch);
+        } else if (scheduleFlush) {
+            FLUSH_SCHEDULER.schedule(flushTask, lingerMicros, TimeUnit.MICROSECONDS);
+        }
+    }
+
+    /**
+     * Send current batch immediately.
+     */
+    public void flush() {
+        List<PendingAcquire> batch;
+        synchronized (lock) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    private List<PendingAcquire> drain() {
+        List<PendingAcquire> batch = pendingAcquires;
+        if (batch.isEmpty()) {
+            flushScheduled = false;
+            return batch;
+        }
+        this.pendingAcquires = new ArrayList<>();
+        this.coalescedAcquires = new HashMap<>();
+        this.flushScheduled = false;
+        return batch;
+    }
+
+    private void send(final List<PendingAcquire> batch) {
+        BatchFlowRequestData data = new BatchFlowRequestData();
+        for (PendingAcquire acquire : batch) {
+            data.addRequest(new FlowRequestData().setFlowId(acquire.flowId)
+                .setCount(acquire.count)
+                .setPriority(acquire.prioritized), acquire.isPartial());
+        }
+        ClusterRequest<BatchFlowRequestData> request = new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW_BATCH,
+            data);
+        try {
+            sender.send(request, new ClusterResponseCallback() {
+                @Override
+                public void onResponse(ClusterResponse response) {
+                    complete(batch, response);
+                }
+
+                @Override
+                public void onFailure(Throwable ex) {
+                    ClusterClientStatLogUtil.log(ex.getMessage());
+                    completeAll(batch, new TokenResult(TokenResultStatus.FAIL));
+                }
+            });
+        } catch (Throwable ex) {
+            RecordLog.warn("[TokenRequestBatcher] Failed to send batch flow request", ex);
+            completeAll(batch, new TokenResult(TokenResultStatus.FAIL));
+        }
+    }
+
+    private void complete(List<PendingAcquire> batch, ClusterResponse response) {
+        if (response.getStatus() != ClusterConstants.RESPONSE_STATUS_OK
+            || !(response.getData() instanceof BatchFlowTokenResponseData)) {
+            // e.g. the server does not support batch frames.
+            ClusterClientStatLogUtil.log("batch|bad_response");
+            completeAll(batch, new TokenResult(TokenResultStatus.FAIL));
+            return;
+        }
+        List<TokenResult> results = ((BatchFlowTokenResponseData)response.getData()).getResults();
+        for (int i = 0; i < batch.size(); i++) {
+            TokenResult result = i < results.size() ? results.get(i) : new TokenResult(TokenResultStatus.FAIL);
+            DefaultClusterTokenClient.logForResult(result);
+            batch.get(i).complete(result);
+        }
+    }
+
+    private void completeAll(List<PendingAcquire> batch, TokenResult result) {
+        for (PendingAcquire acquire : batch) {
+            acquire.complete(result);
+        }
+    }
+
+    /**
+     * Sender of batch requests, usually the current transport client.
+     */
+    public interface BatchSender {
+
+        /**
+         * Send the batch request without blocking.
+         *
+         * @param request  the batch request
+         * @param callback callback of the request
+         */
+        void send(ClusterRequest request, ClusterResponseCallback callback);
+    }
+
+    private static class PendingAcquire {
+
+        private final long flowId;
+        private final boolean prioritized;
+        private int count;
+        private final List<Integer> acquireCounts = new ArrayList<>(1);
+        private final List<TokenResultCallback> callbacks = new ArrayList<>(1);
+
+        PendingAcquire(long flowId, boolean prioritized) {
+            this.flowId = flowId;
+            this.prioritized = prioritized;
+        }
+
+        void add(int acquireCount, TokenResultCallback callback) {
+            this.count += acquireCount;
+            this.acquireCounts.add(acquireCount);
+            this.callbacks.add(callback);
+        }
+
+        /**
+         * @return whether the acquire is aggregated from several requests, which could be granted partially
+         */
+        boolean isPartial() {
+            return callbacks.size() > 1;
+        }
+
+        void complete(TokenResult result) {
+            if (!isPartial() || result.getStatus() != TokenResultStatus.OK) {
+                for (TokenResultCallback callback : callbacks) {
+                    complete(callback, result);
+                }
+                return;
+            }
+            // The remaining count is the count of granted tokens.
+            int granted = result.getRemaining();
+            for (int i = 0; i < callbacks.size(); i++) {
+                int acquireCount = acquireCounts.get(i);
+                if (acquireCount <= granted) {
+                    granted -= acquireCount;
+                    complete(callbacks.get(i), new TokenResult(TokenResultStatus.OK).setRemaining(granted));
+                } else {
+                    complete(callbacks.get(i), new TokenResult(TokenResultStatus.BLOCKED));
+                }
+            }
+        }
+
+        private static void complete(TokenResultCallback callback, TokenResult result) {
+            try {
+                callback.onComplete(result);
+            } catch (Throwable ex) {
+                RecordLog.warn("[TokenRequestBatcher] Unexpected error in token result callback", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client.codec.data;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityWriter;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Writer for {@link BatchFlowRequestData}. The layout:
+ * </p>
+ * <pre>
+ * | size (2) | flow ID (8) | count (4) | flags (1) | ... (repeated for each request)
+ * </pre>
+ * <p>
+ * where the flags are {@link ClusterConstants#BATCH_FLAG_PRIORITY} and
+ * {@link ClusterConstants#BATCH_FLAG_PARTIAL}.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class BatchFlowRequestDataWriter implements EntityWriter<BatchFlowRequestData, ByteBuf> {
+
+    @Override
+    public void writeTo(BatchFlowRequestData entity, ByteBuf target) {
+        List<FlowRequestData> requests = entity.getRequests();
+        target.writeShort(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            FlowRequestData request = requests.get(i);
+            int flags = request.isPriority() ? ClusterConstants.BATCH_FLAG_PRIORITY : 0;
+            if (entity.isPartial(i)) {
+                flags |= ClusterConstants.BATCH_FLAG_PARTIAL;
+            }
+            target.writeLong(request.getFlowId());
+            target.writeInt(request.getCount());
+            target.writeByte(flags);
+        }
+    }
+}
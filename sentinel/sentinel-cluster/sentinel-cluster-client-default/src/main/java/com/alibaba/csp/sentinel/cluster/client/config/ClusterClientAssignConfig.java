@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.client.config;
 
+import java.util.List;
+
 /**
  * @author Eric Zhao
  * @since 1.4.1
@@ -24,6 +26,15 @@ public class ClusterClientAssignConfig {
     private String serverHost;
     private Integer serverPort;
 
+    /**
+     * Addresses ({@code host:port}) of the token servers sharing the flow IDs by consistent hashing.
+     * If present, the client connects to all of them rather than the server of {@code serverHost}
+     * and {@code serverPort}.
+     *
+     * @since 1.8.0
+     */
+    private List<String> servers;
+
     public ClusterClientAssignConfig() {}
 
     public ClusterClientAssignConfig(String serverHost, Integer serverPort) {
@@ -49,11 +60,21 @@ public class ClusterClientAssignConfig {
         return this;
     }
 
+    public List<String> getServers() {
+        return servers;
+    }
+
+    public ClusterClientAssignConfig setServers(List<String> servers) {
+        this.servers = servers;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientAssignConfig{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", servers=" + servers +
             '}';
     }
 }
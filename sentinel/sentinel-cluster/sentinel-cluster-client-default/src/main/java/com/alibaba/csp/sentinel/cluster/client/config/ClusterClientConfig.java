@@ -22,6 +22,12 @@ package com.alibaba.csp.sentinel.cluster.client.config;
 public class ClusterClientConfig {
 
     private Integer requestTimeout;
+    /**
+     * Max time in microseconds to wait for concurrent flow requests to coalesce into one batch frame.
+     * Batching is disabled if absent or not positive. It requires the token server to support
+     * batch frames (since 1.8.0).
+     */
+    private Integer batchLingerMicros;
 
     public Integer getRequestTimeout() {
         return requestTimeout;
@@ -32,10 +38,20 @@ public class ClusterClientConfig {
         return this;
     }
 
+    public Integer getBatchLingerMicros() {
+        return batchLingerMicros;
+    }
+
+    public ClusterClientConfig setBatchLingerMicros(Integer batchLingerMicros) {
+        this.batchLingerMicros = batchLingerMicros;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "ClusterClientConfig{" +
             "requestTimeout=" + requestTimeout +
+            ", batchLingerMicros=" + batchLingerMicros +
             '}';
     }
 }
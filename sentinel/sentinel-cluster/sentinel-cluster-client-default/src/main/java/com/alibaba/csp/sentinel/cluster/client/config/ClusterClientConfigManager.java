@@ -16,9 +16,11 @@
 package com.alibaba.csp.sentinel.cluster.client.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenServerDescriptor;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
@@ -37,9 +39,11 @@ public final class ClusterClientConfigManager {
      */
     private static volatile String serverHost = null;
     private static volatile int serverPort = ClusterConstants.DEFAULT_CLUSTER_SERVER_PORT;
+    private static volatile List<String> servers = Collections.emptyList();
 
     private static volatile int requestTimeout = ClusterConstants.DEFAULT_REQUEST_TIMEOUT;
     private static volatile int connectTimeout = ClusterConstants.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    private static volatile int batchLingerMicros = 0;
 
     private static final PropertyListener<ClusterClientConfig> CONFIG_PROPERTY_LISTENER
         = new ClientConfigPropertyListener();
@@ -127,7 +131,12 @@ public final class ClusterClientConfigManager {
                     "[ClusterClientConfigManager] Invalid cluster client assign config, ignoring: " + config);
                 return;
             }
-            if (serverPort == config.getServerPort() && config.getServerHost().equals(serverHost)) {
+            if (isShardedAssignConfig(config)) {
+                if (servers.equals(config.getServers())) {
+                    return;
+                }
+            } else if (servers.isEmpty() && serverPort == config.getServerPort()
+                && config.getServerHost().equals(serverHost)) {
                 return;
             }
 
@@ -170,26 +179,106 @@ public final class ClusterClientConfigManager {
         if (config.getRequestTimeout() != requestTimeout) {
             requestTimeout = config.getRequestTimeout();
         }
+        Integer lingerMicros = config.getBatchLingerMicros();
+        batchLingerMicros = lingerMicros == null ? 0 : Math.max(lingerMicros, 0);
     }
 
     private static void updateServerAssignment(/*@Valid*/ ClusterClientAssignConfig config) {
-        String host = config.getServerHost();
-        int port = config.getServerPort();
-
         for (ServerChangeObserver observer : SERVER_CHANGE_OBSERVERS) {
             observer.onRemoteServerChange(config);
         }
 
-        serverHost = host;
-        serverPort = port;
+        if (isShardedAssignConfig(config)) {
+            servers = Collections.unmodifiableList(new ArrayList<>(config.getServers()));
+            TokenServerDescriptor first = parseServerAddress(config.getServers().get(0));
+            serverHost = first.getHost();
+            serverPort = first.getPort();
+        } else {
+            servers = Collections.emptyList();
+            serverHost = config.getServerHost();
+            serverPort = config.getServerPort();
+        }
     }
 
     public static boolean isValidAssignConfig(ClusterClientAssignConfig config) {
+        if (isShardedAssignConfig(config)) {
+            for (String address : config.getServers()) {
+                if (parseServerAddress(address) == null) {
+                    return false;
+                }
+            }
+            return true;
+        }
         return config != null && StringUtil.isNotBlank(config.getServerHost())
+            && config.getServerPort() != null
             && config.getServerPort() > 0
             && config.getServerPort() <= 65535;
     }
 
+    private static boolean isShardedAssignConfig(ClusterClientAssignConfig config) {
+        return config != null && config.getServers() != null && !config.getServers().isEmpty();
+    }
+
+    /**
+     * Resolve the token servers of provided assignment config.
+     *
+     * @param config a valid assignment config
+     * @return the token servers sharing the flow IDs, or the only token server if not sharded
+     * @since 1.8.0
+     */
+    public static List<TokenServerDescriptor> resolveServers(/*@Valid*/ ClusterClientAssignConfig config) {
+        List<TokenServerDescriptor> list = new ArrayList<>();
+        if (isShardedAssignConfig(config)) {
+            for (String address : config.getServers()) {
+                TokenServerDescriptor descriptor = parseServerAddress(address);
+                if (descriptor != null) {
+                    list.add(descriptor);
+                }
+            }
+        } else if (config != null && StringUtil.isNotBlank(config.getServerHost()) && config.getServerPort() != null
+            && config.getServerPort() > 0) {
+            list.add(new TokenServerDescriptor(config.getServerHost(), config.getServerPort()));
+        }
+        return list;
+    }
+
+    /**
+     * Parse the token server address in {@code host:port} format.
+     *
+     * @param address the address of token server
+     * @return descriptor of the token server, or null if the address is invalid
+     * @since 1.8.0
+     */
+    public static TokenServerDescriptor parseServerAddress(String address) {
+        if (StringUtil.isBlank(address)) {
+            return null;
+        }
+        int idx = address.lastIndexOf(':');
+        if (idx <= 0 || idx == address.length() - 1) {
+            return null;
+        }
+        try {
+            int port = Integer.parseInt(address.substring(idx + 1).trim());
+            if (port <= 0 || port > 65535) {
+                return null;
+            }
+            return new TokenServerDescriptor(address.substring(0, idx).trim(), port);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Get the key of a token server on the consistent hash ring, which is the same as the token servers use.
+     *
+     * @param descriptor the token server
+     * @return the key in {@code host:port} format
+     * @since 1.8.0
+     */
+    public static String serverKey(TokenServerDescriptor descriptor) {
+        return descriptor.getHost() + ":" + descriptor.getPort();
+    }
+
     public static boolean isValidClientConfig(ClusterClientConfig config) {
         return config != null && config.getRequestTimeout() > 0;
     }
@@ -202,6 +291,22 @@ public final class ClusterClientConfigManager {
         return serverPort;
     }
 
+    /**
+     * @return addresses of the token servers sharing the flow IDs, or empty if connecting to a single server
+     * @since 1.8.0
+     */
+    public static List<String> getServers() {
+        return servers;
+    }
+
+    /**
+     * @return current assignment config
+     * @since 1.8.0
+     */
+    public static ClusterClientAssignConfig getAssignConfig() {
+        return new ClusterClientAssignConfig(serverHost, serverPort).setServers(servers);
+    }
+
     public static int getRequestTimeout() {
         return requestTimeout;
     }
@@ -210,5 +315,13 @@ public final class ClusterClientConfigManager {
         return connectTimeout;
     }
 
+    /**
+     * @return max linger time of batched flow requests in microseconds, or 0 if batching is disabled
+     * @since 1.8.0
+     */
+    public static int getBatchLingerMicros() {
+        return batchLingerMicros;
+    }
+
     private ClusterClientConfigManager() {}
 }
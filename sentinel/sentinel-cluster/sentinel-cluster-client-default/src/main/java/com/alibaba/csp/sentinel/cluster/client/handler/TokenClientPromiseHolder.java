@@ -54,8 +54,8 @@ public final class TokenClientPromiseHolder {
                 return false;
             }
             entry.setValue(response);
-            promise.setSuccess();
-            return true;
+            // The promise might have been failed by timeout concurrently.
+            return promise.trySuccess();
         }
         return false;
     }
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.command.entity;
 
+import java.util.List;
+
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientAssignConfig;
 import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
 
@@ -26,10 +28,12 @@ public class ClusterClientStateEntity {
 
     private String serverHost;
     private Integer serverPort;
+    private List<String> servers;
 
     private Integer clientState;
 
     private Integer requestTimeout;
+    private Integer batchLingerMicros;
 
     public String getServerHost() {
         return serverHost;
@@ -49,6 +53,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public List<String> getServers() {
+        return servers;
+    }
+
+    public ClusterClientStateEntity setServers(List<String> servers) {
+        this.servers = servers;
+        return this;
+    }
+
     public Integer getRequestTimeout() {
         return requestTimeout;
     }
@@ -58,6 +71,15 @@ public class ClusterClientStateEntity {
         return this;
     }
 
+    public Integer getBatchLingerMicros() {
+        return batchLingerMicros;
+    }
+
+    public ClusterClientStateEntity setBatchLingerMicros(Integer batchLingerMicros) {
+        this.batchLingerMicros = batchLingerMicros;
+        return this;
+    }
+
     public Integer getClientState() {
         return clientState;
     }
@@ -68,13 +90,15 @@ public class ClusterClientStateEntity {
     }
 
     public ClusterClientConfig toClientConfig() {
-        return new ClusterClientConfig().setRequestTimeout(requestTimeout);
+        return new ClusterClientConfig().setRequestTimeout(requestTimeout)
+            .setBatchLingerMicros(batchLingerMicros);
     }
 
     public ClusterClientAssignConfig toAssignConfig() {
         return new ClusterClientAssignConfig()
             .setServerHost(serverHost)
-            .setServerPort(serverPort);
+            .setServerPort(serverPort)
+            .setServers(servers);
     }
 
     @Override
@@ -82,8 +106,10 @@ public class ClusterClientStateEntity {
         return "ClusterClientStateEntity{" +
             "serverHost='" + serverHost + '\'' +
             ", serverPort=" + serverPort +
+            ", servers=" + servers +
             ", clientState=" + clientState +
             ", requestTimeout=" + requestTimeout +
+            ", batchLingerMicros=" + batchLingerMicros +
             '}';
     }
 }
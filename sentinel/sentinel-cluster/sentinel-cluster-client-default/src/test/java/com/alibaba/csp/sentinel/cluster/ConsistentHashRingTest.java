@@ -0,0 +1,101 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ConsistentHashRing}.
+ */
+public class ConsistentHashRingTest {
+
+    private static final int FLOW_COUNT = 10000;
+
+    @Test
+    public void testEmptyRing() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(Collections.<String, String>emptyMap());
+        assertTrue(ring.isEmpty());
+        assertNull(ring.route(1L));
+        assertNull(ring.route(1L, "a"));
+    }
+
+    @Test
+    public void testRouteEvenlyAndStably() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("s1:18730", "s2:18730", "s3:18730"));
+        // The order of nodes does not matter.
+        ConsistentHashRing<String> reordered = new ConsistentHashRing<>(nodes("s3:18730", "s1:18730", "s2:18730"));
+        Map<String, Integer> counts = new HashMap<>();
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            String owner = ring.route(flowId);
+            assertEquals(owner, reordered.route(flowId));
+            Integer count = counts.get(owner);
+            counts.put(owner, count == null ? 1 : count + 1);
+        }
+        assertEquals(3, counts.size());
+        for (int count : counts.values()) {
+            assertTrue("unbalanced: " + counts, count > FLOW_COUNT / 3 * 0.75 && count < FLOW_COUNT / 3 * 1.25);
+        }
+    }
+
+    @Test
+    public void testRebalanceOnlyMovesKeysOfChangedNode() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("s1:18730", "s2:18730", "s3:18730"));
+        ConsistentHashRing<String> joined = new ConsistentHashRing<>(
+            nodes("s1:18730", "s2:18730", "s3:18730", "s4:18730"));
+        ConsistentHashRing<String> left = new ConsistentHashRing<>(nodes("s1:18730", "s3:18730"));
+        int moved = 0;
+        for (long flowId = 1; flowId <= FLOW_COUNT; flowId++) {
+            String owner = ring.route(flowId);
+            String newOwner = joined.route(flowId);
+            if (!owner.equals(newOwner)) {
+                // Only moved to the joining node.
+                assertEquals("s4:18730", newOwner);
+                moved++;
+            }
+            if (!"s2:18730".equals(owner)) {
+                assertEquals(owner, left.route(flowId));
+            }
+        }
+        assertTrue(moved > FLOW_COUNT / 4 * 0.75 && moved < FLOW_COUNT / 4 * 1.25);
+    }
+
+    @Test
+    public void testRouteParams() {
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes("s1:18730", "s2:18730"));
+        assertEquals(ring.route(1L), ring.route(1L, null));
+        boolean spread = false;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(ring.route(1L, "param" + i), ring.route(1L, "param" + i));
+            spread |= !ring.route(1L, "param" + i).equals(ring.route(1L, "param0"));
+        }
+        assertTrue(spread);
+    }
+
+    private Map<String, String> nodes(String... keys) {
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String key : keys) {
+            nodes.put(key, key);
+        }
+        return nodes;
+    }
+}
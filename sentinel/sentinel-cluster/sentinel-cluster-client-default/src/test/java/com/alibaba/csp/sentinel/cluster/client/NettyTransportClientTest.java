@@ -0,0 +1,174 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterErrorMessages;
+import com.alibaba.csp.sentinel.cluster.ClusterResponseCallback;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfig;
+import com.alibaba.csp.sentinel.cluster.client.config.ClusterClientConfigManager;
+import com.alibaba.csp.sentinel.cluster.client.init.DefaultClusterClientInitFunc;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link NettyTransportClient}, against a fake token server which only responds
+ * to the flow requests of flow ID 1.
+ */
+public class NettyTransportClientTest {
+
+    private ServerSocket serverSocket;
+    private NettyTransportClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        new DefaultClusterClientInitFunc().init();
+        ClusterClientConfigManager.applyNewConfig(new ClusterClientConfig().setRequestTimeout(500));
+
+        serverSocket = new ServerSocket(0);
+        Thread serverThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                serve();
+            }
+        }, "fake-token-server");
+        serverThread.setDaemon(true);
+        serverThread.start();
+
+        client = new NettyTransportClient("127.0.0.1", serverSocket.getLocalPort());
+        client.start();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!client.isReady() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(client.isReady()).isTrue();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        client.stop();
+        serverSocket.close();
+        ClusterClientConfigManager.applyNewConfig(
+            new ClusterClientConfig().setRequestTimeout(ClusterConstants.DEFAULT_REQUEST_TIMEOUT));
+    }
+
+    @Test
+    public void testSendRequestAsync() throws Exception {
+        ResultCallback callback = new ResultCallback();
+        client.sendRequestAsync(flowRequest(1), callback);
+        assertThat(callback.latch.await(2, TimeUnit.SECONDS)).isTrue();
+
+        ClusterResponse response = callback.response.get();
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(ClusterConstants.RESPONSE_STATUS_OK);
+        assertThat(((FlowTokenResponseData)response.getData()).getRemainingCount()).isEqualTo(5);
+
+        // The synchronous request still works.
+        response = client.sendRequest(flowRequest(1));
+        assertThat(((FlowTokenResponseData)response.getData()).getRemainingCount()).isEqualTo(5);
+    }
+
+    @Test
+    public void testSendRequestAsyncTimeout() throws Exception {
+        ResultCallback callback = new ResultCallback();
+        long start = System.currentTimeMillis();
+        client.sendRequestAsync(flowRequest(2), callback);
+        // Current thread is not blocked.
+        assertThat(System.currentTimeMillis() - start).isLessThan(500);
+
+        assertThat(callback.latch.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(callback.response.get()).isNull();
+        assertThat(callback.failure.get()).hasMessage(ClusterErrorMessages.REQUEST_TIME_OUT);
+    }
+
+    @Test
+    public void testSendRequestAsyncNotReady() throws Exception {
+        client.stop();
+        ResultCallback callback = new ResultCallback();
+        client.sendRequestAsync(flowRequest(1), callback);
+        assertThat(callback.latch.getCount()).isZero();
+        assertThat(callback.failure.get()).hasMessage(ClusterErrorMessages.CLIENT_NOT_READY);
+    }
+
+    private ClusterRequest<FlowRequestData> flowRequest(long flowId) {
+        FlowRequestData data = new FlowRequestData().setFlowId(flowId).setCount(1);
+        return new ClusterRequest<>(ClusterConstants.MSG_TYPE_FLOW, data);
+    }
+
+    private void serve() {
+        try (Socket socket = serverSocket.accept()) {
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+            while (true) {
+                byte[] frame = new byte[in.readUnsignedShort()];
+                in.readFully(frame);
+                ByteBuffer body = ByteBuffer.wrap(frame);
+                int xid = body.getInt();
+                int type = body.get();
+                if (type != ClusterConstants.MSG_TYPE_FLOW || body.getLong() != 1) {
+                    continue;
+                }
+                // xid(4) | type(1) | status(1) | remaining(4) | waitInMs(4)
+                out.writeShort(14);
+                out.writeInt(xid);
+                out.writeByte(type);
+                out.writeByte(ClusterConstants.RESPONSE_STATUS_OK);
+                out.writeInt(5);
+                out.writeInt(0);
+                out.flush();
+            }
+        } catch (IOException ex) {
+            // Closed.
+        }
+    }
+
+    private static class ResultCallback implements ClusterResponseCallback {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private final AtomicReference<ClusterResponse> response = new AtomicReference<>();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        @Override
+        public void onResponse(ClusterResponse response) {
+            this.response.set(response);
+            latch.countDown();
+        }
+
+        @Override
+        public void onFailure(Throwable ex) {
+            failure.set(ex);
+            latch.countDown();
+        }
+    }
+}
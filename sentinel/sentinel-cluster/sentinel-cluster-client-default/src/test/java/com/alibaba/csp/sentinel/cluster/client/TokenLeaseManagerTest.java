@@ -0,0 +1,162 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link TokenLeaseManager}.
+ */
+public class TokenLeaseManagerTest {
+
+    private static final int VALIDITY_MS = 100;
+
+    private final List<int[]> leaseRequests = new ArrayList<>();
+    private final List<Runnable> pendingRenewals = new ArrayList<>();
+    private boolean renewInline = true;
+    private int grantLimit = Integer.MAX_VALUE;
+    private int grantStatus = TokenResultStatus.OK;
+
+    private final TokenLeaseManager leaseManager = new TokenLeaseManager(new TokenLeaseManager.LeaseSender() {
+        @Override
+        public TokenResult requestLease(long flowId, int count, int returnCount, int returnAgeMs) {
+            leaseRequests.add(new int[] {count, returnCount});
+            if (grantStatus != TokenResultStatus.OK) {
+                return new TokenResult(grantStatus);
+            }
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining(Math.min(count, grantLimit))
+                .setWaitInMs(VALIDITY_MS);
+        }
+    }, new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            if (renewInline) {
+                command.run();
+            } else {
+                pendingRenewals.add(command);
+            }
+        }
+    });
+
+    @Test
+    public void testServeFromLease() {
+        grantLimit = 10;
+        assertThat(leaseManager.acquire(1L, 1).getStatus()).isEqualTo(TokenResultStatus.OK);
+        // The first lease only covers the first request.
+        assertThat(leaseRequests).hasSize(1);
+        assertThat(leaseRequests.get(0)).containsExactly(1, 0);
+
+        // Exhausted, so the next lease grows with the demand.
+        assertThat(leaseManager.acquire(1L, 1).getStatus()).isEqualTo(TokenResultStatus.OK);
+        assertThat(leaseRequests).hasSize(2);
+        assertThat(leaseRequests.get(1)[0]).isGreaterThan(1);
+
+        for (int i = 0; i < 7; i++) {
+            assertThat(leaseManager.acquire(1L, 1).getStatus()).isEqualTo(TokenResultStatus.OK);
+        }
+        assertThat(leaseRequests).hasSize(2);
+        assertThat(leaseManager.getLeasedRemaining(1L)).isEqualTo(2);
+
+        // Running low, so the next lease is prefetched, and the unused token of current lease is returned.
+        assertThat(leaseManager.acquire(1L, 1).getStatus()).isEqualTo(TokenResultStatus.OK);
+        assertThat(leaseRequests).hasSize(4);
+        assertThat(leaseRequests.get(2)[1]).isZero();
+        assertThat(leaseRequests.get(3)).containsExactly(0, 1);
+        assertThat(leaseManager.getLeasedRemaining(1L)).isEqualTo(10);
+    }
+
+    @Test
+    public void testNotWaitForLease() {
+        renewInline = false;
+        // Not served until the lease arrives, so the caller could request the token server instead.
+        assertThat(leaseManager.acquire(2L, 1)).isNull();
+        assertThat(leaseManager.acquire(2L, 2)).isNull();
+        assertThat(leaseRequests).isEmpty();
+        assertThat(pendingRenewals).hasSize(1);
+
+        pendingRenewals.get(0).run();
+        // The lease covers the demand observed meanwhile.
+        assertThat(leaseRequests).hasSize(1);
+        assertThat(leaseRequests.get(0)).containsExactly(3, 0);
+        assertThat(leaseManager.acquire(2L, 3).getStatus()).isEqualTo(TokenResultStatus.OK);
+    }
+
+    @Test
+    public void testReturnUnusedTokensOfExpiredLease() throws Exception {
+        grantLimit = 10;
+        leaseManager.acquire(3L, 1);
+        leaseManager.acquire(3L, 1);
+        assertThat(leaseRequests).hasSize(2);
+        assertThat(leaseManager.getLeasedRemaining(3L)).isEqualTo(9);
+
+        Thread.sleep(VALIDITY_MS + 20);
+        assertThat(leaseManager.getLeasedRemaining(3L)).isEqualTo(-1);
+        leaseManager.reconcile();
+        assertThat(leaseRequests).hasSize(3);
+        assertThat(leaseRequests.get(2)).containsExactly(0, 9);
+
+        // Returned only once.
+        leaseManager.reconcile();
+        assertThat(leaseRequests).hasSize(3);
+        leaseManager.acquire(3L, 1);
+        assertThat(leaseRequests).hasSize(4);
+        assertThat(leaseRequests.get(3)[1]).isZero();
+    }
+
+    @Test
+    public void testReturnInRequestExecutor() throws Exception {
+        grantLimit = 10;
+        leaseManager.acquire(5L, 1);
+        leaseManager.acquire(5L, 1);
+        assertThat(leaseRequests).hasSize(2);
+
+        Thread.sleep(VALIDITY_MS + 20);
+        renewInline = false;
+        // The reconciliation never sends requests itself.
+        leaseManager.reconcile();
+        assertThat(leaseRequests).hasSize(2);
+        assertThat(pendingRenewals).hasSize(1);
+        pendingRenewals.get(0).run();
+        assertThat(leaseRequests).hasSize(3);
+        assertThat(leaseRequests.get(2)).containsExactly(0, 9);
+    }
+
+    @Test
+    public void testLeaseRejected() throws Exception {
+        grantLimit = 0;
+        assertThat(leaseManager.acquire(4L, 1)).isNull();
+        assertThat(leaseRequests).hasSize(1);
+        // Not retried immediately.
+        assertThat(leaseManager.acquire(4L, 1)).isNull();
+        assertThat(leaseRequests).hasSize(1);
+
+        Thread.sleep(120);
+        grantStatus = TokenResultStatus.FAIL;
+        assertThat(leaseManager.acquire(4L, 1)).isNull();
+        assertThat(leaseRequests).hasSize(2);
+        assertThat(leaseManager.getLeasedRemaining(4L)).isEqualTo(-1);
+    }
+}
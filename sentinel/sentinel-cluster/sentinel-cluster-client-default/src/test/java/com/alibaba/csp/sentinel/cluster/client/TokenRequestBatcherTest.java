@@ -0,0 +1,185 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ClusterResponseCallback;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultCallback;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test cases for {@link TokenRequestBatcher}.
+ */
+public class TokenRequestBatcherTest {
+
+    private static final long LONG_LINGER_MICROS = TimeUnit.SECONDS.toMicros(10);
+
+    private final List<ClusterRequest> sentRequests = new CopyOnWriteArrayList<>();
+    private final List<ClusterResponseCallback> sentCallbacks = new CopyOnWriteArrayList<>();
+    private final CountDownLatch sentLatch = new CountDownLatch(1);
+
+    private final TokenRequestBatcher batcher = new TokenRequestBatcher(new TokenRequestBatcher.BatchSender() {
+        @Override
+        public void send(ClusterRequest request, ClusterResponseCallback callback) {
+            sentRequests.add(request);
+            sentCallbacks.add(callback);
+            sentLatch.countDown();
+        }
+    });
+
+    @Test
+    public void testCoalesceRequestsOfSameFlow() {
+        ResultCollector collector = new ResultCollector();
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.add(2L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.add(1L, 2, false, collector, LONG_LINGER_MICROS);
+        // Prioritized requests are not coalesced.
+        batcher.add(1L, 1, true, collector, LONG_LINGER_MICROS);
+        assertThat(sentRequests).isEmpty();
+
+        batcher.flush();
+        assertThat(sentRequests).hasSize(1);
+        ClusterRequest request = sentRequests.get(0);
+        assertThat(request.getType()).isEqualTo(ClusterConstants.MSG_TYPE_FLOW_BATCH);
+        BatchFlowRequestData data = (BatchFlowRequestData)request.getData();
+        List<FlowRequestData> requests = data.getRequests();
+        assertThat(requests).hasSize(3);
+        assertFlowRequest(requests.get(0), 1L, 3, false);
+        assertFlowRequest(requests.get(1), 2L, 1, false);
+        assertFlowRequest(requests.get(2), 1L, 1, true);
+        // Only the aggregated acquire could be granted partially.
+        assertThat(data.isPartial(0)).isTrue();
+        assertThat(data.isPartial(1)).isFalse();
+        assertThat(data.isPartial(2)).isFalse();
+
+        BatchFlowTokenResponseData responseData = new BatchFlowTokenResponseData()
+            .addResult(new TokenResult(TokenResultStatus.OK).setRemaining(3))
+            .addResult(new TokenResult(TokenResultStatus.BLOCKED))
+            .addResult(new TokenResult(TokenResultStatus.SHOULD_WAIT).setWaitInMs(20));
+        sentCallbacks.get(0).onResponse(new ClusterResponse<>(request.getId(), request.getType(),
+            ClusterConstants.RESPONSE_STATUS_OK, responseData));
+        assertThat(collector.statuses).containsExactly(TokenResultStatus.OK, TokenResultStatus.OK,
+            TokenResultStatus.BLOCKED, TokenResultStatus.SHOULD_WAIT);
+
+        // Nothing left to send.
+        batcher.flush();
+        assertThat(sentRequests).hasSize(1);
+    }
+
+    @Test
+    public void testSplitPartiallyGrantedTokens() {
+        ResultCollector collector = new ResultCollector();
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.add(1L, 2, false, collector, LONG_LINGER_MICROS);
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.flush();
+        ClusterRequest request = sentRequests.get(0);
+        assertFlowRequest(((BatchFlowRequestData)request.getData()).getRequests().get(0), 1L, 4, false);
+
+        // Only 2 of the 4 tokens are granted.
+        BatchFlowTokenResponseData responseData = new BatchFlowTokenResponseData()
+            .addResult(new TokenResult(TokenResultStatus.OK).setRemaining(2));
+        sentCallbacks.get(0).onResponse(new ClusterResponse<>(request.getId(), request.getType(),
+            ClusterConstants.RESPONSE_STATUS_OK, responseData));
+        assertThat(collector.statuses).containsExactly(TokenResultStatus.OK, TokenResultStatus.BLOCKED,
+            TokenResultStatus.OK);
+    }
+
+    @Test
+    public void testBlockAllWhenNoTokenGranted() {
+        ResultCollector collector = new ResultCollector();
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.flush();
+        ClusterRequest request = sentRequests.get(0);
+
+        BatchFlowTokenResponseData responseData = new BatchFlowTokenResponseData()
+            .addResult(new TokenResult(TokenResultStatus.BLOCKED));
+        sentCallbacks.get(0).onResponse(new ClusterResponse<>(request.getId(), request.getType(),
+            ClusterConstants.RESPONSE_STATUS_OK, responseData));
+        assertThat(collector.statuses).containsExactly(TokenResultStatus.BLOCKED, TokenResultStatus.BLOCKED);
+    }
+
+    @Test
+    public void testSendFullBatchImmediately() {
+        ResultCollector collector = new ResultCollector();
+        for (int i = 1; i < TokenRequestBatcher.MAX_BATCH_SIZE; i++) {
+            batcher.add(i, 1, false, collector, LONG_LINGER_MICROS);
+        }
+        assertThat(sentRequests).isEmpty();
+        batcher.add(TokenRequestBatcher.MAX_BATCH_SIZE, 1, false, collector, LONG_LINGER_MICROS);
+        assertThat(sentRequests).hasSize(1);
+        assertThat(((BatchFlowRequestData)sentRequests.get(0).getData()).getRequests())
+            .hasSize(TokenRequestBatcher.MAX_BATCH_SIZE);
+    }
+
+    @Test
+    public void testFlushAfterLinger() throws Exception {
+        ResultCollector collector = new ResultCollector();
+        batcher.add(1L, 1, false, collector, 200);
+        assertThat(sentLatch.await(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(sentRequests).hasSize(1);
+    }
+
+    @Test
+    public void testFailedBatch() {
+        ResultCollector collector = new ResultCollector();
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.add(2L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.flush();
+        sentCallbacks.get(0).onFailure(new IllegalStateException("timeout"));
+        assertThat(collector.statuses).containsExactly(TokenResultStatus.FAIL, TokenResultStatus.FAIL);
+
+        // The server does not support batch frames.
+        batcher.add(1L, 1, false, collector, LONG_LINGER_MICROS);
+        batcher.flush();
+        sentCallbacks.get(1).onResponse(new ClusterResponse<>(0, ClusterConstants.MSG_TYPE_FLOW_BATCH,
+            ClusterConstants.RESPONSE_STATUS_BAD, null));
+        assertThat(collector.statuses).hasSize(3).endsWith(TokenResultStatus.FAIL);
+    }
+
+    private void assertFlowRequest(FlowRequestData request, long flowId, int count, boolean prioritized) {
+        assertThat(request.getFlowId()).isEqualTo(flowId);
+        assertThat(request.getCount()).isEqualTo(count);
+        assertThat(request.isPriority()).isEqualTo(prioritized);
+    }
+
+    private static class ResultCollector implements TokenResultCallback {
+
+        private final List<Integer> statuses = new ArrayList<>();
+
+        @Override
+        public void onComplete(TokenResult result) {
+            statuses.add(result.getStatus());
+        }
+    }
+}
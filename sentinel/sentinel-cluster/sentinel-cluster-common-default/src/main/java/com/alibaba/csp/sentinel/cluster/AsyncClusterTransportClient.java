@@ -0,0 +1,36 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+
+/**
+ * Transport client which is able to send requests without blocking current thread. This is optional for
+ * implementations of {@link ClusterTransportClient}, requests to clients not supporting it are sent synchronously.
+ *
+ * @since 1.8.0
+ */
+public interface AsyncClusterTransportClient extends ClusterTransportClient {
+
+    /**
+     * Send request to remote server without blocking current thread. Exactly one method of the callback
+     * will be invoked, when the response is received or the request failed (e.g. timeout).
+     *
+     * @param request Sentinel cluster request
+     * @param callback callback of the request
+     */
+    void sendRequestAsync(ClusterRequest request, ClusterResponseCallback callback);
+}
@@ -24,6 +24,41 @@ public final class ClusterConstants {
     public static final int MSG_TYPE_PING = 0;
     public static final int MSG_TYPE_FLOW = 1;
     public static final int MSG_TYPE_PARAM_FLOW = 2;
+    /**
+     * Several flow requests packed in one frame.
+     *
+     * @since 1.8.0
+     */
+    public static final int MSG_TYPE_FLOW_BATCH = 3;
+    /**
+     * Lease of a block of flow tokens, which also returns the unused tokens of the previous lease.
+     * The response carries the leased count as remaining count and the validity as wait time.
+     *
+     * @since 1.8.0
+     */
+    public static final int MSG_TYPE_FLOW_LEASE = 4;
+    /**
+     * Acquire of concurrency tokens (for flow rules in thread grade), whose request data is the same as
+     * {@link #MSG_TYPE_FLOW}. The response carries the ID of the acquired tokens, which should be released
+     * by {@link #MSG_TYPE_CONCURRENT_FLOW_RELEASE} when the invocation completes.
+     *
+     * @since 1.8.0
+     */
+    public static final int MSG_TYPE_CONCURRENT_FLOW_ACQUIRE = 5;
+    /**
+     * Release of concurrency tokens by token ID.
+     *
+     * @since 1.8.0
+     */
+    public static final int MSG_TYPE_CONCURRENT_FLOW_RELEASE = 6;
+
+    /**
+     * Flags of the requests in a {@link #MSG_TYPE_FLOW_BATCH} frame.
+     *
+     * @since 1.8.0
+     */
+    public static final int BATCH_FLAG_PRIORITY = 1;
+    public static final int BATCH_FLAG_PARTIAL = 1 << 1;
 
     public static final int RESPONSE_STATUS_BAD = -1;
     public static final int RESPONSE_STATUS_OK = 0;
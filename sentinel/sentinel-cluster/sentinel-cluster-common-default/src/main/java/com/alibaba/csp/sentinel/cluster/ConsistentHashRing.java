@@ -0,0 +1,173 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Consistent hash ring for sharding flow IDs (and parameters of parameter flow rules) among token servers.
+ * Each node is placed on the ring as several virtual nodes, so that only the keys of a leaving (or joining)
+ * node are moved to (or from) the other nodes, while keys are spread evenly among nodes.
+ * </p>
+ * <p>
+ * The hash of the ring only depends on the node keys (e.g. {@code host:port} of token servers) and the routing
+ * keys, so token clients and token servers always agree on the owner of a flow ID.
+ * </p>
+ *
+ * @param <T> type of the nodes
+ * @since 1.8.0
+ */
+public class ConsistentHashRing<T> {
+
+    public static final int DEFAULT_VIRTUAL_NODE_COUNT = 128;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final Map<String, T> nodes;
+    private final long[] points;
+    private final T[] owners;
+
+    /**
+     * @param nodes            nodes of the ring, keyed by the unique key of each node
+     * @param virtualNodeCount count of virtual nodes of each node
+     */
+    @SuppressWarnings("unchecked")
+    public ConsistentHashRing(Map<String, T> nodes, int virtualNodeCount) {
+        AssertUtil.notNull(nodes, "nodes cannot be null");
+        AssertUtil.isTrue(virtualNodeCount > 0, "virtualNodeCount should be positive");
+        this.nodes = Collections.unmodifiableMap(new LinkedHashMap<>(nodes));
+
+        TreeMap<Long, String> ring = new TreeMap<>();
+        for (String key : nodes.keySet()) {
+            for (int i = 0; i < virtualNodeCount; i++) {
+                long point = hashString(key + "#" + i);
+                // On (rare) collision, the node with smaller key wins, regardless of the order of nodes.
+                String previous = ring.get(point);
+                if (previous == null || key.compareTo(previous) < 0) {
+                    ring.put(point, key);
+                }
+            }
+        }
+        this.points = new long[ring.size()];
+        this.owners = (T[])new Object[ring.size()];
+        int i = 0;
+        for (Map.Entry<Long, String> point : ring.entrySet()) {
+            points[i] = point.getKey();
+            owners[i] = nodes.get(point.getValue());
+            i++;
+        }
+    }
+
+    public ConsistentHashRing(Map<String, T> nodes) {
+        this(nodes, DEFAULT_VIRTUAL_NODE_COUNT);
+    }
+
+    /**
+     * Get the owner of provided flow ID.
+     *
+     * @param flowId the flow ID
+     * @return the owner node, or null if the ring is empty
+     */
+    public T route(long flowId) {
+        return routeHash(hashFlowId(flowId));
+    }
+
+    /**
+     * Get the owner of provided parameter of a parameter flow rule, so that different parameter values
+     * of a rule can be sharded among nodes.
+     *
+     * @param flowId the flow ID of the parameter flow rule
+     * @param param  the parameter value, which should have a stable {@code hashCode()} (e.g. strings and numbers)
+     * @return the owner node, or null if the ring is empty
+     */
+    public T route(long flowId, Object param) {
+        if (param == null) {
+            return route(flowId);
+        }
+        return routeHash(mix(flowId * 31 + param.hashCode()));
+    }
+
+    private T routeHash(long hash) {
+        if (points.length == 0) {
+            return null;
+        }
+        // The first virtual node clockwise.
+        int low = 0;
+        int high = points.length - 1;
+        if (hash > points[high]) {
+            return owners[0];
+        }
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (points[mid] < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return owners[low];
+    }
+
+    /**
+     * @return all nodes keyed by node key
+     */
+    public Map<String, T> getNodes() {
+        return nodes;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    static long hashFlowId(long flowId) {
+        return mix(flowId);
+    }
+
+    /**
+     * FNV-1a hash of the UTF-8 bytes, spreading the virtual nodes of a node better than {@code String.hashCode()}.
+     */
+    static long hashString(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading close keys (e.g. sequential flow IDs) over the ring.
+     */
+    private static long mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return key;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Flow requests packed in one {@link com.alibaba.csp.sentinel.cluster.ClusterConstants#MSG_TYPE_FLOW_BATCH} frame.
+ *
+ * @since 1.8.0
+ */
+public class BatchFlowRequestData {
+
+    private List<FlowRequestData> requests = new ArrayList<>();
+    private final BitSet partialRequests = new BitSet();
+
+    public List<FlowRequestData> getRequests() {
+        return requests;
+    }
+
+    public BatchFlowRequestData setRequests(List<FlowRequestData> requests) {
+        this.requests = requests;
+        return this;
+    }
+
+    public BatchFlowRequestData addRequest(FlowRequestData request) {
+        return addRequest(request, false);
+    }
+
+    /**
+     * Add a flow request to the batch.
+     *
+     * @param request the flow request
+     * @param partial whether part of the requested tokens could be granted (only for non-prioritized requests)
+     * @return this batch
+     */
+    public BatchFlowRequestData addRequest(FlowRequestData request, boolean partial) {
+        partialRequests.set(requests.size(), partial);
+        this.requests.add(request);
+        return this;
+    }
+
+    /**
+     * @param index index of the request in this batch
+     * @return whether part of the requested tokens could be granted for the request
+     */
+    public boolean isPartial(int index) {
+        return partialRequests.get(index);
+    }
+
+    @Override
+    public String toString() {
+        return "BatchFlowRequestData{" +
+            "requests=" + requests +
+            ", partialRequests=" + partialRequests +
+            '}';
+    }
+}
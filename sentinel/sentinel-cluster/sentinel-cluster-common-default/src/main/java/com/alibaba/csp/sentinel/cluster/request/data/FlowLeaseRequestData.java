@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.request.data;
+
+/**
+ * Request data of a token lease, which may also return the unused tokens of the previous lease.
+ *
+ * @since 1.8.0
+ */
+public class FlowLeaseRequestData {
+
+    private long flowId;
+    /**
+     * Count of tokens to lease, 0 if only returning tokens.
+     */
+    private int count;
+    /**
+     * Count of unused tokens returned.
+     */
+    private int returnCount;
+    /**
+     * Time elapsed since the returned tokens were leased (in milliseconds).
+     */
+    private int returnAgeMs;
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public FlowLeaseRequestData setFlowId(long flowId) {
+        this.flowId = flowId;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public FlowLeaseRequestData setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+    public int getReturnCount() {
+        return returnCount;
+    }
+
+    public FlowLeaseRequestData setReturnCount(int returnCount) {
+        this.returnCount = returnCount;
+        return this;
+    }
+
+    public int getReturnAgeMs() {
+        return returnAgeMs;
+    }
+
+    public FlowLeaseRequestData setReturnAgeMs(int returnAgeMs) {
+        this.returnAgeMs = returnAgeMs;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "FlowLeaseRequestData{" +
+            "flowId=" + flowId +
+            ", count=" + count +
+            ", returnCount=" + returnCount +
+            ", returnAgeMs=" + returnAgeMs +
+            '}';
+    }
+}
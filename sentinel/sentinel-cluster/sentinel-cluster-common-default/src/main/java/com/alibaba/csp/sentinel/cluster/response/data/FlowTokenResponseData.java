@@ -23,6 +23,12 @@ public class FlowTokenResponseData {
 
     private int remainingCount;
     private int waitInMs;
+    /**
+     * ID of the acquired concurrency tokens, only in responses of concurrency token acquires.
+     *
+     * @since 1.8.0
+     */
+    private long tokenId;
 
     public int getRemainingCount() {
         return remainingCount;
@@ -42,11 +48,21 @@ public class FlowTokenResponseData {
         return this;
     }
 
+    public long getTokenId() {
+        return tokenId;
+    }
+
+    public FlowTokenResponseData setTokenId(long tokenId) {
+        this.tokenId = tokenId;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "FlowTokenResponseData{" +
             "remainingCount=" + remainingCount +
             ", waitInMs=" + waitInMs +
+            ", tokenId=" + tokenId +
             '}';
     }
 }
@@ -19,13 +19,17 @@ import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.ClusterConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.ConcurrencyToken;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.limit.GlobalRequestLimiter;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterFlowStatKeys;
 import com.alibaba.csp.sentinel.cluster.server.log.ClusterServerStatLogUtil;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Flow checker for cluster flow rules.
@@ -64,14 +68,11 @@ final class ClusterFlowChecker {
             return new TokenResult(TokenResultStatus.FAIL);
         }
 
-        double latestQps = metric.getAvg(ClusterFlowEvent.PASS);
         double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
-        double nextRemaining = globalThreshold - latestQps - acquireCount;
+        // Check the threshold and add the pass atomically, so concurrent requests won't all pass the check.
+        double nextRemaining = metric.tryPass(acquireCount, globalThreshold);
 
         if (nextRemaining >= 0) {
-            // TODO: checking logic and metric operation should be separated.
-            metric.add(ClusterFlowEvent.PASS, acquireCount);
-            metric.add(ClusterFlowEvent.PASS_REQUEST, 1);
             if (prioritized) {
                 // Add prioritized pass.
                 metric.add(ClusterFlowEvent.OCCUPIED_PASS, acquireCount);
@@ -81,6 +82,7 @@ final class ClusterFlowChecker {
                 .setRemaining((int) nextRemaining)
                 .setWaitInMs(0);
         } else {
+            ClusterFlowStatKeys statKeys = metric.getStatKeys(id);
             if (prioritized) {
                 // Try to occupy incoming buckets.
                 double occupyAvg = metric.getAvg(ClusterFlowEvent.WAITING);
@@ -88,7 +90,7 @@ final class ClusterFlowChecker {
                     int waitInMs = metric.tryOccupyNext(ClusterFlowEvent.PASS, acquireCount, globalThreshold);
                     // waitInMs > 0 indicates pre-occupy incoming buckets successfully.
                     if (waitInMs > 0) {
-                        ClusterServerStatLogUtil.log("flow|waiting|" + id);
+                        ClusterServerStatLogUtil.log(statKeys.getWaiting());
                         return new TokenResult(TokenResultStatus.SHOULD_WAIT)
                             .setRemaining(0)
                             .setWaitInMs(waitInMs);
@@ -99,18 +101,164 @@ final class ClusterFlowChecker {
             // Blocked.
             metric.add(ClusterFlowEvent.BLOCK, acquireCount);
             metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
-            ClusterServerStatLogUtil.log("flow|block|" + id, acquireCount);
-            ClusterServerStatLogUtil.log("flow|block_request|" + id, 1);
+            ClusterServerStatLogUtil.log(statKeys.getBlock(), acquireCount);
+            ClusterServerStatLogUtil.log(statKeys.getBlockRequest(), 1);
             if (prioritized) {
                 // Add prioritized block.
                 metric.add(ClusterFlowEvent.OCCUPIED_BLOCK, acquireCount);
-                ClusterServerStatLogUtil.log("flow|occupied_block|" + id, 1);
+                ClusterServerStatLogUtil.log(statKeys.getOccupiedBlock(), 1);
             }
 
             return blockedResult();
         }
     }
 
+    /**
+     * Acquire as many tokens as available (up to the given count) of a non-prioritized request, which is
+     * aggregated from several acquires. The tokens not granted are counted as blocked.
+     *
+     * @param rule     a valid cluster flow rule
+     * @param maxCount max count of tokens to acquire
+     * @return OK with the granted count as remaining count, or blocked if none is granted
+     * @since 1.8.0
+     */
+    static TokenResult acquireClusterTokenUpTo(/*@Valid*/ FlowRule rule, int maxCount) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        int granted = metric.tryPassUpTo(maxCount, globalThreshold);
+        if (granted < maxCount) {
+            ClusterFlowStatKeys statKeys = metric.getStatKeys(id);
+            metric.add(ClusterFlowEvent.BLOCK, maxCount - granted);
+            ClusterServerStatLogUtil.log(statKeys.getBlock(), maxCount - granted);
+            if (granted <= 0) {
+                metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+                ClusterServerStatLogUtil.log(statKeys.getBlockRequest(), 1);
+                return blockedResult();
+            }
+        }
+        return new TokenResult(TokenResultStatus.OK)
+            .setRemaining(granted)
+            .setWaitInMs(0);
+    }
+
+    /**
+     * Lease a block of tokens to a token client. The leased tokens are counted as passed immediately, so the total
+     * tokens leased in the statistic window never exceed the global threshold. Besides, a single lease never
+     * exceeds the share of the threshold in the validity of the lease, so that a client cannot take the quota
+     * of the whole window at once.
+     *
+     * @param rule        a valid cluster flow rule in lease mode
+     * @param leaseCount  count of tokens to lease (as the demand of the client), 0 if only returning tokens
+     * @param returnCount count of unused tokens returned from the previous lease
+     * @param returnAgeMs time elapsed since the returned tokens were leased
+     * @return OK with the leased count as remaining count and the validity as wait time
+     * @since 1.8.0
+     */
+    static TokenResult acquireClusterLease(/*@Valid*/ FlowRule rule, int leaseCount, int returnCount,
+                                           int returnAgeMs) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        if (returnCount > 0) {
+            // Unused tokens no longer count as passed, if still in the window.
+            long leaseTime = TimeUtil.currentTimeMillis() - Math.max(returnAgeMs, 0);
+            metric.takeBackPass(returnCount, leaseTime);
+        }
+        int validityMs = rule.getClusterConfig().getLeaseValidityMs();
+        if (leaseCount <= 0) {
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining(0)
+                .setWaitInMs(validityMs);
+        }
+
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        double maxLeaseCount = Math.max(globalThreshold * validityMs / 1000, 1);
+        int leased = metric.tryPassUpTo((int)Math.min(leaseCount, maxLeaseCount), globalThreshold);
+
+        if (leased > 0) {
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining(leased)
+                .setWaitInMs(validityMs);
+        }
+        metric.add(ClusterFlowEvent.BLOCK, leaseCount);
+        metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+        ClusterFlowStatKeys statKeys = metric.getStatKeys(id);
+        ClusterServerStatLogUtil.log(statKeys.getBlock(), leaseCount);
+        ClusterServerStatLogUtil.log(statKeys.getBlockRequest(), 1);
+        return blockedResult();
+    }
+
+    /**
+     * Acquire concurrency tokens of a flow rule in thread grade, which are held until released
+     * (or reclaimed) by {@link ClusterConcurrencyManager}.
+     *
+     * @param rule          a valid cluster flow rule in thread grade
+     * @param acquireCount  count of concurrency to acquire
+     * @param clientAddress address of the token client, or null if requested by the embedded token server
+     * @return OK with the ID of the acquired tokens, or BLOCKED if the concurrency exceeds the threshold
+     * @since 1.8.0
+     */
+    static TokenResult acquireConcurrentToken(/*@Valid*/ FlowRule rule, int acquireCount, String clientAddress) {
+        Long id = rule.getClusterConfig().getFlowId();
+
+        if (!allowProceed(id)) {
+            return new TokenResult(TokenResultStatus.TOO_MANY_REQUEST);
+        }
+
+        ClusterMetric metric = ClusterMetricStatistics.getMetric(id);
+        if (metric == null) {
+            return new TokenResult(TokenResultStatus.FAIL);
+        }
+
+        double globalThreshold = calcGlobalThreshold(rule) * ClusterServerConfigManager.getExceedCount();
+        ConcurrencyToken token = ClusterConcurrencyManager.tryAcquire(id, acquireCount, globalThreshold,
+            clientAddress, rule.getClusterConfig().getConcurrencyTimeoutMs());
+
+        if (token != null) {
+            metric.add(ClusterFlowEvent.PASS, acquireCount);
+            double remaining = globalThreshold - ClusterConcurrencyManager.getConcurrency(id);
+            return new TokenResult(TokenResultStatus.OK)
+                .setRemaining((int)Math.max(remaining, 0))
+                .setWaitInMs(0)
+                .setTokenId(token.getTokenId());
+        }
+        metric.add(ClusterFlowEvent.BLOCK, acquireCount);
+        metric.add(ClusterFlowEvent.BLOCK_REQUEST, 1);
+        ClusterFlowStatKeys statKeys = metric.getStatKeys(id);
+        ClusterServerStatLogUtil.log(statKeys.getBlock(), acquireCount);
+        ClusterServerStatLogUtil.log(statKeys.getBlockRequest(), 1);
+        return blockedResult();
+    }
+
+    /**
+     * Release concurrency tokens acquired by {@link #acquireConcurrentToken(FlowRule, int, String)}.
+     *
+     * @param tokenId ID of the acquired tokens
+     * @return true if released, false if the tokens have been released or reclaimed
+     * @since 1.8.0
+     */
+    static boolean releaseConcurrentToken(long tokenId) {
+        return ClusterConcurrencyManager.release(tokenId) != null;
+    }
+
     private static TokenResult blockedResult() {
         return new TokenResult(TokenResultStatus.BLOCKED)
             .setRemaining(0)
@@ -22,16 +22,21 @@ import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenService;
 import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterParamFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.ConnectionAwareTokenService;
+import com.alibaba.csp.sentinel.cluster.server.LeaseTokenService;
+import com.alibaba.csp.sentinel.cluster.server.PartialTokenService;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
 import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
 
 /**
- * Default implementation for cluster {@link TokenService}.
+ * Default implementation for cluster {@link TokenService}, which also supports partial grants, leases and
+ * global concurrency limiting of cluster flow rules in thread grade.
  *
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class DefaultTokenService implements TokenService {
+public class DefaultTokenService implements ConnectionAwareTokenService, PartialTokenService, LeaseTokenService {
 
     @Override
     public TokenResult requestToken(Long ruleId, int acquireCount, boolean prioritized) {
@@ -47,6 +52,20 @@ public class DefaultTokenService implements TokenService {
         return ClusterFlowChecker.acquireClusterToken(rule, acquireCount, prioritized);
     }
 
+    @Override
+    public TokenResult requestTokenUpTo(Long ruleId, int maxCount) {
+        if (notValidRequest(ruleId, maxCount)) {
+            return badRequest();
+        }
+        // The rule should be valid.
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+
+        return ClusterFlowChecker.acquireClusterTokenUpTo(rule, maxCount);
+    }
+
     @Override
     public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
         if (notValidRequest(ruleId, acquireCount) || params == null || params.isEmpty()) {
@@ -61,6 +80,49 @@ public class DefaultTokenService implements TokenService {
         return ClusterParamFlowChecker.acquireClusterToken(rule, acquireCount, params);
     }
 
+    @Override
+    public TokenResult requestLease(Long ruleId, int leaseCount, int returnCount, int returnAgeMs) {
+        if (ruleId == null || ruleId <= 0 || leaseCount < 0 || returnCount < 0) {
+            return badRequest();
+        }
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        if (!rule.getClusterConfig().isLeaseEnabled()) {
+            return badRequest();
+        }
+
+        return ClusterFlowChecker.acquireClusterLease(rule, leaseCount, returnCount, returnAgeMs);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(Long ruleId, int acquireCount) {
+        // Requested by the embedded token server, whose tokens are reclaimed only by timeout.
+        return requestConcurrentToken(null, ruleId, acquireCount);
+    }
+
+    @Override
+    public TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount) {
+        if (notValidRequest(ruleId, acquireCount)) {
+            return badRequest();
+        }
+        FlowRule rule = ClusterFlowRuleManager.getFlowRuleById(ruleId);
+        if (rule == null) {
+            return new TokenResult(TokenResultStatus.NO_RULE_EXISTS);
+        }
+        if (rule.getGrade() != RuleConstant.FLOW_GRADE_THREAD) {
+            return badRequest();
+        }
+
+        return ClusterFlowChecker.acquireConcurrentToken(rule, acquireCount, clientAddress);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long ruleId, long tokenId) {
+        ClusterFlowChecker.releaseConcurrentToken(tokenId);
+    }
+
     private boolean notValidRequest(Long id, int count) {
         return id == null || id <= 0 || count <= 0;
     }
@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.ClusterConcurrencyManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.cluster.server.ServerConstants;
 import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
@@ -278,6 +279,7 @@ public final class ClusterFlowRuleManager {
             for (Long flowId : flowIdSet) {
                 FLOW_RULES.remove(flowId);
                 FLOW_NAMESPACE_MAP.remove(flowId);
+                ClusterConcurrencyManager.removeFlow(flowId);
             }
             flowIdSet.clear();
         } else {
@@ -293,6 +295,7 @@ public final class ClusterFlowRuleManager {
                     FLOW_RULES.remove(flowId);
                     FLOW_NAMESPACE_MAP.remove(flowId);
                     ClusterMetricStatistics.removeMetric(flowId);
+                    ClusterConcurrencyManager.removeFlow(flowId);
                 }
             }
             oldIdSet.clear();
@@ -0,0 +1,194 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * Manager of the global concurrency of cluster flow rules in thread grade. Each acquired
+ * {@link ConcurrencyToken} counts until it's released by the client holding it.
+ * </p>
+ * <p>
+ * Tokens that are never released (e.g. the client crashed) are reclaimed periodically, when the client
+ * holding it has been disconnected (see {@link ConnectionManager}), or when the optional timeout of the token
+ * has elapsed. Tokens of running invocations are never reclaimed unless the timeout is set.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public final class ClusterConcurrencyManager {
+
+    /**
+     * Interval of reclaiming the tokens. A token of a disconnected client is reclaimed only if it has been held
+     * for one interval, as the client might not have registered its connection yet.
+     */
+    public static final long RECLAIM_INTERVAL_MS = 1000;
+
+    /**
+     * Current concurrency map (flowId, concurrency).
+     */
+    private static final ConcurrentMap<Long, AtomicInteger> CONCURRENCY_MAP = new ConcurrentHashMap<>();
+    /**
+     * Token map (tokenId, token).
+     */
+    private static final ConcurrentMap<Long, ConcurrencyToken> TOKEN_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * Token IDs are seeded by the start time, so that releases of tokens acquired before a restart
+     * won't match new tokens.
+     */
+    private static final AtomicLong ID_GENERATOR = new AtomicLong(System.currentTimeMillis() << 20);
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ScheduledExecutorService RECLAIM_SCHEDULER = Executors.newScheduledThreadPool(1,
+        new NamedThreadFactory("sentinel-cluster-concurrency-reclaim-task", true));
+
+    static {
+        RECLAIM_SCHEDULER.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    reclaimTokens(TimeUtil.currentTimeMillis());
+                } catch (Throwable ex) {
+                    RecordLog.warn("[ClusterConcurrencyManager] Failed to reclaim concurrency tokens", ex);
+                }
+            }
+        }, RECLAIM_INTERVAL_MS, RECLAIM_INTERVAL_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Try to acquire a concurrency token if the concurrency of the flow after acquiring won't exceed the threshold.
+     *
+     * @param flowId        the flow ID
+     * @param acquireCount  count of concurrency to acquire
+     * @param threshold     the global concurrency threshold
+     * @param clientAddress address of the client, or null if acquired by the embedded token server
+     * @param timeoutMs     max time to hold the token, or 0 if unlimited
+     * @return the acquired token, or null if the threshold would be exceeded
+     */
+    public static ConcurrencyToken tryAcquire(long flowId, int acquireCount, double threshold, String clientAddress,
+                                              long timeoutMs) {
+        AtomicInteger concurrency = getOrCreateConcurrency(flowId);
+        while (true) {
+            int current = concurrency.get();
+            if (current + acquireCount > threshold) {
+                return null;
+            }
+            if (concurrency.compareAndSet(current, current + acquireCount)) {
+                break;
+            }
+        }
+        ConcurrencyToken token = new ConcurrencyToken(ID_GENERATOR.incrementAndGet(), flowId, acquireCount,
+            clientAddress, TimeUtil.currentTimeMillis(), timeoutMs);
+        TOKEN_MAP.put(token.getTokenId(), token);
+        return token;
+    }
+
+    /**
+     * Release the concurrency token. Releasing a reclaimed or an unknown token does nothing.
+     *
+     * @param tokenId the token ID
+     * @return the released token, or null if absent
+     */
+    public static ConcurrencyToken release(long tokenId) {
+        ConcurrencyToken token = TOKEN_MAP.remove(tokenId);
+        if (token != null) {
+            decrease(token);
+        }
+        return token;
+    }
+
+    /**
+     * Get current global concurrency of the flow.
+     *
+     * @param flowId the flow ID
+     * @return current concurrency
+     */
+    public static int getConcurrency(long flowId) {
+        AtomicInteger concurrency = CONCURRENCY_MAP.get(flowId);
+        return concurrency == null ? 0 : concurrency.get();
+    }
+
+    /**
+     * Remove the concurrency and all tokens of the flow (e.g. the rule has been removed).
+     *
+     * @param flowId the flow ID
+     */
+    public static void removeFlow(long flowId) {
+        CONCURRENCY_MAP.remove(flowId);
+        for (ConcurrencyToken token : TOKEN_MAP.values()) {
+            if (token.getFlowId() == flowId) {
+                TOKEN_MAP.remove(token.getTokenId());
+            }
+        }
+    }
+
+    static void reclaimTokens(long currentTime) {
+        for (ConcurrencyToken token : TOKEN_MAP.values()) {
+            if (shouldReclaim(token, currentTime) && TOKEN_MAP.remove(token.getTokenId(), token)) {
+                decrease(token);
+                RecordLog.info("[ClusterConcurrencyManager] Reclaimed concurrency token: " + token);
+            }
+        }
+    }
+
+    private static boolean shouldReclaim(ConcurrencyToken token, long currentTime) {
+        if (token.isExpired(currentTime)) {
+            return true;
+        }
+        String clientAddress = token.getClientAddress();
+        return clientAddress != null && currentTime - token.getAcquireTime() >= RECLAIM_INTERVAL_MS
+            && !ConnectionManager.isConnected(clientAddress);
+    }
+
+    private static void decrease(ConcurrencyToken token) {
+        AtomicInteger concurrency = CONCURRENCY_MAP.get(token.getFlowId());
+        if (concurrency != null) {
+            concurrency.addAndGet(-token.getCount());
+        }
+    }
+
+    private static AtomicInteger getOrCreateConcurrency(long flowId) {
+        AtomicInteger concurrency = CONCURRENCY_MAP.get(flowId);
+        if (concurrency == null) {
+            AtomicInteger newConcurrency = new AtomicInteger(0);
+            concurrency = CONCURRENCY_MAP.putIfAbsent(flowId, newConcurrency);
+            if (concurrency == null) {
+                concurrency = newConcurrency;
+            }
+        }
+        return concurrency;
+    }
+
+    static void clear() {
+        CONCURRENCY_MAP.clear();
+        TOKEN_MAP.clear();
+    }
+
+    private ClusterConcurrencyManager() {}
+}
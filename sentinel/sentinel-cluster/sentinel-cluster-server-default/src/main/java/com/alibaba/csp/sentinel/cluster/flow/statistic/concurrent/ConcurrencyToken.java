@@ -0,0 +1,85 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+/**
+ * A concurrency token held by a token client, which should be released when the invocation completes,
+ * or else it's reclaimed after the timeout.
+ *
+ * @since 1.8.0
+ */
+public class ConcurrencyToken {
+
+    private final long tokenId;
+    private final long flowId;
+    private final int count;
+    /**
+     * Address of the client holding the token, or null if held by the embedded token server.
+     */
+    private final String clientAddress;
+    private final long acquireTime;
+    private final long timeoutMs;
+
+    public ConcurrencyToken(long tokenId, long flowId, int count, String clientAddress, long acquireTime,
+                            long timeoutMs) {
+        this.tokenId = tokenId;
+        this.flowId = flowId;
+        this.count = count;
+        this.clientAddress = clientAddress;
+        this.acquireTime = acquireTime;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public long getTokenId() {
+        return tokenId;
+    }
+
+    public long getFlowId() {
+        return flowId;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getClientAddress() {
+        return clientAddress;
+    }
+
+    public long getAcquireTime() {
+        return acquireTime;
+    }
+
+    public long getTimeoutMs() {
+        return timeoutMs;
+    }
+
+    public boolean isExpired(long currentTime) {
+        return timeoutMs > 0 && currentTime - acquireTime > timeoutMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrencyToken{" +
+            "tokenId=" + tokenId +
+            ", flowId=" + flowId +
+            ", count=" + count +
+            ", clientAddress='" + clientAddress + '\'' +
+            ", acquireTime=" + acquireTime +
+            ", timeoutMs=" + timeoutMs +
+            '}';
+    }
+}
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.data;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
 
 /**
@@ -24,27 +26,106 @@ import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
 public class ClusterMetricBucket {
 
     private final LongAdder[] counters;
+    /**
+     * Counter of {@link ClusterFlowEvent#PASS}, which is a single atomic value rather than a {@link LongAdder},
+     * so that passes can be reserved against a limit with CAS.
+     */
+    private final AtomicLong passCounter = new AtomicLong();
 
     public ClusterMetricBucket() {
         ClusterFlowEvent[] events = ClusterFlowEvent.values();
         this.counters = new LongAdder[events.length];
         for (ClusterFlowEvent event : events) {
-            counters[event.ordinal()] = new LongAdder();
+            if (event != ClusterFlowEvent.PASS) {
+                counters[event.ordinal()] = new LongAdder();
+            }
         }
     }
 
     public void reset() {
         for (ClusterFlowEvent event : ClusterFlowEvent.values()) {
-            counters[event.ordinal()].reset();
+            if (event != ClusterFlowEvent.PASS) {
+                counters[event.ordinal()].reset();
+            }
         }
+        passCounter.set(0);
     }
 
     public long get(ClusterFlowEvent event) {
+        if (event == ClusterFlowEvent.PASS) {
+            return passCounter.get();
+        }
         return counters[event.ordinal()].sum();
     }
 
     public ClusterMetricBucket add(ClusterFlowEvent event, long count) {
-        counters[event.ordinal()].add(count);
+        if (event == ClusterFlowEvent.PASS) {
+            passCounter.addAndGet(count);
+        } else {
+            counters[event.ordinal()].add(count);
+        }
         return this;
     }
+
+    /**
+     * Add passes to the bucket only if the pass count of the bucket does not exceed the limit after adding.
+     *
+     * @param count   count of passes to add
+     * @param maxPass max pass count of the bucket
+     * @return the pass count of the bucket after adding, or -1 if not added
+     * @since 1.8.0
+     */
+    public long tryAddPass(long count, long maxPass) {
+        while (true) {
+            long current = passCounter.get();
+            long next = current + count;
+            if (next > maxPass) {
+                return -1;
+            }
+            if (passCounter.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    /**
+     * Add as many passes as possible (up to given count) to the bucket without exceeding the limit.
+     *
+     * @param count   max count of passes to add
+     * @param maxPass max pass count of the bucket
+     * @return count of passes actually added, or 0 if none
+     * @since 1.8.0
+     */
+    public long addPassUpTo(long count, long maxPass) {
+        while (true) {
+            long current = passCounter.get();
+            long added = Math.min(count, maxPass - current);
+            if (added <= 0) {
+                return 0;
+            }
+            if (passCounter.compareAndSet(current, current + added)) {
+                return added;
+            }
+        }
+    }
+
+    /**
+     * Take back passes from the bucket, without making the pass count of the bucket negative.
+     *
+     * @param count max count of passes to take back
+     * @return count of passes actually taken back, or 0 if none
+     * @since 1.8.0
+     */
+    public long takeBackPass(long count) {
+        while (true) {
+            long current = passCounter.get();
+            long taken = Math.min(count, current);
+            if (taken <= 0) {
+                return 0;
+            }
+            if (passCounter.compareAndSet(current, current - taken)) {
+                return taken;
+            }
+        }
+    }
 }
@@ -15,11 +15,12 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
 
-import java.util.List;
-
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterMetricBucket;
+import com.alibaba.csp.sentinel.cluster.server.log.ClusterFlowStatKeys;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
 import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * @author Eric Zhao
@@ -29,6 +30,11 @@ public class ClusterMetric {
 
     private final ClusterMetricLeapArray metric;
 
+    /**
+     * Keys of the stat log of the flow, built lazily once rather than on every block.
+     */
+    private volatile ClusterFlowStatKeys statKeys;
+
     public ClusterMetric(int sampleCount, int intervalInMs) {
         AssertUtil.isTrue(sampleCount > 0, "sampleCount should be positive");
         AssertUtil.isTrue(intervalInMs > 0, "interval should be positive");
@@ -40,6 +46,23 @@ public class ClusterMetric {
         metric.currentWindow().value().add(event, count);
     }
 
+    /**
+     * Take back the passes added at given time (e.g. unused tokens of a lease), if the bucket of the time
+     * is still in the sliding window.
+     *
+     * @param count      count of passes to take back
+     * @param timeMillis the time when the passes were added
+     * @return the count actually taken back, which never exceeds the pass count of the bucket
+     * @since 1.8.0
+     */
+    public long takeBackPass(long count, long timeMillis) {
+        ClusterMetricBucket bucket = metric.getWindowValue(timeMillis);
+        if (bucket == null || count <= 0) {
+            return 0;
+        }
+        return bucket.takeBackPass(count);
+    }
+
     public long getCurrentCount(ClusterFlowEvent event) {
         return metric.currentWindow().value().get(event);
     }
@@ -51,14 +74,9 @@ public class ClusterMetric {
      * @return total sum for event
      */
     public long getSum(ClusterFlowEvent event) {
-        metric.currentWindow();
-        long sum = 0;
-
-        List<ClusterMetricBucket> buckets = metric.values();
-        for (ClusterMetricBucket bucket : buckets) {
-            sum += bucket.get(event);
-        }
-        return sum;
+        long now = TimeUtil.currentTimeMillis();
+        metric.currentWindow(now);
+        return metric.getSumExcept(event, null, now);
     }
 
     /**
@@ -71,6 +89,71 @@ public class ClusterMetric {
         return getSum(event) / metric.getIntervalInSecond();
     }
 
+    /**
+     * <p>Reserve passes atomically if the average pass count per second won't exceed the threshold
+     * after reserving, which replaces checking {@link #getAvg(ClusterFlowEvent)} then adding passes.</p>
+     * <p>The passes of current bucket are reserved with CAS against the remaining count of the window, while
+     * other buckets are summed without locking. So concurrent requests can only overshoot the threshold by
+     * the reservations still in flight to the previous bucket when the window slides, rather than by all
+     * requests checking at the same time.</p>
+     *
+     * @param acquireCount count of passes to reserve
+     * @param threshold    max average pass count per second
+     * @return the remaining average count per second after reserving, or -1 if not reserved
+     * @since 1.8.0
+     */
+    public double tryPass(int acquireCount, double threshold) {
+        long now = TimeUtil.currentTimeMillis();
+        WindowWrap<ClusterMetricBucket> current = metric.currentWindow(now);
+        long otherPass = metric.getSumExcept(ClusterFlowEvent.PASS, current, now);
+        long maxPass = (long)(threshold * metric.getIntervalInSecond()) - otherPass;
+
+        long currentPass = current.value().tryAddPass(acquireCount, maxPass);
+        if (currentPass < 0) {
+            return -1;
+        }
+        current.value().add(ClusterFlowEvent.PASS_REQUEST, 1);
+        return Math.max(threshold - (otherPass + currentPass) / metric.getIntervalInSecond(), 0);
+    }
+
+    /**
+     * Reserve as many passes as possible (up to given count) atomically without exceeding the threshold,
+     * with the same guarantee as {@link #tryPass(int, double)}.
+     *
+     * @param maxCount  max count of passes to reserve
+     * @param threshold max average pass count per second
+     * @return count of passes actually reserved, or 0 if none
+     * @since 1.8.0
+     */
+    public int tryPassUpTo(int maxCount, double threshold) {
+        long now = TimeUtil.currentTimeMillis();
+        WindowWrap<ClusterMetricBucket> current = metric.currentWindow(now);
+        long otherPass = metric.getSumExcept(ClusterFlowEvent.PASS, current, now);
+        long maxPass = (long)(threshold * metric.getIntervalInSecond()) - otherPass;
+
+        int reserved = (int)current.value().addPassUpTo(maxCount, maxPass);
+        if (reserved > 0) {
+            current.value().add(ClusterFlowEvent.PASS_REQUEST, 1);
+        }
+        return reserved;
+    }
+
+    /**
+     * Get the keys of the stat log of the flow, so that they're not built on every request.
+     *
+     * @param flowId the flow ID of this metric
+     * @return the stat log keys of the flow
+     * @since 1.8.0
+     */
+    public ClusterFlowStatKeys getStatKeys(long flowId) {
+        ClusterFlowStatKeys keys = this.statKeys;
+        if (keys == null || keys.getFlowId() != flowId) {
+            keys = new ClusterFlowStatKeys(flowId);
+            this.statKeys = keys;
+        }
+        return keys;
+    }
+
     /**
      * Try to pre-occupy upcoming buckets.
      *
@@ -46,9 +46,9 @@ public class ClusterMetricLeapArray extends LeapArray<ClusterMetricBucket> {
 
     @Override
     protected WindowWrap<ClusterMetricBucket> resetWindowTo(WindowWrap<ClusterMetricBucket> w, long startTime) {
-        w.resetTo(startTime);
         w.value().reset();
         transferOccupyToBucket(w.value());
+        w.resetTo(startTime);
         return w;
     }
 
@@ -79,6 +79,28 @@ public class ClusterMetricLeapArray extends LeapArray<ClusterMetricBucket> {
         return occupyCounter[event.ordinal()].sum();
     }
 
+    /**
+     * Get the sum of provided event in valid buckets other than given bucket, without allocating a bucket list.
+     *
+     * @param event      event to calculate
+     * @param excluded   the bucket to exclude (usually current bucket)
+     * @param timeMillis current time in milliseconds
+     * @return the sum of other valid buckets
+     * @since 1.8.0
+     */
+    public long getSumExcept(ClusterFlowEvent event, WindowWrap<ClusterMetricBucket> excluded, long timeMillis) {
+        long sum = 0;
+        int size = array.length();
+        for (int i = 0; i < size; i++) {
+            WindowWrap<ClusterMetricBucket> windowWrap = array.get(i);
+            if (windowWrap == null || windowWrap == excluded || isWindowDeprecated(timeMillis, windowWrap)) {
+                continue;
+            }
+            sum += windowWrap.value().get(event);
+        }
+        return sum;
+    }
+
     public long getFirstCountOfWindow(ClusterFlowEvent event) {
         if (event == null) {
             return 0;
@@ -43,8 +43,8 @@ public class ClusterParameterLeapArray<C> extends LeapArray<CacheMap<Object, C>>
 
     @Override
     protected WindowWrap<CacheMap<Object, C>> resetWindowTo(WindowWrap<CacheMap<Object, C>> w, long startTime) {
-        w.resetTo(startTime);
         w.value().clear();
+        w.resetTo(startTime);
         return w;
     }
 
@@ -0,0 +1,40 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+
+/**
+ * Concurrent token service which is aware of the token clients holding the tokens, so that the tokens
+ * of the disconnected clients can be reclaimed (see {@link ConnectionManager}).
+ *
+ * @since 1.8.0
+ */
+public interface ConnectionAwareTokenService extends ConcurrentTokenService {
+
+    /**
+     * Request concurrency tokens of a flow rule in thread grade for a token client. The tokens are reclaimed
+     * once the client has been disconnected, if not released.
+     *
+     * @param clientAddress address of the token client (in "ip:port" format), or null if requested locally
+     * @param ruleId        the unique rule ID
+     * @param acquireCount  token count to acquire
+     * @return result of the token request, with the ID of the acquired tokens if passed
+     */
+    TokenResult requestConcurrentToken(String clientAddress, Long ruleId, int acquireCount);
+}
@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.cluster.server;
 
 import java.util.Collection;
 
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenService;
@@ -28,7 +29,7 @@ import com.alibaba.csp.sentinel.cluster.TokenService;
  * @author Eric Zhao
  * @since 1.4.0
  */
-public class DefaultEmbeddedTokenServer implements EmbeddedClusterTokenServer {
+public class DefaultEmbeddedTokenServer implements EmbeddedClusterTokenServer, ConcurrentTokenService {
 
     private final TokenService tokenService = TokenServiceProvider.getService();
     private final ClusterTokenServer server = new SentinelDefaultTokenServer(true);
@@ -58,4 +59,19 @@ public class DefaultEmbeddedTokenServer implements EmbeddedClusterTokenServer {
         }
         return new TokenResult(TokenResultStatus.FAIL);
     }
+
+    @Override
+    public TokenResult requestConcurrentToken(Long ruleId, int acquireCount) {
+        if (tokenService instanceof ConcurrentTokenService) {
+            return ((ConcurrentTokenService)tokenService).requestConcurrentToken(ruleId, acquireCount);
+        }
+        return new TokenResult(TokenResultStatus.FAIL);
+    }
+
+    @Override
+    public void releaseConcurrentToken(Long ruleId, long tokenId) {
+        if (tokenService instanceof ConcurrentTokenService) {
+            ((ConcurrentTokenService)tokenService).releaseConcurrentToken(ruleId, tokenId);
+        }
+    }
 }
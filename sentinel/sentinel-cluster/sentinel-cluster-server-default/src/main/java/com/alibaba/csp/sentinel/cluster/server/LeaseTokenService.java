@@ -0,0 +1,40 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+
+/**
+ * Token service which is able to lease blocks of tokens to the token clients, for flow rules in lease mode
+ * (see {@link ClusterFlowConfig#isLeaseEnabled()}).
+ *
+ * @since 1.8.0
+ */
+public interface LeaseTokenService extends TokenService {
+
+    /**
+     * Lease a block of tokens of a flow rule in lease mode, and take back the unused tokens of the previous lease.
+     *
+     * @param ruleId      the unique rule ID
+     * @param leaseCount  count of tokens to lease, 0 if only returning tokens
+     * @param returnCount count of unused tokens returned
+     * @param returnAgeMs time elapsed since the returned tokens were leased (in milliseconds)
+     * @return result of the lease, with the leased count as remaining count and the validity as wait time
+     */
+    TokenResult requestLease(Long ruleId, int leaseCount, int returnCount, int returnAgeMs);
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+
+/**
+ * Token service which could grant part of the requested tokens, so that a request aggregated from
+ * several acquires (e.g. coalesced in a batch frame) won't be blocked as a whole.
+ *
+ * @since 1.8.0
+ */
+public interface PartialTokenService extends TokenService {
+
+    /**
+     * Request as many tokens as available (up to the given count) of a non-prioritized flow request.
+     *
+     * @param ruleId   the unique rule ID
+     * @param maxCount max token count to acquire
+     * @return OK with the granted count as the remaining count, or the blocked result if none is granted
+     */
+    TokenResult requestTokenUpTo(Long ruleId, int maxCount);
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.codec.data;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.codec.EntityDecoder;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * <p>
+ * Decoder for {@link BatchFlowRequestData} from {@code ByteBuf} stream. The layout:
+ * </p>
+ * <pre>
+ * | size (2) | flow ID (8) | count (4) | flags (1) | ... (repeated for each request)
+ * </pre>
+ * <p>
+ * where the flags are {@link ClusterConstants#BATCH_FLAG_PRIORITY} and
+ * {@link ClusterConstants#BATCH_FLAG_PARTIAL}.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class BatchFlowRequestDataDecoder implements EntityDecoder<ByteBuf, BatchFlowRequestData> {
+
+    @Override
+    public BatchFlowRequestData decode(ByteBuf source) {
+        if (source.readableBytes() < 2) {
+            return null;
+        }
+        int size = source.readUnsignedShort();
+        if (source.readableBytes() < size * 13) {
+            // Incomplete frame.
+            return null;
+        }
+        BatchFlowRequestData data = new BatchFlowRequestData();
+        for (int i = 0; i < size; i++) {
+            FlowRequestData request = new FlowRequestData()
+                .setFlowId(source.readLong())
+                .setCount(source.readInt());
+            int flags = source.readUnsignedByte();
+            request.setPriority((flags & ClusterConstants.BATCH_FLAG_PRIORITY) != 0);
+            data.addRequest(request, (flags & ClusterConstants.BATCH_FLAG_PARTIAL) != 0);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.command.handler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.alibaba.csp.sentinel.cluster.ConsistentHashRing;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterParamFlowRuleManager;
+import com.alibaba.csp.sentinel.cluster.server.config.ClusterServerConfigManager;
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParamFlowRule;
+import com.alibaba.csp.sentinel.util.HostNameUtil;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * <p>
+ * Get the flow IDs owned by current token server, when token clients shard the flow IDs among several
+ * token servers by consistent hashing. The {@code servers} parameter should be the same server list
+ * ({@code host:port}, separated by comma) as assigned to the clients.
+ * </p>
+ * <p>
+ * Requests of parameter flow rules with a single parameter are sharded by the parameter value,
+ * so the parameter flow rules are partly owned by every token server.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+@CommandMapping(name = "cluster/server/ownedFlowIds", desc = "get cluster flow IDs owned by current server, "
+    + "param: servers, self (optional, host:port of current server), namespace (optional)")
+public class FetchOwnedFlowIdsCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        String servers = request.getParam("servers");
+        if (StringUtil.isBlank(servers)) {
+            return CommandResponse.ofFailure(new IllegalArgumentException("empty servers"));
+        }
+        Map<String, String> nodes = new LinkedHashMap<>();
+        for (String server : servers.split(",")) {
+            if (StringUtil.isNotBlank(server)) {
+                nodes.put(server.trim(), server.trim());
+            }
+        }
+        String self = request.getParam("self");
+        if (StringUtil.isBlank(self)) {
+            self = HostNameUtil.getIp() + ":" + ClusterServerConfigManager.getPort();
+        }
+        self = self.trim();
+        if (!nodes.containsKey(self)) {
+            return CommandResponse.ofFailure(new IllegalArgumentException("current server not in servers: " + self));
+        }
+
+        ConsistentHashRing<String> ring = new ConsistentHashRing<>(nodes);
+        String namespace = request.getParam("namespace");
+        Set<Long> ownedFlowIds = new TreeSet<>();
+        for (FlowRule rule : StringUtil.isEmpty(namespace) ? ClusterFlowRuleManager.getAllFlowRules()
+            : ClusterFlowRuleManager.getFlowRules(namespace)) {
+            Long flowId = rule.getClusterConfig().getFlowId();
+            if (self.equals(ring.route(flowId))) {
+                ownedFlowIds.add(flowId);
+            }
+        }
+        Set<Long> paramFlowIds = new TreeSet<>();
+        for (ParamFlowRule rule : StringUtil.isEmpty(namespace) ? ClusterParamFlowRuleManager.getAllParamRules()
+            : ClusterParamFlowRuleManager.getParamRules(namespace)) {
+            paramFlowIds.add(rule.getClusterConfig().getFlowId());
+        }
+
+        JSONObject result = new JSONObject()
+            .fluentPut("self", self)
+            .fluentPut("servers", nodes.keySet())
+            .fluentPut("flowIds", ownedFlowIds)
+            .fluentPut("paramFlowIds", paramFlowIds);
+        return CommandResponse.ofSuccess(result.toJSONString());
+    }
+}
@@ -50,6 +50,17 @@ public final class ConnectionManager {
         return group == null ? 0 : group.getConnectedCount();
     }
 
+    /**
+     * Check whether the client has been connected (i.e. registered with its namespace).
+     *
+     * @param address address of the client
+     * @return true if the client is connected
+     * @since 1.8.0
+     */
+    public static boolean isConnected(String address) {
+        return address != null && NAMESPACE_MAP.containsKey(address);
+    }
+
     public static ConnectionGroup getOrCreateGroup(String namespace) {
         AssertUtil.assertNotBlank(namespace, "namespace should not be empty");
         ConnectionGroup group = CONN_MAP.get(namespace);
@@ -22,6 +22,7 @@ import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
 import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
 import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionPool;
+import com.alibaba.csp.sentinel.cluster.server.processor.ConnectionAwareRequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessor;
 import com.alibaba.csp.sentinel.cluster.server.processor.RequestProcessorProvider;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -76,7 +77,13 @@ public class TokenServerHandler extends ChannelInboundHandlerAdapter {
                 RecordLog.warn("[TokenServerHandler] No processor for request type: " + request.getType());
                 writeBadResponse(ctx, request);
             } else {
-                ClusterResponse<?> response = processor.processRequest(request);
+                ClusterResponse<?> response;
+                if (processor instanceof ConnectionAwareRequestProcessor) {
+                    response = ((ConnectionAwareRequestProcessor)processor).processRequest(getRemoteAddress(ctx),
+                        request);
+                } else {
+                    response = processor.processRequest(request);
+                }
                 writeResponse(ctx, response);
             }
         }
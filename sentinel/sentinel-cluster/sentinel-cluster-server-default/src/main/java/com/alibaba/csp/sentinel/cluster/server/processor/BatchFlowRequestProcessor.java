@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.BatchFlowRequestData;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.BatchFlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.PartialTokenService;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor of batch flow requests, which acquires tokens for each of the requests in order. Requests marked as
+ * partial (see {@link BatchFlowRequestData#isPartial(int)}) are granted as many tokens as available, with the
+ * granted count responded as the remaining count.
+ *
+ * @since 1.8.0
+ */
+@RequestType(ClusterConstants.MSG_TYPE_FLOW_BATCH)
+public class BatchFlowRequestProcessor implements RequestProcessor<BatchFlowRequestData, BatchFlowTokenResponseData> {
+
+    @Override
+    public ClusterResponse<BatchFlowTokenResponseData> processRequest(ClusterRequest<BatchFlowRequestData> request) {
+        BatchFlowRequestData data = request.getData();
+        if (data == null) {
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_BAD,
+                null);
+        }
+        TokenService tokenService = TokenServiceProvider.getService();
+
+        List<FlowRequestData> requests = data.getRequests();
+        BatchFlowTokenResponseData responseData = new BatchFlowTokenResponseData();
+        for (int i = 0; i < requests.size(); i++) {
+            FlowRequestData flowRequest = requests.get(i);
+            TokenResult result;
+            if (data.isPartial(i)) {
+                result = requestPartially(tokenService, flowRequest);
+            } else {
+                result = tokenService.requestToken(flowRequest.getFlowId(), flowRequest.getCount(),
+                    flowRequest.isPriority());
+            }
+            if (result == null) {
+                result = new TokenResult(TokenResultStatus.FAIL);
+            }
+            responseData.addResult(result);
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_OK,
+            responseData);
+    }
+
+    private TokenResult requestPartially(TokenService tokenService, FlowRequestData flowRequest) {
+        if (tokenService instanceof PartialTokenService) {
+            return ((PartialTokenService)tokenService).requestTokenUpTo(flowRequest.getFlowId(),
+                flowRequest.getCount());
+        }
+        // All or nothing.
+        TokenResult result = tokenService.requestToken(flowRequest.getFlowId(), flowRequest.getCount(), false);
+        if (result != null && result.getStatus() == TokenResultStatus.OK) {
+            result.setRemaining(flowRequest.getCount());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.FlowRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.ConnectionAwareTokenService;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor of concurrency token requests. The acquired tokens are bound to the client, so that they can be
+ * reclaimed once the client has been disconnected.
+ *
+ * @since 1.8.0
+ */
+@RequestType(ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_ACQUIRE)
+public class ConcurrentFlowAcquireRequestProcessor
+    implements ConnectionAwareRequestProcessor<FlowRequestData, FlowTokenResponseData> {
+
+    @Override
+    public ClusterResponse<FlowTokenResponseData> processRequest(ClusterRequest<FlowRequestData> request) {
+        return processRequest(null, request);
+    }
+
+    @Override
+    public ClusterResponse<FlowTokenResponseData> processRequest(String clientAddress,
+                                                                 ClusterRequest<FlowRequestData> request) {
+        FlowRequestData data = request.getData();
+        if (data == null) {
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_BAD,
+                null);
+        }
+        TokenService tokenService = TokenServiceProvider.getService();
+
+        TokenResult result;
+        if (tokenService instanceof ConnectionAwareTokenService) {
+            result = ((ConnectionAwareTokenService)tokenService).requestConcurrentToken(clientAddress,
+                data.getFlowId(), data.getCount());
+        } else if (tokenService instanceof ConcurrentTokenService) {
+            result = ((ConcurrentTokenService)tokenService).requestConcurrentToken(data.getFlowId(),
+                data.getCount());
+        } else {
+            result = new TokenResult(TokenResultStatus.FAIL);
+        }
+        return new ClusterResponse<>(request.getId(), request.getType(), result.getStatus(),
+            new FlowTokenResponseData()
+                .setRemainingCount(result.getRemaining())
+                .setWaitInMs(result.getWaitInMs())
+                .setTokenId(result.getTokenId())
+        );
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.processor;
+
+import com.alibaba.csp.sentinel.cluster.ClusterConstants;
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
+import com.alibaba.csp.sentinel.cluster.TokenService;
+import com.alibaba.csp.sentinel.cluster.annotation.RequestType;
+import com.alibaba.csp.sentinel.cluster.request.ClusterRequest;
+import com.alibaba.csp.sentinel.cluster.request.data.ConcurrentFlowReleaseRequestData;
+import com.alibaba.csp.sentinel.cluster.response.ClusterResponse;
+import com.alibaba.csp.sentinel.cluster.response.data.FlowTokenResponseData;
+import com.alibaba.csp.sentinel.cluster.server.TokenServiceProvider;
+
+/**
+ * Processor of concurrency token releases. Releasing a released or reclaimed token is still OK.
+ *
+ * @since 1.8.0
+ */
+@RequestType(ClusterConstants.MSG_TYPE_CONCURRENT_FLOW_RELEASE)
+public class ConcurrentFlowReleaseRequestProcessor
+    implements RequestProcessor<ConcurrentFlowReleaseRequestData, FlowTokenResponseData> {
+
+    @Override
+    public ClusterResponse<FlowTokenResponseData> processRequest(
+        ClusterRequest<ConcurrentFlowReleaseRequestData> request) {
+        ConcurrentFlowReleaseRequestData data = request.getData();
+        TokenService tokenService = TokenServiceProvider.getService();
+        if (data == null || !(tokenService instanceof ConcurrentTokenService)) {
+            return new ClusterResponse<>(request.getId(), request.getType(), ClusterConstants.RESPONSE_STATUS_BAD,
+                null);
+        }
+        // Tokens are identified by the token ID only.
+        ((ConcurrentTokenService)tokenService).releaseConcurrentToken(null, data.getTokenId());
+        return new ClusterResponse<>(request.getId(), request.getType(), TokenResultStatus.OK,
+            new FlowTokenResponseData().setRemainingCount(0).setWaitInMs(0));
+    }
+}
@@ -15,12 +15,20 @@
  */
 package com.alibaba.csp.sentinel.cluster.flow;
 
+import java.util.ArrayList;
+import java.util.Collections;
+
 import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.flow.rule.ClusterFlowRuleManager;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.ClusterMetricStatistics;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent.ClusterConcurrencyManager;
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
 import com.alibaba.csp.sentinel.cluster.flow.statistic.metric.ClusterMetric;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
 import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import org.junit.Ignore;
 import org.junit.Test;
@@ -72,6 +80,109 @@ public class ClusterFlowCheckerTest {
         ClusterMetricStatistics.removeMetric(flowId);
     }
 
+    @Test
+    public void testAcquireClusterTokenUpTo() {
+        long flowId = 98768L;
+        String namespace = "partial-test";
+        FlowRule clusterRule = new FlowRule("ghi")
+            .setCount(5)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+                .setSampleCount(1));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        try {
+            TokenResult result = ClusterFlowChecker.acquireClusterTokenUpTo(clusterRule, 3);
+            assertResultPass(result);
+            assertEquals(3, result.getRemaining());
+            // Only the available tokens are granted, rather than blocking the whole acquire.
+            result = ClusterFlowChecker.acquireClusterTokenUpTo(clusterRule, 4);
+            assertResultPass(result);
+            assertEquals(2, result.getRemaining());
+            assertResultBlock(ClusterFlowChecker.acquireClusterTokenUpTo(clusterRule, 1));
+
+            ClusterMetric metric = ClusterMetricStatistics.getMetric(flowId);
+            assertEquals(5, metric.getSum(ClusterFlowEvent.PASS));
+            assertEquals(3, metric.getSum(ClusterFlowEvent.BLOCK));
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, new ArrayList<FlowRule>());
+            ClusterFlowRuleManager.removeProperty(namespace);
+        }
+    }
+
+    @Test
+    public void testAcquireClusterLease() {
+        long flowId = 98766L;
+        String namespace = "lease-test";
+        FlowRule clusterRule = new FlowRule("def")
+            .setCount(100)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL)
+                .setSampleCount(1)
+                .setLeaseEnabled(true)
+                .setLeaseValidityMs(200));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        try {
+            long leaseTime = TimeUtil.currentTimeMillis();
+            // A lease never exceeds the share of the threshold in its validity.
+            TokenResult result = ClusterFlowChecker.acquireClusterLease(clusterRule, 50, 0, 0);
+            assertResultPass(result);
+            assertEquals(20, result.getRemaining());
+            assertEquals(200, result.getWaitInMs());
+            for (int i = 0; i < 4; i++) {
+                assertEquals(20, ClusterFlowChecker.acquireClusterLease(clusterRule, 20, 0, 0).getRemaining());
+            }
+            // Leases are bounded by the global threshold.
+            assertResultBlock(ClusterFlowChecker.acquireClusterLease(clusterRule, 1, 0, 0));
+
+            // Returned tokens can be leased again.
+            int returnAgeMs = (int)(TimeUtil.currentTimeMillis() - leaseTime);
+            result = ClusterFlowChecker.acquireClusterLease(clusterRule, 10, 15, returnAgeMs);
+            assertResultPass(result);
+            assertEquals(10, result.getRemaining());
+            assertEquals(95, ClusterMetricStatistics.getMetric(flowId).getSum(ClusterFlowEvent.PASS));
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, new ArrayList<FlowRule>());
+            ClusterFlowRuleManager.removeProperty(namespace);
+        }
+    }
+
+    @Test
+    public void testAcquireConcurrentToken() {
+        long flowId = 98767L;
+        String namespace = "concurrency-test";
+        FlowRule clusterRule = new FlowRule("ghi")
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setCount(2)
+            .setClusterMode(true)
+            .setClusterConfig(new ClusterFlowConfig()
+                .setFlowId(flowId)
+                .setThresholdType(ClusterRuleConstant.FLOW_THRESHOLD_GLOBAL));
+        ClusterFlowRuleManager.registerPropertyIfAbsent(namespace);
+        ClusterFlowRuleManager.loadRules(namespace, Collections.singletonList(clusterRule));
+        try {
+            TokenResult first = ClusterFlowChecker.acquireConcurrentToken(clusterRule, 1, null);
+            assertResultPass(first);
+            assertEquals(1, first.getRemaining());
+            assertResultPass(ClusterFlowChecker.acquireConcurrentToken(clusterRule, 1, null));
+            assertResultBlock(ClusterFlowChecker.acquireConcurrentToken(clusterRule, 1, null));
+
+            assertTrue(ClusterFlowChecker.releaseConcurrentToken(first.getTokenId()));
+            assertFalse(ClusterFlowChecker.releaseConcurrentToken(first.getTokenId()));
+            assertResultPass(ClusterFlowChecker.acquireConcurrentToken(clusterRule, 1, null));
+        } finally {
+            ClusterFlowRuleManager.loadRules(namespace, new ArrayList<FlowRule>());
+            ClusterFlowRuleManager.removeProperty(namespace);
+        }
+        // Tokens are dropped along with the rule.
+        assertEquals(0, ClusterConcurrencyManager.getConcurrency(flowId));
+    }
+
     private TokenResult tryAcquire(FlowRule clusterRule, boolean occupy) {
         return ClusterFlowChecker.acquireClusterToken(clusterRule, 1, occupy);
     }
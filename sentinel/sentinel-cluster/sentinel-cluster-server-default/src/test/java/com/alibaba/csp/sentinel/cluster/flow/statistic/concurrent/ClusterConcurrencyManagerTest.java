@@ -0,0 +1,129 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.concurrent;
+
+import com.alibaba.csp.sentinel.cluster.server.connection.ConnectionManager;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 1.8.0
+ */
+public class ClusterConcurrencyManagerTest {
+
+    private static final long FLOW_ID = 111L;
+    private static final long TIMEOUT_MS = 60 * 1000;
+
+    @After
+    public void tearDown() {
+        ClusterConcurrencyManager.clear();
+    }
+
+    @Test
+    public void testAcquireAndRelease() {
+        ConcurrencyToken first = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 2, 3, null, TIMEOUT_MS);
+        assertNotNull(first);
+        assertNull(ClusterConcurrencyManager.tryAcquire(FLOW_ID, 2, 3, null, TIMEOUT_MS));
+        ConcurrencyToken second = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 1, 3, null, TIMEOUT_MS);
+        assertNotNull(second);
+        assertNotEquals(first.getTokenId(), second.getTokenId());
+        assertEquals(3, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+
+        assertSame(first, ClusterConcurrencyManager.release(first.getTokenId()));
+        // Duplicate release does nothing.
+        assertNull(ClusterConcurrencyManager.release(first.getTokenId()));
+        assertEquals(1, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+        assertNotNull(ClusterConcurrencyManager.tryAcquire(FLOW_ID, 2, 3, null, TIMEOUT_MS));
+    }
+
+    @Test
+    public void testReclaimExpiredTokens() {
+        ConcurrencyToken token = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 1, 1, null, 500);
+        assertNotNull(token);
+
+        ClusterConcurrencyManager.reclaimTokens(token.getAcquireTime() + 100);
+        assertEquals(1, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+        ClusterConcurrencyManager.reclaimTokens(token.getAcquireTime() + 501);
+        assertEquals(0, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+        assertNull(ClusterConcurrencyManager.release(token.getTokenId()));
+    }
+
+    @Test
+    public void testReclaimTokensOfDisconnectedClients() {
+        String namespace = "concurrency-test";
+        String connected = "127.0.0.1:20001";
+        String disconnected = "127.0.0.1:20002";
+        ConnectionManager.addConnection(namespace, connected);
+        try {
+            ConcurrencyToken kept = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 1, 10, connected, TIMEOUT_MS);
+            ConcurrencyToken lost = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 2, 10, disconnected, TIMEOUT_MS);
+            ConcurrencyToken local = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 4, 10, null, TIMEOUT_MS);
+            assertNotNull(kept);
+            assertNotNull(lost);
+            assertNotNull(local);
+            assertEquals(7, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+
+            long now = TimeUtil.currentTimeMillis();
+            // The client might not have registered yet.
+            ClusterConcurrencyManager.reclaimTokens(now);
+            assertEquals(7, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+
+            ClusterConcurrencyManager.reclaimTokens(now + ClusterConcurrencyManager.RECLAIM_INTERVAL_MS * 2);
+            assertEquals(5, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+            assertNull(ClusterConcurrencyManager.release(lost.getTokenId()));
+        } finally {
+            ConnectionManager.removeConnection(namespace, connected);
+        }
+    }
+
+    @Test
+    public void testReclaimTokensOnceClientDisconnected() {
+        String namespace = "concurrency-test";
+        String address = "127.0.0.1:20003";
+        ConnectionManager.addConnection(namespace, address);
+        try {
+            // No timeout: tokens are held as long as the client is connected.
+            ConcurrencyToken token = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 3, 10, address, 0);
+            assertNotNull(token);
+
+            long later = token.getAcquireTime() + 60 * 60 * 1000;
+            ClusterConcurrencyManager.reclaimTokens(later);
+            assertEquals(3, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+
+            ConnectionManager.removeConnection(namespace, address);
+            ClusterConcurrencyManager.reclaimTokens(later);
+            assertEquals(0, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+            assertNull(ClusterConcurrencyManager.release(token.getTokenId()));
+        } finally {
+            ConnectionManager.removeConnection(namespace, address);
+        }
+    }
+
+    @Test
+    public void testRemoveFlow() {
+        ConcurrencyToken token = ClusterConcurrencyManager.tryAcquire(FLOW_ID, 1, 1, null, TIMEOUT_MS);
+        assertNotNull(token);
+
+        ClusterConcurrencyManager.removeFlow(FLOW_ID);
+        assertEquals(0, ClusterConcurrencyManager.getConcurrency(FLOW_ID));
+        assertNull(ClusterConcurrencyManager.release(token.getTokenId()));
+        assertNotNull(ClusterConcurrencyManager.tryAcquire(FLOW_ID, 1, 1, null, TIMEOUT_MS));
+    }
+}
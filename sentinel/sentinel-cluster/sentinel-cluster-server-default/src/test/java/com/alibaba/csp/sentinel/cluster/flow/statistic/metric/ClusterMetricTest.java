@@ -0,0 +1,144 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.flow.statistic.metric;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.cluster.flow.statistic.data.ClusterFlowEvent;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 1.8.0
+ */
+public class ClusterMetricTest {
+
+    /**
+     * A long window which won't slide during the test.
+     */
+    private static final int INTERVAL_MS = 3600 * 1000;
+
+    @Test
+    public void testTryPass() {
+        ClusterMetric metric = new ClusterMetric(1, INTERVAL_MS);
+        // 3 passes in the window.
+        double threshold = 3.0d / 3600;
+
+        assertTrue(metric.tryPass(2, threshold) >= 0);
+        assertTrue(metric.tryPass(2, threshold) < 0);
+        assertTrue(metric.tryPass(1, threshold) >= 0);
+        assertTrue(metric.tryPass(1, threshold) < 0);
+        assertEquals(3, metric.getSum(ClusterFlowEvent.PASS));
+        assertEquals(2, metric.getSum(ClusterFlowEvent.PASS_REQUEST));
+    }
+
+    @Test
+    public void testTryPassUpTo() {
+        ClusterMetric metric = new ClusterMetric(1, INTERVAL_MS);
+        double threshold = 10.0d / 3600;
+
+        assertEquals(8, metric.tryPassUpTo(8, threshold));
+        assertEquals(2, metric.tryPassUpTo(8, threshold));
+        assertEquals(0, metric.tryPassUpTo(1, threshold));
+        assertEquals(10, metric.getSum(ClusterFlowEvent.PASS));
+    }
+
+    @Test
+    public void testConcurrentTryPassNeverOvershoots() throws Exception {
+        final ClusterMetric metric = new ClusterMetric(1, INTERVAL_MS);
+        final double threshold = 1000.0d / 3600;
+        final int threadCount = 8;
+        final AtomicInteger passed = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < 500; j++) {
+                            if (metric.tryPass(1, threshold) >= 0) {
+                                passed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        assertEquals(1000, passed.get());
+        assertEquals(1000, metric.getSum(ClusterFlowEvent.PASS));
+    }
+
+    @Test
+    public void testTakeBackPass() {
+        ClusterMetric metric = new ClusterMetric(1, INTERVAL_MS);
+        assertEquals(5, metric.tryPassUpTo(5, 10.0d / 3600));
+
+        long now = TimeUtil.currentTimeMillis();
+        assertEquals(3, metric.takeBackPass(3, now));
+        assertEquals(2, metric.takeBackPass(3, now));
+        assertEquals(0, metric.takeBackPass(3, now));
+        assertEquals(0, metric.getSum(ClusterFlowEvent.PASS));
+        // The bucket has slid out of the window.
+        assertEquals(0, metric.takeBackPass(3, now - INTERVAL_MS * 2L));
+    }
+
+    @Test
+    public void testConcurrentTakeBackPassNeverNegative() throws Exception {
+        final ClusterMetric metric = new ClusterMetric(1, INTERVAL_MS);
+        assertEquals(1000, metric.tryPassUpTo(1000, 1000.0d / 3600));
+        final long now = TimeUtil.currentTimeMillis();
+        final int threadCount = 8;
+        final AtomicLong taken = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < 100; j++) {
+                            taken.addAndGet(metric.takeBackPass(3, now));
+                        }
+                    } catch (InterruptedException ignored) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        assertEquals(1000, taken.get());
+        assertEquals(0, metric.getSum(ClusterFlowEvent.PASS));
+    }
+}
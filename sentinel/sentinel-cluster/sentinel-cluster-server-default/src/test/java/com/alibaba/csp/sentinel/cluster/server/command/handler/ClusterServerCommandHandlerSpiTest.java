@@ -0,0 +1,44 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.server.command.handler;
+
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandHandlerProvider;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for the command handlers of cluster server registered via SPI.
+ *
+ * @since 1.8.0
+ */
+public class ClusterServerCommandHandlerSpiTest {
+
+    @Test
+    public void testLoadAllClusterServerCommandHandlers() {
+        // A malformed SPI file fails the loading of all command handlers.
+        Map<String, CommandHandler> handlers = new CommandHandlerProvider().namedHandlers();
+
+        assertTrue(handlers.get("cluster/server/flowRules") instanceof FetchClusterFlowRulesCommandHandler);
+        assertTrue(handlers.get("cluster/server/info") instanceof FetchClusterServerInfoCommandHandler);
+        assertTrue(handlers.get("cluster/server/metricList") instanceof FetchClusterMetricCommandHandler);
+        assertTrue(handlers.get("cluster/server/ownedFlowIds") instanceof FetchOwnedFlowIdsCommandHandler);
+    }
+}
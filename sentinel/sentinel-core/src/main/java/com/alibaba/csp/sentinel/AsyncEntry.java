@@ -15,11 +15,21 @@
  */
 package com.alibaba.csp.sentinel;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.PacedTrafficShapingController;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * The entry for asynchronous resources.
@@ -31,8 +41,226 @@ public class AsyncEntry extends CtEntry {
 
     private Context asyncContext;
 
+    /**
+     * Whether paced rules may delay the entry instead of blocking the thread.
+     */
+    private final boolean delayAllowed;
+    /**
+     * The time when the entry is scheduled to pass, or -1 if the entry passes immediately.
+     */
+    private volatile long scheduledPassTime = -1;
+
+    /**
+     * Count of the checks (e.g. cluster token requests) deciding the pass of the entry asynchronously.
+     * Guarded by this entry, as well as the fields below.
+     */
+    private int pendingChecks = 0;
+    private BlockException deferredBlockException;
+    private List<PassDecisionCallback> decisionCallbacks;
+    private boolean exitedBeforeDecided = false;
+
     AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context) {
+        this(resourceWrapper, chain, context, false);
+    }
+
+    AsyncEntry(ResourceWrapper resourceWrapper, ProcessorSlot<Object> chain, Context context, boolean delayAllowed) {
         super(resourceWrapper, chain, context);
+        this.delayAllowed = delayAllowed;
+    }
+
+    /**
+     * Whether the entry was created by {@link SphU#asyncEntryWithDelay(String, EntryType, int, Object...)},
+     * i.e. {@link PacedTrafficShapingController}s should reserve the pass time of the entry
+     * rather than waiting until then.
+     *
+     * @return true if the entry may pass with a delay
+     * @since 1.8.0
+     */
+    public boolean isDelayAllowed() {
+        return delayAllowed;
+    }
+
+    /**
+     * Delay the pass of the entry to given time. Only the latest time is kept if called multiple times
+     * (e.g. by multiple rules). This is called by slots during entry.
+     *
+     * @param passTime the time (based on {@link TimeUtil}) when the entry is allowed to pass
+     * @since 1.8.0
+     */
+    public void delayPassUntil(long passTime) {
+        if (passTime > scheduledPassTime) {
+            this.scheduledPassTime = passTime;
+        }
+    }
+
+    /**
+     * @return the time (based on {@link TimeUtil}) when the entry is scheduled to pass,
+     * or -1 if the entry was not delayed
+     * @since 1.8.0
+     */
+    public long getScheduledPassTime() {
+        return scheduledPassTime;
+    }
+
+    /**
+     * Get the remaining delay before the entry is allowed to pass. Callers may delay the asynchronous
+     * invocation on their own timer (e.g. the event loop) by the delay.
+     *
+     * @return the remaining delay in milliseconds, or 0 if the entry can pass now
+     * @since 1.8.0
+     */
+    public long getPassDelayMs() {
+        long passTime = scheduledPassTime;
+        if (passTime < 0) {
+            return 0;
+        }
+        return Math.max(0, passTime - TimeUtil.currentTimeMillis());
+    }
+
+    /**
+     * Defer the pass decision of the entry to an asynchronous check (e.g. a cluster token request), which must
+     * be completed by {@link #completeDeferredCheck(BlockException)}. This is called by slots during entry,
+     * only for entries allowing delay.
+     *
+     * @since 1.8.0
+     */
+    public synchronized void deferCheck() {
+        pendingChecks++;
+    }
+
+    /**
+     * Complete a check deferred by {@link #deferCheck()}. The callbacks registered by
+     * {@link #whenDecided(PassDecisionCallback)} are invoked in current thread once all deferred checks
+     * have completed.
+     *
+     * @param blockException the block exception if the check rejects the entry, or null if passed
+     * @since 1.8.0
+     */
+    public void completeDeferredCheck(BlockException blockException) {
+        List<PassDecisionCallback> callbacks;
+        BlockException decision;
+        synchronized (this) {
+            if (pendingChecks <= 0) {
+                return;
+            }
+            if (blockException != null && deferredBlockException == null) {
+                this.deferredBlockException = blockException;
+            }
+            if (--pendingChecks > 0 || decisionCallbacks == null) {
+                return;
+            }
+            callbacks = decisionCallbacks;
+            decision = deferredBlockException;
+            this.decisionCallbacks = null;
+        }
+        for (PassDecisionCallback callback : callbacks) {
+            fireDecision(callback, decision);
+        }
+    }
+
+    /**
+     * @return true if there is no pending deferred check of the entry
+     * @since 1.8.0
+     */
+    public synchronized boolean isPassDecided() {
+        return pendingChecks == 0;
+    }
+
+    /**
+     * @return true if the entry exited before all deferred checks completed, so it has neither passed
+     * nor been blocked
+     * @since 1.8.0
+     */
+    public synchronized boolean isExitedBeforeDecided() {
+        return exitedBeforeDecided;
+    }
+
+    /**
+     * Drop the pending deferred checks and their decision callbacks when the entry exits before its pass
+     * is decided (e.g. the invocation is cancelled), so that the entry is never counted as passed.
+     */
+    private synchronized void abandonDeferredChecks() {
+        if (pendingChecks > 0) {
+            this.pendingChecks = 0;
+            this.decisionCallbacks = null;
+            this.exitedBeforeDecided = true;
+        }
+    }
+
+    /**
+     * @return the block exception of a completed deferred check, or null if not blocked (yet)
+     * @since 1.8.0
+     */
+    public synchronized BlockException getDeferredBlockException() {
+        return deferredBlockException;
+    }
+
+    /**
+     * Invoke the callback when all deferred checks of the entry have completed, in current thread if
+     * the pass has been decided, otherwise in the thread completing the last check (e.g. the I/O thread
+     * of the cluster token client), so the callback should not block.
+     * If passed, the caller should still respect {@link #getPassDelayMs()}. If blocked, the entry is counted
+     * as blocked rather than passed, and the caller should still exit the entry without invocation.
+     * The callback is never invoked if the entry exits before the pass is decided.
+     *
+     * @param callback the callback of the pass decision
+     * @since 1.8.0
+     */
+    public void whenDecided(PassDecisionCallback callback) {
+        BlockException decision;
+        synchronized (this) {
+            if (pendingChecks > 0) {
+                if (decisionCallbacks == null) {
+                    this.decisionCallbacks = new ArrayList<PassDecisionCallback>(1);
+                }
+                decisionCallbacks.add(callback);
+                return;
+            }
+            decision = deferredBlockException;
+        }
+        fireDecision(callback, decision);
+    }
+
+    private void fireDecision(PassDecisionCallback callback, BlockException decision) {
+        try {
+            if (decision == null) {
+                callback.onPass();
+            } else {
+                callback.onBlocked(decision);
+            }
+        } catch (Throwable ex) {
+            RecordLog.warn("[AsyncEntry] Unexpected error when invoking pass decision callback", ex);
+        }
+    }
+
+    /**
+     * Run the task when the entry is allowed to pass. The task is run in current thread if there is no delay
+     * and no pending deferred check, otherwise it's run by a shared timer thread after the delay (or by the
+     * thread completing the last deferred check), so the task should be short
+     * (e.g. dispatching to the executor of the asynchronous invocation).
+     * The task is not run if the entry is blocked by a deferred check,
+     * use {@link #whenDecided(PassDecisionCallback)} to handle the block.
+     *
+     * @param task the task to run when the entry passes
+     * @since 1.8.0
+     */
+    public void whenPassed(final Runnable task) {
+        whenDecided(new PassDecisionCallback() {
+            @Override
+            public void onPass() {
+                long delay = getPassDelayMs();
+                if (delay <= 0) {
+                    task.run();
+                } else {
+                    PassTimerHolder.TIMER.schedule(task, delay, TimeUnit.MILLISECONDS);
+                }
+            }
+
+            @Override
+            public void onBlocked(BlockException ex) {
+                // The task is not run.
+            }
+        });
     }
 
     /**
@@ -91,8 +319,37 @@ public class AsyncEntry extends CtEntry {
 
     @Override
     protected Entry trueExit(int count, Object... args) throws ErrorEntryFreeException {
+        abandonDeferredChecks();
         exitForContext(asyncContext, count, args);
 
         return parent;
     }
+
+    /**
+     * Callback of the pass decision of an entry with deferred checks.
+     *
+     * @since 1.8.0
+     */
+    public interface PassDecisionCallback {
+
+        /**
+         * Invoked when the entry passes all deferred checks.
+         */
+        void onPass();
+
+        /**
+         * Invoked when the entry is blocked by a deferred check.
+         *
+         * @param ex the block exception
+         */
+        void onBlocked(BlockException ex);
+    }
+
+    private static final class PassTimerHolder {
+        private static final ScheduledExecutorService TIMER = createTimer();
+
+        private static ScheduledExecutorService createTimer() {
+            return new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("sentinel-async-pass-timer", true));
+        }
+    }
 }
@@ -54,6 +54,11 @@ public final class Constants {
      */
     public final static String SYSTEM_LOAD_RESOURCE_NAME = "__system_load__";
 
+    /**
+     * Prefix of the virtual resource identifiers for hot parameter statistics (since 1.8.0).
+     */
+    public final static String HOT_PARAM_RESOURCE_NAME_PREFIX = "__hot_param__";
+
     /**
      * Global ROOT statistic node that represents the universal parent node.
      */
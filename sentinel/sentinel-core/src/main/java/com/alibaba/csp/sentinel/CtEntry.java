@@ -18,8 +18,10 @@ package com.alibaba.csp.sentinel;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.context.NullContext;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 
 /**
@@ -72,8 +74,30 @@ class CtEntry extends Entry {
                 // Clean previous call stack.
                 CtEntry e = (CtEntry)context.getCurEntry();
                 while (e != null) {
-                    e.exit(count, args);
-                    e = (CtEntry)e.parent;
+                    CtEntry parentEntry = (CtEntry)e.parent;
+                    try {
+                        e.exit(count, args);
+                    } catch (RuntimeException ex) {
+                        RecordLog.warn("[CtEntry] Failed to exit entry of resource: "
+                            + e.getResourceWrapper().getName(), ex);
+                        // Go on cleaning the call stack.
+                        context.setCurEntry(parentEntry);
+                        e.clearEntryContext();
+                    } finally {
+                        // Exit handlers of every force-exited entry must be invoked (only once).
+                        e.callExitHandlers(context);
+                    }
+                    e = parentEntry;
+                }
+                if (this.context != null) {
+                    // Current entry is not in the call stack, so it has not been exited along with the stack.
+                    // Its slot chain won't be exited for the mismatched context, but the exit handlers should
+                    // still be invoked to release what they hold (e.g. cluster concurrency tokens).
+                    if (chain instanceof ProcessorSlotChain) {
+                        ((ProcessorSlotChain)chain).release();
+                    }
+                    callExitHandlers(context);
+                    clearEntryContext();
                 }
                 String errorMessage = String.format("The order of entry exit can't be paired with the order of entry"
                     + ", current entry in context: <%s>, but expected: <%s>", curEntryNameInContext, resourceWrapper.getName());
@@ -81,7 +105,12 @@ class CtEntry extends Entry {
             } else {
                 if (chain != null) {
                     chain.exit(context, resourceWrapper, count, args);
+                    if (chain instanceof ProcessorSlotChain) {
+                        // Acquired by CtSph when the entry was created.
+                        ((ProcessorSlotChain)chain).release();
+                    }
                 }
+                callExitHandlers(context);
                 // Restore the call stack.
                 context.setCurEntry(parent);
                 if (parent != null) {
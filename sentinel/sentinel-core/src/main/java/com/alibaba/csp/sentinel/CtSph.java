@@ -15,17 +15,33 @@
  */
 package com.alibaba.csp.sentinel;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.Node;
 import com.alibaba.csp.sentinel.slotchain.*;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.Rule;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * {@inheritDoc}
@@ -43,11 +59,23 @@ public class CtSph implements Sph {
      * Same resource({@link ResourceWrapper#equals(Object)}) will share the same
      * {@link ProcessorSlotChain}, no matter in which {@link Context}.
      */
-    private static volatile Map<ResourceWrapper, ProcessorSlotChain> chainMap
-        = new HashMap<ResourceWrapper, ProcessorSlotChain>();
+    private static final ConcurrentMap<ResourceWrapper, ProcessorSlotChain> chainMap
+        = new ConcurrentHashMap<ResourceWrapper, ProcessorSlotChain>();
 
+    /**
+     * Lock for evicting resources, so that only one thread scans the slot chains at a time.
+     */
     private static final Object LOCK = new Object();
 
+    /**
+     * When the count of resources reaches the max count, at least {@code 1 / EVICTION_BATCH_DIVISOR}
+     * of the max count is evicted at once, so the cost of scanning is amortized over the following
+     * registrations.
+     */
+    private static final int EVICTION_BATCH_DIVISOR = 16;
+
+    private static volatile long lastIdleSweepTime = 0;
+
     private AsyncEntry asyncEntryWithNoChain(ResourceWrapper resourceWrapper, Context context) {
         AsyncEntry entry = new AsyncEntry(resourceWrapper, null, context);
         entry.initAsyncContext();
@@ -58,6 +86,25 @@ public class CtSph implements Sph {
 
     private AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, int count, boolean prioritized,
                                                       Object... args) throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, null, count, prioritized, args);
+    }
+
+    /**
+     * @param resolvedChain pre-resolved slot chain of the resource, or null to look it up
+     */
+    AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, ProcessorSlotChain resolvedChain,
+                                              int count, boolean prioritized, Object... args)
+        throws BlockException {
+        return asyncEntryWithPriorityInternal(resourceWrapper, resolvedChain, count, prioritized, false, args);
+    }
+
+    /**
+     * @param resolvedChain pre-resolved slot chain of the resource, or null to look it up
+     * @param delayAllowed  whether paced rules may delay the entry instead of blocking current thread
+     */
+    AsyncEntry asyncEntryWithPriorityInternal(ResourceWrapper resourceWrapper, ProcessorSlotChain resolvedChain,
+                                              int count, boolean prioritized, boolean delayAllowed, Object[] args)
+        throws BlockException {
         Context context = ContextUtil.getContext();
         if (context instanceof NullContext) {
             // The {@link NullContext} indicates that the amount of context has exceeded the threshold,
@@ -74,14 +121,15 @@ public class CtSph implements Sph {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = acquireProcessChain(resourceWrapper, resolvedChain);
 
-        // Means processor cache size exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE}, so no rule checking will be done.
+        // Means processor cache size exceeds {@link SentinelConfig#resourceMaxCount()} and no resource could be evicted,
+        // so no rule checking will be done.
         if (chain == null) {
             return asyncEntryWithNoChain(resourceWrapper, context);
         }
 
-        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context);
+        AsyncEntry asyncEntry = new AsyncEntry(resourceWrapper, chain, context, delayAllowed);
         try {
             chain.entry(context, resourceWrapper, null, count, prioritized, args);
             // Initiate the async context only when the entry successfully passed the slot chain.
@@ -89,6 +137,11 @@ public class CtSph implements Sph {
             // The asynchronous call may take time in background, and current context should not be hanged on it.
             // So we need to remove current async entry from current context.
             asyncEntry.cleanCurrentEntryInLocal();
+            if (delayAllowed && ContextUtil.isDefaultContext(context) && context.getCurEntry() == null) {
+                // The delayed entry is likely to be completed in another thread, so the auto entered
+                // default context should not be left in current thread.
+                ContextUtil.exit();
+            }
         } catch (BlockException e1) {
             // When blocked, the async entry will be exited on current context.
             // The async context will not be initialized.
@@ -111,6 +164,14 @@ public class CtSph implements Sph {
 
     private Entry entryWithPriority(ResourceWrapper resourceWrapper, int count, boolean prioritized, Object... args)
         throws BlockException {
+        return entryWithPriority(resourceWrapper, null, count, prioritized, args);
+    }
+
+    /**
+     * @param resolvedChain pre-resolved slot chain of the resource, or null to look it up
+     */
+    Entry entryWithPriority(ResourceWrapper resourceWrapper, ProcessorSlotChain resolvedChain, int count,
+                            boolean prioritized, Object... args) throws BlockException {
         // 从 ThreadLocal 中获取 Context 实例
         Context context = ContextUtil.getContext();
         // 如果是 NullContext，那么说明 context name 超过了 2000 个，参见 ContextUtil#trueEnter
@@ -134,11 +195,11 @@ public class CtSph implements Sph {
 
         // 设计模式中的责任链模式。
         // 下面这行代码用于构建一个责任链，入参是 resource，前面我们说过资源的唯一标识是 resource name
-        ProcessorSlot<Object> chain = lookProcessChain(resourceWrapper);
+        ProcessorSlot<Object> chain = acquireProcessChain(resourceWrapper, resolvedChain);
 
         /*
-         * Means amount of resources (slot chain) exceeds {@link Constants.MAX_SLOT_CHAIN_SIZE},
-         * so no rule checking will be done.
+         * Means amount of resources (slot chain) exceeds {@link SentinelConfig#resourceMaxCount()}
+         * and no resource could be evicted, so no rule checking will be done.
          */
         // 根据 lookProcessChain 方法，我们知道，当 resource 超过 Constants.MAX_SLOT_CHAIN_SIZE，
         // 也就是 6000 的时候，Sentinel 开始不处理新的请求，这么做主要是为了 Sentinel 的性能考虑
@@ -161,14 +222,28 @@ public class CtSph implements Sph {
         return e;
     }
 
+    /**
+     * Same as {@link #entryWithPriority(ResourceWrapper, ProcessorSlotChain, int, boolean, Object...)},
+     * but the block is returned in the result rather than thrown.
+     */
+    EntryResult tryEntryWithPriority(ResourceWrapper resourceWrapper, ProcessorSlotChain resolvedChain, int count,
+                                     boolean prioritized, Object... args) {
+        try {
+            return EntryResult.passed(entryWithPriority(resourceWrapper, resolvedChain, count, prioritized, args));
+        } catch (BlockException e) {
+            return EntryResult.blocked(e);
+        }
+    }
+
     /**
      * Do all {@link Rule}s checking about the resource.
      *
      * <p>Each distinct resource will use a {@link ProcessorSlot} to do rules checking. Same resource will use
      * same {@link ProcessorSlot} globally. </p>
      *
-     * <p>Note that total {@link ProcessorSlot} count must not exceed {@link Constants#MAX_SLOT_CHAIN_SIZE},
-     * otherwise no rules checking will do. In this condition, all requests will pass directly, with no checking
+     * <p>Note that total {@link ProcessorSlot} count must not exceed {@link SentinelConfig#resourceMaxCount()}.
+     * When it's reached, least recently used resources are evicted if resource eviction is enabled, otherwise
+     * no rules checking will do. In this condition, all requests will pass directly, with no checking
      * or exception.</p>
      *
      * @param resourceWrapper resource name
@@ -181,6 +256,28 @@ public class CtSph implements Sph {
         return entryWithPriority(resourceWrapper, count, false, args);
     }
 
+    /**
+     * Get and acquire {@link ProcessorSlotChain} of the resource for a new entry, so that the resource won't be
+     * evicted until the entry exits. The entry releases the slot chain on exit. The access of the resource is
+     * recorded here, so that entries via pre-resolved slot chains are counted as well.
+     *
+     * @param resourceWrapper target resource
+     * @param resolvedChain   pre-resolved slot chain of the resource, or null to look it up
+     * @return acquired {@link ProcessorSlotChain} of the resource, or null if there is no room for the resource
+     */
+    private ProcessorSlotChain acquireProcessChain(ResourceWrapper resourceWrapper, ProcessorSlotChain resolvedChain) {
+        ProcessorSlotChain chain = resolvedChain != null ? resolvedChain : lookProcessChain(resourceWrapper);
+        while (chain != null && !chain.tryAcquire()) {
+            // The slot chain is being evicted, so the resource will be registered again.
+            Thread.yield();
+            chain = lookProcessChain(resourceWrapper);
+        }
+        if (chain != null) {
+            chain.recordAccess(TimeUtil.currentTimeMillis());
+        }
+        return chain;
+    }
+
     /**
      * Get {@link ProcessorSlotChain} of the resource. new {@link ProcessorSlotChain} will
      * be created if the resource doesn't relate one.
@@ -189,34 +286,178 @@ public class CtSph implements Sph {
      * {@link ProcessorSlotChain} globally, no matter in witch {@link Context}.<p/>
      *
      * <p>
-     * Note that total {@link ProcessorSlot} count must not exceed {@link Constants#MAX_SLOT_CHAIN_SIZE},
-     * otherwise null will return.
+     * Note that total {@link ProcessorSlot} count must not exceed {@link SentinelConfig#resourceMaxCount()}.
+     * When it's reached, least recently used resources are evicted if
+     * {@link SentinelConfig#resourceEvictionEnabled()}, otherwise null will return.
      * </p>
      *
      * @param resourceWrapper target resource
      * @return {@link ProcessorSlotChain} of the resource
      */
-    ProcessorSlot<Object> lookProcessChain(ResourceWrapper resourceWrapper) {
+    ProcessorSlotChain lookProcessChain(ResourceWrapper resourceWrapper) {
         ProcessorSlotChain chain = chainMap.get(resourceWrapper);
         if (chain == null) {
-            synchronized (LOCK) {
-                chain = chainMap.get(resourceWrapper);
-                if (chain == null) {
-                    // Entry size limit.
-                    if (chainMap.size() >= Constants.MAX_SLOT_CHAIN_SIZE) {
-                        return null;
-                    }
-
-                    chain = SlotChainProvider.newSlotChain();
-                    Map<ResourceWrapper, ProcessorSlotChain> newMap = new HashMap<ResourceWrapper, ProcessorSlotChain>(
-                        chainMap.size() + 1);
-                    newMap.putAll(chainMap);
-                    newMap.put(resourceWrapper, chain);
-                    chainMap = newMap;
+            return registerProcessChain(resourceWrapper);
+        }
+        return chain;
+    }
+
+    private static ProcessorSlotChain registerProcessChain(ResourceWrapper resourceWrapper) {
+        long idleTimeout = SentinelConfig.resourceIdleTimeoutMs();
+        if (idleTimeout > 0) {
+            evictIdleResources(idleTimeout);
+        }
+        // Entry size limit.
+        int maxCount = SentinelConfig.resourceMaxCount();
+        if (chainMap.size() >= maxCount) {
+            if (!SentinelConfig.resourceEvictionEnabled() || !evictLeastRecentlyUsed(maxCount)) {
+                return null;
+            }
+        }
+
+        ProcessorSlotChain chain = SlotChainProvider.newSlotChain();
+        // Record the access before it's visible, so that it won't be evicted as an idle one.
+        chain.recordAccess(TimeUtil.currentTimeMillis());
+        ProcessorSlotChain old = chainMap.putIfAbsent(resourceWrapper, chain);
+        return old == null ? chain : old;
+    }
+
+    /**
+     * Evict resources that have not been accessed for longer than the idle timeout. The slot chains are scanned
+     * at most once per idle timeout.
+     *
+     * @param idleTimeout idle timeout in milliseconds
+     */
+    private static void evictIdleResources(long idleTimeout) {
+        long currentTime = TimeUtil.currentTimeMillis();
+        if (currentTime - lastIdleSweepTime < idleTimeout) {
+            return;
+        }
+        synchronized (LOCK) {
+            if (currentTime - lastIdleSweepTime < idleTimeout) {
+                return;
+            }
+            lastIdleSweepTime = currentTime;
+            List<EvictionCandidate> idle = new ArrayList<EvictionCandidate>();
+            for (EvictionCandidate candidate : evictionCandidates()) {
+                if (currentTime - candidate.lastAccessTime >= idleTimeout) {
+                    idle.add(candidate);
                 }
             }
+            evict(idle);
+        }
+    }
+
+    /**
+     * Evict least recently used resources to make room for new resources.
+     *
+     * @param maxCount max count of resources
+     * @return true if there is room for new resources after eviction
+     */
+    private static boolean evictLeastRecentlyUsed(int maxCount) {
+        synchronized (LOCK) {
+            int size = chainMap.size();
+            if (size < maxCount) {
+                // Evicted by another thread.
+                return true;
+            }
+            int evictCount = size - maxCount + Math.max(1, maxCount / EVICTION_BATCH_DIVISOR);
+            List<EvictionCandidate> candidates = evictionCandidates();
+            Collections.sort(candidates);
+            evict(candidates.subList(0, Math.min(evictCount, candidates.size())));
+            return chainMap.size() < maxCount;
+        }
+    }
+
+    /**
+     * Get resources that could be evicted, i.e. resources that have no active entries,
+     * as exit of an entry should be recorded to the same statistic nodes as its entry. New entries may still
+     * acquire the candidates, which is checked again by {@link ProcessorSlotChain#tryEvict()}.
+     */
+    private static List<EvictionCandidate> evictionCandidates() {
+        List<EvictionCandidate> candidates = new ArrayList<EvictionCandidate>(chainMap.size());
+        for (Map.Entry<ResourceWrapper, ProcessorSlotChain> e : chainMap.entrySet()) {
+            if (e.getValue().hasActiveEntries()) {
+                continue;
+            }
+            candidates.add(new EvictionCandidate(e.getKey(), e.getValue()));
+        }
+        return candidates;
+    }
+
+    /**
+     * Remove slot chains of provided resources, together with their {@link ClusterNode}s and
+     * {@link DefaultNode}s in the invocation tree. They will be recreated on next access.
+     */
+    private static void evict(List<EvictionCandidate> candidates) {
+        Set<ResourceWrapper> evicted = new HashSet<ResourceWrapper>();
+        List<EvictionCandidate> evictedCandidates = new ArrayList<EvictionCandidate>();
+        for (EvictionCandidate candidate : candidates) {
+            if (candidate.chain.tryEvict()) {
+                evicted.add(candidate.resource);
+                evictedCandidates.add(candidate);
+            }
+        }
+        if (evicted.isEmpty()) {
+            return;
+        }
+        // Remove the nodes before the slot chains, so that the nodes of a resource registered again
+        // (which waits until the evicted slot chain is removed) won't be removed.
+        ClusterBuilderSlot.removeClusterNodes(evicted);
+        removeDefaultNodes(evicted);
+        for (EvictionCandidate candidate : evictedCandidates) {
+            chainMap.remove(candidate.resource, candidate.chain);
+        }
+        RecordLog.info("[CtSph] Evicted {0} resources, current resource count: {1}", evicted.size(),
+            chainMap.size());
+    }
+
+    /**
+     * Detach {@link DefaultNode}s of provided resources from the invocation tree. Child nodes of
+     * the removed nodes are detached along with them.
+     */
+    private static void removeDefaultNodes(Set<ResourceWrapper> resources) {
+        Set<Node> visited = Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+        Deque<DefaultNode> stack = new ArrayDeque<DefaultNode>();
+        stack.push(Constants.ROOT);
+        while (!stack.isEmpty()) {
+            DefaultNode parent = stack.pop();
+            if (!visited.add(parent)) {
+                continue;
+            }
+            for (Node child : parent.getChildList()) {
+                if (!(child instanceof DefaultNode)) {
+                    continue;
+                }
+                DefaultNode node = (DefaultNode)child;
+                // Entrance nodes are named after contexts rather than resources.
+                if (!(node instanceof EntranceNode) && resources.contains(node.getId())) {
+                    parent.removeChild(node);
+                } else {
+                    stack.push(node);
+                }
+            }
+        }
+    }
+
+    private static final class EvictionCandidate implements Comparable<EvictionCandidate> {
+        private final ResourceWrapper resource;
+        private final ProcessorSlotChain chain;
+        /**
+         * Snapshot of the access time, as it may be updated during sorting.
+         */
+        private final long lastAccessTime;
+
+        EvictionCandidate(ResourceWrapper resource, ProcessorSlotChain chain) {
+            this.resource = resource;
+            this.chain = chain;
+            this.lastAccessTime = chain.getLastAccessTime();
+        }
+
+        @Override
+        public int compareTo(EvictionCandidate o) {
+            return lastAccessTime < o.lastAccessTime ? -1 : (lastAccessTime == o.lastAccessTime ? 0 : 1);
         }
-        return chain;
     }
 
     /**
@@ -236,6 +477,7 @@ public class CtSph implements Sph {
      */
     static void resetChainMap() {
         chainMap.clear();
+        lastIdleSweepTime = 0;
     }
 
     /**
@@ -358,4 +600,57 @@ public class CtSph implements Sph {
         StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
         return asyncEntryWithPriorityInternal(resource, count, prioritized, args);
     }
+
+    /**
+     * Create a protected asynchronous resource, which may pass with a delay instead of blocking current thread
+     * when paced by rules (e.g. rate limiter flow rules). See {@link AsyncEntry#getPassDelayMs()}.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param entryType    the traffic entry type (IN/OUT) of the resource
+     * @param count        the count that the resource requires
+     * @param args         the parameters of the method. It can also be counted by setting hot parameter rule
+     * @return created asynchronous entry, which should not be invoked until the pass delay elapsed
+     * @throws BlockException if the block criteria is met
+     * @since 1.8.0
+     */
+    public AsyncEntry asyncEntryWithDelay(String name, int resourceType, EntryType entryType, int count,
+                                          Object[] args) throws BlockException {
+        StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
+        return asyncEntryWithPriorityInternal(resource, null, count, false, true, args);
+    }
+
+    /**
+     * Get the pre-resolved handle of a protected resource. Entering the resource via the handle
+     * saves the resource lookup of each entry.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param type         the resource is an inbound or an outbound method. This is used
+     *                     to mark whether it can be blocked when the system is unstable
+     * @return the handle of the resource
+     * @since 1.8.0
+     */
+    public ResourceHandle resource(String name, int resourceType, EntryType type) {
+        StringResourceWrapper resource = new StringResourceWrapper(name, type, resourceType);
+        return new ResourceHandle(this, resource, lookProcessChain(resource));
+    }
+
+    /**
+     * Create a protected resource without throwing {@link BlockException} when blocked.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param entryType    the traffic entry type (IN/OUT) of the resource
+     * @param count        tokens required
+     * @param prioritized  whether the entry is prioritized
+     * @param args         extra parameters
+     * @return the result with the entry if passed, or the triggered rule and the reason if blocked
+     * @since 1.8.0
+     */
+    public EntryResult tryEntryWithType(String name, int resourceType, EntryType entryType, int count,
+                                        boolean prioritized, Object[] args) {
+        StringResourceWrapper resource = new StringResourceWrapper(name, entryType, resourceType);
+        return tryEntryWithPriority(resource, null, count, prioritized, args);
+    }
 }
@@ -15,6 +15,11 @@
  */
 package com.alibaba.csp.sentinel;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.Node;
@@ -53,17 +58,38 @@ public abstract class Entry implements AutoCloseable {
     private static final Object[] OBJECTS0 = new Object[0];
 
     private long createTime;
+    /**
+     * The create time of this entry in nanoseconds, which is present only in high-resolution RT mode.
+     *
+     * @since 1.8.0
+     */
+    private long createNanoTime;
     private Node curNode;
     /**
      * {@link Node} of the specific origin, Usually the origin is the Service Consumer.
      */
     private Node originNode;
     private Throwable error;
+    /**
+     * The business exception traced to this entry via {@link Tracer}.
+     *
+     * @since 1.8.0
+     */
+    private Throwable tracedError;
+    /**
+     * Handlers invoked when the entry exits, e.g. to release cluster concurrency tokens acquired during entry.
+     *
+     * @since 1.8.0
+     */
+    private List<ExitHandler> exitHandlers;
     protected ResourceWrapper resourceWrapper;
 
     public Entry(ResourceWrapper resourceWrapper) {
         this.resourceWrapper = resourceWrapper;
         this.createTime = TimeUtil.currentTimeMillis();
+        if (SentinelConfig.highResolutionRtEnabled()) {
+            this.createNanoTime = System.nanoTime();
+        }
     }
 
     public ResourceWrapper getResourceWrapper() {
@@ -123,6 +149,17 @@ public abstract class Entry implements AutoCloseable {
         return createTime;
     }
 
+    /**
+     * Get the create time of this entry in nanoseconds (from {@link System#nanoTime()}).
+     * Only valid in high-resolution RT mode, otherwise 0.
+     *
+     * @return create time in nanoseconds
+     * @since 1.8.0
+     */
+    public long getCreateNanoTime() {
+        return createNanoTime;
+    }
+
     public Node getCurNode() {
         return curNode;
     }
@@ -139,6 +176,20 @@ public abstract class Entry implements AutoCloseable {
         this.error = error;
     }
 
+    /**
+     * Get the business exception traced to this entry via {@link Tracer}.
+     *
+     * @return the traced exception, or null if no exception has been traced
+     * @since 1.8.0
+     */
+    public Throwable getTracedError() {
+        return tracedError;
+    }
+
+    public void setTracedError(Throwable tracedError) {
+        this.tracedError = tracedError;
+    }
+
     /**
      * Get origin {@link Node} of the this {@link Entry}.
      *
@@ -153,4 +204,56 @@ public abstract class Entry implements AutoCloseable {
         this.originNode = originNode;
     }
 
+    /**
+     * Register a handler invoked once when the entry exits, after all slots have exited. As a blocked entry
+     * is exited as well, the handler is also invoked if a later slot blocks the entry.
+     *
+     * @param handler the handler to invoke when the entry exits
+     * @since 1.8.0
+     */
+    public void whenTerminate(ExitHandler handler) {
+        if (exitHandlers == null) {
+            this.exitHandlers = new ArrayList<>(1);
+        }
+        exitHandlers.add(handler);
+    }
+
+    /**
+     * Invoke the exit handlers of the entry, then clear them so that they are invoked only once.
+     *
+     * @param context context of the entry
+     * @since 1.8.0
+     */
+    protected void callExitHandlers(Context context) {
+        List<ExitHandler> handlers = this.exitHandlers;
+        if (handlers == null) {
+            return;
+        }
+        this.exitHandlers = null;
+        for (ExitHandler handler : handlers) {
+            try {
+                handler.onExit(context, this);
+            } catch (Throwable ex) {
+                RecordLog.warn("[Entry] Unexpected error in exit handler of resource: " + resourceWrapper.getName(),
+                    ex);
+            }
+        }
+    }
+
+    /**
+     * Handler invoked when an entry exits.
+     *
+     * @since 1.8.0
+     */
+    public interface ExitHandler {
+
+        /**
+         * Invoked when the entry exits.
+         *
+         * @param context context of the entry
+         * @param entry   the exited entry
+         */
+        void onExit(Context context, Entry entry);
+    }
+
 }
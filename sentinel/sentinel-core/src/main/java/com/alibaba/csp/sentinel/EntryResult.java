@@ -0,0 +1,117 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.slots.block.AbstractRule;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.BlockReason;
+
+/**
+ * <p>
+ * Result of a non-throwing entry, e.g. {@link SphU#tryEntry(String)}. Either the request passed
+ * with an {@link Entry} that must be exited, or it was blocked with the triggered rule and the reason.
+ * </p>
+ *
+ * <pre>
+ *  EntryResult result = SphU.tryEntry("abc");
+ *  if (result.isBlocked()) {
+ *      // add blocked handle logic here, e.g. by result.getReason()
+ *      return;
+ *  }
+ *  try {
+ *      // resource that need protection
+ *  } finally {
+ *      result.exit();
+ *  }
+ * </pre>
+ *
+ * @since 1.8.0
+ */
+public final class EntryResult {
+
+    private final Entry entry;
+    private final BlockException blockException;
+
+    private EntryResult(Entry entry, BlockException blockException) {
+        this.entry = entry;
+        this.blockException = blockException;
+    }
+
+    static EntryResult passed(Entry entry) {
+        return new EntryResult(entry, null);
+    }
+
+    static EntryResult blocked(BlockException blockException) {
+        return new EntryResult(null, blockException);
+    }
+
+    public boolean isPassed() {
+        return blockException == null;
+    }
+
+    public boolean isBlocked() {
+        return blockException != null;
+    }
+
+    /**
+     * @return the entry if passed, otherwise null
+     */
+    public Entry getEntry() {
+        return entry;
+    }
+
+    /**
+     * Get the exception that the exception API would throw for the block. Note that the exception
+     * may be shared by all requests blocked by the same rule.
+     *
+     * @return the block exception if blocked, otherwise null
+     */
+    public BlockException getBlockException() {
+        return blockException;
+    }
+
+    /**
+     * @return the triggered rule if blocked by a rule, otherwise null
+     */
+    public AbstractRule getRule() {
+        return blockException == null ? null : blockException.getRule();
+    }
+
+    /**
+     * @return the reason of the block if blocked, otherwise null
+     */
+    public BlockReason getReason() {
+        return blockException == null ? null : blockException.getReason();
+    }
+
+    /**
+     * Exit the entry if passed, otherwise do nothing.
+     */
+    public void exit() {
+        if (entry != null) {
+            entry.exit();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "EntryResult{" +
+            "passed=" + isPassed() +
+            ", reason=" + getReason() +
+            ", rule=" + getRule() +
+            '}';
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+
+/**
+ * <p>
+ * A thread-safe handle of a protected resource, which is resolved once by {@link SphU#resource(String, EntryType)}
+ * and can be shared by all threads.
+ * </p>
+ * <p>
+ * Entering the resource via the handle neither creates the resource wrapper nor looks up the slot chain,
+ * so nothing is allocated except the entry itself. The resource of a handle may still be evicted like any other
+ * resource when it's not in use, then the handle resolves the slot chain again on next entry. Handles are meant
+ * for resources with fixed names, e.g. kept in static fields:
+ * </p>
+ *
+ * <pre>
+ *  private static final ResourceHandle RESOURCE = SphU.resource("abc", EntryType.IN);
+ *
+ *  public void foo() {
+ *      Entry entry = null;
+ *      try {
+ *          entry = RESOURCE.entry();
+ *          // resource that need protection
+ *      } catch (BlockException blockException) {
+ *          // when goes there, it is blocked
+ *      } finally {
+ *          if (entry != null) {
+ *              entry.exit();
+ *          }
+ *      }
+ *  }
+ * </pre>
+ *
+ * @since 1.8.0
+ */
+public final class ResourceHandle {
+
+    private static final Object[] OBJECTS0 = new Object[0];
+
+    private final CtSph sph;
+    private final ResourceWrapper resourceWrapper;
+    /**
+     * The resolved slot chain of the resource. It's null only if the amount of resources exceeded the max count
+     * when the handle was resolved, in which case the slot chain is looked up on each entry.
+     */
+    private volatile ProcessorSlotChain chain;
+
+    ResourceHandle(CtSph sph, ResourceWrapper resourceWrapper, ProcessorSlotChain chain) {
+        this.sph = sph;
+        this.resourceWrapper = resourceWrapper;
+        this.chain = chain;
+    }
+
+    /**
+     * Get the resolved slot chain, resolving it again if it has been evicted.
+     */
+    private ProcessorSlotChain chain() {
+        ProcessorSlotChain chain = this.chain;
+        if (chain == null || chain.isEvicted()) {
+            chain = sph.lookProcessChain(resourceWrapper);
+            this.chain = chain;
+        }
+        return chain;
+    }
+
+    /**
+     * Checking all rules about the resource.
+     *
+     * @return new entry of the resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public Entry entry() throws BlockException {
+        return sph.entryWithPriority(resourceWrapper, chain(), 1, false, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource.
+     *
+     * @param count tokens required
+     * @return new entry of the resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public Entry entry(int count) throws BlockException {
+        return sph.entryWithPriority(resourceWrapper, chain(), count, false, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource.
+     *
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return new entry of the resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public Entry entry(int count, Object... args) throws BlockException {
+        return sph.entryWithPriority(resourceWrapper, chain(), count, false, args);
+    }
+
+    /**
+     * Checking all rules about the resource with priority.
+     *
+     * @param count       tokens required
+     * @param prioritized whether the entry is prioritized
+     * @return new entry of the resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public Entry entryWithPriority(int count, boolean prioritized) throws BlockException {
+        return sph.entryWithPriority(resourceWrapper, chain(), count, prioritized, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource without throwing {@link BlockException}.
+     *
+     * @return the result with the entry if passed, or the triggered rule and the reason if blocked
+     */
+    public EntryResult tryEntry() {
+        return sph.tryEntryWithPriority(resourceWrapper, chain(), 1, false, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the resource without throwing {@link BlockException}.
+     *
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return the result with the entry if passed, or the triggered rule and the reason if blocked
+     */
+    public EntryResult tryEntry(int count, Object... args) {
+        return sph.tryEntryWithPriority(resourceWrapper, chain(), count, false, args);
+    }
+
+    /**
+     * Checking all rules about the asynchronous resource.
+     *
+     * @return new asynchronous entry of the resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public AsyncEntry asyncEntry() throws BlockException {
+        return sph.asyncEntryWithPriorityInternal(resourceWrapper, chain(), 1, false, OBJECTS0);
+    }
+
+    /**
+     * Checking all rules about the asynchronous resource.
+     *
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return new asynchronous entry of the resource
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     */
+    public AsyncEntry asyncEntry(int count, Object... args) throws BlockException {
+        return sph.asyncEntryWithPriorityInternal(resourceWrapper, chain(), count, false, args);
+    }
+
+    public ResourceWrapper getResourceWrapper() {
+        return resourceWrapper;
+    }
+
+    public String getName() {
+        return resourceWrapper.getName();
+    }
+
+    /**
+     * Get the {@link ClusterNode} of the resource.
+     *
+     * @return the cluster node, or null if the resource has not been entered yet
+     */
+    public ClusterNode getClusterNode() {
+        return ClusterBuilderSlot.getClusterNodeMap().get(resourceWrapper);
+    }
+
+    @Override
+    public String toString() {
+        return "ResourceHandle{" +
+            "resourceWrapper=" + resourceWrapper +
+            ", resolved=" + (chain != null) +
+            '}';
+    }
+}
@@ -352,4 +352,131 @@ public class SphU {
                                         Object[] args) throws BlockException {
         return Env.sph.asyncEntryWithType(name, resourceType, type, acquireCount, false, args);
     }
+
+    /**
+     * <p>
+     * Checking all {@link Rule}s about the asynchronous resource without blocking current thread.
+     * When paced by rules (e.g. flow rules with rate limiter behavior), the entry passes with a delay
+     * rather than sleeping until the pass time, and the asynchronous invocation should be delayed accordingly.
+     * Cluster flow rules are checked by asynchronous token requests as well, which decide the pass later
+     * (see {@link AsyncEntry#whenDecided(AsyncEntry.PassDecisionCallback)}):
+     * </p>
+     *
+     * <pre>
+     *  AsyncEntry entry = SphU.asyncEntryWithDelay("abc", EntryType.IN, 1);
+     *  // Or schedule on the event loop by entry.getPassDelayMs() once decided.
+     *  entry.whenPassed(invocation);
+     * </pre>
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable,
+     *              only inbound traffic could be blocked by {@link SystemRule}
+     * @param count tokens required
+     * @param args  extra parameters
+     * @return the asynchronous entry, see {@link AsyncEntry#getPassDelayMs()}
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     * @since 1.8.0
+     */
+    public static AsyncEntry asyncEntryWithDelay(String name, EntryType type, int count, Object... args)
+        throws BlockException {
+        return ctSph().asyncEntryWithDelay(name, ResourceTypeConstants.COMMON, type, count, args);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the asynchronous resource without blocking current thread.
+     * See {@link #asyncEntryWithDelay(String, EntryType, int, Object...)}.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param type         the resource is an inbound or an outbound method
+     * @param count        tokens required
+     * @param args         extra parameters
+     * @return the asynchronous entry, see {@link AsyncEntry#getPassDelayMs()}
+     * @throws BlockException if the block criteria is met, eg. when any rule's threshold is exceeded
+     * @since 1.8.0
+     */
+    public static AsyncEntry asyncEntryWithDelay(String name, int resourceType, EntryType type, int count,
+                                                 Object[] args) throws BlockException {
+        return ctSph().asyncEntryWithDelay(name, resourceType, type, count, args);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource without throwing {@link BlockException}.
+     *
+     * @param name the unique name of the protected resource
+     * @return the result with the entry if passed, or the triggered rule and the reason if blocked
+     * @since 1.8.0
+     */
+    public static EntryResult tryEntry(String name) {
+        return ctSph().tryEntryWithType(name, ResourceTypeConstants.COMMON, EntryType.OUT, 1, false, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource without throwing {@link BlockException}.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable,
+     *             only inbound traffic could be blocked by {@link SystemRule}
+     * @return the result with the entry if passed, or the triggered rule and the reason if blocked
+     * @since 1.8.0
+     */
+    public static EntryResult tryEntry(String name, EntryType type) {
+        return ctSph().tryEntryWithType(name, ResourceTypeConstants.COMMON, type, 1, false, OBJECTS0);
+    }
+
+    /**
+     * Checking all {@link Rule}s about the resource without throwing {@link BlockException}.
+     *
+     * @param name  the unique name for the protected resource
+     * @param type  the resource is an inbound or an outbound method. This is used
+     *              to mark whether it can be blocked when the system is unstable,
+     *              only inbound traffic could be blocked by {@link SystemRule}
+     * @param count the count that the resource requires
+     * @param args  args for parameter flow control or customized slots
+     * @return the result with the entry if passed, or the triggered rule and the reason if blocked
+     * @since 1.8.0
+     */
+    public static EntryResult tryEntry(String name, EntryType type, int count, Object... args) {
+        return ctSph().tryEntryWithType(name, ResourceTypeConstants.COMMON, type, count, false, args);
+    }
+
+    /**
+     * Get the pre-resolved handle of the resource. Entering the resource via the handle neither creates the
+     * resource wrapper nor looks up the slot chain.
+     *
+     * @param name the unique name for the protected resource
+     * @param type the resource is an inbound or an outbound method. This is used
+     *             to mark whether it can be blocked when the system is unstable,
+     *             only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 1.8.0
+     */
+    public static ResourceHandle resource(String name, EntryType type) {
+        return resource(name, ResourceTypeConstants.COMMON, type);
+    }
+
+    /**
+     * Get the pre-resolved handle of the resource with provided classification.
+     *
+     * @param name         the unique name for the protected resource
+     * @param resourceType classification of the resource (e.g. Web or RPC)
+     * @param type         the resource is an inbound or an outbound method. This is used
+     *                     to mark whether it can be blocked when the system is unstable,
+     *                     only inbound traffic could be blocked by {@link SystemRule}
+     * @return the handle of the resource
+     * @since 1.8.0
+     */
+    public static ResourceHandle resource(String name, int resourceType, EntryType type) {
+        return ctSph().resource(name, resourceType, type);
+    }
+
+    /**
+     * Resource handles, non-throwing and delayed entries are not part of {@link Sph}, but supported by {@link CtSph},
+     * which is always the implementation of {@link Env#sph}.
+     */
+    private static CtSph ctSph() {
+        return (CtSph)Env.sph;
+    }
 }
@@ -118,6 +118,7 @@ public class Tracer {
         if (curNode == null) {
             return;
         }
+        entry.setTracedError(t);
         for (MetricExtension m : MetricExtensionProvider.getMetricExtensions()) {
             m.addException(entry.getResourceWrapper().getName(), count, t);
         }
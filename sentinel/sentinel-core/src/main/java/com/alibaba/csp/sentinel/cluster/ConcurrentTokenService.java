@@ -0,0 +1,46 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster;
+
+/**
+ * Token service which also limits the global concurrency of cluster flow rules in thread grade. This is optional
+ * for implementations of {@link TokenService}, cluster rules in thread grade fall back to local mode (or pass)
+ * if the service does not support it.
+ *
+ * @since 1.8.0
+ */
+public interface ConcurrentTokenService extends TokenService {
+
+    /**
+     * Request concurrency tokens of a flow rule in thread grade from remote token server. The acquired tokens are
+     * held until released by {@link #releaseConcurrentToken(Long, long)}. The token server reclaims the tokens
+     * of a disconnected holder, or the tokens held longer than the timeout of the rule if set.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @return result of the token request, with the ID of the acquired tokens if passed
+     */
+    TokenResult requestConcurrentToken(Long ruleId, int acquireCount);
+
+    /**
+     * Release the concurrency tokens acquired by {@link #requestConcurrentToken(Long, int)}, without waiting for
+     * the response.
+     *
+     * @param ruleId the unique rule ID
+     * @param tokenId ID of the acquired tokens
+     */
+    void releaseConcurrentToken(Long ruleId, long tokenId);
+}
@@ -29,6 +29,12 @@ public class TokenResult {
 
     private int remaining;
     private int waitInMs;
+    /**
+     * ID of the acquired concurrency tokens, which is used to release the tokens.
+     *
+     * @since 1.8.0
+     */
+    private long tokenId;
 
     private Map<String, String> attachments;
 
@@ -65,6 +71,15 @@ public class TokenResult {
         return this;
     }
 
+    public long getTokenId() {
+        return tokenId;
+    }
+
+    public TokenResult setTokenId(long tokenId) {
+        this.tokenId = tokenId;
+        return this;
+    }
+
     public Map<String, String> getAttachments() {
         return attachments;
     }
@@ -80,6 +95,7 @@ public class TokenResult {
             "status=" + status +
             ", remaining=" + remaining +
             ", waitInMs=" + waitInMs +
+            ", tokenId=" + tokenId +
             ", attachments=" + attachments +
             '}';
     }
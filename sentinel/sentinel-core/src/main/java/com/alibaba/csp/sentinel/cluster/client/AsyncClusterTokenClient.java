@@ -0,0 +1,38 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import com.alibaba.csp.sentinel.cluster.TokenResultCallback;
+
+/**
+ * Token client which is able to request tokens without blocking current thread. This is optional for
+ * implementations of {@link ClusterTokenClient}, asynchronous entries fall back to synchronous token requests
+ * if the client does not support it.
+ *
+ * @since 1.8.0
+ */
+public interface AsyncClusterTokenClient extends ClusterTokenClient {
+
+    /**
+     * Request tokens from remote token server without blocking current thread.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @param prioritized whether the request is prioritized
+     * @param callback callback invoked when the request completes or times out
+     */
+    void requestTokenAsync(Long ruleId, int acquireCount, boolean prioritized, TokenResultCallback callback);
+}
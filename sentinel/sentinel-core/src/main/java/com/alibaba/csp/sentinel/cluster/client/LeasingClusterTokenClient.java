@@ -0,0 +1,40 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.cluster.client;
+
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.slots.block.flow.ClusterFlowConfig;
+
+/**
+ * Token client which is able to serve tokens from the leases of the token server. This is optional for
+ * implementations of {@link ClusterTokenClient}, flow rules in lease mode fall back to normal token requests
+ * if the client does not support it.
+ *
+ * @since 1.8.0
+ */
+public interface LeasingClusterTokenClient extends ClusterTokenClient {
+
+    /**
+     * Request tokens of a flow rule in lease mode (see {@link ClusterFlowConfig#isLeaseEnabled()}). The tokens are
+     * served from a block of tokens leased from the token server in advance, so the token server is requested
+     * only when the lease cannot serve the request.
+     *
+     * @param ruleId the unique rule ID
+     * @param acquireCount token count to acquire
+     * @return result of the token request
+     */
+    TokenResult requestLeasedToken(Long ruleId, int acquireCount);
+}
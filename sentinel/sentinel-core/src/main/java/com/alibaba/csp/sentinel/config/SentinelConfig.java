@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.config;
 
+import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.util.AppNameUtil;
 import com.alibaba.csp.sentinel.util.AssertUtil;
@@ -42,6 +43,8 @@ public final class SentinelConfig {
 
     private static final Map<String, String> props = new ConcurrentHashMap<>();
     private static int appType = APP_TYPE_COMMON;
+    private static boolean highResolutionRt = false;
+    private static boolean slotChainSpecialize = true;
 
     public static final String APP_TYPE = "csp.sentinel.app.type";
     public static final String CHARSET = "csp.sentinel.charset";
@@ -50,6 +53,20 @@ public final class SentinelConfig {
     public static final String COLD_FACTOR = "csp.sentinel.flow.cold.factor";
     public static final String STATISTIC_MAX_RT = "csp.sentinel.statistic.max.rt";
     public static final String SPI_CLASSLOADER = "csp.sentinel.spi.classloader";
+    public static final String STATISTIC_STRIPED_METRIC_ENABLED = "csp.sentinel.statistic.striped.enabled";
+    public static final String STATISTIC_STRIPE_COUNT = "csp.sentinel.statistic.stripe.count";
+    public static final String STATISTIC_RT_HISTOGRAM_ENABLED = "csp.sentinel.statistic.rt.histogram.enabled";
+    public static final String STATISTIC_RT_HIGH_RESOLUTION = "csp.sentinel.statistic.rt.high.resolution";
+    public static final String STATISTIC_MINUTE_LAZY = "csp.sentinel.statistic.minute.lazy";
+    public static final String STATISTIC_HOUR_ROLLUP_ENABLED = "csp.sentinel.statistic.hour.rollup.enabled";
+    public static final String SLOT_CHAIN_SPECIALIZE_ENABLED = "csp.sentinel.slotchain.specialize.enabled";
+    public static final String RESOURCE_MAX_COUNT = "csp.sentinel.resource.max.count";
+    public static final String RESOURCE_EVICTION_ENABLED = "csp.sentinel.resource.eviction.enabled";
+    public static final String RESOURCE_IDLE_TIMEOUT_MS = "csp.sentinel.resource.idle.timeout.ms";
+    public static final String SYSTEM_METRICS_PROVIDER = "csp.sentinel.system.metrics.provider";
+    public static final String SYSTEM_METRICS_INTERVAL_MS = "csp.sentinel.system.metrics.interval.ms";
+    public static final String SYSTEM_METRICS_SMOOTHING_FACTOR = "csp.sentinel.system.metrics.smoothing.factor";
+    public static final String SYSTEM_CGROUP_ROOT = "csp.sentinel.system.cgroup.root";
 
     static final String DEFAULT_CHARSET = "UTF-8";
     static final long DEFAULT_SINGLE_METRIC_FILE_SIZE = 1024 * 1024 * 50;
@@ -57,6 +74,14 @@ public final class SentinelConfig {
     static final int DEFAULT_COLD_FACTOR = 3;
 
     public static final int DEFAULT_STATISTIC_MAX_RT = 4900;
+    public static final int DEFAULT_STATISTIC_MAX_STRIPE_COUNT = 16;
+
+    public static final String SYSTEM_METRICS_PROVIDER_AUTO = "auto";
+    public static final String SYSTEM_METRICS_PROVIDER_JMX = "jmx";
+    public static final String SYSTEM_METRICS_PROVIDER_CGROUP = "cgroup";
+    public static final long DEFAULT_SYSTEM_METRICS_INTERVAL_MS = 1000;
+    public static final long MIN_SYSTEM_METRICS_INTERVAL_MS = 100;
+    public static final double DEFAULT_SYSTEM_METRICS_SMOOTHING_FACTOR = 0.5d;
 
     static {
         try {
@@ -64,6 +89,8 @@ public final class SentinelConfig {
             loadProps();
             resolveAppType();
             RecordLog.info("[SentinelConfig] Application type resolved: " + appType);
+            resolveHighResolutionRt();
+            slotChainSpecialize = !"false".equalsIgnoreCase(getConfig(SLOT_CHAIN_SPECIALIZE_ENABLED));
         } catch (Throwable ex) {
             RecordLog.warn("[SentinelConfig] Failed to initialize", ex);
             ex.printStackTrace();
@@ -86,6 +113,13 @@ public final class SentinelConfig {
         }
     }
 
+    private static void resolveHighResolutionRt() {
+        highResolutionRt = Boolean.parseBoolean(getConfig(STATISTIC_RT_HIGH_RESOLUTION));
+        if (highResolutionRt) {
+            RecordLog.info("[SentinelConfig] High-resolution RT mode enabled, RT will be recorded in microseconds");
+        }
+    }
+
     private static void initialize() {
         // Init default properties.
         setConfig(CHARSET, DEFAULT_CHARSET);
@@ -211,5 +245,238 @@ public final class SentinelConfig {
         }
     }
 
+    /**
+     * Whether the statistic nodes should use the primitive striped sliding window
+     * ({@code StripedArrayMetric}) instead of the {@code LongAdder}-based one. Disabled by default.
+     *
+     * @return true if the striped sliding window is enabled
+     * @since 1.8.0
+     */
+    public static boolean stripedMetricEnabled() {
+        return Boolean.parseBoolean(props.get(STATISTIC_STRIPED_METRIC_ENABLED));
+    }
+
+    /**
+     * <p>Get the stripe count of the striped sliding window.</p>
+     * <p>By default it's the count of available processors, but no more than
+     * {@link #DEFAULT_STATISTIC_MAX_STRIPE_COUNT}.</p>
+     *
+     * @return the stripe count of the striped sliding window
+     * @since 1.8.0
+     */
+    public static int statisticStripeCount() {
+        int defaultCount = Math.min(Runtime.getRuntime().availableProcessors(), DEFAULT_STATISTIC_MAX_STRIPE_COUNT);
+        String v = props.get(STATISTIC_STRIPE_COUNT);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return defaultCount;
+            }
+            int count = Integer.parseInt(v);
+            return count > 0 ? count : defaultCount;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid statisticStripeCount value: {0}, using the default value instead: "
+                + defaultCount, v, throwable);
+            return defaultCount;
+        }
+    }
+
+    /**
+     * Whether the statistic nodes should keep response time histograms for percentiles. Disabled by default.
+     *
+     * @return true if response time histograms are enabled
+     * @since 1.8.0
+     */
+    public static boolean rtHistogramEnabled() {
+        return Boolean.parseBoolean(props.get(STATISTIC_RT_HISTOGRAM_ENABLED));
+    }
+
+    /**
+     * <p>Whether minute-level statistics of the {@code StatisticNode}s are lazy. Disabled by default.</p>
+     * <p>Only minute-level statistics of cluster nodes are used by the metric log, so minute-level statistics of
+     * the default nodes (per context) and the origin nodes can be lazy to cut memory. Lazy statistics are allocated
+     * when they are read for the first time (e.g. by the tree or origin commands, or by warm-up flow controllers),
+     * and requests before that are not recorded. Cluster nodes always allocate them immediately.</p>
+     *
+     * @return true if minute-level statistics of non-cluster nodes are lazy
+     * @since 1.8.0
+     */
+    public static boolean lazyMinuteStatisticEnabled() {
+        return Boolean.parseBoolean(props.get(STATISTIC_MINUTE_LAZY));
+    }
+
+    /**
+     * Whether the statistic nodes should keep hour-level statistics rolled up from the minute-level statistics.
+     * Disabled by default.
+     *
+     * @return true if hour-level rollup is enabled
+     * @since 1.8.0
+     */
+    public static boolean hourRollupEnabled() {
+        return Boolean.parseBoolean(props.get(STATISTIC_HOUR_ROLLUP_ENABLED));
+    }
+
+    /**
+     * <p>Whether response time is measured by {@link System#nanoTime()} and recorded in microseconds.</p>
+     * <p>The mode is resolved on startup and cannot be changed at runtime, as it determines the unit of
+     * all recorded RT. Reads from nodes and the metric logs still report RT in milliseconds.</p>
+     *
+     * @return true if high-resolution RT mode is enabled
+     * @since 1.8.0
+     */
+    public static boolean highResolutionRtEnabled() {
+        return highResolutionRt;
+    }
+
+    /**
+     * Get the max RT value in the unit that RT is recorded, i.e. {@link #statisticMaxRt()} in microseconds
+     * if high-resolution RT mode is enabled, otherwise in milliseconds.
+     *
+     * @return the max allowed RT value in the recorded unit
+     * @since 1.8.0
+     */
+    public static long statisticMaxRecordedRt() {
+        long maxRt = statisticMaxRt();
+        return highResolutionRt ? maxRt * 1000 : maxRt;
+    }
+
+    /**
+     * Whether slot chains bypass the rule checking slots that have no rules for the resource.
+     * Enabled by default. The switch is resolved on startup.
+     *
+     * @return true if slot chain specialization is enabled
+     * @since 1.8.0
+     */
+    public static boolean slotChainSpecializeEnabled() {
+        return slotChainSpecialize;
+    }
+
+    /**
+     * <p>Get the max count of resources (slot chains) that Sentinel keeps.</p>
+     * <p>The default value is {@link Constants#MAX_SLOT_CHAIN_SIZE}.</p>
+     *
+     * @return the max count of resources
+     * @since 1.8.0
+     */
+    public static int resourceMaxCount() {
+        String v = props.get(RESOURCE_MAX_COUNT);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return Constants.MAX_SLOT_CHAIN_SIZE;
+            }
+            int count = Integer.parseInt(v);
+            return count > 0 ? count : Constants.MAX_SLOT_CHAIN_SIZE;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid resourceMaxCount value: {0}, using the default value instead: "
+                + Constants.MAX_SLOT_CHAIN_SIZE, v, throwable);
+            return Constants.MAX_SLOT_CHAIN_SIZE;
+        }
+    }
+
+    /**
+     * <p>Whether the least recently used resources are evicted when the count of resources reaches
+     * {@link #resourceMaxCount()}. Enabled by default.</p>
+     * <p>If disabled, new resources beyond the max count are not protected by any rule.</p>
+     *
+     * @return true if resource eviction is enabled
+     * @since 1.8.0
+     */
+    public static boolean resourceEvictionEnabled() {
+        return !"false".equalsIgnoreCase(props.get(RESOURCE_EVICTION_ENABLED));
+    }
+
+    /**
+     * <p>Get the idle timeout of resources in milliseconds. Resources that have not been accessed
+     * for longer than the timeout are evicted when new resources are registered.</p>
+     * <p>Non-positive value (the default) disables idle eviction.</p>
+     *
+     * @return the idle timeout of resources in milliseconds
+     * @since 1.8.0
+     */
+    public static long resourceIdleTimeoutMs() {
+        String v = props.get(RESOURCE_IDLE_TIMEOUT_MS);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return 0;
+            }
+            return Long.parseLong(v);
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid resourceIdleTimeoutMs value: {0}, idle eviction disabled", v,
+                throwable);
+            return 0;
+        }
+    }
+
+    /**
+     * <p>Get the type of the system metrics provider for system rules:</p>
+     * <ul>
+     * <li>{@code jmx} (the default): the load and CPU usage of the whole host via JMX;</li>
+     * <li>{@code cgroup}: the metrics of the container read from the cgroup filesystem;</li>
+     * <li>{@code auto}: cgroup if a CPU quota is set for the cgroup, otherwise JMX.</li>
+     * </ul>
+     *
+     * @return the type of the system metrics provider
+     * @since 1.8.0
+     */
+    public static String systemMetricsProvider() {
+        String v = props.get(SYSTEM_METRICS_PROVIDER);
+        return StringUtil.isBlank(v) ? SYSTEM_METRICS_PROVIDER_JMX : v.trim().toLowerCase();
+    }
+
+    /**
+     * <p>Get the sampling interval of system metrics in milliseconds, which is at least
+     * {@link #MIN_SYSTEM_METRICS_INTERVAL_MS}.</p>
+     * <p>The default value is {@link #DEFAULT_SYSTEM_METRICS_INTERVAL_MS}.</p>
+     *
+     * @return the sampling interval of system metrics
+     * @since 1.8.0
+     */
+    public static long systemMetricsIntervalMs() {
+        String v = props.get(SYSTEM_METRICS_INTERVAL_MS);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_SYSTEM_METRICS_INTERVAL_MS;
+            }
+            return Math.max(Long.parseLong(v), MIN_SYSTEM_METRICS_INTERVAL_MS);
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid systemMetricsIntervalMs value: {0}, using the default value "
+                + "instead: " + DEFAULT_SYSTEM_METRICS_INTERVAL_MS, v, throwable);
+            return DEFAULT_SYSTEM_METRICS_INTERVAL_MS;
+        }
+    }
+
+    /**
+     * <p>Get the smoothing factor of the cgroup system metrics, which is the weight of the new sample
+     * in (0, 1]. 1 means no smoothing.</p>
+     * <p>The default value is {@link #DEFAULT_SYSTEM_METRICS_SMOOTHING_FACTOR}.</p>
+     *
+     * @return the smoothing factor of system metrics
+     * @since 1.8.0
+     */
+    public static double systemMetricsSmoothingFactor() {
+        String v = props.get(SYSTEM_METRICS_SMOOTHING_FACTOR);
+        try {
+            if (StringUtil.isEmpty(v)) {
+                return DEFAULT_SYSTEM_METRICS_SMOOTHING_FACTOR;
+            }
+            double factor = Double.parseDouble(v);
+            return factor > 0 && factor <= 1 ? factor : DEFAULT_SYSTEM_METRICS_SMOOTHING_FACTOR;
+        } catch (Throwable throwable) {
+            RecordLog.warn("[SentinelConfig] Invalid systemMetricsSmoothingFactor value: {0}, using the default "
+                + "value instead: " + DEFAULT_SYSTEM_METRICS_SMOOTHING_FACTOR, v, throwable);
+            return DEFAULT_SYSTEM_METRICS_SMOOTHING_FACTOR;
+        }
+    }
+
+    /**
+     * Get the mount point of the cgroup filesystem, {@code /sys/fs/cgroup} by default.
+     *
+     * @return the mount point of the cgroup filesystem
+     * @since 1.8.0
+     */
+    public static String systemCgroupRoot() {
+        String v = props.get(SYSTEM_CGROUP_ROOT);
+        return StringUtil.isBlank(v) ? "/sys/fs/cgroup" : v.trim();
+    }
+
     private SentinelConfig() {}
 }
@@ -113,7 +113,7 @@ public interface Node extends OccupySupport, DebugSupport {
     /**
      * Get average rt per second.
      *
-     * @return average response time per second
+     * @return average response time per second (in milliseconds)
      */
     double avgRt();
 
@@ -167,7 +167,7 @@ public interface Node extends OccupySupport, DebugSupport {
     /**
      * Add rt and success count.
      *
-     * @param rt      response time
+     * @param rt      response time, in microseconds if high-resolution RT mode is enabled, otherwise in milliseconds
      * @param success success count to add
      */
     void addRtAndSuccess(long rt, int success);
@@ -0,0 +1,120 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.data.HistogramBucket;
+
+/**
+ * <p>
+ * Estimates the retained heap size of statistic nodes according to the current statistic config.
+ * The estimation assumes a 64-bit JVM with compressed oops and uncontended {@code LongAdder}s
+ * (i.e. no cells), so it's a lower bound of the real footprint and is only meant for comparison.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public final class NodeMemoryEstimator {
+
+    private static final int OBJECT_HEADER = 12;
+    private static final int ARRAY_HEADER = 16;
+    private static final int REFERENCE = 4;
+
+    private static final long WINDOW_WRAP = align(OBJECT_HEADER + 8 + 8 + REFERENCE);
+    private static final long LONG_ADDER = align(OBJECT_HEADER + 8 + 4 + REFERENCE);
+    private static final long METRIC_BUCKET = align(OBJECT_HEADER + REFERENCE + 8)
+        + align(ARRAY_HEADER + REFERENCE * MetricEvent.values().length)
+        + LONG_ADDER * MetricEvent.values().length;
+    private static final long LEAP_ARRAY = align(OBJECT_HEADER + 4 * 3 + REFERENCE);
+    private static final long ARRAY_METRIC = align(OBJECT_HEADER + REFERENCE * 2);
+    private static final long STATISTIC_NODE = align(OBJECT_HEADER + REFERENCE * 5 + 8) + LONG_ADDER;
+    private static final long DEFAULT_NODE = align(OBJECT_HEADER + REFERENCE * 9 + 8)
+        + align(OBJECT_HEADER + REFERENCE * 3);
+
+    private static final int LINE_SIZE = 8;
+
+    /**
+     * Estimate the heap size of given node, including its sliding windows.
+     * Children of default nodes and origin nodes of cluster nodes are not included.
+     *
+     * @param node a valid statistic node
+     * @return estimated heap size in bytes
+     */
+    public static long estimate(StatisticNode node) {
+        long size = node instanceof DefaultNode ? DEFAULT_NODE : STATISTIC_NODE;
+        size += estimateMetric(SampleCountProperty.SAMPLE_COUNT, true);
+        size += estimateRtHistogram(SampleCountProperty.SAMPLE_COUNT);
+        if (node.hasMinuteStatistics()) {
+            size += estimateMetric(60, false);
+            size += estimateRtHistogram(60);
+        }
+        if (node.hasHourStatistics()) {
+            size += ARRAY_METRIC + estimateBucketLeapArray(60);
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the heap size of a sliding window metric created by the statistic node.
+     *
+     * @param sampleCount  bucket count of the sliding window
+     * @param enableOccupy whether the metric holds the borrow array for occupied pass
+     * @return estimated heap size in bytes
+     */
+    public static long estimateMetric(int sampleCount, boolean enableOccupy) {
+        long size;
+        if (SentinelConfig.stripedMetricEnabled()) {
+            int stripes = SentinelConfig.statisticStripeCount();
+            int slots = (1 + sampleCount * (1 + stripes)) * LINE_SIZE;
+            size = ARRAY_METRIC + LEAP_ARRAY + align(OBJECT_HEADER + REFERENCE) + align(ARRAY_HEADER + 8L * slots);
+        } else {
+            size = ARRAY_METRIC + estimateBucketLeapArray(sampleCount);
+        }
+        if (enableOccupy) {
+            size += estimateBucketLeapArray(sampleCount);
+        }
+        return size;
+    }
+
+    /**
+     * Estimate the heap size of a response time histogram window, or 0 if histograms are disabled.
+     *
+     * @param sampleCount bucket count of the sliding window
+     * @return estimated heap size in bytes
+     */
+    public static long estimateRtHistogram(int sampleCount) {
+        if (!SentinelConfig.rtHistogramEnabled()) {
+            return 0;
+        }
+        int counters = HistogramBucket.subBucketCount(SentinelConfig.statisticMaxRecordedRt());
+        long bucket = align(OBJECT_HEADER + 8 + REFERENCE) + align(OBJECT_HEADER + REFERENCE)
+            + align(ARRAY_HEADER + 4L * counters);
+        return LEAP_ARRAY + align(ARRAY_HEADER + (long)REFERENCE * sampleCount)
+            + sampleCount * (WINDOW_WRAP + bucket);
+    }
+
+    private static long estimateBucketLeapArray(int sampleCount) {
+        return LEAP_ARRAY + align(OBJECT_HEADER + REFERENCE) + align(ARRAY_HEADER + (long)REFERENCE * sampleCount)
+            + sampleCount * (WINDOW_WRAP + METRIC_BUCKET);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private NodeMemoryEstimator() {}
+}
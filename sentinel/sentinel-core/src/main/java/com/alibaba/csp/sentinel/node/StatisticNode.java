@@ -15,22 +15,30 @@
  */
 package com.alibaba.csp.sentinel.node;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
 import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
 import com.alibaba.csp.sentinel.slots.statistic.metric.ArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.HistogramLeapArray;
 import com.alibaba.csp.sentinel.slots.statistic.metric.Metric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.RollupArrayMetric;
+import com.alibaba.csp.sentinel.slots.statistic.metric.RollupBucketLeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.metric.StripedArrayMetric;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Predicate;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
  * <p>The statistic node keep three kinds of real-time statistics metrics:</p>
  * <ol>
  * <li>metrics in second level ({@code rollingCounterInSecond})</li>
  * <li>metrics in minute level ({@code rollingCounterInMinute})</li>
+ * <li>metrics in hour level rolled up from the minute level ({@code rollingCounterInHour}), if enabled</li>
  * <li>thread count</li>
  * </ol>
  *
@@ -93,14 +101,33 @@ public class StatisticNode implements Node {
      * Holds statistics of the recent {@code INTERVAL} seconds. The {@code INTERVAL} is divided into time spans
      * by given {@code sampleCount}.
      */
-    private transient volatile Metric rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT,
-        IntervalProperty.INTERVAL);
+    private transient volatile Metric rollingCounterInSecond = newMetric(SampleCountProperty.SAMPLE_COUNT,
+        IntervalProperty.INTERVAL, true, SentinelConfig.statisticStripeCount());
 
     /**
      * Holds statistics of the recent 60 seconds. The windowLengthInMs is deliberately set to 1000 milliseconds,
      * meaning each bucket per second, in this way we can get accurate statistics of each second.
+     * If minute-level statistics are lazy, it's absent until read for the first time.
      */
-    private transient Metric rollingCounterInMinute = new ArrayMetric(60, 60 * 1000, false);
+    private transient volatile Metric rollingCounterInMinute;
+
+    private static final AtomicReferenceFieldUpdater<StatisticNode, Metric> MINUTE_COUNTER_UPDATER
+        = AtomicReferenceFieldUpdater.newUpdater(StatisticNode.class, Metric.class, "rollingCounterInMinute");
+
+    /**
+     * Holds statistics of the recent 60 minutes, each bucket per minute. It is not updated by requests,
+     * but fed with the per-second buckets rotated out of {@code rollingCounterInMinute}.
+     * Present only if hour-level rollup is enabled.
+     */
+    private transient volatile RollupArrayMetric rollingCounterInHour;
+
+    /**
+     * Holds response time histograms of the recent {@code INTERVAL} seconds and 60 seconds,
+     * which are present only if response time histogram is enabled.
+     */
+    private transient volatile HistogramLeapArray rtHistogramInSecond = newRtHistogram(
+        SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+    private transient volatile HistogramLeapArray rtHistogramInMinute;
 
     /**
      * The counter for thread count.
@@ -112,17 +139,75 @@ public class StatisticNode implements Node {
      */
     private long lastFetchTime = -1;
 
+    public StatisticNode() {
+        this(!SentinelConfig.lazyMinuteStatisticEnabled());
+    }
+
+    /**
+     * @param eagerMinuteStatistics whether to allocate the minute-level statistics immediately; if false,
+     *                              they are allocated when they are read for the first time
+     * @since 1.8.0
+     */
+    protected StatisticNode(boolean eagerMinuteStatistics) {
+        if (eagerMinuteStatistics) {
+            minuteCounter();
+        }
+    }
+
+    /**
+     * Get the minute-level statistics, which are allocated on first access if they are lazy.
+     * Requests before that are not recorded in the minute-level statistics.
+     */
+    private Metric minuteCounter() {
+        Metric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter != null) {
+            return minuteCounter;
+        }
+        RollupArrayMetric hourCounter = null;
+        // The minute-level statistics are not on the hot path of rule checking, and 60 buckets
+        // with a stripe per core are too costly for every node, so they are not striped.
+        if (SentinelConfig.hourRollupEnabled()) {
+            hourCounter = new RollupArrayMetric(60, 60 * 60 * 1000);
+            minuteCounter = newRollupMetric(60, 60 * 1000, 1, hourCounter);
+        } else {
+            minuteCounter = newMetric(60, 60 * 1000, false, 1);
+        }
+        if (MINUTE_COUNTER_UPDATER.compareAndSet(this, null, minuteCounter)) {
+            rollingCounterInHour = hourCounter;
+            rtHistogramInMinute = newRtHistogram(60, 60 * 1000);
+            return minuteCounter;
+        }
+        // Allocated by another thread.
+        return rollingCounterInMinute;
+    }
+
+    /**
+     * Whether the minute-level statistics have been allocated.
+     *
+     * @return true if the minute-level statistics are present
+     * @since 1.8.0
+     */
+    public boolean hasMinuteStatistics() {
+        return rollingCounterInMinute != null;
+    }
+
+    boolean hasHourStatistics() {
+        return rollingCounterInHour != null;
+    }
+
     @Override
     public Map<Long, MetricNode> metrics() {
         // The fetch operation is thread-safe under a single-thread scheduler pool.
         long currentTime = TimeUtil.currentTimeMillis();
         currentTime = currentTime - currentTime % 1000;
         Map<Long, MetricNode> metrics = new ConcurrentHashMap<>();
-        List<MetricNode> nodesOfEverySecond = rollingCounterInMinute.details();
+        List<MetricNode> nodesOfEverySecond = minuteCounter().details();
         long newLastFetchTime = lastFetchTime;
         // Iterate metrics of all resources, filter valid metrics (not-empty and up-to-date).
         for (MetricNode node : nodesOfEverySecond) {
             if (isNodeInTime(node, currentTime) && isValidMetricNode(node)) {
+                fillRtPercentiles(node);
+                toMillisRt(node);
                 metrics.put(node.getTimestamp(), node);
                 newLastFetchTime = Math.max(newLastFetchTime, node.getTimestamp());
             }
@@ -134,7 +219,63 @@ public class StatisticNode implements Node {
 
     @Override
     public List<MetricNode> rawMetricsInMin(Predicate<Long> timePredicate) {
-        return rollingCounterInMinute.detailsOnCondition(timePredicate);
+        List<MetricNode> nodes = minuteCounter().detailsOnCondition(timePredicate);
+        for (MetricNode node : nodes) {
+            toMillisRt(node);
+        }
+        return nodes;
+    }
+
+    /**
+     * Fetch per-minute metric items of the recent hour that satisfies the time predicate.
+     * The items are rolled up from the minute-level statistics once the per-second buckets are rotated,
+     * so the latest minute is absent (see {@link #rawMetricsInMin(Predicate)}). Response time of the items
+     * is the average in milliseconds.
+     *
+     * @param timePredicate time predicate of the start time of each minute
+     * @return per-minute metric items, or empty list if hour-level statistics are disabled
+     * @since 1.8.0
+     */
+    public List<MetricNode> rawMetricsInHour(Predicate<Long> timePredicate) {
+        minuteCounter();
+        RollupArrayMetric hourCounter = rollingCounterInHour;
+        if (hourCounter == null) {
+            return new ArrayList<>();
+        }
+        List<MetricNode> nodes = hourCounter.detailsOnCondition(timePredicate);
+        for (MetricNode node : nodes) {
+            toMillisRt(node);
+        }
+        return nodes;
+    }
+
+    /**
+     * Convert RT of the metric node to milliseconds if RT is recorded in microseconds.
+     */
+    private static void toMillisRt(MetricNode node) {
+        if (SentinelConfig.highResolutionRtEnabled()) {
+            node.setRt(node.getRt() / 1000);
+            node.setRtP50(node.getRtP50() / 1000);
+            node.setRtP90(node.getRtP90() / 1000);
+            node.setRtP99(node.getRtP99() / 1000);
+            node.setRtP999(node.getRtP999() / 1000);
+        }
+    }
+
+    private static double toMillisRt(double rt) {
+        return SentinelConfig.highResolutionRtEnabled() ? rt / 1000 : rt;
+    }
+
+    private void fillRtPercentiles(MetricNode node) {
+        HistogramLeapArray histogram = rtHistogramInMinute;
+        if (histogram == null) {
+            return;
+        }
+        long timestamp = node.getTimestamp();
+        node.setRtP50(histogram.percentileOfWindow(timestamp, 50));
+        node.setRtP90(histogram.percentileOfWindow(timestamp, 90));
+        node.setRtP99(histogram.percentileOfWindow(timestamp, 99));
+        node.setRtP999(histogram.percentileOfWindow(timestamp, 99.9));
     }
 
     private boolean isNodeInTime(MetricNode node, long currentTime) {
@@ -148,17 +289,42 @@ public class StatisticNode implements Node {
 
     @Override
     public void reset() {
-        rollingCounterInSecond = new ArrayMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+        rollingCounterInSecond = newMetric(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL, true,
+            SentinelConfig.statisticStripeCount());
+        rtHistogramInSecond = newRtHistogram(SampleCountProperty.SAMPLE_COUNT, IntervalProperty.INTERVAL);
+    }
+
+    private static HistogramLeapArray newRtHistogram(int sampleCount, int intervalInMs) {
+        if (!SentinelConfig.rtHistogramEnabled()) {
+            return null;
+        }
+        return new HistogramLeapArray(sampleCount, intervalInMs, SentinelConfig.statisticMaxRecordedRt());
+    }
+
+    private static Metric newMetric(int sampleCount, int intervalInMs, boolean enableOccupy, int stripeCount) {
+        if (SentinelConfig.stripedMetricEnabled()) {
+            return new StripedArrayMetric(sampleCount, intervalInMs, enableOccupy, stripeCount);
+        }
+        return new ArrayMetric(sampleCount, intervalInMs, enableOccupy);
+    }
+
+    private static Metric newRollupMetric(int sampleCount, int intervalInMs, int stripeCount,
+                                          RollupArrayMetric rollup) {
+        if (SentinelConfig.stripedMetricEnabled()) {
+            return new StripedArrayMetric(sampleCount, intervalInMs, false, stripeCount, rollup);
+        }
+        return new ArrayMetric(new RollupBucketLeapArray(sampleCount, intervalInMs, rollup));
     }
 
     @Override
     public long totalRequest() {
-        return rollingCounterInMinute.pass() + rollingCounterInMinute.block();
+        Metric minuteCounter = minuteCounter();
+        return minuteCounter.pass() + minuteCounter.block();
     }
 
     @Override
     public long blockRequest() {
-        return rollingCounterInMinute.block();
+        return minuteCounter().block();
     }
 
     @Override
@@ -168,12 +334,12 @@ public class StatisticNode implements Node {
 
     @Override
     public double previousBlockQps() {
-        return this.rollingCounterInMinute.previousWindowBlock();
+        return minuteCounter().previousWindowBlock();
     }
 
     @Override
     public double previousPassQps() {
-        return this.rollingCounterInMinute.previousWindowPass();
+        return minuteCounter().previousWindowPass();
     }
 
     @Override
@@ -183,7 +349,7 @@ public class StatisticNode implements Node {
 
     @Override
     public long totalSuccess() {
-        return rollingCounterInMinute.success();
+        return minuteCounter().success();
     }
 
     @Override
@@ -193,7 +359,7 @@ public class StatisticNode implements Node {
 
     @Override
     public long totalException() {
-        return rollingCounterInMinute.exception();
+        return minuteCounter().exception();
     }
 
     @Override
@@ -203,7 +369,7 @@ public class StatisticNode implements Node {
 
     @Override
     public long totalPass() {
-        return rollingCounterInMinute.pass();
+        return minuteCounter().pass();
     }
 
     @Override
@@ -229,12 +395,28 @@ public class StatisticNode implements Node {
             return 0;
         }
 
-        return rollingCounterInSecond.rt() * 1.0 / successCount;
+        return toMillisRt(rollingCounterInSecond.rt() * 1.0 / successCount);
     }
 
     @Override
     public double minRt() {
-        return rollingCounterInSecond.minRt();
+        return toMillisRt(rollingCounterInSecond.minRt());
+    }
+
+    /**
+     * Get the response time at given percentile in the recent second. The result is available only if
+     * response time histogram is enabled, otherwise 0 is returned.
+     *
+     * @param percentile percentile in range {@code (0, 100]}, e.g. {@code 99.9}
+     * @return response time at given percentile
+     * @since 1.8.0
+     */
+    public double rtPercentile(double percentile) {
+        HistogramLeapArray histogram = rtHistogramInSecond;
+        if (histogram == null) {
+            return 0;
+        }
+        return toMillisRt(histogram.percentile(percentile));
     }
 
     @Override
@@ -245,7 +427,10 @@ public class StatisticNode implements Node {
     @Override
     public void addPassRequest(int count) {
         rollingCounterInSecond.addPass(count);
-        rollingCounterInMinute.addPass(count);
+        Metric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter != null) {
+            minuteCounter.addPass(count);
+        }
     }
 
     @Override
@@ -253,20 +438,38 @@ public class StatisticNode implements Node {
         rollingCounterInSecond.addSuccess(successCount);
         rollingCounterInSecond.addRT(rt);
 
-        rollingCounterInMinute.addSuccess(successCount);
-        rollingCounterInMinute.addRT(rt);
+        Metric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter != null) {
+            minuteCounter.addSuccess(successCount);
+            minuteCounter.addRT(rt);
+        }
+
+        HistogramLeapArray histogram = rtHistogramInSecond;
+        if (histogram != null) {
+            histogram.record(rt);
+        }
+        HistogramLeapArray histogramInMinute = rtHistogramInMinute;
+        if (histogramInMinute != null) {
+            histogramInMinute.record(rt);
+        }
     }
 
     @Override
     public void increaseBlockQps(int count) {
         rollingCounterInSecond.addBlock(count);
-        rollingCounterInMinute.addBlock(count);
+        Metric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter != null) {
+            minuteCounter.addBlock(count);
+        }
     }
 
     @Override
     public void increaseExceptionQps(int count) {
         rollingCounterInSecond.addException(count);
-        rollingCounterInMinute.addException(count);
+        Metric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter != null) {
+            minuteCounter.addException(count);
+        }
     }
 
     @Override
@@ -331,7 +534,10 @@ public class StatisticNode implements Node {
 
     @Override
     public void addOccupiedPass(int acquireCount) {
-        rollingCounterInMinute.addOccupiedPass(acquireCount);
-        rollingCounterInMinute.addPass(acquireCount);
+        Metric minuteCounter = rollingCounterInMinute;
+        if (minuteCounter != null) {
+            minuteCounter.addOccupiedPass(acquireCount);
+            minuteCounter.addPass(acquireCount);
+        }
     }
 }
@@ -50,6 +50,16 @@ public class MetricNode {
      */
     private int concurrency;
 
+    /**
+     * Response time percentiles (p50, p90, p99 and p999), present only if RT histogram is enabled.
+     *
+     * @since 1.8.0
+     */
+    private long rtP50;
+    private long rtP90;
+    private long rtP99;
+    private long rtP999;
+
     public long getTimestamp() {
         return timestamp;
     }
@@ -132,6 +142,42 @@ public class MetricNode {
         return this;
     }
 
+    public long getRtP50() {
+        return rtP50;
+    }
+
+    public MetricNode setRtP50(long rtP50) {
+        this.rtP50 = rtP50;
+        return this;
+    }
+
+    public long getRtP90() {
+        return rtP90;
+    }
+
+    public MetricNode setRtP90(long rtP90) {
+        this.rtP90 = rtP90;
+        return this;
+    }
+
+    public long getRtP99() {
+        return rtP99;
+    }
+
+    public MetricNode setRtP99(long rtP99) {
+        this.rtP99 = rtP99;
+        return this;
+    }
+
+    public long getRtP999() {
+        return rtP999;
+    }
+
+    public MetricNode setRtP999(long rtP999) {
+        this.rtP999 = rtP999;
+        return this;
+    }
+
     @Override
     public String toString() {
         return "MetricNode{" +
@@ -145,6 +191,10 @@ public class MetricNode {
             ", rt=" + rt +
             ", concurrency=" + concurrency +
             ", occupiedPassQps=" + occupiedPassQps +
+            ", rtP50=" + rtP50 +
+            ", rtP90=" + rtP90 +
+            ", rtP99=" + rtP99 +
+            ", rtP999=" + rtP999 +
             '}';
     }
 
@@ -152,12 +202,29 @@ public class MetricNode {
      * To formatting string. All "|" in {@link #resource} will be replaced with
      * "_", format is: <br/>
      * <code>
-     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps
+     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency|classification
      * </code>
      *
      * @return string format of this.
      */
     public String toThinString() {
+        return toThinString(false);
+    }
+
+    /**
+     * To formatting string, optionally appending the RT percentiles. The percentile fields are only
+     * understood by parsers of 1.8.0 or later, so they must only be emitted when the reader asked for them.
+     * Format is: <br/>
+     * <code>
+     * timestamp|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps|concurrency|classification
+     * [|rtP50|rtP90|rtP99|rtP999]
+     * </code>
+     *
+     * @param withRtPercentiles whether to append the RT percentile fields
+     * @return string format of this.
+     * @since 1.8.0
+     */
+    public String toThinString(boolean withRtPercentiles) {
         StringBuilder sb = new StringBuilder();
         sb.append(timestamp).append("|");
         String legalName = resource.replaceAll("\\|", "_");
@@ -170,9 +237,19 @@ public class MetricNode {
         sb.append(occupiedPassQps).append("|");
         sb.append(concurrency).append("|");
         sb.append(classification);
+        if (withRtPercentiles) {
+            appendRtPercentiles(sb);
+        }
         return sb.toString();
     }
 
+    private void appendRtPercentiles(StringBuilder sb) {
+        sb.append("|").append(rtP50);
+        sb.append("|").append(rtP90);
+        sb.append("|").append(rtP99);
+        sb.append("|").append(rtP999);
+    }
+
     /**
      * Parse {@link MetricNode} from thin string, see {@link #toThinString()}
      *
@@ -195,9 +272,15 @@ public class MetricNode {
         if (strs.length >= 9) {
             node.setConcurrency(Integer.parseInt(strs[8]));
         }
-        if (strs.length == 10) {
+        if (strs.length >= 10) {
             node.setClassification(Integer.parseInt(strs[9]));
         }
+        if (strs.length >= 14) {
+            node.setRtP50(Long.parseLong(strs[10]));
+            node.setRtP90(Long.parseLong(strs[11]));
+            node.setRtP99(Long.parseLong(strs[12]));
+            node.setRtP999(Long.parseLong(strs[13]));
+        }
         return node;
     }
 
@@ -205,12 +288,28 @@ public class MetricNode {
      * To formatting string. All "|" in {@link MetricNode#resource} will be
      * replaced with "_", format is: <br/>
      * <code>
-     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps\n
+     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps
+     * |concurrency|classification\n
      * </code>
      *
      * @return string format of this.
      */
     public String toFatString() {
+        return toFatString(false);
+    }
+
+    /**
+     * To formatting string, optionally appending the RT percentiles. Format is: <br/>
+     * <code>
+     * timestamp|yyyy-MM-dd HH:mm:ss|resource|passQps|blockQps|successQps|exceptionQps|rt|occupiedPassQps
+     * |concurrency|classification[|rtP50|rtP90|rtP99|rtP999]\n
+     * </code>
+     *
+     * @param withRtPercentiles whether to append the RT percentile fields
+     * @return string format of this.
+     * @since 1.8.0
+     */
+    public String toFatString(boolean withRtPercentiles) {
         DateFormat df = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
         StringBuilder sb = new StringBuilder(32);
         sb.delete(0, sb.length());
@@ -226,6 +325,9 @@ public class MetricNode {
         sb.append(getOccupiedPassQps()).append("|");
         sb.append(concurrency).append("|");
         sb.append(classification);
+        if (withRtPercentiles) {
+            appendRtPercentiles(sb);
+        }
         sb.append('\n');
         return sb.toString();
     }
@@ -253,9 +355,15 @@ public class MetricNode {
         if (strs.length >= 10) {
             node.setConcurrency(Integer.parseInt(strs[9]));
         }
-        if (strs.length == 11) {
+        if (strs.length >= 11) {
             node.setClassification(Integer.parseInt(strs[10]));
         }
+        if (strs.length >= 15) {
+            node.setRtP50(Long.parseLong(strs[11]));
+            node.setRtP90(Long.parseLong(strs[12]));
+            node.setRtP99(Long.parseLong(strs[13]));
+            node.setRtP999(Long.parseLong(strs[14]));
+        }
         return node;
     }
 
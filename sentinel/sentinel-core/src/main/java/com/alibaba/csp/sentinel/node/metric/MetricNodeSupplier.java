@@ -0,0 +1,40 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node.metric;
+
+import java.util.List;
+
+/**
+ * <p>
+ * Supplier of the real-time {@link MetricNode}s which are not recorded in metric logs (e.g. statistics from
+ * extensions). The supplied nodes are appended to the output of the {@code metric} command.
+ * </p>
+ * <p>
+ * Implementations are loaded via SPI, so should have a public no-arg constructor.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public interface MetricNodeSupplier {
+
+    /**
+     * Get the metric nodes at present.
+     *
+     * @param currentTime current time in milliseconds
+     * @return the metric nodes, should not be null
+     */
+    List<MetricNode> getMetricNodes(long currentTime);
+}
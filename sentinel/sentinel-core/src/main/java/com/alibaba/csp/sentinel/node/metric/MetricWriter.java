@@ -139,12 +139,15 @@ public class MetricWriter {
             closeAndNewFile(nextFileNameOfDay(time));
         }
 
+        // RT percentiles are only appended when the histograms are enabled, so that
+        // readers of the metric log from older versions keep working by default.
+        boolean withRtPercentiles = SentinelConfig.rtHistogramEnabled();
         long second = time / 1000;
         if (second < lastSecond) {
             // 时间靠前的直接忽略，不应该发生。
         } else if (second == lastSecond) {
             for (MetricNode node : nodes) {
-                outMetricBuf.write(node.toFatString().getBytes(CHARSET));
+                outMetricBuf.write(node.toFatString(withRtPercentiles).getBytes(CHARSET));
             }
             outMetricBuf.flush();
             if (!validSize()) {
@@ -155,7 +158,7 @@ public class MetricWriter {
             if (isNewDay(lastSecond, second)) {
                 closeAndNewFile(nextFileNameOfDay(time));
                 for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
+                    outMetricBuf.write(node.toFatString(withRtPercentiles).getBytes(CHARSET));
                 }
                 outMetricBuf.flush();
                 if (!validSize()) {
@@ -163,7 +166,7 @@ public class MetricWriter {
                 }
             } else {
                 for (MetricNode node : nodes) {
-                    outMetricBuf.write(node.toFatString().getBytes(CHARSET));
+                    outMetricBuf.write(node.toFatString(withRtPercentiles).getBytes(CHARSET));
                 }
                 outMetricBuf.flush();
                 if (!validSize()) {
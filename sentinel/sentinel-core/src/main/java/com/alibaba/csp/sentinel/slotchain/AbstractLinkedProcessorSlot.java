@@ -23,7 +23,7 @@ import com.alibaba.csp.sentinel.context.Context;
  */
 public abstract class AbstractLinkedProcessorSlot<T> implements ProcessorSlot<T> {
 
-    private AbstractLinkedProcessorSlot<?> next = null;
+    private volatile AbstractLinkedProcessorSlot<?> next = null;
 
     @Override
     public void fireEntry(Context context, ResourceWrapper resourceWrapper, Object obj, int count, boolean prioritized, Object... args)
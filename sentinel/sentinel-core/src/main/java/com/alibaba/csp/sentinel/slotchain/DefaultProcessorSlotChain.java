@@ -15,6 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slotchain;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import com.alibaba.csp.sentinel.context.Context;
 
 /**
@@ -39,19 +42,52 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
     };
     AbstractLinkedProcessorSlot<?> end = first;
 
+    /**
+     * All slots in order, including those bypassed by specialization.
+     */
+    private final List<AbstractLinkedProcessorSlot<?>> slots = new ArrayList<>();
+    /**
+     * The rule version that the chain is specialized for, or -1 if the chain is not specialized.
+     */
+    private volatile long specializedVersion = -1;
+
     @Override
-    public void addFirst(AbstractLinkedProcessorSlot<?> protocolProcessor) {
+    public synchronized void addFirst(AbstractLinkedProcessorSlot<?> protocolProcessor) {
         protocolProcessor.setNext(first.getNext());
         first.setNext(protocolProcessor);
         if (end == first) {
             end = protocolProcessor;
         }
+        slots.add(0, protocolProcessor);
+        specializedVersion = -1;
     }
 
     @Override
-    public void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor) {
+    public synchronized void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor) {
         end.setNext(protocolProcessor);
         end = protocolProcessor;
+        slots.add(protocolProcessor);
+        specializedVersion = -1;
+    }
+
+    /**
+     * Re-link the slots so that the {@link RuleCheckSlot}s without rules for the resource are bypassed.
+     *
+     * @param resourceWrapper the resource of this chain
+     */
+    synchronized void specialize(ResourceWrapper resourceWrapper) {
+        // Read the version before checking rules, so that rules updated meanwhile trigger another round.
+        long version = SlotChainSpecializer.currentVersion();
+        AbstractLinkedProcessorSlot<?> prev = first;
+        for (AbstractLinkedProcessorSlot<?> slot : slots) {
+            if (slot instanceof RuleCheckSlot && !((RuleCheckSlot)slot).hasRules(resourceWrapper)) {
+                continue;
+            }
+            prev.setNext(slot);
+            prev = slot;
+        }
+        prev.setNext(null);
+        specializedVersion = version;
     }
 
     /**
@@ -72,6 +108,9 @@ public class DefaultProcessorSlotChain extends ProcessorSlotChain {
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, Object t, int count, boolean prioritized, Object... args)
         throws Throwable {
+        if (specializedVersion != SlotChainSpecializer.currentVersion() && SlotChainSpecializer.isEnabled()) {
+            specialize(resourceWrapper);
+        }
         first.transformEntry(context, resourceWrapper, t, count, prioritized, args);
     }
 
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slotchain;
 
+import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
+
 /**
  * Link all processor slots as a chain.
  *
@@ -22,6 +24,21 @@ package com.alibaba.csp.sentinel.slotchain;
  */
 public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Object> {
 
+    /**
+     * The access time is only updated when it has advanced by at least this interval, so that
+     * entries of a hot resource don't write the shared field every time.
+     */
+    private static final long ACCESS_TIME_PRECISION_MS = 1000;
+
+    private volatile long lastAccessTime;
+
+    /**
+     * Count of entries that have acquired this slot chain and have not exited yet.
+     */
+    private final LongAdder activeEntries = new LongAdder();
+
+    private volatile boolean evicted;
+
     /**
      * Add a processor to the head of this slot chain.
      *
@@ -35,4 +52,88 @@ public abstract class ProcessorSlotChain extends AbstractLinkedProcessorSlot<Obj
      * @param protocolProcessor processor to be added.
      */
     public abstract void addLast(AbstractLinkedProcessorSlot<?> protocolProcessor);
+
+    /**
+     * Record an access to the resource of this slot chain.
+     *
+     * @param currentTime current time in milliseconds
+     * @since 1.8.0
+     */
+    public void recordAccess(long currentTime) {
+        if (currentTime - lastAccessTime >= ACCESS_TIME_PRECISION_MS) {
+            lastAccessTime = currentTime;
+        }
+    }
+
+    /**
+     * Get the last access time of the resource of this slot chain, accurate to
+     * {@link #ACCESS_TIME_PRECISION_MS}. It's 0 if never recorded.
+     *
+     * @return the last access time in milliseconds
+     * @since 1.8.0
+     */
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * @return true if the slot chain has been evicted, then the slot chain of the resource should be
+     * looked up again
+     * @since 1.8.0
+     */
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    /**
+     * <p>Acquire the slot chain for a new entry, which must {@link #release()} it on exit.</p>
+     * <p>The count of active entries is increased before checking whether the slot chain has been evicted,
+     * while {@link #tryEvict()} does it the other way around, so either the entry sees the eviction or
+     * the eviction sees the entry.</p>
+     *
+     * @return false if the slot chain has been evicted, then the slot chain of the resource should be
+     * looked up again
+     * @since 1.8.0
+     */
+    public boolean tryAcquire() {
+        activeEntries.increment();
+        if (evicted) {
+            activeEntries.decrement();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Release the slot chain acquired by {@link #tryAcquire()} when the entry exits.
+     *
+     * @since 1.8.0
+     */
+    public void release() {
+        activeEntries.decrement();
+    }
+
+    /**
+     * Mark the slot chain as evicted if no entry has acquired it. Once evicted,
+     * it can't be acquired anymore. This should only be called by one thread at a time.
+     *
+     * @return true if the slot chain is evicted
+     * @since 1.8.0
+     */
+    public boolean tryEvict() {
+        evicted = true;
+        if (activeEntries.sum() > 0) {
+            evicted = false;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if some entries have acquired the slot chain and have not exited yet
+     * @since 1.8.0
+     */
+    public boolean hasActiveEntries() {
+        return activeEntries.sum() > 0;
+    }
 }
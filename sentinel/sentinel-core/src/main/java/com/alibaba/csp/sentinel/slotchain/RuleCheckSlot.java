@@ -0,0 +1,37 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+/**
+ * A processor slot that only checks rules on entry, so it can be bypassed in the slot chain of the resources
+ * that have no rules of the slot. The slot should do nothing but {@code fireExit} on exit, as an exit might
+ * go through the slot even if the entry has bypassed it (when rules are updated in between).
+ *
+ * @since 1.8.0
+ * @see SlotChainSpecializer
+ */
+public interface RuleCheckSlot {
+
+    /**
+     * Whether there are rules of this slot that might apply to given resource.
+     * The result should not depend on the entry type, as resources of different entry types share the same
+     * slot chain.
+     *
+     * @param resourceWrapper the resource
+     * @return false if the slot could be bypassed for the resource until rules are updated
+     */
+    boolean hasRules(ResourceWrapper resourceWrapper);
+}
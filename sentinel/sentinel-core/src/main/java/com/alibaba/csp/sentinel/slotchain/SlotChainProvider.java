@@ -30,8 +30,8 @@ public final class SlotChainProvider {
     private static volatile SlotChainBuilder slotChainBuilder = null;
 
     /**
-     * The load and pick process is not thread-safe, but it's okay since the method should be only invoked
-     * via {@code lookProcessChain} in {@link com.alibaba.csp.sentinel.CtSph} under lock.
+     * The load and pick process is not thread-safe, but it's okay since concurrent resolving only loads
+     * the same builder more than once.
      *
      * @return new created slot chain
      */
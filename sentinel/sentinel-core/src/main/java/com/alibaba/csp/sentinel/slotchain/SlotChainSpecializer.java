@@ -0,0 +1,54 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+
+/**
+ * <p>
+ * Tracks the version of rules for slot chain specialization. Each {@link DefaultProcessorSlotChain} links only
+ * the slots of its resource which have rules (see {@link RuleCheckSlot}), and re-links them lazily on the next
+ * entry once rules of any type have been updated.
+ * </p>
+ * <p>
+ * Rule managers should call {@link #invalidate()} after the new rules have been published.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public final class SlotChainSpecializer {
+
+    private static final AtomicLong RULE_VERSION = new AtomicLong();
+
+    /**
+     * Invalidate all specialized slot chains, so they will be specialized again on next entry.
+     */
+    public static void invalidate() {
+        RULE_VERSION.incrementAndGet();
+    }
+
+    static long currentVersion() {
+        return RULE_VERSION.get();
+    }
+
+    static boolean isEnabled() {
+        return SentinelConfig.slotChainSpecializeEnabled();
+    }
+
+    private SlotChainSpecializer() {}
+}
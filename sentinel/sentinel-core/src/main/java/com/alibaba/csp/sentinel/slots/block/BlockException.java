@@ -45,6 +45,7 @@ public abstract class BlockException extends Exception {
 
     protected AbstractRule rule;
     private String ruleLimitApp;
+    private boolean shared;
 
     public BlockException(String ruleLimitApp) {
         super();
@@ -72,6 +73,25 @@ public abstract class BlockException extends Exception {
         this.rule = rule;
     }
 
+    /**
+     * Create an exception that may be shared by all requests blocked for the same reason,
+     * so that nothing is allocated on the block path. A shared exception is immutable: it has neither
+     * stack trace nor suppressed exceptions, and {@link #initCause(Throwable)} and
+     * {@link #setRuleLimitApp(String)} have no effect on it.
+     *
+     * @param ruleLimitApp limit app of the triggered rule
+     * @param message      the detail message
+     * @param rule         the triggered rule
+     * @param shared       whether the exception is shared
+     * @since 1.8.0
+     */
+    protected BlockException(String ruleLimitApp, String message, AbstractRule rule, boolean shared) {
+        super(message, null, !shared, !shared);
+        this.ruleLimitApp = ruleLimitApp;
+        this.rule = rule;
+        this.shared = shared;
+    }
+
     @Override
     public Throwable fillInStackTrace() {
         return this;
@@ -82,9 +102,36 @@ public abstract class BlockException extends Exception {
     }
 
     public void setRuleLimitApp(String ruleLimitApp) {
+        if (shared) {
+            // Other requests may be holding the shared exception.
+            return;
+        }
         this.ruleLimitApp = ruleLimitApp;
     }
 
+    /**
+     * Shared exceptions have no cause, and the cause of them can't be set, as other requests may be
+     * holding them. For other exceptions it's the same as {@link Throwable#initCause(Throwable)}.
+     *
+     * @param cause the cause
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable initCause(Throwable cause) {
+        if (shared) {
+            return this;
+        }
+        return super.initCause(cause);
+    }
+
+    /**
+     * @return true if the exception is shared by all requests blocked for the same reason
+     * @since 1.8.0
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
     /**
      * Check whether the exception is sentinel blocked exception. One exception is sentinel blocked
      * exception only when:
@@ -116,4 +163,14 @@ public abstract class BlockException extends Exception {
     public AbstractRule getRule() {
         return rule;
     }
+
+    /**
+     * Get the reason of the block, i.e. which kind of rule is triggered.
+     *
+     * @return the reason of the block
+     * @since 1.8.0
+     */
+    public BlockReason getReason() {
+        return BlockReason.CUSTOM;
+    }
 }
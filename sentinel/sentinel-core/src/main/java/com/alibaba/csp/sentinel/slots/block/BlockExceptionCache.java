@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+
+/**
+ * <p>
+ * A bounded cache of shared {@link BlockException}s, keyed by what distinguishes the exceptions of the same rule,
+ * e.g. the origin or the parameter value.
+ * </p>
+ * <p>
+ * Once the cache is full ({@link #DEFAULT_MAX_SIZE} keys by default), exceptions of new keys are not cached
+ * but created for each block, so that the memory won't grow with unbounded keys such as user IDs.
+ * A warning is logged the first time it happens.
+ * </p>
+ *
+ * @param <K> type of the key
+ * @param <E> type of the exception
+ * @since 1.8.0
+ */
+public class BlockExceptionCache<K, E extends BlockException> {
+
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final int maxSize;
+    private final ConcurrentMap<K, E> cache = new ConcurrentHashMap<K, E>();
+    private volatile boolean fullLogged = false;
+
+    public BlockExceptionCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    public BlockExceptionCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Get the cached exception of the key.
+     *
+     * @param key the key, should not be null
+     * @return the cached exception, or null if absent
+     */
+    public E get(K key) {
+        return cache.get(key);
+    }
+
+    /**
+     * Cache the exception of the key if there is room.
+     *
+     * @param key       the key, should not be null
+     * @param exception new exception of the key
+     * @return the exception to throw, which may be the one cached by another thread
+     */
+    public E cache(K key, E exception) {
+        if (cache.size() >= maxSize) {
+            if (!fullLogged) {
+                fullLogged = true;
+                RecordLog.warn("[BlockExceptionCache] Cache of {0} is full (max size: {1}), exceptions of new keys"
+                    + " won't be cached", exception.getClass().getSimpleName(), maxSize);
+            }
+            return exception;
+        }
+        E old = cache.putIfAbsent(key, exception);
+        return old == null ? exception : old;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+}
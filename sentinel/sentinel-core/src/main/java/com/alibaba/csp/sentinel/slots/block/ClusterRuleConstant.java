@@ -29,5 +29,18 @@ public final class ClusterRuleConstant {
 
     public static final int DEFAULT_CLUSTER_SAMPLE_COUNT = 10;
 
+    /**
+     * Default validity of the tokens leased to a token client (in milliseconds).
+     *
+     * @since 1.8.0
+     */
+    public static final int DEFAULT_CLUSTER_LEASE_VALIDITY_MS = 200;
+    /**
+     * Default max time (in milliseconds) that a concurrency token of a cluster rule in thread grade can be held.
+     *
+     * @since 1.8.0
+     */
+    public static final int DEFAULT_CLUSTER_CONCURRENCY_TIMEOUT_MS = 60 * 1000;
+
     private ClusterRuleConstant() {}
 }
@@ -15,8 +15,6 @@
  */
 package com.alibaba.csp.sentinel.slots.block;
 
-import com.alibaba.csp.sentinel.node.IntervalProperty;
-
 /**
  * @author youji.zj
  * @author jialiang.linjl
@@ -26,18 +24,25 @@ public final class RuleConstant {
     public static final int FLOW_GRADE_THREAD = 0;
     public static final int FLOW_GRADE_QPS = 1;
 
+    /**
+     * Degrade by average RT (or by slow request ratio if the slow ratio threshold of the rule is set)
+     * in the statistic interval of the rule, 1 second by default.
+     */
     public static final int DEGRADE_GRADE_RT = 0;
     /**
-     * Degrade by biz exception ratio in the current {@link IntervalProperty#INTERVAL} second(s).
+     * Degrade by biz exception ratio in the statistic interval of the rule, 1 second by default.
      */
     public static final int DEGRADE_GRADE_EXCEPTION_RATIO = 1;
     /**
-     * Degrade by biz exception count in the last 60 seconds.
+     * Degrade by biz exception count in the statistic interval of the rule, the last 60 seconds by default.
      */
     public static final int DEGRADE_GRADE_EXCEPTION_COUNT = 2;
 
     public static final int DEGRADE_DEFAULT_SLOW_REQUEST_AMOUNT = 5;
     public static final int DEGRADE_DEFAULT_MIN_REQUEST_AMOUNT = 5;
+    public static final int DEGRADE_DEFAULT_STAT_INTERVAL_MS = 1000;
+    public static final int DEGRADE_EXCEPTION_COUNT_DEFAULT_STAT_INTERVAL_MS = 60 * 1000;
+    public static final int DEGRADE_DEFAULT_PROBE_REQUEST_AMOUNT = 1;
 
     public static final int AUTHORITY_WHITE = 0;
     public static final int AUTHORITY_BLACK = 1;
@@ -50,6 +55,18 @@ public final class RuleConstant {
     public static final int CONTROL_BEHAVIOR_WARM_UP = 1;
     public static final int CONTROL_BEHAVIOR_RATE_LIMITER = 2;
     public static final int CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER = 3;
+    /**
+     * Fast reject with the quota kept in striped token buckets, for extremely hot resources.
+     *
+     * @since 1.8.0
+     */
+    public static final int CONTROL_BEHAVIOR_SHARDED_TOKEN_BUCKET = 4;
+    /**
+     * Concurrency limiting with the limit discovered by the RT, only for {@link #FLOW_GRADE_THREAD}.
+     *
+     * @since 1.8.0
+     */
+    public static final int CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY = 5;
 
     public static final String LIMIT_APP_DEFAULT = "default";
     public static final String LIMIT_APP_OTHER = "other";
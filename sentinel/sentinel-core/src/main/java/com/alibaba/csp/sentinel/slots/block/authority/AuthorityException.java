@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.authority;
 
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.BlockReason;
 
 /**
  * Block exception for request origin access (authority) control.
@@ -41,6 +42,22 @@ public class AuthorityException extends BlockException {
         super(ruleLimitApp, message);
     }
 
+    private AuthorityException(String origin, AuthorityRule rule, boolean shared) {
+        super(origin, null, rule, shared);
+    }
+
+    /**
+     * Create the exception shared by all requests of the origin blocked by the rule.
+     *
+     * @param origin the blocked origin
+     * @param rule   the triggered rule
+     * @return the shared exception
+     * @since 1.8.0
+     */
+    static AuthorityException shared(String origin, AuthorityRule rule) {
+        return new AuthorityException(origin, rule, true);
+    }
+
     @Override
     public Throwable fillInStackTrace() {
         return this;
@@ -57,4 +74,9 @@ public class AuthorityException extends BlockException {
     public AuthorityRule getRule() {
         return rule.as(AuthorityRule.class);
     }
+
+    @Override
+    public BlockReason getReason() {
+        return BlockReason.AUTHORITY;
+    }
 }
@@ -18,6 +18,7 @@ package com.alibaba.csp.sentinel.slots.block.authority;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slots.block.AbstractRule;
+import com.alibaba.csp.sentinel.slots.block.BlockExceptionCache;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 
 /**
@@ -32,6 +33,12 @@ public class AuthorityRule extends AbstractRule {
      */
     private int strategy = RuleConstant.AUTHORITY_WHITE;
 
+    /**
+     * Exceptions shared by all requests of the same origin blocked by the rule.
+     */
+    private final BlockExceptionCache<String, AuthorityException> blockExceptions
+        = new BlockExceptionCache<String, AuthorityException>();
+
     public int getStrategy() {
         return strategy;
     }
@@ -41,6 +48,14 @@ public class AuthorityRule extends AbstractRule {
         return this;
     }
 
+    AuthorityException getBlockException(String origin) {
+        AuthorityException e = blockExceptions.get(origin);
+        if (e == null) {
+            e = blockExceptions.cache(origin, AuthorityException.shared(origin, this));
+        }
+        return e;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -23,6 +23,7 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.SlotChainSpecializer;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -99,6 +100,7 @@ public final class AuthorityRuleManager {
             if (rules != null) {
                 authorityRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[AuthorityRuleManager] Authority rules received: " + authorityRules);
         }
 
@@ -143,6 +145,7 @@ public final class AuthorityRuleManager {
             if (rules != null) {
                 authorityRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[AuthorityRuleManager] Load authority rules: " + authorityRules);
         }
     }
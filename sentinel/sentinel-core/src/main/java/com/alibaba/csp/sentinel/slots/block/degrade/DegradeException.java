@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.degrade;
 
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.BlockReason;
 
 /***
  * @author youji.zj
@@ -38,6 +39,21 @@ public class DegradeException extends BlockException {
         super(ruleLimitApp, message);
     }
 
+    private DegradeException(DegradeRule rule, boolean shared) {
+        super(rule.getLimitApp(), null, rule, shared);
+    }
+
+    /**
+     * Create the exception shared by all requests blocked by the rule.
+     *
+     * @param rule the triggered rule
+     * @return the shared exception
+     * @since 1.8.0
+     */
+    static DegradeException shared(DegradeRule rule) {
+        return new DegradeException(rule, true);
+    }
+
     @Override
     public Throwable fillInStackTrace() {
         return this;
@@ -54,4 +70,9 @@ public class DegradeException extends BlockException {
     public DegradeRule getRule() {
         return rule.as(DegradeRule.class);
     }
+
+    @Override
+    public BlockReason getReason() {
+        return BlockReason.DEGRADE;
+    }
 }
@@ -15,50 +15,49 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade;
 
-import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.context.Context;
-import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slots.block.AbstractRule;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
-import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
-
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicLong;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.ExceptionCircuitBreaker;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.ResponseTimeCircuitBreaker;
 
 /**
  * <p>
  * Degrade is used when the resources are in an unstable state, these resources
- * will be degraded within the next defined time window. There are two ways to
- * measure whether a resource is stable or not:
+ * will be degraded within the next defined time window. Each rule has its own
+ * {@link CircuitBreaker}, which measures whether a resource is stable or not by
+ * the completed requests in the statistic interval ({@code statIntervalMs}):
  * </p>
  * <ul>
  * <li>
- * Average response time ({@code DEGRADE_GRADE_RT}): When
- * the average RT exceeds the threshold ('count' in 'DegradeRule', in milliseconds), the
- * resource enters a quasi-degraded state. If the RT of next coming 5
- * requests still exceed this threshold, this resource will be downgraded, which
- * means that in the next time window (defined in 'timeWindow', in seconds) all the
- * access to this resource will be blocked.
+ * Average response time ({@code DEGRADE_GRADE_RT}): A request is slow if its RT exceeds the
+ * threshold ('count' in 'DegradeRule', in milliseconds). When the average RT exceeds the
+ * threshold for 'rtSlowRequestAmount' consecutive slow requests, the resource will be downgraded.
+ * If 'slowRatioThreshold' is set, the resource will be downgraded when there are at least
+ * 'rtSlowRequestAmount' slow requests and the slow ratio reaches 'slowRatioThreshold' instead.
+ * </li>
+ * <li>
+ * Exception ratio: When the ratio of the requests with exceptions traced exceeds the
+ * threshold, the resource will be downgraded.
  * </li>
  * <li>
- * Exception ratio: When the ratio of exception count per second and the
- * success qps exceeds the threshold, access to the resource will be blocked in
- * the coming window.
+ * Exception count: When the amount of the requests with exceptions traced (in the last
+ * 60 seconds by default) exceeds the threshold, the resource will be downgraded.
  * </li>
  * </ul>
+ * <p>
+ * When downgraded, all the access to this resource will be blocked in the next time window
+ * (defined in 'timeWindow', in seconds). After that, at most 'probeRequestAmount' probe
+ * requests are permitted. The resource recovers if all of them succeed, otherwise it is
+ * downgraded again.
+ * </p>
  *
  * @author jialiang.linjl
  */
 public class DegradeRule extends AbstractRule {
 
-    @SuppressWarnings("PMD.ThreadPoolCreationRule")
-    private static ScheduledExecutorService pool = Executors.newScheduledThreadPool(
-        Runtime.getRuntime().availableProcessors(), new NamedThreadFactory("sentinel-degrade-reset-task", true));
-
     public DegradeRule() {}
 
     public DegradeRule(String resourceName) {
@@ -94,6 +93,29 @@ public class DegradeRule extends AbstractRule {
      */
     private int minRequestAmount = RuleConstant.DEGRADE_DEFAULT_MIN_REQUEST_AMOUNT;
 
+    /**
+     * The threshold of slow request ratio in RT mode. If not set (0), the average RT is checked instead.
+     *
+     * @since 1.8.0
+     */
+    private double slowRatioThreshold = 0;
+
+    /**
+     * The statistic interval (in milliseconds) of the circuit breaker. If not set (0), it's
+     * {@link RuleConstant#DEGRADE_EXCEPTION_COUNT_DEFAULT_STAT_INTERVAL_MS} in exception count mode,
+     * otherwise {@link RuleConstant#DEGRADE_DEFAULT_STAT_INTERVAL_MS}.
+     *
+     * @since 1.8.0
+     */
+    private int statIntervalMs = 0;
+
+    /**
+     * Maximum number of probe requests permitted when the circuit breaker is half-open.
+     *
+     * @since 1.8.0
+     */
+    private int probeRequestAmount = RuleConstant.DEGRADE_DEFAULT_PROBE_REQUEST_AMOUNT;
+
     public int getGrade() {
         return grade;
     }
@@ -139,6 +161,38 @@ public class DegradeRule extends AbstractRule {
         return this;
     }
 
+    public double getSlowRatioThreshold() {
+        return slowRatioThreshold;
+    }
+
+    public DegradeRule setSlowRatioThreshold(double slowRatioThreshold) {
+        this.slowRatioThreshold = slowRatioThreshold;
+        return this;
+    }
+
+    public int getStatIntervalMs() {
+        if (statIntervalMs != 0) {
+            return statIntervalMs;
+        }
+        return grade == RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT
+            ? RuleConstant.DEGRADE_EXCEPTION_COUNT_DEFAULT_STAT_INTERVAL_MS
+            : RuleConstant.DEGRADE_DEFAULT_STAT_INTERVAL_MS;
+    }
+
+    public DegradeRule setStatIntervalMs(int statIntervalMs) {
+        this.statIntervalMs = statIntervalMs;
+        return this;
+    }
+
+    public int getProbeRequestAmount() {
+        return probeRequestAmount;
+    }
+
+    public DegradeRule setProbeRequestAmount(int probeRequestAmount) {
+        this.probeRequestAmount = probeRequestAmount;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -149,7 +203,10 @@ public class DegradeRule extends AbstractRule {
             timeWindow == that.timeWindow &&
             grade == that.grade &&
             rtSlowRequestAmount == that.rtSlowRequestAmount &&
-            minRequestAmount == that.minRequestAmount;
+            minRequestAmount == that.minRequestAmount &&
+            Double.compare(that.slowRatioThreshold, slowRatioThreshold) == 0 &&
+            statIntervalMs == that.statIntervalMs &&
+            probeRequestAmount == that.probeRequestAmount;
     }
 
     @Override
@@ -160,6 +217,9 @@ public class DegradeRule extends AbstractRule {
         result = 31 * result + grade;
         result = 31 * result + rtSlowRequestAmount;
         result = 31 * result + minRequestAmount;
+        result = 31 * result + new Double(slowRatioThreshold).hashCode();
+        result = 31 * result + statIntervalMs;
+        result = 31 * result + probeRequestAmount;
         return result;
     }
 
@@ -173,84 +233,61 @@ public class DegradeRule extends AbstractRule {
             ", timeWindow=" + timeWindow +
             ", rtSlowRequestAmount=" + rtSlowRequestAmount +
             ", minRequestAmount=" + minRequestAmount +
+            ", slowRatioThreshold=" + slowRatioThreshold +
+            ", statIntervalMs=" + statIntervalMs +
+            ", probeRequestAmount=" + probeRequestAmount +
             "}";
     }
 
     // Internal implementation (will be deprecated and moved outside).
 
-    private AtomicLong passCount = new AtomicLong(0);
-    private final AtomicBoolean cut = new AtomicBoolean(false);
-
-    @Override
-    public boolean passCheck(Context context, DefaultNode node, int acquireCount, Object... args) {
-        if (cut.get()) {
-            return false;
-        }
+    private volatile CircuitBreaker circuitBreaker;
 
-        ClusterNode clusterNode = ClusterBuilderSlot.getClusterNode(this.getResource());
-        if (clusterNode == null) {
-            return true;
+    /**
+     * The exception shared by all requests blocked by the rule.
+     */
+    private volatile DegradeException blockException;
+
+    DegradeException getBlockException() {
+        DegradeException e = blockException;
+        if (e == null) {
+            // Racing threads may create different instances, which is harmless.
+            e = DegradeException.shared(this);
+            blockException = e;
         }
-        //RT降级规则
-        if (grade == RuleConstant.DEGRADE_GRADE_RT) {
-            double rt = clusterNode.avgRt();
-            //如果该资源平均RT小于阈值，重置为0
-            if (rt < this.count) {
-                passCount.set(0);
-                return true;
-            }
-
-            // Sentinel will degrade the service only if count exceeds.
-            // 半降级状态：rtSlowRequestAmount，默认为5
-            if (passCount.incrementAndGet() < rtSlowRequestAmount) {
-                return true;
-            }
-        } else if (grade == RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO) {
-            double exception = clusterNode.exceptionQps();
-            double success = clusterNode.successQps();
-            double total = clusterNode.totalQps();
-            // If total amount is less than minRequestAmount, the request will pass.
-            if (total < minRequestAmount) {
-                return true;
-            }
-
-            // In the same aligned statistic time window,
-            // "success" (aka. completed count) = exception count + non-exception count (realSuccess)
-            double realSuccess = success - exception;
-            if (realSuccess <= 0 && exception < minRequestAmount) {
-                return true;
-            }
+        return e;
+    }
 
-            if (exception / success < count) {
-                return true;
-            }
-        } else if (grade == RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT) {
-            double exception = clusterNode.totalException();
-            if (exception < count) {
-                return true;
+    /**
+     * Get the circuit breaker of the rule, which is created on first use.
+     *
+     * @return the circuit breaker
+     * @since 1.8.0
+     */
+    CircuitBreaker getCircuitBreaker() {
+        CircuitBreaker cb = circuitBreaker;
+        if (cb == null) {
+            synchronized (this) {
+                cb = circuitBreaker;
+                if (cb == null) {
+                    cb = grade == RuleConstant.DEGRADE_GRADE_RT ? new ResponseTimeCircuitBreaker(this)
+                        : new ExceptionCircuitBreaker(this);
+                    circuitBreaker = cb;
+                }
             }
         }
-
-        if (cut.compareAndSet(false, true)) {
-            ResetTask resetTask = new ResetTask(this);
-            pool.schedule(resetTask, timeWindow, TimeUnit.SECONDS);
-        }
-
-        return false;
+        return cb;
     }
 
-    private static final class ResetTask implements Runnable {
-
-        private DegradeRule rule;
-
-        ResetTask(DegradeRule rule) {
-            this.rule = rule;
-        }
+    /**
+     * Take over the circuit breaker of an equivalent rule, so that its state survives rule reloading.
+     */
+    void setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
 
-        @Override
-        public void run() {
-            rule.passCount.set(0);
-            rule.cut.set(false);
-        }
+    @Override
+    public boolean passCheck(Context context, DefaultNode node, int acquireCount, Object... args) {
+        return getCircuitBreaker().tryPass(context);
     }
 }
@@ -23,6 +23,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.log.RecordLog;
@@ -30,9 +31,13 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotExitCallback;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.SlotChainSpecializer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
+import com.alibaba.csp.sentinel.slots.statistic.StatisticSlotCallbackRegistry;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 
@@ -51,6 +56,8 @@ public final class DegradeRuleManager {
 
     static {
         currentProperty.addListener(LISTENER);
+        // Record the completions in StatisticSlot, as DegradeSlot might be bypassed on exit.
+        StatisticSlotCallbackRegistry.addExitCallback(DegradeExitCallback.class.getName(), new DegradeExitCallback());
     }
 
     /**
@@ -79,11 +86,32 @@ public final class DegradeRuleManager {
 
         for (DegradeRule rule : rules) {
             if (!rule.passCheck(context, node, count)) {
-                throw new DegradeException(rule.getLimitApp(), rule);
+                throw rule.getBlockException();
             }
         }
     }
 
+    /**
+     * Get the circuit breakers of the rules of given resource.
+     *
+     * @param resourceName name of the resource
+     * @return a new list of the circuit breakers
+     * @since 1.8.0
+     */
+    public static List<CircuitBreaker> getCircuitBreakers(String resourceName) {
+        List<CircuitBreaker> circuitBreakers = new ArrayList<>();
+        if (resourceName == null) {
+            return circuitBreakers;
+        }
+        Set<DegradeRule> rules = degradeRules.get(resourceName);
+        if (rules != null) {
+            for (DegradeRule rule : rules) {
+                circuitBreakers.add(rule.getCircuitBreaker());
+            }
+        }
+        return circuitBreakers;
+    }
+
     public static boolean hasConfig(String resource) {
         if (resource == null) {
             return false;
@@ -152,6 +180,21 @@ public final class DegradeRuleManager {
         }
     }
 
+    private static final class DegradeExitCallback implements ProcessorSlotExitCallback {
+
+        @Override
+        public void onExit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+            Set<DegradeRule> rules = degradeRules.get(resourceWrapper.getName());
+            if (rules == null) {
+                return;
+            }
+            Entry curEntry = context.getCurEntry();
+            for (DegradeRule rule : rules) {
+                rule.getCircuitBreaker().onRequestComplete(curEntry);
+            }
+        }
+    }
+
     private static class RulePropertyListener implements PropertyListener<List<DegradeRule>> {
 
         @Override
@@ -161,6 +204,7 @@ public final class DegradeRuleManager {
                 degradeRules.clear();
                 degradeRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[DegradeRuleManager] Degrade rules received: " + degradeRules);
         }
 
@@ -171,6 +215,7 @@ public final class DegradeRuleManager {
                 degradeRules.clear();
                 degradeRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[DegradeRuleManager] Degrade rules loaded: " + degradeRules);
         }
 
@@ -193,6 +238,7 @@ public final class DegradeRuleManager {
                 }
 
                 String identity = rule.getResource();
+                reuseCircuitBreaker(rule, degradeRules.get(identity));
                 Set<DegradeRule> ruleSet = newRuleMap.get(identity);
                 if (ruleSet == null) {
                     ruleSet = new HashSet<>();
@@ -203,11 +249,27 @@ public final class DegradeRuleManager {
 
             return newRuleMap;
         }
+
+        /**
+         * Keep the state of the circuit breaker if an equivalent rule has been loaded.
+         */
+        private void reuseCircuitBreaker(DegradeRule rule, Set<DegradeRule> oldRules) {
+            if (oldRules == null) {
+                return;
+            }
+            for (DegradeRule oldRule : oldRules) {
+                if (oldRule != rule && oldRule.equals(rule)) {
+                    rule.setCircuitBreaker(oldRule.getCircuitBreaker());
+                    return;
+                }
+            }
+        }
     }
 
     public static boolean isValidRule(DegradeRule rule) {
         boolean baseValid = rule != null && !StringUtil.isBlank(rule.getResource())
-            && rule.getCount() >= 0 && rule.getTimeWindow() > 0;
+            && rule.getCount() >= 0 && rule.getTimeWindow() > 0
+            && rule.getStatIntervalMs() > 0 && rule.getProbeRequestAmount() > 0;
         if (!baseValid) {
             return false;
         }
@@ -216,6 +278,9 @@ public final class DegradeRuleManager {
             if (rule.getRtSlowRequestAmount() <= 0) {
                 return false;
             }
+            if (rule.getSlowRatioThreshold() < 0 || rule.getSlowRatioThreshold() > 1) {
+                return false;
+            }
             // Warn for RT mode that exceeds the {@code TIME_DROP_VALVE}.
             if (rule.getCount() > maxAllowedRt) {
                 RecordLog.warn(String.format("[DegradeRuleManager] WARN: setting large RT threshold (%.1f ms)"
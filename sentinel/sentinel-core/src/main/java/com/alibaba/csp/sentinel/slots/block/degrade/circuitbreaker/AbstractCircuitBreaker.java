@@ -0,0 +1,274 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.slots.statistic.StatisticSlot;
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.LongAdder;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * The circuit breaker state machine, with the sliding statistics of the completed requests of the rule.
+ * Subclasses decide which requests are regarded as failed, and when the failures exceed the threshold.
+ *
+ * @since 1.8.0
+ */
+public abstract class AbstractCircuitBreaker implements CircuitBreaker {
+
+    private static final int DEFAULT_SAMPLE_COUNT = 10;
+
+    protected final DegradeRule rule;
+
+    private final AtomicReference<State> currentState = new AtomicReference<>(State.CLOSED);
+    private final LeapArray<CompletionCounter> stat;
+
+    /**
+     * When open, the time to turn half-open. When half-open, the deadline for the probes to complete.
+     */
+    private volatile long nextRetryTimestamp;
+
+    private final AtomicInteger probePermits = new AtomicInteger();
+    private final AtomicInteger probeSuccesses = new AtomicInteger();
+    private final Set<Entry> probes = Collections.newSetFromMap(new ConcurrentHashMap<Entry, Boolean>());
+    /**
+     * Registered on the probe entries only, to decide the state when the probes complete.
+     */
+    private final Entry.ExitHandler probeExitHandler = new Entry.ExitHandler() {
+        @Override
+        public void onExit(Context context, Entry entry) {
+            onProbeComplete(entry);
+        }
+    };
+
+    protected AbstractCircuitBreaker(DegradeRule rule) {
+        AssertUtil.notNull(rule, "rule cannot be null");
+        this.rule = rule;
+        int intervalMs = rule.getStatIntervalMs();
+        this.stat = new CompletionLeapArray(intervalMs % DEFAULT_SAMPLE_COUNT == 0 ? DEFAULT_SAMPLE_COUNT : 1,
+            intervalMs);
+    }
+
+    /**
+     * Check whether the completed entry is regarded as failed.
+     *
+     * @param entry the completed entry, which has not been blocked
+     * @param rt    response time of the entry, as recorded by {@link StatisticSlot#calculateRt(Entry)}
+     * @return true if failed
+     */
+    protected abstract boolean isFailed(Entry entry, long rt);
+
+    /**
+     * Get the value which exceeds the threshold of the rule, from the statistics in current interval.
+     *
+     * @param total   amount of the completed requests
+     * @param failed  amount of the failed requests
+     * @param totalRt total response time of the completed requests, in the unit of {@link StatisticSlot}
+     * @return the value (e.g. the failure ratio) if the threshold is exceeded, otherwise null
+     */
+    protected abstract Double exceededValue(long total, long failed, long totalRt);
+
+    @Override
+    public DegradeRule getRule() {
+        return rule;
+    }
+
+    @Override
+    public State currentState() {
+        return currentState.get();
+    }
+
+    @Override
+    public boolean tryPass(Context context) {
+        State state = currentState.get();
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (TimeUtil.currentTimeMillis() >= nextRetryTimestamp) {
+            if (state == State.OPEN) {
+                transformState(State.OPEN, State.HALF_OPEN, null);
+            } else {
+                // The probes have not completed in time, which is regarded as failure.
+                transformState(State.HALF_OPEN, State.OPEN, null);
+            }
+            state = currentState.get();
+        }
+        if (state == State.HALF_OPEN) {
+            // A probe without entry would never complete, so it's not permitted.
+            Entry entry = context == null ? null : context.getCurEntry();
+            return entry != null && tryAcquireProbe(entry);
+        }
+        return state == State.CLOSED;
+    }
+
+    @Override
+    public void onRequestComplete(Entry entry) {
+        if (entry == null) {
+            return;
+        }
+        if (entry.getError() != null) {
+            return;
+        }
+        long rt = StatisticSlot.calculateRt(entry);
+        boolean failed = isFailed(entry, rt);
+        CompletionCounter counter = stat.currentWindow().value();
+        counter.total.increment();
+        counter.rt.add(rt);
+        if (failed) {
+            counter.failed.increment();
+        }
+
+        if (currentState.get() == State.CLOSED && failed) {
+            long total = 0;
+            long failedTotal = 0;
+            long totalRt = 0;
+            for (CompletionCounter c : stat.values()) {
+                total += c.total.sum();
+                failedTotal += c.failed.sum();
+                totalRt += c.rt.sum();
+            }
+            Double value = exceededValue(total, failedTotal, totalRt);
+            if (value != null) {
+                transformState(State.CLOSED, State.OPEN, value);
+            }
+        }
+    }
+
+    private void onProbeComplete(Entry entry) {
+        // Requests admitted before the breaker opened, or probes of an earlier half-open state,
+        // do not decide the state.
+        if (!probes.remove(entry)) {
+            return;
+        }
+        if (entry.getError() != null) {
+            // Blocked by other rules or slots, so a probe request can be taken by others.
+            probePermits.incrementAndGet();
+            return;
+        }
+        if (isFailed(entry, StatisticSlot.calculateRt(entry))) {
+            transformState(State.HALF_OPEN, State.OPEN, null);
+        } else if (probeSuccesses.incrementAndGet() >= rule.getProbeRequestAmount()) {
+            transformState(State.HALF_OPEN, State.CLOSED, null);
+        }
+    }
+
+    private boolean tryAcquireProbe(/*@NonNull*/ Entry entry) {
+        while (true) {
+            int permits = probePermits.get();
+            if (permits <= 0) {
+                return false;
+            }
+            if (probePermits.compareAndSet(permits, permits - 1)) {
+                probes.add(entry);
+                entry.whenTerminate(probeExitHandler);
+                return true;
+            }
+        }
+    }
+
+    private boolean transformState(State prevState, State newState, Double snapshotValue) {
+        synchronized (this) {
+            if (currentState.get() != prevState) {
+                return false;
+            }
+            long now = TimeUtil.currentTimeMillis();
+            probes.clear();
+            if (newState == State.HALF_OPEN) {
+                nextRetryTimestamp = now + rule.getTimeWindow() * 1000L;
+                probeSuccesses.set(0);
+                probePermits.set(rule.getProbeRequestAmount());
+            } else {
+                probePermits.set(0);
+                if (newState == State.OPEN) {
+                    nextRetryTimestamp = now + rule.getTimeWindow() * 1000L;
+                } else {
+                    resetStat();
+                }
+            }
+            // The state is published last, so the fields above are visible to the readers of the new state.
+            currentState.set(newState);
+        }
+        notifyObservers(prevState, newState, snapshotValue);
+        return true;
+    }
+
+    private void resetStat() {
+        for (WindowWrap<CompletionCounter> w : stat.listAll()) {
+            w.value().reset();
+        }
+    }
+
+    private void notifyObservers(State prevState, State newState, Double snapshotValue) {
+        for (CircuitBreakerStateChangeObserver observer : EventObserverRegistry.getStateChangeObservers()) {
+            try {
+                observer.onStateChange(prevState, newState, rule, snapshotValue);
+            } catch (Throwable t) {
+                RecordLog.warn("[AbstractCircuitBreaker] Error when notifying state change of " + rule, t);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{" +
+            "state=" + currentState.get() +
+            ", rule=" + rule +
+            '}';
+    }
+
+    static class CompletionCounter {
+
+        private final LongAdder total = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder rt = new LongAdder();
+
+        void reset() {
+            total.reset();
+            failed.reset();
+            rt.reset();
+        }
+    }
+
+    static class CompletionLeapArray extends LeapArray<CompletionCounter> {
+
+        CompletionLeapArray(int sampleCount, int intervalInMs) {
+            super(sampleCount, intervalInMs);
+        }
+
+        @Override
+        public CompletionCounter newEmptyBucket(long timeMillis) {
+            return new CompletionCounter();
+        }
+
+        @Override
+        protected WindowWrap<CompletionCounter> resetWindowTo(WindowWrap<CompletionCounter> w, long startTime) {
+            w.value().reset();
+            w.resetTo(startTime);
+            return w;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+
+/**
+ * <p>The circuit breaker of a {@link DegradeRule}, which keeps its own statistics of the completed requests.</p>
+ * <p>
+ * The breaker starts {@link State#CLOSED}, and turns {@link State#OPEN} when the statistics exceed the threshold
+ * of the rule. After the time window of the rule, the next request turns it {@link State#HALF_OPEN}, in which
+ * only a limited number of probe requests are permitted. The breaker turns {@link State#CLOSED} if all the probes
+ * succeed, otherwise {@link State#OPEN} again. All transitions are driven by the requests, without any timer.
+ * </p>
+ *
+ * @since 1.8.0
+ * @see CircuitBreakerStateChangeObserver
+ */
+public interface CircuitBreaker {
+
+    /**
+     * Get the associated rule.
+     *
+     * @return the associated degrade rule
+     */
+    DegradeRule getRule();
+
+    /**
+     * Check whether the current entry of given context is permitted to pass.
+     *
+     * @param context context of the current invocation
+     * @return true if permitted, otherwise false
+     */
+    boolean tryPass(Context context);
+
+    /**
+     * Get the current state of the circuit breaker.
+     *
+     * @return current state
+     */
+    State currentState();
+
+    /**
+     * Record a completed entry, which might trigger the state transition of the breaker.
+     * Entries blocked by any rule are not recorded.
+     *
+     * @param entry the completed entry
+     */
+    void onRequestComplete(Entry entry);
+
+    /**
+     * Circuit breaker state.
+     */
+    enum State {
+        /**
+         * All requests are rejected until the time window of the rule elapses.
+         */
+        OPEN,
+        /**
+         * Only a limited number of probe requests are permitted. The breaker turns closed if all the probes
+         * succeed, otherwise open again.
+         */
+        HALF_OPEN,
+        /**
+         * All requests are permitted.
+         */
+        CLOSED
+    }
+}
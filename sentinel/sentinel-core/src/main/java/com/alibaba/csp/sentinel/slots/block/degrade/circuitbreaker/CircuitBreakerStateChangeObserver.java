@@ -0,0 +1,41 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+
+/**
+ * Observer of the state transitions of {@link CircuitBreaker}s, registered in {@link EventObserverRegistry}.
+ * It's invoked in the thread of the request which triggers the transition, so it should return quickly.
+ *
+ * @since 1.8.0
+ */
+public interface CircuitBreakerStateChangeObserver {
+
+    /**
+     * Handle the state transition of a circuit breaker.
+     *
+     * @param prevState     the previous state
+     * @param newState      the new state
+     * @param rule          the associated rule
+     * @param snapshotValue the average RT (in milliseconds), slow ratio, exception ratio or exception count
+     *                      which triggers the transition
+     *                      to {@link CircuitBreaker.State#OPEN} from {@link CircuitBreaker.State#CLOSED},
+     *                      otherwise null
+     */
+    void onStateChange(CircuitBreaker.State prevState, CircuitBreaker.State newState, DegradeRule rule,
+                       Double snapshotValue);
+}
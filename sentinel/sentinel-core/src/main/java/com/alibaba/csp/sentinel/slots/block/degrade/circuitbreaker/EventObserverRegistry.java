@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * Registry for the observers of {@link CircuitBreaker} events.
+ *
+ * @since 1.8.0
+ */
+public final class EventObserverRegistry {
+
+    private static final Map<String, CircuitBreakerStateChangeObserver> stateChangeObserverMap
+        = new ConcurrentHashMap<>();
+
+    /**
+     * Register a state change observer. The former observer of the same name will be replaced.
+     *
+     * @param name     name of the observer
+     * @param observer a valid observer
+     */
+    public static void addStateChangeObserver(String name, CircuitBreakerStateChangeObserver observer) {
+        AssertUtil.notNull(name, "name cannot be null");
+        AssertUtil.notNull(observer, "observer cannot be null");
+        stateChangeObserverMap.put(name, observer);
+    }
+
+    public static CircuitBreakerStateChangeObserver removeStateChangeObserver(String name) {
+        if (name == null) {
+            return null;
+        }
+        return stateChangeObserverMap.remove(name);
+    }
+
+    public static Collection<CircuitBreakerStateChangeObserver> getStateChangeObservers() {
+        return stateChangeObserverMap.values();
+    }
+
+    public static void clearStateChangeObservers() {
+        stateChangeObserverMap.clear();
+    }
+
+    private EventObserverRegistry() {}
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.Tracer;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Circuit breaker for {@link RuleConstant#DEGRADE_GRADE_EXCEPTION_RATIO} and
+ * {@link RuleConstant#DEGRADE_GRADE_EXCEPTION_COUNT}. A request fails if an exception has been traced to its
+ * entry via {@link Tracer}. In the statistic interval, the breaker opens:</p>
+ * <ul>
+ * <li>in ratio mode, when the amount of completed requests reaches {@code minRequestAmount}
+ * and the exception ratio reaches the count of the rule;</li>
+ * <li>in count mode, when the amount of exceptions reaches the count of the rule.</li>
+ * </ul>
+ *
+ * @since 1.8.0
+ */
+public class ExceptionCircuitBreaker extends AbstractCircuitBreaker {
+
+    public ExceptionCircuitBreaker(DegradeRule rule) {
+        super(rule);
+        AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO
+            || rule.getGrade() == RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT, "rule grade should be exception");
+    }
+
+    @Override
+    protected boolean isFailed(Entry entry, long rt) {
+        return entry.getTracedError() != null;
+    }
+
+    @Override
+    protected Double exceededValue(long total, long failed, long totalRt) {
+        if (failed <= 0) {
+            return null;
+        }
+        if (rule.getGrade() == RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT) {
+            return failed >= rule.getCount() ? (double)failed : null;
+        }
+        if (total < rule.getMinRequestAmount()) {
+            return null;
+        }
+        double ratio = failed * 1.0d / total;
+        return ratio >= rule.getCount() ? ratio : null;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.degrade.DegradeRule;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>Circuit breaker for {@link RuleConstant#DEGRADE_GRADE_RT}. A request is slow if its response time exceeds
+ * the count of the rule (in milliseconds). In the statistic interval, the breaker opens:</p>
+ * <ul>
+ * <li>by default, when the average RT of the completed requests exceeds the count of the rule
+ * for {@code rtSlowRequestAmount} consecutive slow requests;</li>
+ * <li>in slow ratio mode (when {@code slowRatioThreshold} is set), when the amount of completed requests
+ * reaches {@code minRequestAmount}, the amount of slow requests reaches {@code rtSlowRequestAmount},
+ * and the slow ratio reaches {@code slowRatioThreshold}.</li>
+ * </ul>
+ *
+ * @since 1.8.0
+ */
+public class ResponseTimeCircuitBreaker extends AbstractCircuitBreaker {
+
+    /**
+     * Consecutive slow requests with the average RT exceeding the threshold, in average RT mode.
+     */
+    private final AtomicInteger slowCount = new AtomicInteger();
+
+    public ResponseTimeCircuitBreaker(DegradeRule rule) {
+        super(rule);
+        AssertUtil.isTrue(rule.getGrade() == RuleConstant.DEGRADE_GRADE_RT, "rule grade should be RT");
+    }
+
+    @Override
+    protected boolean isFailed(Entry entry, long rt) {
+        return rt > thresholdRt();
+    }
+
+    @Override
+    protected Double exceededValue(long total, long failed, long totalRt) {
+        if (rule.getSlowRatioThreshold() <= 0) {
+            return exceededAverageRt(total, totalRt);
+        }
+        if (total < rule.getMinRequestAmount() || failed < rule.getRtSlowRequestAmount()) {
+            return null;
+        }
+        double slowRatio = failed * 1.0d / total;
+        return slowRatio >= rule.getSlowRatioThreshold() ? slowRatio : null;
+    }
+
+    private Double exceededAverageRt(long total, long totalRt) {
+        double avgRt = total <= 0 ? 0 : totalRt * 1.0d / total;
+        if (avgRt < thresholdRt()) {
+            slowCount.set(0);
+            return null;
+        }
+        if (slowCount.incrementAndGet() < rule.getRtSlowRequestAmount()) {
+            return null;
+        }
+        slowCount.set(0);
+        return SentinelConfig.highResolutionRtEnabled() ? avgRt / 1000 : avgRt;
+    }
+
+    /**
+     * @return the RT threshold of the rule, in the unit that RT is recorded
+     */
+    private double thresholdRt() {
+        return SentinelConfig.highResolutionRtEnabled() ? rule.getCount() * 1000 : rule.getCount();
+    }
+}
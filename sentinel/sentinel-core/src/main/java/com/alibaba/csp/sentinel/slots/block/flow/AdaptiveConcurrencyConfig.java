@@ -0,0 +1,139 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+/**
+ * Config of the flow rule with {@link com.alibaba.csp.sentinel.slots.block.RuleConstant#CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY}
+ * behavior, where the {@code count} of the rule is the initial concurrency limit.
+ *
+ * @since 1.8.0
+ */
+public class AdaptiveConcurrencyConfig {
+
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    /**
+     * The upper bound of the limit is this factor times the initial limit, unless configured explicitly.
+     */
+    public static final int DEFAULT_MAX_LIMIT_FACTOR = 10;
+    public static final double DEFAULT_SMOOTHING = 0.2;
+    public static final double DEFAULT_RT_TOLERANCE = 1.5;
+    public static final int DEFAULT_UPDATE_INTERVAL_MS = 500;
+
+    /**
+     * Lower bound of the concurrency limit.
+     */
+    private int minLimit = DEFAULT_MIN_LIMIT;
+    /**
+     * Upper bound of the concurrency limit. If not set (0), {@link #DEFAULT_MAX_LIMIT_FACTOR} times
+     * the initial limit (i.e. {@code count} of the rule) is used.
+     */
+    private int maxLimit = 0;
+    /**
+     * Weight of the newly estimated limit in (0, 1]. Smaller values change the limit more smoothly.
+     */
+    private double smoothing = DEFAULT_SMOOTHING;
+    /**
+     * How much the current RT could exceed the no-load RT before the limit is reduced (at least 1).
+     */
+    private double rtTolerance = DEFAULT_RT_TOLERANCE;
+    /**
+     * Interval of updating the limit (in milliseconds).
+     */
+    private int updateIntervalMs = DEFAULT_UPDATE_INTERVAL_MS;
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public AdaptiveConcurrencyConfig setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+        return this;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public AdaptiveConcurrencyConfig setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+        return this;
+    }
+
+    public double getSmoothing() {
+        return smoothing;
+    }
+
+    public AdaptiveConcurrencyConfig setSmoothing(double smoothing) {
+        this.smoothing = smoothing;
+        return this;
+    }
+
+    public double getRtTolerance() {
+        return rtTolerance;
+    }
+
+    public AdaptiveConcurrencyConfig setRtTolerance(double rtTolerance) {
+        this.rtTolerance = rtTolerance;
+        return this;
+    }
+
+    public int getUpdateIntervalMs() {
+        return updateIntervalMs;
+    }
+
+    public AdaptiveConcurrencyConfig setUpdateIntervalMs(int updateIntervalMs) {
+        this.updateIntervalMs = updateIntervalMs;
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+
+        AdaptiveConcurrencyConfig that = (AdaptiveConcurrencyConfig)o;
+
+        if (minLimit != that.minLimit) { return false; }
+        if (maxLimit != that.maxLimit) { return false; }
+        if (Double.compare(that.smoothing, smoothing) != 0) { return false; }
+        if (Double.compare(that.rtTolerance, rtTolerance) != 0) { return false; }
+        return updateIntervalMs == that.updateIntervalMs;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = minLimit;
+        long temp;
+        result = 31 * result + maxLimit;
+        temp = Double.doubleToLongBits(smoothing);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
+        temp = Double.doubleToLongBits(rtTolerance);
+        result = 31 * result + (int)(temp ^ (temp >>> 32));
+        result = 31 * result + updateIntervalMs;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyConfig{" +
+            "minLimit=" + minLimit +
+            ", maxLimit=" + maxLimit +
+            ", smoothing=" + smoothing +
+            ", rtTolerance=" + rtTolerance +
+            ", updateIntervalMs=" + updateIntervalMs +
+            '}';
+    }
+}
@@ -48,6 +48,32 @@ public class ClusterFlowConfig {
      */
     private int windowIntervalMs = RuleConstant.DEFAULT_WINDOW_INTERVAL_MS;
 
+    /**
+     * Whether token clients lease blocks of tokens from the token server in advance and serve requests locally
+     * until the lease is exhausted or expired, rather than requesting the token server for every request.
+     * Only for rules in QPS grade.
+     *
+     * @since 1.8.0
+     */
+    private boolean leaseEnabled = false;
+    /**
+     * The validity of a lease (in milliseconds), which should not exceed {@code windowIntervalMs}.
+     * Unused tokens of an expired lease are returned to the token server.
+     *
+     * @since 1.8.0
+     */
+    private int leaseValidityMs = ClusterRuleConstant.DEFAULT_CLUSTER_LEASE_VALIDITY_MS;
+
+    /**
+     * Hard limit (in milliseconds) of the time that concurrency tokens of a rule in thread grade can be held,
+     * which should be much longer than the slowest invocation. Tokens that are never released (e.g. lost
+     * responses) are reclaimed by the token server after the limit. 0 means no limit: tokens are held until
+     * released, or until the token server detects that the holding client has disconnected.
+     *
+     * @since 1.8.0
+     */
+    private int concurrencyTimeoutMs = ClusterRuleConstant.DEFAULT_CLUSTER_CONCURRENCY_TIMEOUT_MS;
+
     public Long getFlowId() {
         return flowId;
     }
@@ -102,6 +128,33 @@ public class ClusterFlowConfig {
         return this;
     }
 
+    public boolean isLeaseEnabled() {
+        return leaseEnabled;
+    }
+
+    public ClusterFlowConfig setLeaseEnabled(boolean leaseEnabled) {
+        this.leaseEnabled = leaseEnabled;
+        return this;
+    }
+
+    public int getLeaseValidityMs() {
+        return leaseValidityMs;
+    }
+
+    public ClusterFlowConfig setLeaseValidityMs(int leaseValidityMs) {
+        this.leaseValidityMs = leaseValidityMs;
+        return this;
+    }
+
+    public int getConcurrencyTimeoutMs() {
+        return concurrencyTimeoutMs;
+    }
+
+    public ClusterFlowConfig setConcurrencyTimeoutMs(int concurrencyTimeoutMs) {
+        this.concurrencyTimeoutMs = concurrencyTimeoutMs;
+        return this;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) { return true; }
@@ -114,6 +167,9 @@ public class ClusterFlowConfig {
         if (strategy != that.strategy) { return false; }
         if (sampleCount != that.sampleCount) { return false; }
         if (windowIntervalMs != that.windowIntervalMs) { return false; }
+        if (leaseEnabled != that.leaseEnabled) { return false; }
+        if (leaseValidityMs != that.leaseValidityMs) { return false; }
+        if (concurrencyTimeoutMs != that.concurrencyTimeoutMs) { return false; }
         return flowId != null ? flowId.equals(that.flowId) : that.flowId == null;
     }
 
@@ -125,6 +181,9 @@ public class ClusterFlowConfig {
         result = 31 * result + strategy;
         result = 31 * result + sampleCount;
         result = 31 * result + windowIntervalMs;
+        result = 31 * result + (leaseEnabled ? 1 : 0);
+        result = 31 * result + leaseValidityMs;
+        result = 31 * result + concurrencyTimeoutMs;
         return result;
     }
 
@@ -137,6 +196,9 @@ public class ClusterFlowConfig {
             ", strategy=" + strategy +
             ", sampleCount=" + sampleCount +
             ", windowIntervalMs=" + windowIntervalMs +
+            ", leaseEnabled=" + leaseEnabled +
+            ", leaseValidityMs=" + leaseValidityMs +
+            ", concurrencyTimeoutMs=" + concurrencyTimeoutMs +
             '}';
     }
 }
@@ -74,7 +74,9 @@ public class FlowRule extends AbstractRule {
 
     /**
      * Rate limiter control behavior.
-     * 0. default(reject directly), 1. warm up, 2. rate limiter, 3. warm up + rate limiter
+     * 0. default(reject directly), 1. warm up, 2. rate limiter, 3. warm up + rate limiter,
+     * 4. sharded token bucket (reject directly, for extremely hot resources),
+     * 5. adaptive concurrency (the count is the initial concurrency limit)
      */
     private int controlBehavior = RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
 
@@ -85,6 +87,11 @@ public class FlowRule extends AbstractRule {
      */
     private int maxQueueingTimeMs = 500;
 
+    /**
+     * Config of adaptive concurrency behavior. Default config will be used if absent.
+     */
+    private AdaptiveConcurrencyConfig adaptiveConfig;
+
     private boolean clusterMode;
     /**
      * Flow rule config for cluster mode.
@@ -96,6 +103,11 @@ public class FlowRule extends AbstractRule {
      */
     private TrafficShapingController controller;
 
+    /**
+     * The exception shared by all requests blocked by the rule.
+     */
+    private volatile FlowException blockException;
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -114,6 +126,15 @@ public class FlowRule extends AbstractRule {
         return this;
     }
 
+    public AdaptiveConcurrencyConfig getAdaptiveConfig() {
+        return adaptiveConfig;
+    }
+
+    public FlowRule setAdaptiveConfig(AdaptiveConcurrencyConfig adaptiveConfig) {
+        this.adaptiveConfig = adaptiveConfig;
+        return this;
+    }
+
     FlowRule setRater(TrafficShapingController rater) {
         this.controller = rater;
         return this;
@@ -123,6 +144,16 @@ public class FlowRule extends AbstractRule {
         return controller;
     }
 
+    FlowException getBlockException() {
+        FlowException e = blockException;
+        if (e == null) {
+            // Racing threads may create different instances, which is harmless.
+            e = FlowException.shared(this);
+            blockException = e;
+        }
+        return e;
+    }
+
     public int getWarmUpPeriodSec() {
         return warmUpPeriodSec;
     }
@@ -207,6 +238,9 @@ public class FlowRule extends AbstractRule {
         if (maxQueueingTimeMs != rule.maxQueueingTimeMs) { return false; }
         if (clusterMode != rule.clusterMode) { return false; }
         if (refResource != null ? !refResource.equals(rule.refResource) : rule.refResource != null) { return false; }
+        if (adaptiveConfig != null ? !adaptiveConfig.equals(rule.adaptiveConfig) : rule.adaptiveConfig != null) {
+            return false;
+        }
         return clusterConfig != null ? clusterConfig.equals(rule.clusterConfig) : rule.clusterConfig == null;
     }
 
@@ -222,6 +256,7 @@ public class FlowRule extends AbstractRule {
         result = 31 * result + controlBehavior;
         result = 31 * result + warmUpPeriodSec;
         result = 31 * result + maxQueueingTimeMs;
+        result = 31 * result + (adaptiveConfig != null ? adaptiveConfig.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
         return result;
@@ -239,6 +274,7 @@ public class FlowRule extends AbstractRule {
             ", controlBehavior=" + controlBehavior +
             ", warmUpPeriodSec=" + warmUpPeriodSec +
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
+            ", adaptiveConfig=" + adaptiveConfig +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
             ", controller=" + controller +
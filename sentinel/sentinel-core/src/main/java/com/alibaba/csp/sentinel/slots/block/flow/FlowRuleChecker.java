@@ -17,9 +17,15 @@ package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.Collection;
 
+import com.alibaba.csp.sentinel.AsyncEntry;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.cluster.ClusterStateManager;
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
 import com.alibaba.csp.sentinel.cluster.server.EmbeddedClusterTokenServerProvider;
+import com.alibaba.csp.sentinel.cluster.client.AsyncClusterTokenClient;
+import com.alibaba.csp.sentinel.cluster.client.LeasingClusterTokenClient;
 import com.alibaba.csp.sentinel.cluster.client.TokenClientProvider;
+import com.alibaba.csp.sentinel.cluster.TokenResultCallback;
 import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.cluster.TokenResult;
 import com.alibaba.csp.sentinel.cluster.TokenService;
@@ -32,6 +38,7 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
 import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.util.function.Function;
 
 /**
@@ -50,7 +57,7 @@ public class FlowRuleChecker {
         if (rules != null) {
             for (FlowRule rule : rules) {
                 if (!canPassCheck(rule, context, node, count, prioritized)) {
-                    throw new FlowException(rule.getLimitApp(), rule);
+                    throw rule.getBlockException();
                 }
             }
         }
@@ -77,12 +84,30 @@ public class FlowRuleChecker {
 
     private static boolean passLocalCheck(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                           boolean prioritized) {
+        return passLocalCheck(rule, context, context.getCurEntry(), node, acquireCount, prioritized);
+    }
+
+    private static boolean passLocalCheck(FlowRule rule, Context context, Entry curEntry, DefaultNode node,
+                                          int acquireCount, boolean prioritized) {
         Node selectedNode = selectNodeByRequesterAndStrategy(rule, context, node);
         if (selectedNode == null) {
             return true;
         }
 
-        return rule.getRater().canPass(selectedNode, acquireCount, prioritized);
+        TrafficShapingController rater = rule.getRater();
+        if (rater instanceof PacedTrafficShapingController) {
+            if (curEntry instanceof AsyncEntry && ((AsyncEntry)curEntry).isDelayAllowed()) {
+                // Reserve the pass time rather than sleeping, the caller will delay the invocation.
+                long passTime = ((PacedTrafficShapingController)rater)
+                    .reservePassTime(selectedNode, acquireCount, prioritized);
+                if (passTime == PacedTrafficShapingController.REJECTED) {
+                    return false;
+                }
+                ((AsyncEntry)curEntry).delayPassUntil(passTime);
+                return true;
+            }
+        }
+        return rater.canPass(selectedNode, acquireCount, prioritized);
     }
 
     static Node selectReferenceNode(FlowRule rule, Context context, DefaultNode node) {
@@ -152,6 +177,28 @@ public class FlowRuleChecker {
                 return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
             }
             long flowId = rule.getClusterConfig().getFlowId();
+            if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD) {
+                if (!(clusterService instanceof ConcurrentTokenService)) {
+                    return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
+                }
+                return passClusterConcurrencyCheck((ConcurrentTokenService)clusterService, flowId, rule, context,
+                    node, acquireCount);
+            }
+            if (clusterService instanceof LeasingClusterTokenClient && !prioritized
+                && rule.getClusterConfig().isLeaseEnabled()) {
+                // Mostly served from the tokens leased in advance, without requesting the token server.
+                TokenResult result = ((LeasingClusterTokenClient)clusterService).requestLeasedToken(flowId,
+                    acquireCount);
+                return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
+            }
+            Entry curEntry = context.getCurEntry();
+            if (clusterService instanceof AsyncClusterTokenClient && curEntry instanceof AsyncEntry
+                && ((AsyncEntry)curEntry).isDelayAllowed()) {
+                // Request the token without blocking, the entry will pass once the token is acquired.
+                requestTokenAsync((AsyncClusterTokenClient)clusterService, flowId, rule, context,
+                    (AsyncEntry)curEntry, node, acquireCount, prioritized);
+                return true;
+            }
             TokenResult result = clusterService.requestToken(flowId, acquireCount, prioritized);
             return applyTokenResult(result, rule, context, node, acquireCount, prioritized);
             // If client is absent, then fallback to local mode.
@@ -163,6 +210,78 @@ public class FlowRuleChecker {
         return fallbackToLocalOrPass(rule, context, node, acquireCount, prioritized);
     }
 
+    static boolean passClusterConcurrencyCheck(final ConcurrentTokenService clusterService, final long flowId,
+                                               FlowRule rule, Context context, DefaultNode node, int acquireCount) {
+        TokenResult result = clusterService.requestConcurrentToken(flowId, acquireCount);
+        if (result.getStatus() != TokenResultStatus.OK) {
+            return applyTokenResult(result, rule, context, node, acquireCount, false);
+        }
+        final long tokenId = result.getTokenId();
+        Entry curEntry = context.getCurEntry();
+        if (curEntry == null) {
+            // Nothing to release the tokens on exit.
+            clusterService.releaseConcurrentToken(flowId, tokenId);
+            return true;
+        }
+        // Release the tokens when the entry exits (or is blocked by later rules), without waiting for the response.
+        curEntry.whenTerminate(new Entry.ExitHandler() {
+            @Override
+            public void onExit(Context context, Entry entry) {
+                clusterService.releaseConcurrentToken(flowId, tokenId);
+            }
+        });
+        return true;
+    }
+
+    private static void requestTokenAsync(AsyncClusterTokenClient client, long flowId, final FlowRule rule,
+                                          final Context context, final AsyncEntry entry, final DefaultNode node,
+                                          final int acquireCount, boolean prioritized) {
+        TokenResultCallback callback = new TokenResultCallback() {
+            @Override
+            public void onComplete(TokenResult result) {
+                boolean pass;
+                try {
+                    pass = applyAsyncTokenResult(result, rule, context, entry, node, acquireCount);
+                } catch (Throwable ex) {
+                    RecordLog.warn("[FlowRuleChecker] Apply cluster token result unexpected failed", ex);
+                    pass = true;
+                }
+                entry.completeDeferredCheck(pass ? null : rule.getBlockException());
+            }
+        };
+        entry.deferCheck();
+        try {
+            client.requestTokenAsync(flowId, acquireCount, prioritized, callback);
+        } catch (Throwable ex) {
+            RecordLog.warn("[FlowRuleChecker] Request cluster token unexpected failed", ex);
+            callback.onComplete(new TokenResult(TokenResultStatus.FAIL));
+        }
+    }
+
+    private static boolean applyAsyncTokenResult(/*@NonNull*/ TokenResult result, FlowRule rule, Context context,
+                                                 AsyncEntry entry, DefaultNode node, int acquireCount) {
+        switch (result.getStatus()) {
+            case TokenResultStatus.OK:
+                return true;
+            case TokenResultStatus.SHOULD_WAIT:
+                // Delay the pass to next tick rather than sleeping.
+                entry.delayPassUntil(TimeUtil.currentTimeMillis() + result.getWaitInMs());
+                return true;
+            case TokenResultStatus.NO_RULE_EXISTS:
+            case TokenResultStatus.BAD_REQUEST:
+            case TokenResultStatus.FAIL:
+            case TokenResultStatus.TOO_MANY_REQUEST:
+                // The callback might be in the I/O thread, so never wait for tokens of the prioritized request.
+                if (rule.getClusterConfig().isFallbackToLocalWhenFail()) {
+                    return passLocalCheck(rule, context, entry, node, acquireCount, false);
+                }
+                return true;
+            case TokenResultStatus.BLOCKED:
+            default:
+                return false;
+        }
+    }
+
     private static boolean fallbackToLocalOrPass(FlowRule rule, Context context, DefaultNode node, int acquireCount,
                                                  boolean prioritized) {
         if (rule.getClusterConfig().isFallbackToLocalWhenFail()) {
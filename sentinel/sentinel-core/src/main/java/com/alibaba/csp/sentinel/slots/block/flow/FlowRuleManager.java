@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.flow;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -25,6 +26,8 @@ import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
 import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.slotchain.SlotChainSpecializer;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.node.metric.MetricTimerListener;
@@ -89,6 +92,26 @@ public class FlowRuleManager {
         return rules;
     }
 
+    /**
+     * Get the controllers of loaded rules with adaptive concurrency behavior, e.g. to inspect the current
+     * concurrency limits.
+     *
+     * @return map of the rule and its controller
+     * @since 1.8.0
+     */
+    public static Map<FlowRule, AdaptiveConcurrencyController> getAdaptiveConcurrencyControllers() {
+        Map<FlowRule, AdaptiveConcurrencyController> controllers
+            = new LinkedHashMap<FlowRule, AdaptiveConcurrencyController>();
+        for (List<FlowRule> rules : flowRules.values()) {
+            for (FlowRule rule : rules) {
+                if (rule.getRater() instanceof AdaptiveConcurrencyController) {
+                    controllers.put(rule, (AdaptiveConcurrencyController)rule.getRater());
+                }
+            }
+        }
+        return controllers;
+    }
+
     /**
      * Load {@link FlowRule}s, former rules will be replaced.
      *
@@ -128,21 +151,23 @@ public class FlowRuleManager {
 
         @Override
         public void configUpdate(List<FlowRule> value) {
-            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(value);
+            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(value, null, true, flowRules);
             if (rules != null) {
                 flowRules.clear();
                 flowRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[FlowRuleManager] Flow rules received: " + flowRules);
         }
 
         @Override
         public void configLoad(List<FlowRule> conf) {
-            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf);
+            Map<String, List<FlowRule>> rules = FlowRuleUtil.buildFlowRuleMap(conf, null, true, flowRules);
             if (rules != null) {
                 flowRules.clear();
                 flowRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[FlowRuleManager] Flow rules loaded: " + flowRules);
         }
     }
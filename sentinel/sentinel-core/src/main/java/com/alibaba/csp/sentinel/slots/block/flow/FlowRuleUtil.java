@@ -28,8 +28,10 @@ import java.util.concurrent.ConcurrentHashMap;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.block.ClusterRuleConstant;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.RateLimiterController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.ShardedTokenBucketController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpRateLimiterController;
 import com.alibaba.csp.sentinel.util.StringUtil;
@@ -76,6 +78,24 @@ public final class FlowRuleUtil {
         return buildFlowRuleMap(list, extractResource, filter, shouldSort);
     }
 
+    /**
+     * Build the flow rule map from raw list of flow rules, grouping by resource name. The traffic shaping
+     * controller that learns from the traffic (i.e. {@link AdaptiveConcurrencyController}) is carried over
+     * from the equivalent rule in the existing rule map, so that reloading rules won't reset what it has learned.
+     *
+     * @param list            raw list of flow rules
+     * @param filter          rule filter
+     * @param shouldSort      whether the rules should be sorted
+     * @param existingRuleMap existing flow rule map grouped by resource name, nullable
+     * @return constructed new flow rule map; empty map if list is null or empty, or no wanted rules
+     * @since 1.8.0
+     */
+    public static Map<String, List<FlowRule>> buildFlowRuleMap(List<FlowRule> list, Predicate<FlowRule> filter,
+                                                               boolean shouldSort,
+                                                               Map<String, List<FlowRule>> existingRuleMap) {
+        return buildFlowRuleMap(list, extractResource, filter, shouldSort, existingRuleMap);
+    }
+
     /**
      * Build the flow rule map from raw list of flow rules, grouping by provided group function.
      *
@@ -88,6 +108,12 @@ public final class FlowRuleUtil {
      */
     public static <K> Map<K, List<FlowRule>> buildFlowRuleMap(List<FlowRule> list, Function<FlowRule, K> groupFunction,
                                                               Predicate<FlowRule> filter, boolean shouldSort) {
+        return buildFlowRuleMap(list, groupFunction, filter, shouldSort, null);
+    }
+
+    private static <K> Map<K, List<FlowRule>> buildFlowRuleMap(List<FlowRule> list, Function<FlowRule, K> groupFunction,
+                                                               Predicate<FlowRule> filter, boolean shouldSort,
+                                                               Map<K, List<FlowRule>> existingRuleMap) {
         Map<K, List<FlowRule>> newRuleMap = new ConcurrentHashMap<>();
         if (list == null || list.isEmpty()) {
             return newRuleMap;
@@ -106,13 +132,14 @@ public final class FlowRuleUtil {
                 rule.setLimitApp(RuleConstant.LIMIT_APP_DEFAULT);
             }
 
-            TrafficShapingController rater = generateRater(rule);
-            rule.setRater(rater);
-
             K key = groupFunction.apply(rule);
             if (key == null) {
                 continue;
             }
+            TrafficShapingController rater = generateRater(rule,
+                existingRuleMap == null ? null : existingRuleMap.get(key));
+            rule.setRater(rater);
+
             Set<FlowRule> flowRules = tmpMap.get(key);
 
             if (flowRules == null) {
@@ -136,7 +163,15 @@ public final class FlowRuleUtil {
         return newRuleMap;
     }
 
-    private static TrafficShapingController generateRater(/*@Valid*/ FlowRule rule) {
+    private static TrafficShapingController generateRater(/*@Valid*/ FlowRule rule, List<FlowRule> existingRules) {
+        if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY) {
+            TrafficShapingController existing = findExistingRater(rule, existingRules);
+            if (existing instanceof AdaptiveConcurrencyController) {
+                // Keep the learned limit if the rule is not changed.
+                return existing;
+            }
+            return new AdaptiveConcurrencyController(rule.getCount(), rule.getAdaptiveConfig());
+        }
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             switch (rule.getControlBehavior()) {
                 case RuleConstant.CONTROL_BEHAVIOR_WARM_UP:
@@ -147,6 +182,8 @@ public final class FlowRuleUtil {
                 case RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER:
                     return new WarmUpRateLimiterController(rule.getCount(), rule.getWarmUpPeriodSec(),
                         rule.getMaxQueueingTimeMs(), ColdFactorProperty.coldFactor);
+                case RuleConstant.CONTROL_BEHAVIOR_SHARDED_TOKEN_BUCKET:
+                    return new ShardedTokenBucketController(rule.getCount());
                 case RuleConstant.CONTROL_BEHAVIOR_DEFAULT:
                 default:
                     // Default mode or unknown mode: default traffic shaping controller (fast-reject).
@@ -155,6 +192,18 @@ public final class FlowRuleUtil {
         return new DefaultController(rule.getCount(), rule.getGrade());
     }
 
+    private static TrafficShapingController findExistingRater(FlowRule rule, List<FlowRule> existingRules) {
+        if (existingRules == null) {
+            return null;
+        }
+        for (FlowRule existingRule : existingRules) {
+            if (existingRule.equals(rule)) {
+                return existingRule.getRater();
+            }
+        }
+        return null;
+    }
+
     /**
      * Check whether provided ID can be a valid cluster flow ID.
      *
@@ -195,6 +244,12 @@ public final class FlowRuleUtil {
         if (!isWindowConfigValid(clusterConfig.getSampleCount(), clusterConfig.getWindowIntervalMs())) {
             return false;
         }
+        if (clusterConfig.isLeaseEnabled() && !isLeaseConfigValid(rule.getGrade(), clusterConfig)) {
+            return false;
+        }
+        if (rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD && clusterConfig.getConcurrencyTimeoutMs() < 0) {
+            return false;
+        }
         switch (clusterConfig.getStrategy()) {
             case ClusterRuleConstant.FLOW_CLUSTER_STRATEGY_NORMAL:
                 return true;
@@ -203,6 +258,12 @@ public final class FlowRuleUtil {
         }
     }
 
+    private static boolean isLeaseConfigValid(int grade, /*@NonNull*/ ClusterFlowConfig clusterConfig) {
+        // Leased tokens are counted in the statistic window of the token server until expired.
+        return grade == RuleConstant.FLOW_GRADE_QPS && clusterConfig.getLeaseValidityMs() > 0
+            && clusterConfig.getLeaseValidityMs() <= clusterConfig.getWindowIntervalMs();
+    }
+
     public static boolean isWindowConfigValid(int sampleCount, int windowIntervalMs) {
         return sampleCount > 0 && windowIntervalMs > 0 && windowIntervalMs % sampleCount == 0;
     }
@@ -222,11 +283,24 @@ public final class FlowRuleUtil {
                 return rule.getMaxQueueingTimeMs() > 0;
             case RuleConstant.CONTROL_BEHAVIOR_WARM_UP_RATE_LIMITER:
                 return rule.getWarmUpPeriodSec() > 0 && rule.getMaxQueueingTimeMs() > 0;
+            case RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY:
+                // The adaptive limit is a concurrency limit.
+                return rule.getGrade() == RuleConstant.FLOW_GRADE_THREAD
+                    && isValidAdaptiveConfig(rule.getAdaptiveConfig());
             default:
                 return true;
         }
     }
 
+    private static boolean isValidAdaptiveConfig(AdaptiveConcurrencyConfig config) {
+        if (config == null) {
+            return true;
+        }
+        return config.getMinLimit() > 0 && (config.getMaxLimit() == 0 || config.getMaxLimit() >= config.getMinLimit())
+            && config.getSmoothing() > 0 && config.getSmoothing() <= 1
+            && config.getRtTolerance() >= 1 && config.getUpdateIntervalMs() > 0;
+    }
+
     private static final Function<FlowRule, String> extractResource = new Function<FlowRule, String>() {
         @Override
         public String apply(FlowRule rule) {
@@ -23,6 +23,7 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckSlot;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 import com.alibaba.csp.sentinel.util.function.Function;
@@ -136,7 +137,7 @@ import com.alibaba.csp.sentinel.util.function.Function;
  * @author jialiang.linjl
  * @author Eric Zhao
  */
-public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckSlot {
 
     private final FlowRuleChecker checker;
 
@@ -168,6 +169,11 @@ public class FlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         checker.checkFlow(ruleProvider, resource, context, node, count, prioritized);
     }
 
+    @Override
+    public boolean hasRules(ResourceWrapper resourceWrapper) {
+        return FlowRuleManager.hasConfig(resourceWrapper.getName());
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
@@ -0,0 +1,52 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow;
+
+import com.alibaba.csp.sentinel.node.Node;
+
+/**
+ * <p>
+ * A {@link TrafficShapingController} that paces requests, which can reserve the pass time of a request
+ * instead of blocking the calling thread until then.
+ * </p>
+ * <p>
+ * {@link #canPass(Node, int, boolean)} waits until the reserved time as before, while asynchronous callers
+ * (e.g. on Netty event loops) could get the reserved time via {@link #reservePassTime(Node, int, boolean)}
+ * and delay the request on a shared timer, so that no thread is parked.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public interface PacedTrafficShapingController extends TrafficShapingController {
+
+    /**
+     * The request could not pass within the max queueing time.
+     */
+    long REJECTED = -1;
+
+    /**
+     * Reserve the pass time of given resource entry with provided count without blocking.
+     * Once reserved, the entry occupies its slot whether the caller waits or not.
+     *
+     * @param node         resource node
+     * @param acquireCount count to acquire
+     * @param prioritized  whether the request is prioritized
+     * @return the scheduled pass time in milliseconds (based on {@link com.alibaba.csp.sentinel.util.TimeUtil}),
+     * which may be earlier than current time if the entry can pass immediately; or {@link #REJECTED}
+     * if the entry should be blocked
+     */
+    long reservePassTime(Node node, int acquireCount, boolean prioritized);
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.AdaptiveConcurrencyConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * A concurrency limiting controller that discovers the limit by itself with the gradient algorithm,
+ * rather than a static threshold.
+ * </p>
+ * <p>
+ * Every update interval, the gradient is calculated from the no-load RT (tracked by the min RT of the node)
+ * and the current average RT: {@code gradient = clamp(rtTolerance * noLoadRt / currentRt, 0.5, 1)}.
+ * The new limit is estimated as {@code limit * gradient + sqrt(limit)}, i.e. it grows by a small queue
+ * while RT is close to the no-load RT, and shrinks when requests start queueing downstream. The estimation
+ * is smoothed and bounded by {@link AdaptiveConcurrencyConfig}. The limit doesn't grow if the peak
+ * concurrency didn't even reach half of it, so that it won't grow without bound under low traffic.
+ * </p>
+ * <p>
+ * The no-load RT drops immediately to a lower min RT, and drifts slowly towards a higher one, so it follows
+ * genuine changes of the downstream latency. RT is recorded in whole milliseconds by default, so RT below
+ * the resolution is taken as one unit rather than 0 (which would keep shrinking the limit of sub-millisecond
+ * resources). Enable {@code csp.sentinel.statistic.rt.high.resolution} for precise sub-millisecond RT.
+ * </p>
+ * <p>
+ * The limit is bounded by {@link AdaptiveConcurrencyConfig#getMinLimit()} and
+ * {@link AdaptiveConcurrencyConfig#getMaxLimit()}, where the upper bound is derived from the initial limit
+ * (see {@link AdaptiveConcurrencyConfig#DEFAULT_MAX_LIMIT_FACTOR}) if not configured.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class AdaptiveConcurrencyController implements TrafficShapingController {
+
+    private static final double MIN_GRADIENT = 0.5;
+    private static final double NO_LOAD_RT_DRIFT = 0.05;
+
+    private final AdaptiveConcurrencyConfig config;
+    private final int maxLimit;
+
+    private volatile double limit;
+    private volatile double noLoadRt = -1;
+    private volatile double lastRt = -1;
+    private volatile int peakConcurrency;
+    private final AtomicLong lastUpdateTime = new AtomicLong(-1);
+
+    public AdaptiveConcurrencyController(double initialLimit, AdaptiveConcurrencyConfig config) {
+        this.config = config == null ? new AdaptiveConcurrencyConfig() : config;
+        this.maxLimit = resolveMaxLimit(initialLimit, this.config);
+        this.limit = bound(initialLimit);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        return canPass(node, acquireCount, false);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        if (node == null) {
+            return true;
+        }
+        updateIfNeeded(node, TimeUtil.currentTimeMillis());
+
+        int concurrency = node.curThreadNum();
+        if (concurrency > peakConcurrency) {
+            // Racing updates may lose a peak, which is okay.
+            peakConcurrency = concurrency;
+        }
+        return concurrency + acquireCount <= (int)limit;
+    }
+
+    private void updateIfNeeded(Node node, long currentTime) {
+        long last = lastUpdateTime.get();
+        if (last >= 0 && currentTime - last < config.getUpdateIntervalMs()) {
+            return;
+        }
+        if (lastUpdateTime.compareAndSet(last, currentTime)) {
+            update(node);
+        }
+    }
+
+    private void update(Node node) {
+        int peak = peakConcurrency;
+        peakConcurrency = 0;
+        if (node.successQps() <= 0) {
+            // No completed requests in current window, nothing to learn from.
+            return;
+        }
+        double resolution = rtResolution();
+        double currentRt = Math.max(node.avgRt(), resolution);
+        double minRt = Math.max(node.minRt(), resolution);
+        double noLoad = noLoadRt;
+        if (noLoad < 0 || minRt < noLoad) {
+            noLoad = minRt;
+        } else {
+            noLoad += (minRt - noLoad) * NO_LOAD_RT_DRIFT;
+        }
+
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1, config.getRtTolerance() * noLoad / currentRt));
+        double current = limit;
+        double estimated = current * gradient + Math.sqrt(current);
+        if (estimated > current && peak < current / 2) {
+            // The limit is not the bottleneck, so don't grow it.
+            estimated = current;
+        }
+        double smoothing = config.getSmoothing();
+        this.limit = bound(current * (1 - smoothing) + estimated * smoothing);
+        this.noLoadRt = noLoad;
+        this.lastRt = currentRt;
+    }
+
+    private double bound(double value) {
+        return Math.max(config.getMinLimit(), Math.min(maxLimit, value));
+    }
+
+    private static int resolveMaxLimit(double initialLimit, AdaptiveConcurrencyConfig config) {
+        if (config.getMaxLimit() > 0) {
+            return config.getMaxLimit();
+        }
+        double derived = initialLimit * AdaptiveConcurrencyConfig.DEFAULT_MAX_LIMIT_FACTOR;
+        return (int)Math.max(config.getMinLimit(), Math.min(Integer.MAX_VALUE, derived));
+    }
+
+    /**
+     * @return the smallest RT (in milliseconds) that could be recorded
+     */
+    private static double rtResolution() {
+        return SentinelConfig.highResolutionRtEnabled() ? 0.001 : 1;
+    }
+
+    /**
+     * @return current concurrency limit
+     */
+    public int getLimit() {
+        return (int)limit;
+    }
+
+    /**
+     * @return upper bound of the concurrency limit
+     */
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    /**
+     * @return the estimated no-load RT (in milliseconds), or -1 if not estimated yet
+     */
+    public double getNoLoadRt() {
+        return noLoadRt;
+    }
+
+    /**
+     * @return the average RT (in milliseconds) of last update, or -1 if not updated yet
+     */
+    public double getLastRt() {
+        return lastRt;
+    }
+
+    public AdaptiveConcurrencyConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptiveConcurrencyController{" +
+            "limit=" + getLimit() +
+            ", maxLimit=" + maxLimit +
+            ", noLoadRt=" + noLoadRt +
+            ", lastRt=" + lastRt +
+            ", config=" + config +
+            '}';
+    }
+}
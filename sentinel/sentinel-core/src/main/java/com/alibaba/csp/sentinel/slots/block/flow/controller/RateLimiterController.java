@@ -16,7 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
 import com.alibaba.csp.sentinel.node.Node;
-import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.slots.block.flow.PacedTrafficShapingController;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.concurrent.atomic.AtomicLong;
@@ -24,7 +24,7 @@ import java.util.concurrent.atomic.AtomicLong;
 /**
  * @author jialiang.linjl
  */
-public class RateLimiterController implements TrafficShapingController {
+public class RateLimiterController implements PacedTrafficShapingController {
     // 排队最大时长，默认 500ms
     private final int maxQueueingTimeMs;
     // QPS 设置的值
@@ -42,14 +42,31 @@ public class RateLimiterController implements TrafficShapingController {
     }
     @Override
     public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        long passTime = reservePassTime(node, acquireCount, prioritized);
+        if (passTime == REJECTED) {
+            return false;
+        }
+        // 需要 sleep 的时间, in race condition waitTime may <= 0
+        long waitTime = passTime - TimeUtil.currentTimeMillis();
+        if (waitTime > 0) {
+            try {
+                Thread.sleep(waitTime);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+    @Override
+    public long reservePassTime(Node node, int acquireCount, boolean prioritized) {
         // Pass when acquire count is less or equal than 0.
         if (acquireCount <= 0) {
-            return true;
+            return TimeUtil.currentTimeMillis();
         }
         // Reject when count is less or equal than 0.
         // Otherwise,the costTime will be max of long and waitTime will overflow in some cases.
         if (count <= 0) {
-            return false;
+            return REJECTED;
         }
         long currentTime = TimeUtil.currentTimeMillis();
         // Calculate the interval between every two requests.
@@ -58,37 +75,26 @@ public class RateLimiterController implements TrafficShapingController {
         // Expected pass time of this request.
         long expectedTime = costTime + latestPassedTime.get();
 
-        // 可以通过，设置 latestPassedTime 然后就返回 true 了
+        // 可以通过，设置 latestPassedTime 然后就返回当前时间
         if (expectedTime <= currentTime) {
             // Contention may exist here, but it's okay.
             latestPassedTime.set(currentTime);
-            return true;
-        } else {
-            // Calculate the time to wait.
-            // 不可以通过，需要等待
-            long waitTime = costTime + latestPassedTime.get() - TimeUtil.currentTimeMillis();
-            // 等待时长大于最大值，返回 false
-            if (waitTime > maxQueueingTimeMs) {
-                return false;
-            } else {
-                // 将 latestPassedTime 往前推
-                long oldTime = latestPassedTime.addAndGet(costTime);
-                try {
-                    // 需要 sleep 的时间
-                    waitTime = oldTime - TimeUtil.currentTimeMillis();
-                    if (waitTime > maxQueueingTimeMs) {
-                        latestPassedTime.addAndGet(-costTime);
-                        return false;
-                    }
-                    // in race condition waitTime may <= 0
-                    if (waitTime > 0) {
-                        Thread.sleep(waitTime);
-                    }
-                    return true;
-                } catch (InterruptedException e) {
-                }
-            }
+            return currentTime;
+        }
+        // Calculate the time to wait.
+        // 不可以通过，需要等待
+        long waitTime = costTime + latestPassedTime.get() - TimeUtil.currentTimeMillis();
+        // 等待时长大于最大值，拒绝
+        if (waitTime > maxQueueingTimeMs) {
+            return REJECTED;
+        }
+        // 将 latestPassedTime 往前推，作为本次请求的通过时间
+        long oldTime = latestPassedTime.addAndGet(costTime);
+        waitTime = oldTime - TimeUtil.currentTimeMillis();
+        if (waitTime > maxQueueingTimeMs) {
+            latestPassedTime.addAndGet(-costTime);
+            return REJECTED;
         }
-        return false;
+        return oldTime;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.TrafficShapingController;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+/**
+ * <p>
+ * A fast-reject controller for extremely hot resources, which keeps the QPS quota in striped token buckets
+ * rather than reading the statistics of the node, so that concurrent requests don't contend on the same
+ * memory location.
+ * </p>
+ * <p>
+ * The second is divided into periods (100ms by default). At the beginning of each period, the quota of
+ * the period ({@code count * periodMs / 1000}) is added to the unused tokens of last period, and the sum
+ * is rebalanced among the buckets by the demand of last period. Each thread acquires from its own bucket
+ * first and steals from other buckets when it's drained, and an acquisition that no single bucket can
+ * satisfy gathers tokens from all the buckets, so requests are not blocked while there are enough tokens
+ * in total.
+ * </p>
+ * <p>
+ * Unused tokens are carried over, but the buckets never hold more than the capacity of one period
+ * ({@code count * periodMs / 1000} rounded up, and at least one token). So a threshold lower than the
+ * number of periods per second still grants one token every {@code 1000 / count} ms that stays until it's
+ * used, while the passed requests in any one-second window never exceed the threshold by more than the
+ * capacity. On the other hand, bursts are shaped at the granularity of the period, i.e. at most the
+ * capacity can pass at once, and an acquisition larger than the capacity is always blocked.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class ShardedTokenBucketController implements TrafficShapingController {
+
+    public static final int DEFAULT_PERIOD_MS = 100;
+    private static final int MAX_SHARD_COUNT = 64;
+
+    /**
+     * Slots of each shard in the arrays. A shard takes a whole cache line (8 longs) to avoid false sharing,
+     * and a leading line keeps the first shard away from the array object header.
+     */
+    private static final int SHARD_STRIDE = 8;
+    private static final int TOKENS_OFFSET = 0;
+    private static final int DEMAND_OFFSET = 1;
+
+    private final double count;
+    private final int periodMs;
+    private final int shardCount;
+    private final int shardMask;
+    private final long capacity;
+
+    /**
+     * Remaining tokens and the demand (acquired count in last period) of each shard.
+     */
+    private final AtomicLongArray shards;
+    private final AtomicLong currentPeriod = new AtomicLong(-1);
+
+    public ShardedTokenBucketController(double count) {
+        this(count, defaultShardCount(), DEFAULT_PERIOD_MS);
+    }
+
+    public ShardedTokenBucketController(double count, int shardCount, int periodMs) {
+        AssertUtil.isTrue(shardCount > 0, "shardCount should be positive");
+        AssertUtil.isTrue(periodMs > 0 && 1000 % periodMs == 0, "periodMs should be a divisor of 1000");
+        this.count = count;
+        this.periodMs = periodMs;
+        this.shardCount = ceilingPowerOfTwo(Math.min(shardCount, MAX_SHARD_COUNT));
+        this.shardMask = this.shardCount - 1;
+        this.shards = new AtomicLongArray((this.shardCount + 1) * SHARD_STRIDE);
+        this.capacity = Math.max(1, (long)Math.ceil(count * periodMs / 1000));
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount) {
+        return canPass(node, acquireCount, false);
+    }
+
+    @Override
+    public boolean canPass(Node node, int acquireCount, boolean prioritized) {
+        if (acquireCount <= 0) {
+            return true;
+        }
+        if (count <= 0 || acquireCount > capacity) {
+            return false;
+        }
+        refillIfNeeded(TimeUtil.currentTimeMillis());
+
+        int home = shardOfCurrentThread();
+        shards.getAndAdd(demandIndex(home), acquireCount);
+        if (tryAcquire(home, acquireCount)) {
+            return true;
+        }
+        // Steal from other shards when the own shard is drained.
+        for (int i = 1; i < shardCount; i++) {
+            if (tryAcquire((home + i) & shardMask, acquireCount)) {
+                return true;
+            }
+        }
+        return tryAcquireFromAllShards(home, acquireCount);
+    }
+
+    private boolean tryAcquire(int shard, int acquireCount) {
+        int index = tokensIndex(shard);
+        while (true) {
+            long tokens = shards.get(index);
+            if (tokens < acquireCount) {
+                return false;
+            }
+            if (shards.compareAndSet(index, tokens, tokens - acquireCount)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Gathers tokens from all the shards for an acquisition larger than the tokens of any single shard.
+     * The gathered tokens are put back to the home shard if there are not enough tokens in total.
+     */
+    private boolean tryAcquireFromAllShards(int home, int acquireCount) {
+        long needed = acquireCount;
+        for (int i = 0; i < shardCount && needed > 0; i++) {
+            int index = tokensIndex((home + i) & shardMask);
+            while (true) {
+                long tokens = shards.get(index);
+                long taken = Math.min(tokens, needed);
+                if (taken == 0 || shards.compareAndSet(index, tokens, tokens - taken)) {
+                    needed -= taken;
+                    break;
+                }
+            }
+        }
+        if (needed > 0) {
+            shards.addAndGet(tokensIndex(home), acquireCount - needed);
+            return false;
+        }
+        return true;
+    }
+
+    private void refillIfNeeded(long currentTime) {
+        long period = currentTime / periodMs;
+        long lastPeriod = currentPeriod.get();
+        // Only one thread rebalances the shards for a new period.
+        if (period > lastPeriod && currentPeriod.compareAndSet(lastPeriod, period)) {
+            rebalance(quotaSince(lastPeriod < 0 ? period - 1 : lastPeriod, period));
+        }
+    }
+
+    /**
+     * The quota of the periods after {@code lastPeriod} up to {@code period}, including the periods
+     * without any request. Quotas are calculated from the beginning of time, so fractional quotas
+     * accumulate, e.g. count 5 with 100ms periods grants one token in every two periods.
+     */
+    private long quotaSince(long lastPeriod, long period) {
+        double perPeriod = count * periodMs / 1000;
+        return (long)((period + 1) * perPeriod) - (long)((lastPeriod + 1) * perPeriod);
+    }
+
+    /**
+     * Redistributes the unused tokens and the quota of the new period by the demand of last period.
+     * Shards are adjusted in place rather than being drained and refilled, so that concurrent acquisitions
+     * never see an empty shard because of the rebalance, and tokens put back concurrently are kept.
+     */
+    private void rebalance(long quota) {
+        long[] demands = new long[shardCount];
+        long[] tokens = new long[shardCount];
+        long totalDemand = 0;
+        long unused = 0;
+        for (int i = 0; i < shardCount; i++) {
+            demands[i] = shards.getAndSet(demandIndex(i), 0);
+            totalDemand += demands[i];
+            tokens[i] = shards.get(tokensIndex(i));
+            unused += tokens[i];
+        }
+        long total = Math.min(unused + quota, capacity);
+        long[] targets = new long[shardCount];
+        long assigned = 0;
+        int busiest = 0;
+        for (int i = 0; i < shardCount; i++) {
+            targets[i] = totalDemand == 0 ? total / shardCount : (long)((double)total * demands[i] / totalDemand);
+            assigned += targets[i];
+            if (demands[i] > demands[busiest]) {
+                busiest = i;
+            }
+        }
+        targets[busiest] += total - assigned;
+
+        // Take the surplus from the shards first, so that no more tokens are handed out than collected.
+        long pool = quota;
+        for (int i = 0; i < shardCount; i++) {
+            if (targets[i] < tokens[i]) {
+                pool += takeUpTo(tokensIndex(i), tokens[i] - targets[i]);
+            }
+        }
+        for (int i = 0; i < shardCount && pool > 0; i++) {
+            if (targets[i] > tokens[i]) {
+                long delta = Math.min(targets[i] - tokens[i], pool);
+                shards.addAndGet(tokensIndex(i), delta);
+                pool -= delta;
+            }
+        }
+        // The remaining tokens in the pool are beyond the capacity, which are discarded.
+    }
+
+    private long takeUpTo(int index, long n) {
+        while (true) {
+            long tokens = shards.get(index);
+            long taken = Math.min(tokens, n);
+            if (taken <= 0 || shards.compareAndSet(index, tokens, tokens - taken)) {
+                return Math.max(taken, 0);
+            }
+        }
+    }
+
+    private int shardOfCurrentThread() {
+        long id = Thread.currentThread().getId();
+        return (int)(id ^ (id >>> 32)) & shardMask;
+    }
+
+    long getAvailableTokens() {
+        long sum = 0;
+        for (int i = 0; i < shardCount; i++) {
+            sum += shards.get(tokensIndex(i));
+        }
+        return sum;
+    }
+
+    long getShardTokens(int shard) {
+        return shards.get(tokensIndex(shard));
+    }
+
+    int getShardCount() {
+        return shardCount;
+    }
+
+    private static int tokensIndex(int shard) {
+        return (shard + 1) * SHARD_STRIDE + TOKENS_OFFSET;
+    }
+
+    private static int demandIndex(int shard) {
+        return (shard + 1) * SHARD_STRIDE + DEMAND_OFFSET;
+    }
+
+    private static int defaultShardCount() {
+        return Runtime.getRuntime().availableProcessors() * 2;
+    }
+
+    private static int ceilingPowerOfTwo(int n) {
+        int c = 1;
+        while (c < n) {
+            c <<= 1;
+        }
+        return c;
+    }
+}
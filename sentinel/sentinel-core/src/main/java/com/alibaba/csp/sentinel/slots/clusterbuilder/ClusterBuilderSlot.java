@@ -15,8 +15,9 @@
  */
 package com.alibaba.csp.sentinel.slots.clusterbuilder;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
@@ -59,12 +60,12 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
      * in this map.
      * </p>
      * <p>
-     * The longer the application runs, the more stable this mapping will
-     * become. so we don't concurrent map but a lock. as this lock only happens
-     * at the very beginning while concurrent map will hold the lock all the time.
+     * The map is concurrent, so registering a new resource doesn't copy all existing
+     * cluster nodes, and cluster nodes of evicted resources can be removed.
      * </p>
      */
-    private static volatile Map<ResourceWrapper, ClusterNode> clusterNodeMap = new HashMap<>();
+    private static final Map<ResourceWrapper, ClusterNode> clusterNodeMap
+        = new ConcurrentHashMap<ResourceWrapper, ClusterNode>();
 
     private static final Object lock = new Object();
 
@@ -79,11 +80,7 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
                 if (clusterNode == null) {
                     // Create the cluster node.
                     clusterNode = new ClusterNode(resourceWrapper.getName(), resourceWrapper.getResourceType());
-                    HashMap<ResourceWrapper, ClusterNode> newMap = new HashMap<>(Math.max(clusterNodeMap.size(), 16));
-                    newMap.putAll(clusterNodeMap);
-                    newMap.put(node.getId(), clusterNode);
-
-                    clusterNodeMap = newMap;
+                    clusterNodeMap.put(node.getId(), clusterNode);
                 }
             }
         }
@@ -150,6 +147,21 @@ public class ClusterBuilderSlot extends AbstractLinkedProcessorSlot<DefaultNode>
         return clusterNodeMap;
     }
 
+    /**
+     * Remove the {@link ClusterNode}s of provided resources, e.g. when their slot chains are evicted.
+     *
+     * @param resources resources whose cluster nodes should be removed
+     * @since 1.8.0
+     */
+    public static void removeClusterNodes(Collection<ResourceWrapper> resources) {
+        if (resources == null || resources.isEmpty()) {
+            return;
+        }
+        for (ResourceWrapper resource : resources) {
+            clusterNodeMap.remove(resource);
+        }
+    }
+
     /**
      * Reset all {@link ClusterNode}s. Reset is needed when {@link IntervalProperty#INTERVAL} or
      * {@link SampleCountProperty#SAMPLE_COUNT} is changed.
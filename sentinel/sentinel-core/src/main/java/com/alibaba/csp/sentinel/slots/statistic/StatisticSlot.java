@@ -18,11 +18,14 @@ package com.alibaba.csp.sentinel.slots.statistic;
 import java.util.Collection;
 
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotEntryCallback;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlotExitCallback;
 import com.alibaba.csp.sentinel.slots.block.flow.PriorityWaitException;
 import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.AsyncEntry;
 import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.ClusterNode;
@@ -56,26 +59,15 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             // Do some checking.
             fireEntry(context, resourceWrapper, node, count, prioritized, args);
 
-            // Request passed, add thread count and pass count.
-            node.increaseThreadNum();
-            node.addPassRequest(count);
-
-            if (context.getCurEntry().getOriginNode() != null) {
-                // Add count for origin node.
-                context.getCurEntry().getOriginNode().increaseThreadNum();
-                context.getCurEntry().getOriginNode().addPassRequest(count);
-            }
-
-            if (resourceWrapper.getEntryType() == EntryType.IN) {
-                // Add count for global inbound entry node for global statistics.
-                Constants.ENTRY_NODE.increaseThreadNum();
-                Constants.ENTRY_NODE.addPassRequest(count);
+            Entry curEntry = context.getCurEntry();
+            if (curEntry instanceof AsyncEntry && ((AsyncEntry)curEntry).isDelayAllowed()) {
+                // The pass might be decided by asynchronous checks (e.g. cluster token requests),
+                // so count the pass or block once decided.
+                deferEntryStatistics(context, resourceWrapper, node, (AsyncEntry)curEntry, count, args);
+                return;
             }
 
-            // Handle pass event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onPass(context, resourceWrapper, node, count, args);
-            }
+            recordPass(context, curEntry, resourceWrapper, node, count, args);
         } catch (PriorityWaitException ex) {
             node.increaseThreadNum();
             if (context.getCurEntry().getOriginNode() != null) {
@@ -95,21 +87,7 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             // Blocked, set block exception to current entry.
             context.getCurEntry().setError(e);
 
-            // Add block count.
-            node.increaseBlockQps(count);
-            if (context.getCurEntry().getOriginNode() != null) {
-                context.getCurEntry().getOriginNode().increaseBlockQps(count);
-            }
-
-            if (resourceWrapper.getEntryType() == EntryType.IN) {
-                // Add count for global inbound entry node for global statistics.
-                Constants.ENTRY_NODE.increaseBlockQps(count);
-            }
-
-            // Handle block event with registered entry callback handlers.
-            for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
-                handler.onBlocked(e, context, resourceWrapper, node, count, args);
-            }
+            recordBlock(e, context, context.getCurEntry(), resourceWrapper, node, count, args);
 
             throw e;
         } catch (Throwable e) {
@@ -129,14 +107,79 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         }
     }
 
+    private void deferEntryStatistics(final Context context, final ResourceWrapper resourceWrapper,
+                                      final DefaultNode node, final AsyncEntry entry, final int count,
+                                      final Object... args) {
+        entry.whenDecided(new AsyncEntry.PassDecisionCallback() {
+            @Override
+            public void onPass() {
+                try {
+                    recordPass(context, entry, resourceWrapper, node, count, args);
+                } catch (Exception ex) {
+                    RecordLog.warn("[StatisticSlot] Unexpected error when handling deferred pass", ex);
+                }
+            }
+
+            @Override
+            public void onBlocked(BlockException ex) {
+                entry.setError(ex);
+                recordBlock(ex, context, entry, resourceWrapper, node, count, args);
+            }
+        });
+    }
+
+    private void recordPass(Context context, Entry entry, ResourceWrapper resourceWrapper, DefaultNode node,
+                            int count, Object... args) throws Exception {
+        // Request passed, add thread count and pass count.
+        node.increaseThreadNum();
+        node.addPassRequest(count);
+
+        if (entry.getOriginNode() != null) {
+            // Add count for origin node.
+            entry.getOriginNode().increaseThreadNum();
+            entry.getOriginNode().addPassRequest(count);
+        }
+
+        if (resourceWrapper.getEntryType() == EntryType.IN) {
+            // Add count for global inbound entry node for global statistics.
+            Constants.ENTRY_NODE.increaseThreadNum();
+            Constants.ENTRY_NODE.addPassRequest(count);
+        }
+
+        // Handle pass event with registered entry callback handlers.
+        for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
+            handler.onPass(context, resourceWrapper, node, count, args);
+        }
+    }
+
+    private void recordBlock(BlockException e, Context context, Entry entry, ResourceWrapper resourceWrapper,
+                             DefaultNode node, int count, Object... args) {
+        // Add block count.
+        node.increaseBlockQps(count);
+        if (entry.getOriginNode() != null) {
+            entry.getOriginNode().increaseBlockQps(count);
+        }
+
+        if (resourceWrapper.getEntryType() == EntryType.IN) {
+            // Add count for global inbound entry node for global statistics.
+            Constants.ENTRY_NODE.increaseBlockQps(count);
+        }
+
+        // Handle block event with registered entry callback handlers.
+        for (ProcessorSlotEntryCallback<DefaultNode> handler : StatisticSlotCallbackRegistry.getEntryCallbacks()) {
+            handler.onBlocked(e, context, resourceWrapper, node, count, args);
+        }
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         DefaultNode node = (DefaultNode)context.getCurNode();
 
-        if (context.getCurEntry().getError() == null) {
+        Entry curEntry = context.getCurEntry();
+        if (curEntry.getError() == null && !isExitedBeforePass(curEntry)) {
             // Calculate response time (max RT is statisticMaxRt from SentinelConfig).
-            long rt = TimeUtil.currentTimeMillis() - context.getCurEntry().getCreateTime();
-            int maxStatisticRt = SentinelConfig.statisticMaxRt();
+            long rt = calculateRt(context.getCurEntry());
+            long maxStatisticRt = SentinelConfig.statisticMaxRecordedRt();
             if (rt > maxStatisticRt) {
                 rt = maxStatisticRt;
             }
@@ -167,6 +210,25 @@ public class StatisticSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             handler.onExit(context, resourceWrapper, count, args);
         }
 
-        fireExit(context, resourceWrapper, count);
+        fireExit(context, resourceWrapper, count, args);
+    }
+
+    private static boolean isExitedBeforePass(Entry entry) {
+        // The pass of an entry exiting before its asynchronous checks complete is never counted.
+        return entry instanceof AsyncEntry && ((AsyncEntry)entry).isExitedBeforeDecided();
+    }
+
+    /**
+     * Calculate the response time of the entry, in microseconds if high-resolution RT mode is enabled,
+     * otherwise in milliseconds.
+     *
+     * @param entry the entry to exit
+     * @return response time of the entry
+     */
+    public static long calculateRt(Entry entry) {
+        if (SentinelConfig.highResolutionRtEnabled()) {
+            return (System.nanoTime() - entry.getCreateNanoTime()) / 1000;
+        }
+        return TimeUtil.currentTimeMillis() - entry.getCreateTime();
     }
 }
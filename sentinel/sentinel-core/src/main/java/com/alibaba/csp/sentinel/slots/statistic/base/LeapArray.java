@@ -20,8 +20,8 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.AtomicReferenceArray;
-import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * <p>
@@ -46,10 +46,13 @@ public abstract class LeapArray<T> {
 
     protected final AtomicReferenceArray<WindowWrap<T>> array;
 
+    private static final long RETIRED_WINDOW_START = -1L;
+
     /**
-     * The conditional (predicate) update lock is used only when current bucket is deprecated.
+     * A retired bucket kept for reuse, which is reset and swapped in for the next deprecated bucket,
+     * so that the rotation allocates nothing in most cases.
      */
-    private final ReentrantLock updateLock = new ReentrantLock();
+    private final AtomicReference<WindowWrap<T>> spareWindow = new AtomicReference<WindowWrap<T>>();
 
     /**
      * The total bucket count is: {@code sampleCount = intervalInMs / windowLengthInMs}.
@@ -90,7 +93,8 @@ public abstract class LeapArray<T> {
     public abstract T newEmptyBucket(long timeMillis);
 
     /**
-     * Reset given bucket to provided start time and reset the value.
+     * Reset given bucket to provided start time and reset the value. The bucket is not visible to other threads
+     * until it's returned, so it's safe to reset the value and the start time in any order.
      *
      * @param startTime  the start time of the bucket in milliseconds
      * @param windowWrap current bucket
@@ -98,6 +102,19 @@ public abstract class LeapArray<T> {
      */
     protected abstract WindowWrap<T> resetWindowTo(WindowWrap<T> windowWrap, long startTime);
 
+    /**
+     * Invoked by the thread that has claimed a deprecated bucket, before the bucket is reset.
+     * The value of the retired window is still readable. Subclasses may override this to roll
+     * the completed window up into coarser windows.
+     *
+     * @param windowStart start time of the retired window
+     * @param value       value of the retired window
+     * @since 1.8.0
+     */
+    protected void onWindowRetired(long windowStart, T value) {
+        // Do nothing by default.
+    }
+
     private int calculateTimeIdx(/*@Valid*/ long timeMillis) {
         //时间id(第几秒)= 当前时间戳/单个窗口长度(1000ms)
         long timeId = timeMillis / windowLengthInMs;
@@ -148,18 +165,16 @@ public abstract class LeapArray<T> {
                  *
                  * If the old bucket is absent, then we create a new bucket at {@code windowStart},
                  * then try to update circular array via a CAS operation. Only one thread can
-                 * succeed to update, while other threads yield its time slice.
+                 * succeed to update, while other threads will pick up the winner's bucket in the next loop.
                  */
                 //窗口未实例化的情况，使用一个CAS来设置该窗口实例
                 WindowWrap<T> window = new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
                 if (array.compareAndSet(idx, null, window)) {
                     // Successfully updated, return the created bucket.
                     return window;
-                } else {
-                    // Contention failed, the thread will yield its time slice to wait for bucket available.
-                    // 存在竞争
-                    Thread.yield();
                 }
+                // Contention failed, the bucket has been created by another thread, so just retry (no yield).
+                // 存在竞争
             } else if (windowStart == old.windowStart()) {
                 /*
                  *     B0       B1      B2     B3      B4
@@ -185,25 +200,27 @@ public abstract class LeapArray<T> {
                  *          startTime of Bucket 2: 400, deprecated, should be reset
                  *
                  * If the start timestamp of old bucket is behind provided time, that means
-                 * the bucket is deprecated. We have to reset the bucket to current {@code windowStart}.
-                 * Note that the reset and clean-up operations are hard to be atomic,
-                 * so we need a update lock to guarantee the correctness of bucket update.
+                 * the bucket is deprecated. We have to replace the bucket with a clean one at
+                 * current {@code windowStart}. The clean bucket is prepared privately (by resetting
+                 * the spare bucket), then swapped in by a CAS operation on the array, so it's
+                 * published only after it has been reset, and only one thread wins the swap.
                  *
-                 * The update lock is conditional (tiny scope) and will take effect only when
-                 * bucket is deprecated, so in most cases it won't lead to performance loss.
+                 * Threads that lose the race never yield or block: they just re-read the array
+                 * and record into the bucket published by the winner.
                  */
-                //该窗口已过期，重置窗口的值。使用一个锁来控制并发。
-                if (updateLock.tryLock()) {
-                    try {
-                        // Successfully get the update lock, now we reset the bucket.
-                        return resetWindowTo(old, windowStart);
-                    } finally {
-                        updateLock.unlock();
+                //该窗口已过期，准备一个干净的窗口并用 CAS 替换，成功的线程负责回收旧窗口。
+                long oldStart = old.windowStart();
+                WindowWrap<T> window = prepareWindow(windowStart, timeMillis);
+                if (array.compareAndSet(idx, old, window)) {
+                    // The retired bucket might have been retired by retireDeprecatedWindows already.
+                    if (oldStart >= 0 && old.compareAndSetWindowStart(oldStart, RETIRED_WINDOW_START)) {
+                        onWindowRetired(oldStart, old.value());
                     }
-                } else {
-                    // Contention failed, the thread will yield its time slice to wait for bucket available.
-                    Thread.yield();
+                    spareWindow.set(old);
+                    return window;
                 }
+                // Keep the prepared bucket for later use.
+                spareWindow.compareAndSet(null, window);
             } else if (windowStart < old.windowStart()) {
                 // Should not go through here, as the provided time is already behind.
                 //正常情况都不会走到这个分支，异常情况其实就是时钟回拨，这里返回一个 WindowWrap 是容错
@@ -212,6 +229,43 @@ public abstract class LeapArray<T> {
         }
     }
 
+    /**
+     * Get a clean bucket at given start time which is not visible to other threads yet.
+     */
+    private WindowWrap<T> prepareWindow(long windowStart, long timeMillis) {
+        WindowWrap<T> spare = spareWindow.getAndSet(null);
+        if (spare == null) {
+            return new WindowWrap<T>(windowLengthInMs, windowStart, newEmptyBucket(timeMillis));
+        }
+        WindowWrap<T> window = resetWindowTo(spare, windowStart);
+        if (window.windowStart() != windowStart) {
+            window.resetTo(windowStart);
+        }
+        return window;
+    }
+
+    /**
+     * Retire all deprecated buckets that have not been reused yet, so that {@link #onWindowRetired(long, Object)}
+     * is invoked for them even if no request comes. A retired bucket is marked with a negative start time,
+     * and will be reset on next use.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @since 1.8.0
+     */
+    public void retireDeprecatedWindows(long timeMillis) {
+        for (int i = 0; i < array.length(); i++) {
+            WindowWrap<T> old = array.get(i);
+            if (old == null) {
+                continue;
+            }
+            long oldStart = old.windowStart();
+            if (oldStart >= 0 && timeMillis - oldStart > intervalInMs
+                && old.compareAndSetWindowStart(oldStart, RETIRED_WINDOW_START)) {
+                onWindowRetired(oldStart, old.value());
+            }
+        }
+    }
+
     /**
      * Get the previous bucket item before provided timestamp.
      *
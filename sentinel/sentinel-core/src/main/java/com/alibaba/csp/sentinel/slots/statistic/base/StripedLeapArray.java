@@ -0,0 +1,359 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * A primitive variant of {@link LeapArray}. All buckets and all their counter slots are kept in one flat
+ * {@link AtomicLongArray}, so the sliding window allocates nothing after construction and a bucket rotation
+ * is a plain CAS on the bucket header followed by zeroing a few longs.
+ * </p>
+ * <p>
+ * Each bucket is laid out as one header cache line (holding the window start) followed by one cache line per
+ * stripe. Writers pick a stripe by their thread id, so concurrent writers on different cores rarely touch the
+ * same cache line. Readers sum up all stripes of a bucket. The layout of a bucket is:
+ * </p>
+ * <pre>
+ * | windowStart, pad... | stripe 0: slot 0..n, pad... | stripe 1: slot 0..n, pad... | ...
+ * </pre>
+ * <p>
+ * A deprecated bucket is claimed by a CAS of its header to a resetting marker. The claiming thread resets
+ * all stripes and publishes the new window start afterwards, so no thread records into the new window
+ * before the bucket has been reset, and no update of the new window is dropped.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class StripedLeapArray {
+
+    /**
+     * Amount of longs in a 64-byte cache line.
+     */
+    static final int LINE_SIZE = 8;
+    /**
+     * Max amount of counter slots that a bucket stripe could hold (a single cache line).
+     */
+    public static final int MAX_SLOT_COUNT = LINE_SIZE;
+
+    private static final long EMPTY_WINDOW_START = -1L;
+    /**
+     * Header value of a bucket being reset by the thread that has claimed it.
+     */
+    private static final long RESETTING_WINDOW_START = -2L;
+
+    protected final int windowLengthInMs;
+    protected final int sampleCount;
+    protected final int intervalInMs;
+
+    private final int slotCount;
+    private final int stripeMask;
+    private final int bucketStride;
+
+    private final AtomicLongArray array;
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of the sliding window in milliseconds
+     * @param slotCount    amount of counter slots in each bucket (no more than {@link #MAX_SLOT_COUNT})
+     * @param stripeCount  amount of stripes per bucket, which will be rounded up to a power of 2
+     */
+    public StripedLeapArray(int sampleCount, int intervalInMs, int slotCount, int stripeCount) {
+        AssertUtil.isTrue(sampleCount > 0, "bucket count is invalid: " + sampleCount);
+        AssertUtil.isTrue(intervalInMs > 0, "total time interval of the sliding window should be positive");
+        AssertUtil.isTrue(intervalInMs % sampleCount == 0, "time span needs to be evenly divided");
+        AssertUtil.isTrue(slotCount > 0 && slotCount <= MAX_SLOT_COUNT, "slot count is invalid: " + slotCount);
+        AssertUtil.isTrue(stripeCount > 0, "stripe count should be positive");
+
+        this.windowLengthInMs = intervalInMs / sampleCount;
+        this.intervalInMs = intervalInMs;
+        this.sampleCount = sampleCount;
+        this.slotCount = slotCount;
+
+        int stripes = roundToPowerOfTwo(stripeCount);
+        this.stripeMask = stripes - 1;
+        this.bucketStride = (stripes + 1) * LINE_SIZE;
+        // The leading line keeps the first header away from the array object header.
+        this.array = new AtomicLongArray(LINE_SIZE + sampleCount * bucketStride);
+        for (int i = 0; i < sampleCount; i++) {
+            array.set(headerOffset(i), EMPTY_WINDOW_START);
+        }
+    }
+
+    /**
+     * Get the initial value of the given slot when a bucket is reset. Zero by default.
+     *
+     * @param slot slot index
+     * @return initial value of the slot
+     */
+    protected long initialValue(int slot) {
+        return 0;
+    }
+
+    /**
+     * Invoked by the thread that has won the rotation of a bucket, after the bucket has been reset
+     * and before the new window start is published.
+     *
+     * @param bucket      index of the bucket
+     * @param windowStart new start time of the bucket
+     */
+    protected void onBucketReset(int bucket, long windowStart) {
+        // Do nothing by default.
+    }
+
+    /**
+     * Invoked by the thread that has claimed a deprecated bucket, before the bucket is reset.
+     * Values of the retired window are still readable via {@link #get(int, int)}.
+     *
+     * @param bucket      index of the bucket
+     * @param windowStart start time of the retired window
+     * @since 1.8.0
+     */
+    protected void onBucketRetired(int bucket, long windowStart) {
+        // Do nothing by default.
+    }
+
+    private int calculateTimeIdx(long timeMillis) {
+        long timeId = timeMillis / windowLengthInMs;
+        return (int)(timeId % sampleCount);
+    }
+
+    protected long calculateWindowStart(long timeMillis) {
+        return timeMillis - timeMillis % windowLengthInMs;
+    }
+
+    /**
+     * Get the index of the bucket at provided timestamp. Deprecated bucket will be reset to the window
+     * of provided timestamp.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return index of the bucket at provided timestamp if the time is valid; otherwise -1
+     */
+    public int currentBucket(long timeMillis) {
+        if (timeMillis < 0) {
+            return -1;
+        }
+        int idx = calculateTimeIdx(timeMillis);
+        long windowStart = calculateWindowStart(timeMillis);
+        int header = headerOffset(idx);
+
+        while (true) {
+            long old = array.get(header);
+            if (old == windowStart) {
+                return idx;
+            } else if (old == RESETTING_WINDOW_START) {
+                // Another thread is resetting the bucket, which takes no longer than zeroing a few longs.
+                // Just read again until the new start time is published.
+                continue;
+            } else if (old < windowStart) {
+                // The bucket is absent or deprecated. Only the thread that succeeds in the CAS resets it,
+                // the new start time is published after all stripes have been reset.
+                if (array.compareAndSet(header, old, RESETTING_WINDOW_START)) {
+                    if (old != EMPTY_WINDOW_START) {
+                        onBucketRetired(idx, old);
+                    }
+                    resetBucket(idx, windowStart);
+                    array.set(header, windowStart);
+                    return idx;
+                }
+            } else {
+                // Should not go through here, as the provided time is already behind (e.g. clock drift).
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Get the index of the bucket which exactly covers provided timestamp. This won't rotate any bucket.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return index of the bucket if it is up-to-date; otherwise -1
+     */
+    public int bucketAt(long timeMillis) {
+        if (timeMillis < 0) {
+            return -1;
+        }
+        int idx = calculateTimeIdx(timeMillis);
+        long start = array.get(headerOffset(idx));
+        if (start < 0 || timeMillis < start || timeMillis >= start + windowLengthInMs) {
+            return -1;
+        }
+        return idx;
+    }
+
+    /**
+     * Get the index of the previous bucket before provided timestamp.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @return index of the previous bucket if it is valid; otherwise -1
+     */
+    public int previousBucket(long timeMillis) {
+        if (timeMillis < 0) {
+            return -1;
+        }
+        long previousTime = timeMillis - windowLengthInMs;
+        int idx = calculateTimeIdx(previousTime);
+        long start = array.get(headerOffset(idx));
+        if (start < 0 || isBucketDeprecated(timeMillis, idx)
+            || start + windowLengthInMs < previousTime) {
+            return -1;
+        }
+        return idx;
+    }
+
+    /**
+     * Check whether the bucket is absent or has been behind for at least an entire window time span.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @param bucket     index of the bucket
+     * @return true if the bucket is absent, being reset or deprecated; otherwise false
+     */
+    public boolean isBucketDeprecated(long timeMillis, int bucket) {
+        long start = array.get(headerOffset(bucket));
+        return start < 0 || timeMillis - start > intervalInMs;
+    }
+
+    /**
+     * Retire all deprecated buckets that have not been reused yet, so that {@link #onBucketRetired(int, long)}
+     * is invoked for them even if no request comes. A retired bucket is marked as absent and will be reset
+     * on next use.
+     *
+     * @param timeMillis a valid timestamp in milliseconds
+     * @since 1.8.0
+     */
+    public void retireDeprecatedBuckets(long timeMillis) {
+        for (int i = 0; i < sampleCount; i++) {
+            int header = headerOffset(i);
+            long start = array.get(header);
+            if (start >= 0 && timeMillis - start > intervalInMs
+                && array.compareAndSet(header, start, EMPTY_WINDOW_START)) {
+                onBucketRetired(i, start);
+            }
+        }
+    }
+
+    public long windowStart(int bucket) {
+        return array.get(headerOffset(bucket));
+    }
+
+    /**
+     * Add to the slot of given bucket in the stripe of current thread.
+     *
+     * @param bucket index of the bucket
+     * @param slot   slot index
+     * @param n      value to add
+     */
+    public void add(int bucket, int slot, long n) {
+        array.getAndAdd(slotOffset(bucket, currentStripe(), slot), n);
+    }
+
+    /**
+     * Lower the slot of given bucket in the stripe of current thread to provided value if it's smaller.
+     *
+     * @param bucket index of the bucket
+     * @param slot   slot index
+     * @param value  candidate minimal value
+     */
+    public void updateMin(int bucket, int slot, long value) {
+        int offset = slotOffset(bucket, currentStripe(), slot);
+        // Not thread-safe, but it's okay.
+        if (value < array.get(offset)) {
+            array.set(offset, value);
+        }
+    }
+
+    /**
+     * Get the sum of the slot of given bucket across all stripes.
+     *
+     * @param bucket index of the bucket
+     * @param slot   slot index
+     * @return the sum of the slot
+     */
+    public long get(int bucket, int slot) {
+        long sum = 0;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            sum += array.get(slotOffset(bucket, stripe, slot));
+        }
+        return sum;
+    }
+
+    /**
+     * Get the minimal value of the slot of given bucket across all stripes.
+     *
+     * @param bucket index of the bucket
+     * @param slot   slot index
+     * @return the minimal value of the slot
+     */
+    public long min(int bucket, int slot) {
+        long min = Long.MAX_VALUE;
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            min = Math.min(min, array.get(slotOffset(bucket, stripe, slot)));
+        }
+        return min;
+    }
+
+    private void resetBucket(int bucket, long windowStart) {
+        for (int stripe = 0; stripe <= stripeMask; stripe++) {
+            for (int slot = 0; slot < slotCount; slot++) {
+                array.set(slotOffset(bucket, stripe, slot), initialValue(slot));
+            }
+        }
+        onBucketReset(bucket, windowStart);
+    }
+
+    private int currentStripe() {
+        return (int)Thread.currentThread().getId() & stripeMask;
+    }
+
+    private int headerOffset(int bucket) {
+        return LINE_SIZE + bucket * bucketStride;
+    }
+
+    private int slotOffset(int bucket, int stripe, int slot) {
+        return headerOffset(bucket) + (stripe + 1) * LINE_SIZE + slot;
+    }
+
+    private static int roundToPowerOfTwo(int n) {
+        int v = 1;
+        while (v < n) {
+            v <<= 1;
+        }
+        return v;
+    }
+
+    public int getStripeCount() {
+        return stripeMask + 1;
+    }
+
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    public int getIntervalInMs() {
+        return intervalInMs;
+    }
+
+    public int getWindowLengthInMs() {
+        return windowLengthInMs;
+    }
+
+    public double getIntervalInSecond() {
+        return intervalInMs / 1000.0;
+    }
+}
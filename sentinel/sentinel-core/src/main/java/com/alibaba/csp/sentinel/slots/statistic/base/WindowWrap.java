@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
 /**
  * Wrapper entity class for a period of time window.
  *
@@ -24,6 +26,10 @@ package com.alibaba.csp.sentinel.slots.statistic.base;
  */
 public class WindowWrap<T> {
 
+    @SuppressWarnings("rawtypes")
+    private static final AtomicLongFieldUpdater<WindowWrap> WINDOW_START_UPDATER
+        = AtomicLongFieldUpdater.newUpdater(WindowWrap.class, "windowStart");
+
     /**
      * Time length of a single window bucket in milliseconds.
      */
@@ -32,7 +38,7 @@ public class WindowWrap<T> {
     /**
      * Start timestamp of the window in milliseconds.
      */
-    private long windowStart;
+    private volatile long windowStart;
 
     /**
      * Statistic data.
@@ -77,6 +83,19 @@ public class WindowWrap<T> {
         return this;
     }
 
+    /**
+     * Atomically move the start timestamp of current bucket from {@code expectedStart} to {@code startTime}.
+     * Only the caller that succeeds is responsible for resetting the statistic data of the bucket.
+     *
+     * @param expectedStart the expected start timestamp
+     * @param startTime     new start timestamp
+     * @return true if successful, false if the start timestamp has been changed by others
+     * @since 1.8.0
+     */
+    public boolean compareAndSetWindowStart(long expectedStart, long startTime) {
+        return WINDOW_START_UPDATER.compareAndSet(this, expectedStart, startTime);
+    }
+
     /**
      * Check whether given timestamp is in current bucket.
      *
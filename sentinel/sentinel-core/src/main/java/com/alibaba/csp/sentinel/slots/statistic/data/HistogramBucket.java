@@ -0,0 +1,184 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * A fixed-memory log-linear histogram of response time for a single bucket of the sliding window.
+ * </p>
+ * <p>
+ * Values below {@code 16} are counted exactly. Larger values are grouped by their highest bit, and each
+ * power-of-two range is split into 8 linear sub-buckets, so the relative error of a recorded value is
+ * no more than 12.5%. Values larger than the max trackable value are recorded as the max value.
+ * Recording is a single atomic increment on a pre-allocated array, so it's lock-free and allocation-free.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class HistogramBucket {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = SUB_BUCKET_COUNT << 1;
+
+    private final long maxValue;
+    private final AtomicIntegerArray counts;
+
+    /**
+     * @param maxValue max trackable value (inclusive)
+     */
+    public HistogramBucket(long maxValue) {
+        AssertUtil.isTrue(maxValue > 0, "max value of the histogram should be positive");
+        this.maxValue = maxValue;
+        this.counts = new AtomicIntegerArray(subBucketCount(maxValue));
+    }
+
+    /**
+     * Get the amount of sub-buckets (i.e. counters) of a histogram bucket with given max trackable value.
+     *
+     * @param maxValue max trackable value (inclusive)
+     * @return amount of sub-buckets
+     */
+    public static int subBucketCount(long maxValue) {
+        return indexOf(maxValue) + 1;
+    }
+
+    /**
+     * Get the index of the sub-bucket that the given value falls into.
+     *
+     * @param value a non-negative value
+     * @return index of the sub-bucket
+     */
+    static int indexOf(long value) {
+        if (value < EXACT_LIMIT) {
+            return (int)value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift << SUB_BUCKET_BITS) + (int)(value >>> shift);
+    }
+
+    /**
+     * Get the highest value that is equivalent to values of the sub-bucket at given index.
+     *
+     * @param index index of the sub-bucket
+     * @return the highest equivalent value
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        long lowest = (long)(index - (shift << SUB_BUCKET_BITS)) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    public void record(long value) {
+        if (value < 0) {
+            return;
+        }
+        counts.incrementAndGet(indexOf(Math.min(value, maxValue)));
+    }
+
+    public HistogramBucket reset() {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.set(i, 0);
+        }
+        return this;
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    public long maxValue() {
+        return maxValue;
+    }
+
+    /**
+     * Get the value at given percentile of this bucket.
+     *
+     * @param percentile percentile in range {@code (0, 100]}, e.g. {@code 99.9}
+     * @return the value at given percentile, or 0 if nothing has been recorded
+     */
+    public long percentile(double percentile) {
+        long total = totalCount();
+        if (total == 0) {
+            return 0;
+        }
+        long target = targetCount(percentile, total);
+        long count = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            count += counts.get(i);
+            if (count >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * Get the value at given percentile of all provided buckets, as if they were merged into one.
+     * All buckets should have the same max trackable value.
+     *
+     * @param buckets    buckets to merge
+     * @param percentile percentile in range {@code (0, 100]}, e.g. {@code 99.9}
+     * @return the value at given percentile, or 0 if nothing has been recorded
+     */
+    public static long percentile(List<HistogramBucket> buckets, double percentile) {
+        if (buckets == null || buckets.isEmpty()) {
+            return 0;
+        }
+        long total = 0;
+        for (HistogramBucket bucket : buckets) {
+            total += bucket.totalCount();
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = targetCount(percentile, total);
+        HistogramBucket first = buckets.get(0);
+        int length = first.counts.length();
+        long count = 0;
+        for (int i = 0; i < length; i++) {
+            for (HistogramBucket bucket : buckets) {
+                count += bucket.counts.get(i);
+            }
+            if (count >= target) {
+                return Math.min(highestEquivalentValue(i), first.maxValue);
+            }
+        }
+        return first.maxValue;
+    }
+
+    private static long targetCount(double percentile, long total) {
+        double p = Math.min(Math.max(percentile, 0), 100);
+        return Math.max(1, (long)Math.ceil(p / 100 * total));
+    }
+
+    @Override
+    public String toString() {
+        return "HistogramBucket{totalCount=" + totalCount() + ", maxValue=" + maxValue + '}';
+    }
+}
@@ -50,7 +50,7 @@ public class MetricBucket {
     }
 
     private void initMinRt() {
-        this.minRt = SentinelConfig.statisticMaxRt();
+        this.minRt = SentinelConfig.statisticMaxRecordedRt();
     }
 
     /**
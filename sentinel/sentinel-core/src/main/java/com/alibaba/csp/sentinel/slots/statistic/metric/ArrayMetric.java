@@ -141,7 +141,7 @@ public class ArrayMetric implements Metric {
     @Override
     public long minRt() {
         data.currentWindow();
-        long rt = SentinelConfig.statisticMaxRt();
+        long rt = SentinelConfig.statisticMaxRecordedRt();
         List<MetricBucket> list = data.values();
         for (MetricBucket window : list) {
             if (window.minRt() < rt) {
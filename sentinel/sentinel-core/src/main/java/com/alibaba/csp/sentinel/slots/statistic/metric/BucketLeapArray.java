@@ -39,9 +39,9 @@ public class BucketLeapArray extends LeapArray<MetricBucket> {
 
     @Override
     protected WindowWrap<MetricBucket> resetWindowTo(WindowWrap<MetricBucket> w, long startTime) {
-        // Upda te the start time and reset value.
-        w.resetTo(startTime);
+        // Reset value and update the start time.
         w.value().reset();
+        w.resetTo(startTime);
         return w;
     }
 }
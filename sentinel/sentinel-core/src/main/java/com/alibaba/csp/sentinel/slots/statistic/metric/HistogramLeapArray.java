@@ -0,0 +1,83 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.HistogramBucket;
+
+/**
+ * The sliding window of response time histograms. Buckets are merged when read.
+ *
+ * @since 1.8.0
+ */
+public class HistogramLeapArray extends LeapArray<HistogramBucket> {
+
+    private final long maxValue;
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of the sliding window in milliseconds
+     * @param maxValue     max trackable value of the histograms
+     */
+    public HistogramLeapArray(int sampleCount, int intervalInMs, long maxValue) {
+        super(sampleCount, intervalInMs);
+        this.maxValue = maxValue;
+    }
+
+    @Override
+    public HistogramBucket newEmptyBucket(long timeMillis) {
+        return new HistogramBucket(maxValue);
+    }
+
+    @Override
+    protected WindowWrap<HistogramBucket> resetWindowTo(WindowWrap<HistogramBucket> w, long startTime) {
+        // Reset value and update the start time.
+        w.value().reset();
+        w.resetTo(startTime);
+        return w;
+    }
+
+    public void record(long value) {
+        currentWindow().value().record(value);
+    }
+
+    /**
+     * Get the value at given percentile of the entire sliding window.
+     *
+     * @param percentile percentile in range {@code (0, 100]}, e.g. {@code 99.9}
+     * @return the value at given percentile, or 0 if nothing has been recorded
+     */
+    public long percentile(double percentile) {
+        currentWindow();
+        return HistogramBucket.percentile(values(), percentile);
+    }
+
+    /**
+     * Get the value at given percentile of the bucket which starts at provided timestamp.
+     *
+     * @param windowStart start timestamp of the bucket
+     * @param percentile  percentile in range {@code (0, 100]}, e.g. {@code 99.9}
+     * @return the value at given percentile, or 0 if the bucket is absent or nothing has been recorded
+     */
+    public long percentileOfWindow(long windowStart, double percentile) {
+        HistogramBucket bucket = getWindowValue(windowStart);
+        if (bucket == null) {
+            return 0;
+        }
+        return bucket.percentile(percentile);
+    }
+}
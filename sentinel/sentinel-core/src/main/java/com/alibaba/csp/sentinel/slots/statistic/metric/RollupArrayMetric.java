@@ -0,0 +1,134 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.LeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.base.WindowWrap;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>
+ * A coarse-grained metric which is not written by requests, but fed with the completed buckets
+ * of a finer-grained sliding window (the {@link Source}). Each fine-grained bucket is folded into
+ * the coarse bucket covering its start time once, when it's retired (i.e. rotated or found deprecated),
+ * so the cost is paid once per rotation rather than once per request.
+ * </p>
+ * <p>
+ * The metric only holds the data that has rolled off the source window. For instance, the hour-level metric
+ * fed by the minute-level window holds the recent hour except the latest minute, which is still in the
+ * minute-level window. The minimal RT is not rolled up.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class RollupArrayMetric extends ArrayMetric {
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+
+    private final LeapArray<MetricBucket> array;
+
+    private volatile Source source;
+
+    public RollupArrayMetric(int sampleCount, int intervalInMs) {
+        this(new BucketLeapArray(sampleCount, intervalInMs));
+    }
+
+    private RollupArrayMetric(LeapArray<MetricBucket> array) {
+        super(array);
+        this.array = array;
+    }
+
+    /**
+     * Bind the finer-grained sliding window that rolls up into this metric.
+     *
+     * @param source the finer-grained sliding window
+     */
+    public void bindSource(Source source) {
+        this.source = source;
+    }
+
+    /**
+     * Get the coarse bucket that a retired fine-grained window should be folded into.
+     *
+     * @param windowStart start time of the retired fine-grained window
+     * @return the coarse bucket, or null if the window is out of the range of this metric
+     */
+    public MetricBucket foldTarget(long windowStart) {
+        long now = TimeUtil.currentTimeMillis();
+        if (windowStart < 0 || windowStart > now || now - windowStart > array.getIntervalInMs()) {
+            return null;
+        }
+        WindowWrap<MetricBucket> wrap = array.currentWindow(windowStart);
+        return wrap == null ? null : wrap.value();
+    }
+
+    /**
+     * Fold a retired fine-grained bucket into this metric.
+     *
+     * @param windowStart start time of the retired fine-grained window
+     * @param bucket      the retired fine-grained bucket
+     */
+    public void fold(long windowStart, MetricBucket bucket) {
+        MetricBucket target = foldTarget(windowStart);
+        if (target == null) {
+            return;
+        }
+        for (MetricEvent event : EVENTS) {
+            long count = bucket.get(event);
+            if (count != 0) {
+                target.add(event, count);
+            }
+        }
+    }
+
+    private void retireSource() {
+        Source s = source;
+        if (s != null) {
+            s.retireDeprecated(TimeUtil.currentTimeMillis());
+        }
+    }
+
+    @Override
+    public List<MetricNode> details() {
+        retireSource();
+        return super.details();
+    }
+
+    @Override
+    public List<MetricNode> detailsOnCondition(Predicate<Long> timePredicate) {
+        retireSource();
+        return super.detailsOnCondition(timePredicate);
+    }
+
+    /**
+     * The finer-grained sliding window that rolls up into a {@link RollupArrayMetric}.
+     */
+    public interface Source {
+
+        /**
+         * Retire (thus roll up) all deprecated buckets that have not been reused yet.
+         *
+         * @param timeMillis current time in milliseconds
+         */
+        void retireDeprecated(long timeMillis);
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * A {@link BucketLeapArray} that folds each retired bucket into a coarser {@link RollupArrayMetric}.
+ *
+ * @since 1.8.0
+ */
+public class RollupBucketLeapArray extends BucketLeapArray implements RollupArrayMetric.Source {
+
+    private final RollupArrayMetric rollup;
+
+    public RollupBucketLeapArray(int sampleCount, int intervalInMs, RollupArrayMetric rollup) {
+        super(sampleCount, intervalInMs);
+        AssertUtil.notNull(rollup, "rollup metric cannot be null");
+        this.rollup = rollup;
+        rollup.bindSource(this);
+    }
+
+    @Override
+    protected void onWindowRetired(long windowStart, MetricBucket value) {
+        rollup.fold(windowStart, value);
+    }
+
+    @Override
+    public void retireDeprecated(long timeMillis) {
+        retireDeprecatedWindows(timeMillis);
+    }
+}
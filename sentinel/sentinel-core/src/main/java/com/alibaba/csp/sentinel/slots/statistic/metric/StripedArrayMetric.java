@@ -0,0 +1,377 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slots.statistic.MetricEvent;
+import com.alibaba.csp.sentinel.slots.statistic.base.StripedLeapArray;
+import com.alibaba.csp.sentinel.slots.statistic.data.MetricBucket;
+import com.alibaba.csp.sentinel.slots.statistic.metric.occupy.FutureBucketLeapArray;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.csp.sentinel.util.function.Predicate;
+
+/**
+ * <p>A drop-in replacement of {@link ArrayMetric} backed by a {@link StripedLeapArray}.</p>
+ * <p>
+ * Unlike {@link ArrayMetric}, no {@link MetricBucket} (thus no {@code LongAdder}) is allocated for each bucket,
+ * and bucket rotation only resets a few primitive slots, which reduces both the heap footprint and the cost
+ * on the statistic hot path.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class StripedArrayMetric implements Metric, RollupArrayMetric.Source {
+
+    private static final MetricEvent[] EVENTS = MetricEvent.values();
+    private static final int MIN_RT_SLOT = EVENTS.length;
+    private static final int SLOT_COUNT = EVENTS.length + 1;
+
+    private final StripedLeapArray data;
+    /**
+     * Holds the borrowed (future) pass if occupy is enabled, otherwise null.
+     */
+    private final FutureBucketLeapArray borrowArray;
+    /**
+     * The coarser metric that retired buckets roll up into, or null if absent.
+     */
+    private final RollupArrayMetric rollup;
+
+    public StripedArrayMetric(int sampleCount, int intervalInMs, int stripeCount) {
+        this(sampleCount, intervalInMs, true, stripeCount);
+    }
+
+    public StripedArrayMetric(int sampleCount, int intervalInMs, boolean enableOccupy, int stripeCount) {
+        this(sampleCount, intervalInMs, enableOccupy, stripeCount, null);
+    }
+
+    /**
+     * @param sampleCount  bucket count of the sliding window
+     * @param intervalInMs the total time interval of the sliding window in milliseconds
+     * @param enableOccupy whether to support occupying future buckets
+     * @param stripeCount  amount of stripes per bucket
+     * @param rollup       the coarser metric that retired buckets roll up into, nullable
+     * @since 1.8.0
+     */
+    public StripedArrayMetric(int sampleCount, int intervalInMs, boolean enableOccupy, int stripeCount,
+                              RollupArrayMetric rollup) {
+        this.borrowArray = enableOccupy ? new FutureBucketLeapArray(sampleCount, intervalInMs) : null;
+        this.data = new MetricStripedLeapArray(sampleCount, intervalInMs, stripeCount);
+        this.rollup = rollup;
+        if (rollup != null) {
+            rollup.bindSource(this);
+        }
+    }
+
+    private long sum(MetricEvent event) {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentBucket(now);
+        long sum = 0;
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            if (!data.isBucketDeprecated(now, i)) {
+                sum += data.get(i, event.ordinal());
+            }
+        }
+        return sum;
+    }
+
+    private void add(MetricEvent event, long n) {
+        int bucket = data.currentBucket(TimeUtil.currentTimeMillis());
+        if (bucket >= 0) {
+            data.add(bucket, event.ordinal(), n);
+        }
+    }
+
+    @Override
+    public long success() {
+        return sum(MetricEvent.SUCCESS);
+    }
+
+    @Override
+    public long maxSuccess() {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentBucket(now);
+        long success = 0;
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            if (!data.isBucketDeprecated(now, i)) {
+                success = Math.max(success, data.get(i, MetricEvent.SUCCESS.ordinal()));
+            }
+        }
+        return Math.max(success, 1);
+    }
+
+    @Override
+    public long exception() {
+        return sum(MetricEvent.EXCEPTION);
+    }
+
+    @Override
+    public long block() {
+        return sum(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long pass() {
+        return sum(MetricEvent.PASS);
+    }
+
+    @Override
+    public long occupiedPass() {
+        return sum(MetricEvent.OCCUPIED_PASS);
+    }
+
+    @Override
+    public long rt() {
+        return sum(MetricEvent.RT);
+    }
+
+    @Override
+    public long minRt() {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentBucket(now);
+        long rt = SentinelConfig.statisticMaxRecordedRt();
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            if (!data.isBucketDeprecated(now, i)) {
+                rt = Math.min(rt, data.min(i, MIN_RT_SLOT));
+            }
+        }
+        return Math.max(1, rt);
+    }
+
+    @Override
+    public List<MetricNode> details() {
+        return detailsOnCondition(null);
+    }
+
+    @Override
+    public List<MetricNode> detailsOnCondition(Predicate<Long> timePredicate) {
+        List<MetricNode> details = new ArrayList<>();
+        long now = TimeUtil.currentTimeMillis();
+        data.currentBucket(now);
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            if (data.isBucketDeprecated(now, i)) {
+                continue;
+            }
+            if (timePredicate != null && !timePredicate.test(data.windowStart(i))) {
+                continue;
+            }
+            details.add(fromBucket(i));
+        }
+        return details;
+    }
+
+    private MetricNode fromBucket(int bucket) {
+        MetricNode node = new MetricNode();
+        node.setBlockQps(data.get(bucket, MetricEvent.BLOCK.ordinal()));
+        node.setExceptionQps(data.get(bucket, MetricEvent.EXCEPTION.ordinal()));
+        node.setPassQps(data.get(bucket, MetricEvent.PASS.ordinal()));
+        long successQps = data.get(bucket, MetricEvent.SUCCESS.ordinal());
+        node.setSuccessQps(successQps);
+        long rt = data.get(bucket, MetricEvent.RT.ordinal());
+        if (successQps != 0) {
+            node.setRt(rt / successQps);
+        } else {
+            node.setRt(rt);
+        }
+        node.setTimestamp(data.windowStart(bucket));
+        node.setOccupiedPassQps(data.get(bucket, MetricEvent.OCCUPIED_PASS.ordinal()));
+        return node;
+    }
+
+    /**
+     * Get snapshots of valid buckets. Note that the returned buckets are detached copies
+     * and the minimal RT is not carried.
+     *
+     * @return snapshots of valid buckets
+     */
+    @Override
+    public MetricBucket[] windows() {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentBucket(now);
+        List<MetricBucket> buckets = new ArrayList<>(data.getSampleCount());
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            if (data.isBucketDeprecated(now, i)) {
+                continue;
+            }
+            MetricBucket bucket = new MetricBucket();
+            for (MetricEvent event : EVENTS) {
+                bucket.add(event, data.get(i, event.ordinal()));
+            }
+            buckets.add(bucket);
+        }
+        return buckets.toArray(new MetricBucket[0]);
+    }
+
+    @Override
+    public void addException(int n) {
+        add(MetricEvent.EXCEPTION, n);
+    }
+
+    @Override
+    public void addBlock(int n) {
+        add(MetricEvent.BLOCK, n);
+    }
+
+    @Override
+    public void addSuccess(int n) {
+        add(MetricEvent.SUCCESS, n);
+    }
+
+    @Override
+    public void addPass(int n) {
+        add(MetricEvent.PASS, n);
+    }
+
+    @Override
+    public void addRT(long rt) {
+        int bucket = data.currentBucket(TimeUtil.currentTimeMillis());
+        if (bucket >= 0) {
+            data.add(bucket, MetricEvent.RT.ordinal(), rt);
+            data.updateMin(bucket, MIN_RT_SLOT, rt);
+        }
+    }
+
+    @Override
+    public double getWindowIntervalInSec() {
+        return data.getIntervalInSecond();
+    }
+
+    @Override
+    public int getSampleCount() {
+        return data.getSampleCount();
+    }
+
+    @Override
+    public long getWindowPass(long timeMillis) {
+        int bucket = data.bucketAt(timeMillis);
+        if (bucket < 0) {
+            return 0L;
+        }
+        return data.get(bucket, MetricEvent.PASS.ordinal());
+    }
+
+    @Override
+    public void addOccupiedPass(int acquireCount) {
+        add(MetricEvent.OCCUPIED_PASS, acquireCount);
+    }
+
+    @Override
+    public void addWaiting(long futureTime, int acquireCount) {
+        if (borrowArray == null) {
+            throw new UnsupportedOperationException();
+        }
+        borrowArray.currentWindow(futureTime).value().add(MetricEvent.PASS, acquireCount);
+    }
+
+    @Override
+    public long waiting() {
+        if (borrowArray == null) {
+            return 0;
+        }
+        borrowArray.currentWindow();
+        long currentWaiting = 0;
+        for (MetricBucket window : borrowArray.values()) {
+            currentWaiting += window.pass();
+        }
+        return currentWaiting;
+    }
+
+    @Override
+    public long previousWindowBlock() {
+        return previousWindow(MetricEvent.BLOCK);
+    }
+
+    @Override
+    public long previousWindowPass() {
+        return previousWindow(MetricEvent.PASS);
+    }
+
+    private long previousWindow(MetricEvent event) {
+        long now = TimeUtil.currentTimeMillis();
+        data.currentBucket(now);
+        int bucket = data.previousBucket(now);
+        if (bucket < 0) {
+            return 0;
+        }
+        return data.get(bucket, event.ordinal());
+    }
+
+    @Override
+    public void retireDeprecated(long timeMillis) {
+        data.retireDeprecatedBuckets(timeMillis);
+    }
+
+    @Override
+    public void debug() {
+        long now = TimeUtil.currentTimeMillis();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Thread_").append(Thread.currentThread().getId()).append("_");
+        for (int i = 0; i < data.getSampleCount(); i++) {
+            if (data.isBucketDeprecated(now, i)) {
+                continue;
+            }
+            sb.append(data.windowStart(i)).append(":")
+                .append("p: ").append(data.get(i, MetricEvent.PASS.ordinal()))
+                .append(", b: ").append(data.get(i, MetricEvent.BLOCK.ordinal()))
+                .append(", w: ").append(data.get(i, MetricEvent.OCCUPIED_PASS.ordinal()));
+        }
+        System.out.println(sb.toString());
+    }
+
+    private final class MetricStripedLeapArray extends StripedLeapArray {
+
+        MetricStripedLeapArray(int sampleCount, int intervalInMs, int stripeCount) {
+            super(sampleCount, intervalInMs, SLOT_COUNT, stripeCount);
+        }
+
+        @Override
+        protected long initialValue(int slot) {
+            return slot == MIN_RT_SLOT ? SentinelConfig.statisticMaxRecordedRt() : 0;
+        }
+
+        @Override
+        protected void onBucketRetired(int bucket, long windowStart) {
+            if (rollup == null) {
+                return;
+            }
+            MetricBucket target = rollup.foldTarget(windowStart);
+            if (target == null) {
+                return;
+            }
+            for (MetricEvent event : EVENTS) {
+                long count = get(bucket, event.ordinal());
+                if (count != 0) {
+                    target.add(event, count);
+                }
+            }
+        }
+
+        @Override
+        protected void onBucketReset(int bucket, long windowStart) {
+            if (borrowArray == null) {
+                return;
+            }
+            // Carry the pass that has been borrowed in advance for this window.
+            MetricBucket borrowBucket = borrowArray.getWindowValue(windowStart);
+            if (borrowBucket != null) {
+                add(bucket, MetricEvent.PASS.ordinal(), borrowBucket.pass());
+            }
+        }
+    }
+}
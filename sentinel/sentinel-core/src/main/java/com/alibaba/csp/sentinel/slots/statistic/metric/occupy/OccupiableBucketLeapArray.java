@@ -50,8 +50,7 @@ public class OccupiableBucketLeapArray extends LeapArray<MetricBucket> {
 
     @Override
     protected WindowWrap<MetricBucket> resetWindowTo(WindowWrap<MetricBucket> w, long time) {
-        // Update the start time and reset value.
-        w.resetTo(time);
+        // Reset value and update the start time.
         MetricBucket borrowBucket = borrowArray.getWindowValue(time);
         if (borrowBucket != null) {
             w.value().reset();
@@ -59,6 +58,7 @@ public class OccupiableBucketLeapArray extends LeapArray<MetricBucket> {
         } else {
             w.value().reset();
         }
+        w.resetTo(time);
 
         return w;
     }
@@ -0,0 +1,309 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.log.RecordLog;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * A {@link SystemMetricsProvider} which reads the metrics of the cgroup of current process directly from the
+ * cgroup filesystem (usually mounted at {@code /sys/fs/cgroup}), supporting both cgroup v1 and v2. The cgroup of
+ * current process is resolved from {@code /proc/self/cgroup} under the mount point, or the mount point itself
+ * if the path does not exist there (e.g. the cgroup namespace of a container, where the mount point is the
+ * cgroup of the container). The metrics are:
+ * </p>
+ * <ul>
+ * <li>CPU usage: the CPU time used in the sampling interval, relative to the CPU quota of the cgroup (or all
+ * available processors if no quota is set).</li>
+ * <li>System load: the CPU demand of the cgroup in cores, i.e. the CPU time used plus the time throttled by
+ * the quota in the sampling interval. It's comparable with the load average of a host with the same
+ * number of processors.</li>
+ * <li>Throttled ratio: the ratio of the CFS periods in which the cgroup was throttled.</li>
+ * </ul>
+ * <p>
+ * The CPU usage, system load and throttled ratio are smoothed by exponentially weighted moving average, so
+ * they're stable even if sampled every 100 milliseconds.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class CgroupSystemMetricsProvider implements SystemMetricsProvider {
+
+    public static final String DEFAULT_CGROUP_ROOT = "/sys/fs/cgroup";
+    public static final String DEFAULT_PROC_SELF_CGROUP = "/proc/self/cgroup";
+
+    private final double smoothingFactor;
+    private final boolean v2;
+    private final File cpuDir;
+    private final File cpuacctDir;
+
+    private long lastSampleNanos = -1;
+    private long lastUsageNanos;
+    private long lastThrottledNanos;
+    private long lastPeriods;
+    private long lastThrottledPeriods;
+
+    private volatile double cpuUsage = -1;
+    private volatile double load = -1;
+    private volatile double throttledRatio = -1;
+
+    /**
+     * @param cgroupRoot      the mount point of the cgroup filesystem
+     * @param smoothingFactor weight of the new sample in (0, 1], while 1 means no smoothing
+     */
+    public CgroupSystemMetricsProvider(String cgroupRoot, double smoothingFactor) {
+        this(cgroupRoot, DEFAULT_PROC_SELF_CGROUP, smoothingFactor);
+    }
+
+    /**
+     * @param cgroupRoot      the mount point of the cgroup filesystem
+     * @param procSelfCgroup  the file listing the cgroups of current process, i.e. {@code /proc/self/cgroup}
+     * @param smoothingFactor weight of the new sample in (0, 1], while 1 means no smoothing
+     */
+    public CgroupSystemMetricsProvider(String cgroupRoot, String procSelfCgroup, double smoothingFactor) {
+        AssertUtil.notEmpty(cgroupRoot, "cgroupRoot cannot be empty");
+        AssertUtil.notEmpty(procSelfCgroup, "procSelfCgroup cannot be empty");
+        AssertUtil.isTrue(smoothingFactor > 0 && smoothingFactor <= 1, "smoothingFactor should be in (0, 1]");
+        this.smoothingFactor = smoothingFactor;
+        File root = new File(cgroupRoot);
+        List<String> cgroups = readCgroupsOfProcess(new File(procSelfCgroup));
+        this.v2 = new File(root, "cgroup.controllers").exists();
+        if (v2) {
+            this.cpuDir = resolveCgroupDir(root, cgroupPathOf(cgroups, ""));
+            this.cpuacctDir = cpuDir;
+        } else {
+            this.cpuDir = resolveCgroupDir(firstExisting(root, "cpu", "cpu,cpuacct", "cpuacct,cpu"),
+                cgroupPathOf(cgroups, "cpu"));
+            this.cpuacctDir = resolveCgroupDir(firstExisting(root, "cpuacct", "cpu,cpuacct", "cpuacct,cpu"),
+                cgroupPathOf(cgroups, "cpuacct"));
+        }
+    }
+
+    private static List<String> readCgroupsOfProcess(File procSelfCgroup) {
+        try {
+            return readLines(procSelfCgroup);
+        } catch (Exception ex) {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Get the cgroup path of given controller from the lines of {@code /proc/self/cgroup}, which are in the
+     * format of {@code hierarchy-ID:controller-list:cgroup-path}. The controller list is empty for cgroup v2.
+     *
+     * @return the cgroup path, or null if not found
+     */
+    private static String cgroupPathOf(List<String> cgroups, String controller) {
+        for (String line : cgroups) {
+            String[] parts = line.trim().split(":", 3);
+            if (parts.length < 3) {
+                continue;
+            }
+            if (controller.isEmpty() ? parts[1].isEmpty() : Arrays.asList(parts[1].split(",")).contains(controller)) {
+                return parts[2];
+            }
+        }
+        return null;
+    }
+
+    private static File resolveCgroupDir(File mountDir, String path) {
+        if (path == null || path.isEmpty() || "/".equals(path)) {
+            return mountDir;
+        }
+        File dir = new File(mountDir, path);
+        return dir.isDirectory() ? dir : mountDir;
+    }
+
+    private static File firstExisting(File root, String... names) {
+        for (String name : names) {
+            File dir = new File(root, name);
+            if (dir.isDirectory()) {
+                return dir;
+            }
+        }
+        return new File(root, names[0]);
+    }
+
+    /**
+     * Check whether the CPU usage of the cgroup is readable.
+     *
+     * @return true if available
+     */
+    public boolean isAvailable() {
+        return readCpuUsageNanos() >= 0;
+    }
+
+    /**
+     * Get the CPU limit of the cgroup, in cores.
+     *
+     * @return the CPU limit, or -1 if no CPU quota is set
+     */
+    public double getCpuLimit() {
+        try {
+            if (v2) {
+                // Format: "$MAX $PERIOD", while $MAX might be "max".
+                String[] max = readFirstLine(new File(cpuDir, "cpu.max")).split("\\s+");
+                if (max.length < 2 || "max".equals(max[0])) {
+                    return -1;
+                }
+                return Long.parseLong(max[0]) * 1.0d / Long.parseLong(max[1]);
+            }
+            long quota = Long.parseLong(readFirstLine(new File(cpuDir, "cpu.cfs_quota_us")));
+            long period = Long.parseLong(readFirstLine(new File(cpuDir, "cpu.cfs_period_us")));
+            return quota > 0 && period > 0 ? quota * 1.0d / period : -1;
+        } catch (Exception ex) {
+            return -1;
+        }
+    }
+
+    @Override
+    public double getSystemAverageLoad() {
+        return load;
+    }
+
+    @Override
+    public double getCpuUsage() {
+        return cpuUsage;
+    }
+
+    /**
+     * Get the ratio of the CFS periods in which the cgroup was throttled.
+     *
+     * @return the throttled ratio in [0, 1], or -1 if not available
+     */
+    public double getThrottledRatio() {
+        return throttledRatio;
+    }
+
+    @Override
+    public void run() {
+        try {
+            sample(System.nanoTime());
+        } catch (Throwable e) {
+            RecordLog.warn("[CgroupSystemMetricsProvider] Failed to get system metrics from cgroup", e);
+        }
+    }
+
+    /**
+     * Sample the metrics at given time. Only invoked in the sampling thread.
+     *
+     * @param nowNanos current time in nanoseconds
+     */
+    void sample(long nowNanos) {
+        long usageNanos = readCpuUsageNanos();
+        if (usageNanos < 0) {
+            return;
+        }
+        long[] stat = readCpuStat();
+
+        long elapsed = nowNanos - lastSampleNanos;
+        if (lastSampleNanos >= 0 && elapsed > 0) {
+            double cpuLimit = getCpuLimit();
+            if (cpuLimit <= 0) {
+                cpuLimit = Runtime.getRuntime().availableProcessors();
+            }
+            long usedNanos = Math.max(usageNanos - lastUsageNanos, 0);
+            long throttledNanos = Math.max(stat[2] - lastThrottledNanos, 0);
+            long periods = stat[0] - lastPeriods;
+
+            cpuUsage = smooth(cpuUsage, Math.min(usedNanos / (elapsed * cpuLimit), 1.0d));
+            load = smooth(load, (usedNanos + throttledNanos) * 1.0d / elapsed);
+            if (periods > 0) {
+                throttledRatio = smooth(throttledRatio,
+                    Math.min(Math.max(stat[1] - lastThrottledPeriods, 0) * 1.0d / periods, 1.0d));
+            } else if (throttledRatio < 0) {
+                throttledRatio = 0;
+            }
+        }
+        lastSampleNanos = nowNanos;
+        lastUsageNanos = usageNanos;
+        lastPeriods = stat[0];
+        lastThrottledPeriods = stat[1];
+        lastThrottledNanos = stat[2];
+    }
+
+    private double smooth(double previous, double sample) {
+        if (previous < 0) {
+            return sample;
+        }
+        return smoothingFactor * sample + (1 - smoothingFactor) * previous;
+    }
+
+    private long readCpuUsageNanos() {
+        try {
+            if (v2) {
+                return parseKeyedValue(readLines(new File(cpuDir, "cpu.stat")), "usage_usec") * 1000;
+            }
+            return Long.parseLong(readFirstLine(new File(cpuacctDir, "cpuacct.usage")));
+        } catch (Exception ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return periods, throttled periods and throttled time in nanoseconds
+     */
+    private long[] readCpuStat() {
+        long[] stat = new long[3];
+        try {
+            List<String> lines = readLines(new File(cpuDir, "cpu.stat"));
+            stat[0] = parseKeyedValue(lines, "nr_periods");
+            stat[1] = parseKeyedValue(lines, "nr_throttled");
+            stat[2] = v2 ? parseKeyedValue(lines, "throttled_usec") * 1000 : parseKeyedValue(lines, "throttled_time");
+        } catch (Exception ex) {
+            // Throttling is not available without the CPU controller.
+        }
+        return stat;
+    }
+
+    private static long parseKeyedValue(List<String> lines, String key) {
+        for (String line : lines) {
+            String[] kv = line.trim().split("\\s+");
+            if (kv.length == 2 && key.equals(kv[0])) {
+                return Long.parseLong(kv[1]);
+            }
+        }
+        return 0;
+    }
+
+    private static String readFirstLine(File file) throws IOException {
+        List<String> lines = readLines(file);
+        return lines.isEmpty() ? "" : lines.get(0).trim();
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        return Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "CgroupSystemMetricsProvider{" +
+            "v2=" + v2 +
+            ", cpuUsage=" + cpuUsage +
+            ", load=" + load +
+            ", throttledRatio=" + throttledRatio +
+            '}';
+    }
+}
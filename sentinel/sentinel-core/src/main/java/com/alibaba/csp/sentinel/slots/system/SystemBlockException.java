@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.system;
 
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.BlockReason;
 
 /**
  * @author jialiang.linjl
@@ -34,6 +35,23 @@ public class SystemBlockException extends BlockException {
         this.resourceName = resourceName;
     }
 
+    private SystemBlockException(String resourceName, String limitType, boolean shared) {
+        super(limitType, null, null, shared);
+        this.resourceName = resourceName;
+    }
+
+    /**
+     * Create the exception shared by all requests of the resource blocked for the limit type.
+     *
+     * @param resourceName the blocked resource
+     * @param limitType    the limit type of system rule
+     * @return the shared exception
+     * @since 1.8.0
+     */
+    static SystemBlockException shared(String resourceName, String limitType) {
+        return new SystemBlockException(resourceName, limitType, true);
+    }
+
     public String getResourceName() {
         return resourceName;
     }
@@ -52,4 +70,9 @@ public class SystemBlockException extends BlockException {
     public String getLimitType() {
         return getRuleLimitApp();
     }
+
+    @Override
+    public BlockReason getReason() {
+        return BlockReason.SYSTEM;
+    }
 }
@@ -0,0 +1,49 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+/**
+ * <p>Provider of the system metrics checked by {@link SystemRule}s.</p>
+ * <p>
+ * The provider is sampled periodically by {@link SystemRuleManager} (see {@link #run()}), and the getters
+ * should return the latest sampled values without blocking.
+ * </p>
+ *
+ * @since 1.8.0
+ * @see SystemRuleManager#setSystemMetricsProvider(SystemMetricsProvider, long)
+ */
+public interface SystemMetricsProvider extends Runnable {
+
+    /**
+     * Get the system load, comparable with {@link SystemRule#getHighestSystemLoad()}.
+     *
+     * @return the system load, or a negative value if not available
+     */
+    double getSystemAverageLoad();
+
+    /**
+     * Get the CPU usage, comparable with {@link SystemRule#getHighestCpuUsage()}.
+     *
+     * @return the CPU usage in [0, 1], or a negative value if not available
+     */
+    double getCpuUsage();
+
+    /**
+     * Sample the metrics. Invoked periodically in the sampling thread of {@link SystemRuleManager}.
+     */
+    @Override
+    void run();
+}
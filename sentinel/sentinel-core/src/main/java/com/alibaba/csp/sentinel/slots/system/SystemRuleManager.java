@@ -19,18 +19,22 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import com.alibaba.csp.sentinel.Constants;
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
 import com.alibaba.csp.sentinel.property.SimplePropertyListener;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.SlotChainSpecializer;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
  * <p>
@@ -84,7 +88,8 @@ public final class SystemRuleManager {
 
     private static AtomicBoolean checkSystemStatus = new AtomicBoolean(false);
 
-    private static SystemStatusListener statusListener = null;
+    private static volatile SystemMetricsProvider metricsProvider = null;
+    private static ScheduledFuture<?> metricsSamplingFuture = null;
     private final static SystemPropertyListener listener = new SystemPropertyListener();
     private static SentinelProperty<List<SystemRule>> currentProperty = new DynamicSentinelProperty<List<SystemRule>>();
 
@@ -94,11 +99,54 @@ public final class SystemRuleManager {
 
     static {
         checkSystemStatus.set(false);
-        statusListener = new SystemStatusListener();
-        scheduler.scheduleAtFixedRate(statusListener, 0, 1, TimeUnit.SECONDS);
+        setSystemMetricsProvider(resolveSystemMetricsProvider(), SentinelConfig.systemMetricsIntervalMs());
         currentProperty.addListener(listener);
     }
 
+    private static SystemMetricsProvider resolveSystemMetricsProvider() {
+        String type = SentinelConfig.systemMetricsProvider();
+        if (!SentinelConfig.SYSTEM_METRICS_PROVIDER_CGROUP.equals(type)
+            && !SentinelConfig.SYSTEM_METRICS_PROVIDER_AUTO.equals(type)) {
+            return new SystemStatusListener();
+        }
+        CgroupSystemMetricsProvider cgroupProvider = new CgroupSystemMetricsProvider(
+            SentinelConfig.systemCgroupRoot(), SentinelConfig.systemMetricsSmoothingFactor());
+        if (SentinelConfig.SYSTEM_METRICS_PROVIDER_CGROUP.equals(type)) {
+            if (cgroupProvider.isAvailable()) {
+                return cgroupProvider;
+            }
+            RecordLog.warn("[SystemRuleManager] cgroup metrics not available, fallback to JMX system metrics");
+        } else if (cgroupProvider.isAvailable() && cgroupProvider.getCpuLimit() > 0) {
+            return cgroupProvider;
+        }
+        return new SystemStatusListener();
+    }
+
+    /**
+     * Replace the provider of the system metrics checked by system rules.
+     *
+     * @param provider   a valid system metrics provider
+     * @param intervalMs sampling interval of the provider in milliseconds, which is at least
+     *                   {@link SentinelConfig#MIN_SYSTEM_METRICS_INTERVAL_MS}
+     * @since 1.8.0
+     */
+    public static synchronized void setSystemMetricsProvider(SystemMetricsProvider provider, long intervalMs) {
+        AssertUtil.notNull(provider, "provider cannot be null");
+        AssertUtil.isTrue(intervalMs >= SentinelConfig.MIN_SYSTEM_METRICS_INTERVAL_MS,
+            "intervalMs should be at least " + SentinelConfig.MIN_SYSTEM_METRICS_INTERVAL_MS);
+        if (metricsSamplingFuture != null) {
+            metricsSamplingFuture.cancel(false);
+        }
+        metricsProvider = provider;
+        metricsSamplingFuture = scheduler.scheduleAtFixedRate(provider, 0, intervalMs, TimeUnit.MILLISECONDS);
+        RecordLog.info("[SystemRuleManager] System metrics provider: " + provider.getClass().getSimpleName()
+            + ", sampling interval: " + intervalMs + " ms");
+    }
+
+    public static SystemMetricsProvider getSystemMetricsProvider() {
+        return metricsProvider;
+    }
+
     /**
      * Listen to the {@link SentinelProperty} for {@link SystemRule}s. The property is the source
      * of {@link SystemRule}s. System rules can also be set by {@link #loadRules(List)} directly.
@@ -193,6 +241,7 @@ public final class SystemRuleManager {
             } else {
                 checkSystemStatus.set(false);
             }
+            SlotChainSpecializer.invalidate();
 
             RecordLog.info(String.format("[SystemRuleManager] Current system check status: %s, "
                     + "highestSystemLoad: %e, "
@@ -278,6 +327,7 @@ public final class SystemRuleManager {
         }
 
         checkSystemStatus.set(checkStatus);
+        SlotChainSpecializer.invalidate();
 
     }
 
@@ -288,47 +338,63 @@ public final class SystemRuleManager {
      * @throws BlockException when any system rule's threshold is exceeded.
      */
     public static void checkSystem(ResourceWrapper resourceWrapper) throws BlockException {
+        String limitType = getExceededLimitType(resourceWrapper);
+        if (limitType != null) {
+            throw new SystemBlockException(resourceWrapper.getName(), limitType);
+        }
+    }
+
+    /**
+     * Apply {@link SystemRule} to the resource. Only inbound traffic will be checked.
+     *
+     * @param resourceWrapper the resource.
+     * @return the limit type of the exceeded threshold ({@code qps}, {@code thread}, {@code rt},
+     * {@code load} or {@code cpu}), or null if no threshold is exceeded
+     * @since 1.8.0
+     */
+    static String getExceededLimitType(ResourceWrapper resourceWrapper) {
         if (resourceWrapper == null) {
-            return;
+            return null;
         }
         // Ensure the checking switch is on.
         if (!checkSystemStatus.get()) {
-            return;
+            return null;
         }
 
         // for inbound traffic only
         if (resourceWrapper.getEntryType() != EntryType.IN) {
-            return;
+            return null;
         }
 
         // total qps
         double currentQps = Constants.ENTRY_NODE == null ? 0.0 : Constants.ENTRY_NODE.successQps();
         if (currentQps > qps) {
-            throw new SystemBlockException(resourceWrapper.getName(), "qps");
+            return "qps";
         }
 
         // total thread
         int currentThread = Constants.ENTRY_NODE == null ? 0 : Constants.ENTRY_NODE.curThreadNum();
         if (currentThread > maxThread) {
-            throw new SystemBlockException(resourceWrapper.getName(), "thread");
+            return "thread";
         }
 
         double rt = Constants.ENTRY_NODE == null ? 0 : Constants.ENTRY_NODE.avgRt();
         if (rt > maxRt) {
-            throw new SystemBlockException(resourceWrapper.getName(), "rt");
+            return "rt";
         }
 
         // load. BBR algorithm.
         if (highestSystemLoadIsSet && getCurrentSystemAvgLoad() > highestSystemLoad) {
             if (!checkBbr(currentThread)) {
-                throw new SystemBlockException(resourceWrapper.getName(), "load");
+                return "load";
             }
         }
 
         // cpu usage
         if (highestCpuUsageIsSet && getCurrentCpuUsage() > highestCpuUsage) {
-            throw new SystemBlockException(resourceWrapper.getName(), "cpu");
+            return "cpu";
         }
+        return null;
     }
 
     private static boolean checkBbr(int currentThread) {
@@ -340,10 +406,10 @@ public final class SystemRuleManager {
     }
 
     public static double getCurrentSystemAvgLoad() {
-        return statusListener.getSystemAverageLoad();
+        return metricsProvider.getSystemAverageLoad();
     }
 
     public static double getCurrentCpuUsage() {
-        return statusListener.getCpuUsage();
+        return metricsProvider.getCpuUsage();
     }
 }
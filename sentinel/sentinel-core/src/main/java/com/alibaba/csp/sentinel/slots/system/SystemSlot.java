@@ -20,6 +20,8 @@ import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckSlot;
+import com.alibaba.csp.sentinel.slots.block.BlockExceptionCache;
 
 /**
  * A {@link ProcessorSlot} that dedicates to {@link SystemRule} checking.
@@ -27,15 +29,34 @@ import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
  * @author jialiang.linjl
  * @author leyou
  */
-public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class SystemSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckSlot {
+
+    /**
+     * Exceptions shared by all requests of the resource blocked for the same limit type.
+     */
+    private final BlockExceptionCache<String, SystemBlockException> blockExceptions
+        = new BlockExceptionCache<String, SystemBlockException>();
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
                       boolean prioritized, Object... args) throws Throwable {
-        SystemRuleManager.checkSystem(resourceWrapper);
+        String limitType = SystemRuleManager.getExceededLimitType(resourceWrapper);
+        if (limitType != null) {
+            SystemBlockException e = blockExceptions.get(limitType);
+            if (e == null) {
+                e = blockExceptions.cache(limitType, SystemBlockException.shared(resourceWrapper.getName(), limitType));
+            }
+            throw e;
+        }
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
     }
 
+    @Override
+    public boolean hasRules(ResourceWrapper resourceWrapper) {
+        // System rules are global, regardless of the resource.
+        return SystemRuleManager.getCheckSystemStatus();
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
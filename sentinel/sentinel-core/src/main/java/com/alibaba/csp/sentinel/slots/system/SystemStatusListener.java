@@ -24,19 +24,23 @@ import com.alibaba.csp.sentinel.util.StringUtil;
 import com.sun.management.OperatingSystemMXBean;
 
 /**
+ * The default {@link SystemMetricsProvider}, which gets the system load and CPU usage of the whole host via JMX.
+ *
  * @author jialiang.linjl
  */
-public class SystemStatusListener implements Runnable {
+public class SystemStatusListener implements SystemMetricsProvider {
 
     volatile double currentLoad = -1;
     volatile double currentCpuUsage = -1;
 
     volatile String reason = StringUtil.EMPTY;
 
+    @Override
     public double getSystemAverageLoad() {
         return currentLoad;
     }
 
+    @Override
     public double getCpuUsage() {
         return currentCpuUsage;
     }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>
+ * A clock that switches between two modes according to how frequently it is read:
+ * </p>
+ * <ul>
+ * <li>{@link Mode#TICKING}: a daemon thread refreshes a cached timestamp every millisecond,
+ * and readers only read the cached value. This is cheap under high QPS.</li>
+ * <li>{@link Mode#IDLE}: readers call {@link System#currentTimeMillis()} directly, and the tick thread
+ * is parked, so an idle process won't be woken up every millisecond.</li>
+ * </ul>
+ * <p>
+ * Every entry reads the clock several times, so the read rate follows the entry rate.
+ * In idle mode the reads are counted, and the clock switches to ticking mode once the reads in
+ * a check interval reach {@code tickingThreshold}. In ticking mode the tick thread counts the ticks
+ * in which the clock has been read, and switches back to idle mode when the count in a check interval
+ * falls below {@code idleThreshold}, so readers never write to shared counters in ticking mode.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class AdaptiveClock implements Clock {
+
+    public static final long DEFAULT_CHECK_INTERVAL_MS = 1000;
+    /**
+     * Clock reads per check interval to switch to ticking mode.
+     */
+    public static final long DEFAULT_TICKING_THRESHOLD = 1000;
+    /**
+     * Ticks (in which the clock is read) per check interval to stay in ticking mode.
+     */
+    public static final long DEFAULT_IDLE_THRESHOLD = 200;
+
+    public enum Mode {
+        IDLE, TICKING
+    }
+
+    private final long checkIntervalMs;
+    private final long tickingThreshold;
+    private final long idleThreshold;
+
+    private volatile boolean ticking = false;
+    private volatile long cachedMillis;
+    /**
+     * Set by readers in ticking mode, and cleared by the tick thread on each tick.
+     */
+    private volatile boolean touched = false;
+
+    private final AtomicLong idleReads = new AtomicLong();
+    private volatile long idleWindowStart;
+
+    /**
+     * The source of time, which is the system clock except in tests.
+     */
+    private final Clock source;
+    /**
+     * Only accessed by the tick thread.
+     */
+    private long checkStart;
+    private long touchedTicks;
+
+    private final Thread tickThread;
+
+    public AdaptiveClock() {
+        this(DEFAULT_CHECK_INTERVAL_MS, DEFAULT_TICKING_THRESHOLD, DEFAULT_IDLE_THRESHOLD);
+    }
+
+    /**
+     * @param checkIntervalMs  interval in milliseconds to check the read rate
+     * @param tickingThreshold clock reads per check interval to switch from idle mode to ticking mode
+     * @param idleThreshold    ticks in which the clock is read per check interval to stay in ticking mode
+     */
+    public AdaptiveClock(long checkIntervalMs, long tickingThreshold, long idleThreshold) {
+        this(checkIntervalMs, tickingThreshold, idleThreshold, new Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return System.currentTimeMillis();
+            }
+        }, true);
+    }
+
+    /**
+     * @param source          the source of time
+     * @param startTickThread whether to start the tick thread, or the ticks are driven by {@link #tick()}
+     *                        (only for test)
+     */
+    AdaptiveClock(long checkIntervalMs, long tickingThreshold, long idleThreshold, Clock source,
+                  boolean startTickThread) {
+        AssertUtil.isTrue(checkIntervalMs > 0, "checkIntervalMs should be positive");
+        AssertUtil.isTrue(tickingThreshold >= 0, "tickingThreshold should not be negative");
+        AssertUtil.isTrue(idleThreshold >= 0, "idleThreshold should not be negative");
+        this.checkIntervalMs = checkIntervalMs;
+        this.tickingThreshold = tickingThreshold;
+        this.idleThreshold = idleThreshold;
+        this.source = source;
+        this.cachedMillis = source.currentTimeMillis();
+        this.idleWindowStart = cachedMillis;
+
+        if (!startTickThread) {
+            this.tickThread = null;
+            return;
+        }
+        this.tickThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                tickLoop();
+            }
+        });
+        tickThread.setDaemon(true);
+        tickThread.setName("sentinel-time-tick-thread");
+        tickThread.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        if (ticking) {
+            if (!touched) {
+                touched = true;
+            }
+            return cachedMillis;
+        }
+        return readInIdleMode();
+    }
+
+    private long readInIdleMode() {
+        long now = source.currentTimeMillis();
+        if (now - idleWindowStart >= checkIntervalMs) {
+            // Racy reset is acceptable, as the count is only used as a hint.
+            idleWindowStart = now;
+            idleReads.set(0);
+        }
+        if (idleReads.incrementAndGet() >= tickingThreshold) {
+            switchToTicking(now);
+        }
+        return now;
+    }
+
+    private void switchToTicking(long now) {
+        if (ticking) {
+            return;
+        }
+        cachedMillis = now;
+        ticking = true;
+        if (tickThread != null) {
+            LockSupport.unpark(tickThread);
+        }
+    }
+
+    private void tickLoop() {
+        while (true) {
+            if (!ticking) {
+                // Park until some reader switches the clock to ticking mode.
+                LockSupport.park(this);
+                startTicking();
+                continue;
+            }
+            tick();
+            try {
+                TimeUnit.MILLISECONDS.sleep(1);
+            } catch (Throwable e) {
+
+            }
+        }
+    }
+
+    /**
+     * Start a new check interval when the tick thread is woken up.
+     */
+    void startTicking() {
+        checkStart = source.currentTimeMillis();
+        touchedTicks = 0;
+    }
+
+    /**
+     * Refresh the cached timestamp, and switch back to idle mode if the clock was rarely read
+     * in last check interval. Invoked by the tick thread every millisecond in ticking mode.
+     */
+    void tick() {
+        long now = source.currentTimeMillis();
+        cachedMillis = now;
+        if (touched) {
+            touched = false;
+            touchedTicks++;
+        }
+        if (now - checkStart >= checkIntervalMs) {
+            if (touchedTicks < idleThreshold) {
+                idleReads.set(0);
+                idleWindowStart = now;
+                ticking = false;
+            }
+            checkStart = now;
+            touchedTicks = 0;
+        }
+    }
+
+    public Mode getMode() {
+        return ticking ? Mode.TICKING : Mode.IDLE;
+    }
+}
@@ -15,38 +15,37 @@
  */
 package com.alibaba.csp.sentinel.util;
 
-import java.util.concurrent.TimeUnit;
-
 /**
  * Provides millisecond-level time of OS.
  *
+ * <p>By default the time is provided by an {@link AdaptiveClock}, which caches the time in a tick thread
+ * under high QPS, and reads the OS time directly when idle. Another {@link Clock} (e.g. a virtual clock
+ * in tests) can be provided via {@link #setClock(Clock)}.</p>
+ *
  * @author qinan.qn
  */
 public final class TimeUtil {
 
-    private static volatile long currentTimeMillis;
+    private static volatile Clock clock = new AdaptiveClock();
 
-    static {
-        currentTimeMillis = System.currentTimeMillis();
-        Thread daemon = new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (true) {
-                    currentTimeMillis = System.currentTimeMillis();
-                    try {
-                        TimeUnit.MILLISECONDS.sleep(1);
-                    } catch (Throwable e) {
+    public static long currentTimeMillis() {
+        return clock.currentTimeMillis();
+    }
 
-                    }
-                }
-            }
-        });
-        daemon.setDaemon(true);
-        daemon.setName("sentinel-time-tick-thread");
-        daemon.start();
+    public static Clock getClock() {
+        return clock;
     }
 
-    public static long currentTimeMillis() {
-        return currentTimeMillis;
+    /**
+     * Replace the clock used by Sentinel.
+     *
+     * @param clock a valid clock
+     * @since 1.8.0
+     */
+    public static void setClock(Clock clock) {
+        AssertUtil.notNull(clock, "clock cannot be null");
+        TimeUtil.clock = clock;
     }
+
+    private TimeUtil() {}
 }
@@ -1,9 +1,29 @@
 package com.alibaba.csp.sentinel;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.DefaultProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.statistic.StatisticSlot;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 import org.junit.After;
 import org.junit.Test;
@@ -94,6 +114,177 @@ public class AsyncEntryTest {
         assertSame(asyncContext, entry.getAsyncContext());
     }
 
+    @Test
+    public void testAsyncEntryWithDelayNotBlocking() throws Exception {
+        String resourceName = "testAsyncEntryWithDelayNotBlocking";
+        FlowRule rule = new FlowRule(resourceName).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(1000);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        try {
+            long start = TimeUtil.currentTimeMillis();
+            AsyncEntry first = SphU.asyncEntryWithDelay(resourceName, EntryType.IN, 1);
+            AsyncEntry second = SphU.asyncEntryWithDelay(resourceName, EntryType.IN, 1);
+            AsyncEntry third = SphU.asyncEntryWithDelay(resourceName, EntryType.IN, 1);
+            // The pass time is reserved, but the current thread is not blocked.
+            assertTrue(TimeUtil.currentTimeMillis() - start < 150);
+            // The auto entered default context is not left in current thread.
+            assertNull(ContextUtil.getContext());
+            assertEquals(0, first.getPassDelayMs());
+            assertTrue(first.isDelayAllowed());
+            assertEquals(second.getScheduledPassTime() + 100, third.getScheduledPassTime());
+            assertTrue(third.getPassDelayMs() > 100);
+
+            final CountDownLatch latch = new CountDownLatch(1);
+            third.whenPassed(new Runnable() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                }
+            });
+            assertTrue(latch.await(2, TimeUnit.SECONDS));
+            assertTrue(TimeUtil.currentTimeMillis() >= third.getScheduledPassTime());
+
+            first.exit();
+            second.exit();
+            third.exit();
+        } finally {
+            FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        }
+    }
+
+    @Test(expected = BlockException.class)
+    public void testAsyncEntryWithDelayExceedsMaxQueueingTime() throws BlockException {
+        String resourceName = "testAsyncEntryWithDelayExceedsMaxQueueingTime";
+        FlowRule rule = new FlowRule(resourceName).setCount(10)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setMaxQueueingTimeMs(150);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        try {
+            for (int i = 0; i < 4; i++) {
+                SphU.asyncEntryWithDelay(resourceName, EntryType.IN, 1).exit();
+            }
+        } finally {
+            FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        }
+    }
+
+    @Test
+    public void testDeferredCheck() {
+        Context context = new Context(null, "abc");
+        AsyncEntry entry = new AsyncEntry(new StringResourceWrapper("testDeferredCheck", EntryType.IN),
+            null, context, true);
+        final List<String> decisions = new ArrayList<>();
+        AsyncEntry.PassDecisionCallback callback = new AsyncEntry.PassDecisionCallback() {
+            @Override
+            public void onPass() {
+                decisions.add("pass");
+            }
+
+            @Override
+            public void onBlocked(BlockException ex) {
+                decisions.add(ex.getRuleLimitApp());
+            }
+        };
+
+        entry.deferCheck();
+        entry.deferCheck();
+        entry.whenDecided(callback);
+        entry.whenPassed(new Runnable() {
+            @Override
+            public void run() {
+                decisions.add("task");
+            }
+        });
+        entry.completeDeferredCheck(null);
+        assertFalse(entry.isPassDecided());
+        assertTrue(decisions.isEmpty());
+
+        entry.completeDeferredCheck(new FlowException("blocked"));
+        assertTrue(entry.isPassDecided());
+        // The task is not run if blocked.
+        assertEquals(Collections.singletonList("blocked"), decisions);
+        // Decided callbacks are invoked in current thread.
+        entry.whenDecided(callback);
+        assertEquals(Arrays.asList("blocked", "blocked"), decisions);
+        assertNotNull(entry.getDeferredBlockException());
+
+        AsyncEntry passed = new AsyncEntry(new StringResourceWrapper("testDeferredCheck", EntryType.IN),
+            null, context, true);
+        passed.deferCheck();
+        passed.whenDecided(callback);
+        passed.completeDeferredCheck(null);
+        // Redundant completion is ignored.
+        passed.completeDeferredCheck(new FlowException("blocked"));
+        assertEquals(Arrays.asList("blocked", "blocked", "pass"), decisions);
+        assertNull(passed.getDeferredBlockException());
+    }
+
+    @Test
+    public void testDeferredCheckCountedOnceDecided() throws Throwable {
+        ContextUtil.enter("testDeferredCheckCountedOnceDecided");
+        Context context = ContextUtil.getContext();
+        ResourceWrapper resource = new StringResourceWrapper("testDeferredCheckCountedOnceDecided", EntryType.OUT);
+        ProcessorSlotChain chain = new DefaultProcessorSlotChain();
+        chain.addLast(new StatisticSlot());
+        chain.addLast(new DeferringSlot());
+        DefaultNode node = new DefaultNode(resource, new ClusterNode(resource.getName()));
+
+        AsyncEntry blocked = enterDeferred(chain, context, resource, node);
+        assertEquals(0, node.passQps(), 0.01);
+        blocked.completeDeferredCheck(new FlowException("default"));
+        // Counted as blocked rather than passed.
+        assertEquals(0, node.passQps(), 0.01);
+        assertEquals(1, node.blockQps(), 0.01);
+        assertEquals(0, node.curThreadNum());
+        blocked.exit();
+        assertEquals(0, node.curThreadNum());
+        assertEquals(0, node.successQps(), 0.01);
+
+        AsyncEntry passed = enterDeferred(chain, context, resource, node);
+        passed.completeDeferredCheck(null);
+        assertEquals(1, node.passQps(), 0.01);
+        assertEquals(1, node.curThreadNum());
+        passed.exit();
+        assertEquals(0, node.curThreadNum());
+        assertEquals(1, node.successQps(), 0.01);
+
+        // Exit (e.g. cancelled) before the pass is decided.
+        AsyncEntry cancelled = enterDeferred(chain, context, resource, node);
+        cancelled.exit();
+        assertTrue(cancelled.isExitedBeforeDecided());
+        cancelled.completeDeferredCheck(null);
+        assertEquals(1, node.passQps(), 0.01);
+        assertEquals(1, node.blockQps(), 0.01);
+        assertEquals(0, node.curThreadNum());
+        assertEquals(1, node.successQps(), 0.01);
+    }
+
+    private AsyncEntry enterDeferred(ProcessorSlotChain chain, Context context, ResourceWrapper resource,
+                                     DefaultNode node) throws Throwable {
+        AsyncEntry entry = new AsyncEntry(resource, chain, context, true);
+        entry.setCurNode(node);
+        chain.entry(context, resource, node, 1, false);
+        entry.cleanCurrentEntryInLocal();
+        entry.initAsyncContext();
+        return entry;
+    }
+
+    private static class DeferringSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+
+        @Override
+        public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
+                          boolean prioritized, Object... args) throws Throwable {
+            ((AsyncEntry)context.getCurEntry()).deferCheck();
+            fireEntry(context, resourceWrapper, node, count, prioritized, args);
+        }
+
+        @Override
+        public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+            fireExit(context, resourceWrapper, count, args);
+        }
+    }
+
     @After
     public void tearDown() {
         ContextTestUtil.cleanUpContext();
@@ -1,10 +1,14 @@
 package com.alibaba.csp.sentinel;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.context.NullContext;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
 
 import org.junit.After;
@@ -94,6 +98,104 @@ public class CtEntryTest {
         }
     }
 
+    @Test
+    public void testExitHandlersInvokedOnce() {
+        String contextName = "context-rpc";
+        ContextUtil.enter(contextName);
+        Context context = ContextUtil.getContext();
+        try {
+            final AtomicInteger exitCount = new AtomicInteger();
+            CtEntry entry = new CtEntry(new StringResourceWrapper("resA", EntryType.IN), null, context);
+            entry.whenTerminate(new Entry.ExitHandler() {
+                @Override
+                public void onExit(Context context, Entry entry) {
+                    exitCount.incrementAndGet();
+                }
+            });
+            entry.exit();
+            assertEquals(1, exitCount.get());
+            // The entry has been exited, won't invoke again.
+            entry.exit();
+            assertEquals(1, exitCount.get());
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testExitHandlersInvokedOnMismatchedExit() {
+        String contextName = "context-rpc";
+        ContextUtil.enter(contextName);
+        Context context = ContextUtil.getContext();
+        final AtomicInteger exitCount = new AtomicInteger();
+        CtEntry entry = null;
+        try {
+            entry = new CtEntry(new StringResourceWrapper("resA", EntryType.IN), null, context);
+            entry.whenTerminate(new Entry.ExitHandler() {
+                @Override
+                public void onExit(Context context, Entry entry) {
+                    exitCount.incrementAndGet();
+                }
+            });
+            // The call stack has been cleaned up by someone else, so the entry is no longer in it.
+            context.setCurEntry(null);
+            entry.exit();
+            fail("Mismatch entry-exit should throw an ErrorEntryFreeException");
+        } catch (ErrorEntryFreeException ex) {
+            assertEquals(1, exitCount.get());
+            assertNull(entry.context);
+            // The entry has been exited, won't invoke again.
+            entry.exit();
+            assertEquals(1, exitCount.get());
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    @Test
+    public void testExitHandlersOfForceExitedEntries() {
+        String contextName = "context-rpc";
+        ContextUtil.enter(contextName);
+        Context context = ContextUtil.getContext();
+        final AtomicInteger exitCount = new AtomicInteger();
+        Entry.ExitHandler handler = new Entry.ExitHandler() {
+            @Override
+            public void onExit(Context context, Entry entry) {
+                exitCount.incrementAndGet();
+            }
+        };
+        AbstractLinkedProcessorSlot<Object> failingChain = new AbstractLinkedProcessorSlot<Object>() {
+            @Override
+            public void entry(Context context, ResourceWrapper resourceWrapper, Object param, int count,
+                              boolean prioritized, Object... args) {
+            }
+
+            @Override
+            public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+                throw new IllegalStateException("mock failure");
+            }
+        };
+        CtEntry entry1 = null;
+        try {
+            entry1 = new CtEntry(new StringResourceWrapper("res1", EntryType.IN), null, context);
+            entry1.whenTerminate(handler);
+            CtEntry entry2 = new CtEntry(new StringResourceWrapper("res2", EntryType.IN), failingChain, context);
+            entry2.whenTerminate(handler);
+            CtEntry entry3 = new CtEntry(new StringResourceWrapper("res3", EntryType.IN), null, context);
+            entry3.whenTerminate(handler);
+
+            // Forget to exit for entry 3 and entry 2, and the slot chain of entry 2 fails on exit.
+            entry1.exit();
+            fail("Mismatch entry-exit should throw an ErrorEntryFreeException");
+        } catch (ErrorEntryFreeException ex) {
+            assertEquals(3, exitCount.get());
+            assertNull(entry1.context);
+            assertNull(context.getCurEntry());
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
     @Test
     public void testEntryAndExitWithNullContext() {
         Context context = new NullContext();
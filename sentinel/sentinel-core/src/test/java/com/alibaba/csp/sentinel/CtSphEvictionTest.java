@@ -0,0 +1,194 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slotchain.ProcessorSlotChain;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for eviction of resources in {@link CtSph}.
+ */
+public class CtSphEvictionTest extends AbstractTimeBasedTest {
+
+    private static final String CONTEXT_NAME = "eviction-test-context";
+
+    private final CtSph ctSph = new CtSph();
+
+    @Before
+    public void setUp() {
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_MAX_COUNT, "32");
+        resetAll();
+        setCurrentMillis(100000);
+    }
+
+    @After
+    public void tearDown() {
+        SentinelConfig.removeConfig(SentinelConfig.RESOURCE_MAX_COUNT);
+        SentinelConfig.removeConfig(SentinelConfig.RESOURCE_IDLE_TIMEOUT_MS);
+        resetAll();
+    }
+
+    private void resetAll() {
+        ContextTestUtil.cleanUpContext();
+        ContextTestUtil.resetContextMap();
+        CtSph.resetChainMap();
+        ClusterBuilderSlot.getClusterNodeMap().clear();
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsedResources() throws BlockException {
+        for (int i = 0; i < 32; i++) {
+            access("res-" + i);
+            sleep(1000);
+        }
+        assertEquals(32, CtSph.entrySize());
+        // Make res-0 the most recently used one.
+        access("res-0");
+        sleep(1000);
+
+        // Eviction happens in batch of 1/16 of max count.
+        access("new-res");
+        assertEquals(31, CtSph.entrySize());
+        assertResourcePresent("res-0");
+        assertResourceAbsent("res-1");
+        assertResourceAbsent("res-2");
+        assertResourcePresent("res-3");
+        assertResourcePresent("new-res");
+    }
+
+    @Test
+    public void testResourceWithActiveEntriesNotEvicted() throws BlockException {
+        ContextUtil.enter(CONTEXT_NAME);
+        Entry active = ctSph.entry("res-active", EntryType.IN, 1);
+        active.exit();
+        // Hold an async entry of the oldest resource.
+        AsyncEntry asyncEntry = ctSph.asyncEntry("res-active", EntryType.IN, 1);
+        ContextUtil.exit();
+        sleep(1000);
+        for (int i = 1; i < 32; i++) {
+            access("res-" + i);
+            sleep(1000);
+        }
+
+        access("new-res");
+        assertResourcePresent("res-active");
+        assertResourceAbsent("res-1");
+        assertResourceAbsent("res-2");
+        asyncEntry.exit();
+    }
+
+    @Test
+    public void testAcquiredSlotChainNotEvicted() throws BlockException {
+        // An entry between NodeSelectorSlot and StatisticSlot has acquired the slot chain,
+        // but it's not counted in the thread number of the cluster node yet.
+        ProcessorSlotChain chain = ctSph.lookProcessChain(new StringResourceWrapper("res-entering", EntryType.IN));
+        assertTrue(chain.tryAcquire());
+        sleep(1000);
+        for (int i = 1; i < 32; i++) {
+            access("res-" + i);
+            sleep(1000);
+        }
+
+        access("new-res");
+        assertTrue(CtSph.getChainMap().containsKey(new StringResourceWrapper("res-entering", EntryType.IN)));
+        assertResourceAbsent("res-1");
+        assertResourceAbsent("res-2");
+
+        chain.release();
+        assertTrue(chain.tryEvict());
+        // An evicted slot chain can't be acquired by new entries.
+        assertFalse(chain.tryAcquire());
+    }
+
+    @Test
+    public void testIdleResourcesEvictedOnRegistration() throws BlockException {
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_IDLE_TIMEOUT_MS, "60000");
+        access("res-idle");
+        sleep(30000);
+        access("res-warm");
+        sleep(31000);
+        access("new-res");
+
+        assertResourceAbsent("res-idle");
+        assertResourcePresent("res-warm");
+        assertResourcePresent("new-res");
+        assertEquals(2, CtSph.entrySize());
+    }
+
+    @Test
+    public void testEvictedResourceRecreatedOnAccess() throws BlockException {
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_IDLE_TIMEOUT_MS, "60000");
+        access("res-a");
+        sleep(61000);
+        access("res-b");
+        assertResourceAbsent("res-a");
+
+        access("res-a");
+        assertResourcePresent("res-a");
+        assertEquals(1, ClusterBuilderSlot.getClusterNode("res-a").totalRequest());
+        assertEquals(1, countDefaultNodes("res-a"));
+    }
+
+    private void access(String resourceName) throws BlockException {
+        ContextUtil.enter(CONTEXT_NAME);
+        try {
+            ctSph.entry(resourceName, EntryType.IN, 1).exit();
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    private void assertResourcePresent(String resourceName) {
+        ResourceWrapper resource = new StringResourceWrapper(resourceName, EntryType.IN);
+        assertTrue(CtSph.getChainMap().containsKey(resource));
+        assertNotNull(ClusterBuilderSlot.getClusterNode(resourceName));
+        assertEquals(1, countDefaultNodes(resourceName));
+    }
+
+    private void assertResourceAbsent(String resourceName) {
+        ResourceWrapper resource = new StringResourceWrapper(resourceName, EntryType.IN);
+        assertFalse(CtSph.getChainMap().containsKey(resource));
+        assertNull(ClusterBuilderSlot.getClusterNode(resourceName));
+        assertEquals(0, countDefaultNodes(resourceName));
+    }
+
+    private int countDefaultNodes(String resourceName) {
+        int count = 0;
+        for (Node entranceNode : Constants.ROOT.getChildList()) {
+            for (Node node : ((DefaultNode)entranceNode).getChildList()) {
+                if (((DefaultNode)node).getId().getName().equals(resourceName)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+}
@@ -1,5 +1,6 @@
 package com.alibaba.csp.sentinel;
 
+import com.alibaba.csp.sentinel.config.SentinelConfig;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.context.ContextTestUtil;
 import com.alibaba.csp.sentinel.context.ContextUtil;
@@ -219,6 +220,7 @@ public class CtSphTest {
     }
 
     private void testEntryAmountExceeded(boolean async) {
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_EVICTION_ENABLED, "false");
         fillFullResources();
         Entry entry = null;
         try {
@@ -262,6 +264,7 @@ public class CtSphTest {
         assertNotNull("The slot chain for r1 should be created", chainR1);
         assertSame("Should return the cached slot chain once it has been created", chainR1, ctSph.lookProcessChain(r1));
 
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_EVICTION_ENABLED, "false");
         fillFullResources();
         ResourceWrapper r2 = new StringResourceWrapper("secondRes", EntryType.IN);
         assertFalse(CtSph.getChainMap().containsKey(r2));
@@ -269,6 +272,21 @@ public class CtSphTest {
         assertNull(ctSph.lookProcessChain(r2));
     }
 
+    @Test
+    public void testLookUpSlotChainEvictsWhenAmountExceeded() {
+        ResourceWrapper r1 = new StringResourceWrapper("firstRes", EntryType.IN);
+        ProcessorSlot<Object> chainR1 = ctSph.lookProcessChain(r1);
+        fillFullResources();
+        ResourceWrapper r2 = new StringResourceWrapper("secondRes", EntryType.IN);
+        ProcessorSlot<Object> chainR2 = ctSph.lookProcessChain(r2);
+        assertNotNull("The slot chain for r2 should be created after evicting cold resources", chainR2);
+        assertSame(chainR2, ctSph.lookProcessChain(r2));
+        // Filled resources have never been accessed, so they are evicted first.
+        assertSame(chainR1, ctSph.lookProcessChain(r1));
+        int batch = Constants.MAX_SLOT_CHAIN_SIZE / 16;
+        assertEquals(Constants.MAX_SLOT_CHAIN_SIZE + 1 - batch, CtSph.entrySize());
+    }
+
     private void fillFullContext() {
         for (int i = 0; i < Constants.MAX_CONTEXT_NAME_SIZE; i++) {
             ContextUtil.enter("test-context-" + i);
@@ -358,6 +376,7 @@ public class CtSphTest {
 
     @After
     public void tearDown() throws Exception {
+        SentinelConfig.removeConfig(SentinelConfig.RESOURCE_EVICTION_ENABLED);
         ContextTestUtil.cleanUpContext();
         ContextTestUtil.resetContextMap();
         CtSph.resetChainMap();
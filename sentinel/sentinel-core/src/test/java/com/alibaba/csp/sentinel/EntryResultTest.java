@@ -0,0 +1,172 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.BlockReason;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRule;
+import com.alibaba.csp.sentinel.slots.block.authority.AuthorityRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link EntryResult} and the non-throwing entry API.
+ */
+public class EntryResultTest {
+
+    @Before
+    public void setUp() {
+        ContextTestUtil.cleanUpContext();
+        CtSph.resetChainMap();
+    }
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        AuthorityRuleManager.loadRules(Collections.<AuthorityRule>emptyList());
+        ContextTestUtil.cleanUpContext();
+        CtSph.resetChainMap();
+    }
+
+    @Test
+    public void testTryEntryPassed() {
+        EntryResult result = SphU.tryEntry("tryEntryPassed");
+        assertTrue(result.isPassed());
+        assertFalse(result.isBlocked());
+        assertNotNull(result.getEntry());
+        assertNull(result.getBlockException());
+        assertNull(result.getRule());
+        assertNull(result.getReason());
+
+        result.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testTryEntryBlockedByFlowRule() {
+        String resourceName = "tryEntryBlockedByFlowRule";
+        FlowRule rule = new FlowRule(resourceName).setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        EntryResult result = SphU.tryEntry(resourceName, EntryType.IN);
+        assertTrue(result.isBlocked());
+        assertNull(result.getEntry());
+        assertEquals(BlockReason.FLOW, result.getReason());
+        assertEquals(rule, result.getRule());
+        assertTrue(result.getBlockException() instanceof FlowException);
+        // Exit of a blocked result does nothing.
+        result.exit();
+        assertNull(ContextUtil.getContext());
+    }
+
+    @Test
+    public void testTryEntryViaHandle() {
+        String resourceName = "tryEntryViaHandle";
+        ResourceHandle handle = SphU.resource(resourceName, EntryType.IN);
+        EntryResult result = handle.tryEntry();
+        assertTrue(result.isPassed());
+        result.exit();
+
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+        result = handle.tryEntry(1);
+        assertTrue(result.isBlocked());
+        assertEquals(BlockReason.FLOW, result.getReason());
+        assertEquals(1, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test
+    public void testBlockExceptionSharedByRule() {
+        String resourceName = "blockExceptionSharedByRule";
+        FlowRuleManager.loadRules(Collections.singletonList(new FlowRule(resourceName).setCount(0)));
+
+        BlockException first = SphU.tryEntry(resourceName).getBlockException();
+        BlockException second = catchBlockException(resourceName);
+        assertNotNull(first);
+        assertSame(first, second);
+
+        // Shared exceptions should not retain anything of the requests.
+        first.addSuppressed(new RuntimeException());
+        assertEquals(0, first.getSuppressed().length);
+        assertEquals(0, first.getStackTrace().length);
+        assertNull(first.getCause());
+        assertTrue(first.isShared());
+
+        // Setting the cause or the limit app must neither throw nor change the shared exception.
+        assertSame(first, first.initCause(new RuntimeException()));
+        assertNull(first.getCause());
+        String limitApp = first.getRuleLimitApp();
+        first.setRuleLimitApp("other");
+        assertEquals(limitApp, first.getRuleLimitApp());
+
+        FlowException own = new FlowException("default");
+        assertFalse(own.isShared());
+        RuntimeException cause = new RuntimeException();
+        own.initCause(cause);
+        assertSame(cause, own.getCause());
+    }
+
+    @Test
+    public void testAuthorityBlockExceptionSharedByOrigin() {
+        String resourceName = "authorityBlockExceptionSharedByOrigin";
+        AuthorityRule rule = new AuthorityRule();
+        rule.setResource(resourceName);
+        rule.setLimitApp("appA,appB");
+        rule.setStrategy(RuleConstant.AUTHORITY_BLACK);
+        AuthorityRuleManager.loadRules(Collections.singletonList(rule));
+
+        BlockException a1 = tryEntryWithOrigin(resourceName, "appA");
+        BlockException a2 = tryEntryWithOrigin(resourceName, "appA");
+        BlockException b = tryEntryWithOrigin(resourceName, "appB");
+        assertNotNull(a1);
+        assertSame(a1, a2);
+        assertNotSame(a1, b);
+        assertEquals("appA", a1.getRuleLimitApp());
+        assertEquals("appB", b.getRuleLimitApp());
+        assertEquals(BlockReason.AUTHORITY, b.getReason());
+    }
+
+    private BlockException tryEntryWithOrigin(String resourceName, String origin) {
+        ContextUtil.enter("authorityContext", origin);
+        try {
+            EntryResult result = SphU.tryEntry(resourceName, EntryType.IN);
+            result.exit();
+            return result.getBlockException();
+        } finally {
+            ContextUtil.exit();
+        }
+    }
+
+    private BlockException catchBlockException(String resourceName) {
+        try {
+            SphU.entry(resourceName).exit();
+            return null;
+        } catch (BlockException e) {
+            return e;
+        }
+    }
+}
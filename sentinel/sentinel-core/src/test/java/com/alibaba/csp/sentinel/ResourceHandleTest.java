@@ -0,0 +1,123 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel;
+
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.context.ContextUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowException;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ResourceHandle}.
+ */
+public class ResourceHandleTest extends AbstractTimeBasedTest {
+
+    @Before
+    public void setUp() {
+        ContextTestUtil.cleanUpContext();
+        CtSph.resetChainMap();
+    }
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(Collections.<FlowRule>emptyList());
+        SentinelConfig.removeConfig(SentinelConfig.RESOURCE_MAX_COUNT);
+        SentinelConfig.removeConfig(SentinelConfig.RESOURCE_IDLE_TIMEOUT_MS);
+        ContextTestUtil.cleanUpContext();
+        CtSph.resetChainMap();
+    }
+
+    @Test
+    public void testEntryViaHandle() throws BlockException {
+        ResourceHandle handle = SphU.resource("handleResource", EntryType.IN);
+        assertEquals("handleResource", handle.getName());
+        assertTrue(CtSph.getChainMap().containsKey(handle.getResourceWrapper()));
+
+        ContextUtil.enter("handleContext");
+        Entry e = handle.entry();
+        assertSame(handle.getResourceWrapper(), e.getResourceWrapper());
+        assertSame(e, ContextUtil.getContext().getCurEntry());
+        e.exit();
+        ContextUtil.exit();
+
+        assertNotNull(handle.getClusterNode());
+        assertEquals(1, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test
+    public void testHandleSharesChainWithName() throws BlockException {
+        ResourceHandle handle = SphU.resource("sharedResource", EntryType.OUT);
+        SphU.entry("sharedResource").exit();
+        handle.entry().exit();
+
+        assertEquals(1, CtSph.entrySize());
+        assertEquals(2, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test(expected = FlowException.class)
+    public void testHandleBlockedByRule() throws BlockException {
+        ResourceHandle handle = SphU.resource("blockedResource", EntryType.IN);
+        FlowRule rule = new FlowRule("blockedResource").setCount(0);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+
+        handle.entry();
+    }
+
+    @Test
+    public void testEntryViaHandleRecordsAccess() throws BlockException {
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_MAX_COUNT, "16");
+        setCurrentMillis(100000);
+        ResourceHandle handle = SphU.resource("hotHandleResource", EntryType.IN);
+        for (int i = 0; i < 32; i++) {
+            sleep(1000);
+            handle.entry().exit();
+            SphU.entry("dynamicResource-" + i).exit();
+        }
+        // The resource is used via the handle all the time, so it's never the least recently used one.
+        assertTrue(CtSph.getChainMap().containsKey(handle.getResourceWrapper()));
+        assertEquals(32, handle.getClusterNode().totalSuccess());
+    }
+
+    @Test
+    public void testHandleResolvedAgainAfterEviction() throws BlockException {
+        SentinelConfig.setConfig(SentinelConfig.RESOURCE_MAX_COUNT, "16");
+        setCurrentMillis(100000);
+        ResourceHandle handle = SphU.resource("evictedResource", EntryType.IN);
+        handle.entry().exit();
+        sleep(1000);
+        for (int i = 0; i < 64; i++) {
+            SphU.entry("dynamicResource-" + i).exit();
+        }
+        // The handle doesn't keep the resource from being evicted.
+        assertFalse(CtSph.getChainMap().containsKey(handle.getResourceWrapper()));
+
+        handle.entry().exit();
+        assertTrue(CtSph.getChainMap().containsKey(handle.getResourceWrapper()));
+        assertEquals(1, handle.getClusterNode().totalSuccess());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.node;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.WarmUpController;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for lazy minute-level statistics of {@link StatisticNode} and {@link NodeMemoryEstimator}.
+ */
+public class LazyMinuteStatisticTest {
+
+    @Before
+    public void setUp() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_MINUTE_LAZY, "true");
+    }
+
+    @After
+    public void tearDown() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_MINUTE_LAZY, "false");
+    }
+
+    @Test
+    public void testMinuteStatisticsAllocatedOnFirstRead() {
+        StatisticNode node = new StatisticNode();
+        assertFalse(node.hasMinuteStatistics());
+
+        node.addPassRequest(2);
+        node.increaseBlockQps(1);
+        node.addRtAndSuccess(10, 1);
+        // Second-level statistics are not affected, and writes do not allocate the minute-level statistics.
+        assertEquals(2, node.passQps(), 0.01);
+        assertFalse(node.hasMinuteStatistics());
+
+        // Requests before the first read are not recorded.
+        assertEquals(0, node.totalRequest());
+        assertTrue(node.hasMinuteStatistics());
+
+        node.addPassRequest(3);
+        node.increaseBlockQps(1);
+        assertEquals(3, node.totalPass());
+        assertEquals(4, node.totalRequest());
+    }
+
+    @Test
+    public void testMinuteStatisticsAllocatedByAnyRead() {
+        StatisticNode node = new StatisticNode();
+        assertTrue(node.metrics().isEmpty());
+        assertTrue(node.hasMinuteStatistics());
+
+        node = new StatisticNode();
+        node.rawMetricsInMin(null);
+        assertTrue(node.hasMinuteStatistics());
+
+        node = new StatisticNode();
+        assertEquals(0, node.previousPassQps(), 0.01);
+        assertTrue(node.hasMinuteStatistics());
+    }
+
+    @Test
+    public void testWarmUpControllerAllocatesMinuteStatistics() {
+        StatisticNode node = new StatisticNode();
+        new WarmUpController(10, 10, 3).canPass(node, 1);
+        assertTrue(node.hasMinuteStatistics());
+    }
+
+    @Test
+    public void testClusterNodeAlwaysEager() {
+        ClusterNode clusterNode = new ClusterNode("testClusterNodeAlwaysEager");
+        assertTrue(clusterNode.hasMinuteStatistics());
+        clusterNode.addPassRequest(1);
+        assertEquals(1, clusterNode.totalPass());
+
+        assertFalse(((StatisticNode)clusterNode.getOrCreateOriginNode("app")).hasMinuteStatistics());
+        DefaultNode defaultNode = new DefaultNode(new StringResourceWrapper("testClusterNodeAlwaysEager",
+            EntryType.IN), clusterNode);
+        assertFalse(defaultNode.hasMinuteStatistics());
+    }
+
+    @Test
+    public void testEagerByDefault() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_MINUTE_LAZY, "false");
+        assertTrue(new StatisticNode().hasMinuteStatistics());
+    }
+
+    @Test
+    public void testEstimateMemory() {
+        StatisticNode node = new StatisticNode();
+        long lazySize = NodeMemoryEstimator.estimate(node);
+        assertTrue(lazySize > 0);
+
+        node.totalRequest();
+        long eagerSize = NodeMemoryEstimator.estimate(node);
+        assertEquals(NodeMemoryEstimator.estimateMetric(60, false), eagerSize - lazySize);
+        assertTrue(eagerSize > lazySize * 4);
+    }
+}
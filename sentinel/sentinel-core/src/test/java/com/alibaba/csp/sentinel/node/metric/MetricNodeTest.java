@@ -34,4 +34,40 @@ public class MetricNodeTest {
         assertEquals(2, node.getConcurrency());
         assertEquals(1, node.getSuccessQps());
     }
+
+    @Test
+    public void testRtPercentilesInThinString() {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1564382218000L);
+        node.setResource("foo");
+        node.setPassQps(10);
+        node.setRtP50(3).setRtP90(7).setRtP99(15).setRtP999(30);
+
+        MetricNode parsed = MetricNode.fromThinString(node.toThinString(true));
+        assertEquals(10, parsed.getPassQps());
+        assertEquals(3, parsed.getRtP50());
+        assertEquals(7, parsed.getRtP90());
+        assertEquals(15, parsed.getRtP99());
+        assertEquals(30, parsed.getRtP999());
+
+        // Lines without percentiles are still supported.
+        MetricNode legacy = MetricNode.fromThinString("1564382218000|foo|1|0|1|0|0|0|2|1");
+        assertEquals(0, legacy.getRtP99());
+        assertEquals(1, legacy.getClassification());
+    }
+
+    @Test
+    public void testDefaultFormatsKeepLegacyFieldCount() {
+        MetricNode node = new MetricNode();
+        node.setTimestamp(1564382218000L);
+        node.setResource("foo");
+        node.setRtP99(15);
+
+        assertEquals(10, node.toThinString().split("\\|").length);
+        assertEquals(11, node.toFatString().trim().split("\\|").length);
+        assertEquals(14, node.toThinString(true).split("\\|").length);
+
+        MetricNode parsed = MetricNode.fromFatString(node.toFatString(true).trim());
+        assertEquals(15, parsed.getRtP99());
+    }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slotchain;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowSlot;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for slot chain specialization of {@link DefaultProcessorSlotChain}.
+ */
+public class DefaultProcessorSlotChainTest {
+
+    private final ResourceWrapper resource = new StringResourceWrapper("testSlotChainSpecialization", EntryType.IN);
+
+    @After
+    public void tearDown() {
+        FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+    }
+
+    @Test
+    public void testBypassSlotsWithoutRules() throws Throwable {
+        List<String> trace = new ArrayList<>();
+        RecordingSlot head = new RecordingSlot("head", trace);
+        RuleSlot ruleSlot = new RuleSlot("rule", trace);
+        RecordingSlot tail = new RecordingSlot("tail", trace);
+        DefaultProcessorSlotChain chain = new DefaultProcessorSlotChain();
+        chain.addLast(head);
+        chain.addLast(ruleSlot);
+        chain.addLast(tail);
+
+        chain.entry(null, resource, null, 1, false);
+        chain.exit(null, resource, 1);
+        assertEquals(listOf("head", "tail", "exit:head", "exit:tail"), trace);
+
+        // Not re-linked until rules are updated.
+        ruleSlot.hasRules = true;
+        trace.clear();
+        chain.entry(null, resource, null, 1, false);
+        assertEquals(listOf("head", "tail"), trace);
+
+        SlotChainSpecializer.invalidate();
+        trace.clear();
+        chain.entry(null, resource, null, 1, false);
+        chain.exit(null, resource, 1);
+        assertEquals(listOf("head", "rule", "tail", "exit:head", "exit:rule", "exit:tail"), trace);
+
+        ruleSlot.hasRules = false;
+        SlotChainSpecializer.invalidate();
+        trace.clear();
+        chain.entry(null, resource, null, 1, false);
+        assertEquals(listOf("head", "tail"), trace);
+    }
+
+    @Test
+    public void testRelinkWhenFlowRulesLoaded() throws Throwable {
+        FlowSlot flowSlot = new FlowSlot();
+        DefaultProcessorSlotChain chain = new DefaultProcessorSlotChain();
+        chain.addLast(flowSlot);
+        chain.entry(null, resource, null, 1, false);
+        assertNull(chain.getNext());
+
+        FlowRule rule = new FlowRule(resource.getName());
+        rule.setCount(10);
+        FlowRuleManager.loadRules(Collections.singletonList(rule));
+        chain.specialize(resource);
+        assertSame(flowSlot, chain.getNext());
+    }
+
+    private static List<String> listOf(String... items) {
+        List<String> list = new ArrayList<>();
+        Collections.addAll(list, items);
+        return list;
+    }
+
+    private static class RecordingSlot extends AbstractLinkedProcessorSlot<Object> {
+
+        private final String name;
+        private final List<String> trace;
+
+        RecordingSlot(String name, List<String> trace) {
+            this.name = name;
+            this.trace = trace;
+        }
+
+        @Override
+        public void entry(Context context, ResourceWrapper resourceWrapper, Object param, int count,
+                          boolean prioritized, Object... args) throws Throwable {
+            trace.add(name);
+            fireEntry(context, resourceWrapper, param, count, prioritized, args);
+        }
+
+        @Override
+        public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
+            trace.add("exit:" + name);
+            fireExit(context, resourceWrapper, count, args);
+        }
+    }
+
+    private static class RuleSlot extends RecordingSlot implements RuleCheckSlot {
+
+        private volatile boolean hasRules = false;
+
+        RuleSlot(String name, List<String> trace) {
+            super(name, trace);
+        }
+
+        @Override
+        public boolean hasRules(ResourceWrapper resourceWrapper) {
+            return hasRules;
+        }
+    }
+}
@@ -61,5 +61,16 @@ public class DegradeRuleManagerTest {
         assertFalse(DegradeRuleManager.isValidRule(rule4));
         assertFalse(DegradeRuleManager.isValidRule(rule5));
         assertFalse(DegradeRuleManager.isValidRule(rule6));
+
+        DegradeRule rule7 = new DegradeRule("Sentinel")
+            .setCount(100)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+            .setTimeWindow(10);
+        assertTrue(DegradeRuleManager.isValidRule(rule7));
+        assertFalse(DegradeRuleManager.isValidRule(rule7.setSlowRatioThreshold(1.2d)));
+        assertTrue(DegradeRuleManager.isValidRule(rule7.setSlowRatioThreshold(0.6d)));
+        assertFalse(DegradeRuleManager.isValidRule(rule7.setStatIntervalMs(-1)));
+        assertTrue(DegradeRuleManager.isValidRule(rule7.setStatIntervalMs(500)));
+        assertFalse(DegradeRuleManager.isValidRule(rule7.setProbeRequestAmount(0)));
     }
 }
\ No newline at end of file
@@ -15,139 +15,294 @@
  */
 package com.alibaba.csp.sentinel.slots.block.degrade;
 
-import com.alibaba.csp.sentinel.EntryType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.Tracer;
 import com.alibaba.csp.sentinel.context.Context;
-import com.alibaba.csp.sentinel.node.ClusterNode;
-import com.alibaba.csp.sentinel.node.DefaultNode;
-import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.context.ContextTestUtil;
+import com.alibaba.csp.sentinel.slots.block.BlockException;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
-import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreaker.State;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.CircuitBreakerStateChangeObserver;
+import com.alibaba.csp.sentinel.slots.block.degrade.circuitbreaker.EventObserverRegistry;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 
-import java.util.concurrent.TimeUnit;
-
-import static org.junit.Assert.assertFalse;
-import static org.junit.Assert.assertTrue;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static org.junit.Assert.*;
 
 /**
  * @author jialiang.linjl
  */
-public class DegradeTest {
+public class DegradeTest extends AbstractTimeBasedTest {
+
+    private final List<String> transitions = new ArrayList<>();
+    private final List<Double> snapshotValues = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        setCurrentMillis(1000000);
+        ContextTestUtil.cleanUpContext();
+        EventObserverRegistry.addStateChangeObserver("test", new CircuitBreakerStateChangeObserver() {
+            @Override
+            public void onStateChange(State prevState, State newState, DegradeRule rule, Double snapshotValue) {
+                transitions.add(prevState + "->" + newState);
+                snapshotValues.add(snapshotValue);
+            }
+        });
+    }
+
+    @After
+    public void tearDown() {
+        DegradeRuleManager.loadRules(Collections.<DegradeRule>emptyList());
+        EventObserverRegistry.clearStateChangeObservers();
+        ContextTestUtil.cleanUpContext();
+    }
 
     @Test
-    public void testAverageRtDegrade() throws InterruptedException {
+    public void testAverageRtDegrade() throws BlockException {
         String key = "test_degrade_average_rt";
-        ClusterNode cn = mock(ClusterNode.class);
-        ClusterBuilderSlot.getClusterNodeMap().put(new StringResourceWrapper(key, EntryType.IN), cn);
-
-        Context context = mock(Context.class);
-        DefaultNode node = mock(DefaultNode.class);
-        when(node.getClusterNode()).thenReturn(cn);
-        when(cn.avgRt()).thenReturn(2d);
-
-        int rtSlowRequestAmount = 10;
-        DegradeRule rule = new DegradeRule();
-        rule.setCount(1);
-        rule.setResource(key);
-        rule.setTimeWindow(2);
-        rule.setGrade(RuleConstant.DEGRADE_GRADE_RT);
-        rule.setRtSlowRequestAmount(rtSlowRequestAmount);
-
-        //Will true
-        for (int i = 0; i < rtSlowRequestAmount - 1; i++) {
-            assertTrue(rule.passCheck(context, node, 1));
-        }
-
-        // The third time will fail.
-        assertFalse(rule.passCheck(context, node, 1));
-        assertFalse(rule.passCheck(context, node, 1));
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+            .setCount(10)
+            .setTimeWindow(2)
+            .setRtSlowRequestAmount(2);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, false);
+        request(key, 0, false);
+        request(key, 20, false);
+        // The average RT is below the threshold.
+        assertEquals(State.CLOSED, currentState(key));
+        request(key, 20, false);
+        // The average RT reaches the threshold, for the first slow request.
+        assertEquals(State.CLOSED, currentState(key));
+        request(key, 20, false);
+        assertFalse(pass(key));
+        assertEquals(Collections.singletonList("CLOSED->OPEN"), transitions);
+        assertEquals(12.0d, snapshotValues.get(0), 0.001);
+
+        sleep(2000);
+        request(key, 0, false);
+        assertEquals(State.CLOSED, currentState(key));
+    }
 
-        // Restore.
-        TimeUnit.MILLISECONDS.sleep(2200);
-        assertTrue(rule.passCheck(context, node, 1));
+    @Test
+    public void testSlowRatioDegrade() throws BlockException {
+        String key = "test_degrade_slow_ratio";
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_RT)
+            .setCount(10)
+            .setTimeWindow(2)
+            .setRtSlowRequestAmount(2)
+            .setMinRequestAmount(2)
+            .setSlowRatioThreshold(0.5d);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, false);
+        request(key, 0, false);
+        request(key, 0, false);
+        request(key, 20, false);
+        // Only one slow request.
+        assertEquals(State.CLOSED, currentState(key));
+        request(key, 20, false);
+        // 2 of 5 requests are slow.
+        assertEquals(State.CLOSED, currentState(key));
+        request(key, 20, false);
+        // 3 of 6 requests are slow.
+        assertFalse(pass(key));
+        assertEquals(Collections.singletonList("CLOSED->OPEN"), transitions);
+        assertEquals(0.5d, snapshotValues.get(0), 0.001);
+
+        sleep(1900);
+        assertFalse(pass(key));
+        sleep(100);
+        // The probe is slow, so the breaker opens again.
+        request(key, 20, false);
+        assertEquals(Arrays.asList("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN"), transitions);
+        assertFalse(pass(key));
+
+        sleep(2000);
+        assertTrue(pass(key));
+        assertEquals(State.CLOSED, currentState(key));
+        // Statistics are reset after recovery.
+        request(key, 20, false);
+        assertTrue(pass(key));
     }
 
     @Test
-    public void testExceptionRatioModeDegrade() throws Throwable {
+    public void testExceptionRatioModeDegrade() throws BlockException {
         String key = "test_degrade_exception_ratio";
-        ClusterNode cn = mock(ClusterNode.class);
-        ClusterBuilderSlot.getClusterNodeMap().put(new StringResourceWrapper(key, EntryType.IN), cn);
-
-        Context context = mock(Context.class);
-        DefaultNode node = mock(DefaultNode.class);
-        when(node.getClusterNode()).thenReturn(cn);
-
-        DegradeRule rule = new DegradeRule();
-        rule.setCount(0.15);
-        rule.setResource(key);
-        rule.setTimeWindow(2);
-        rule.setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO);
-        rule.setMinRequestAmount(20);
-
-
-        // Will true. While totalQps < minRequestAmount
-        when(cn.totalQps()).thenReturn(8d);
-        assertTrue(rule.passCheck(context, node, 1));
-
-        // Will true.
-        when(cn.totalQps()).thenReturn(21d);
-        when(cn.successQps()).thenReturn(9d);
-        when(cn.exceptionQps()).thenReturn(9d);
-        assertTrue(rule.passCheck(context, node, 1));
-
-
-        // Will true. While totalQps > minRequestAmount and  exceptionRation < count
-        when(cn.totalQps()).thenReturn(100d);
-        when(cn.successQps()).thenReturn(90d);
-        when(cn.exceptionQps()).thenReturn(10d);
-        assertTrue(rule.passCheck(context, node, 1));
-
-        // Will fail. While totalQps > minRequestAmount and exceptionRation > count
-        rule.setMinRequestAmount(5);
-        when(cn.totalQps()).thenReturn(12d);
-        when(cn.successQps()).thenReturn(8d);
-        when(cn.exceptionQps()).thenReturn(6d);
-        assertFalse(rule.passCheck(context, node, 1));
-
-        // Restore from the degrade timeout.
-        TimeUnit.MILLISECONDS.sleep(2200);
-
-        // Will pass.
-        when(cn.totalQps()).thenReturn(106d);
-        when(cn.successQps()).thenReturn(100d);
-        assertTrue(rule.passCheck(context, node, 1));
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_RATIO)
+            .setCount(0.5)
+            .setTimeWindow(2)
+            .setMinRequestAmount(4);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, false);
+        request(key, 0, true);
+        request(key, 0, true);
+        // Less than minRequestAmount.
+        assertTrue(pass(key));
+        request(key, 0, true);
+        // 3 of 5 requests failed.
+        assertFalse(pass(key));
+        assertEquals(0.6d, snapshotValues.get(0), 0.001);
+
+        // Recover by a successful probe.
+        sleep(2000);
+        request(key, 0, false);
+        assertEquals(State.CLOSED, currentState(key));
+        assertTrue(pass(key));
     }
 
     @Test
-    public void testExceptionCountModeDegrade() throws Throwable {
+    public void testExceptionCountModeDegrade() throws BlockException {
         String key = "test_degrade_exception_count";
-        ClusterNode cn = mock(ClusterNode.class);
-        when(cn.totalException()).thenReturn(10L);
-        ClusterBuilderSlot.getClusterNodeMap().put(new StringResourceWrapper(key, EntryType.IN), cn);
-
-        Context context = mock(Context.class);
-        DefaultNode node = mock(DefaultNode.class);
-        when(node.getClusterNode()).thenReturn(cn);
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT)
+            .setCount(2)
+            .setTimeWindow(2)
+            .setStatIntervalMs(1000);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, true);
+        assertTrue(pass(key));
+        // Exceptions out of the statistic interval are not counted.
+        sleep(1100);
+        request(key, 0, true);
+        assertTrue(pass(key));
+        request(key, 0, true);
+        assertFalse(pass(key));
+        assertEquals(2.0d, snapshotValues.get(0), 0.001);
+
+        sleep(2000);
+        request(key, 0, true);
+        assertEquals(State.OPEN, currentState(key));
+        sleep(2000);
+        assertTrue(pass(key));
+        assertEquals(Arrays.asList("CLOSED->OPEN", "OPEN->HALF_OPEN", "HALF_OPEN->OPEN", "OPEN->HALF_OPEN",
+            "HALF_OPEN->CLOSED"), transitions);
+    }
 
-        DegradeRule rule = new DegradeRule();
-        rule.setCount(4);
-        rule.setResource(key);
-        rule.setTimeWindow(2);
-        rule.setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT);
+    @Test
+    public void testExceptionCountInLastMinuteByDefault() throws BlockException {
+        String key = "test_degrade_exception_count_default_interval";
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT)
+            .setCount(2)
+            .setTimeWindow(2);
+        assertEquals(60 * 1000, rule.getStatIntervalMs());
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, true);
+        sleep(30000);
+        assertTrue(pass(key));
+        request(key, 0, true);
+        assertFalse(pass(key));
+    }
 
-        when(cn.totalException()).thenReturn(4L);
+    @Test
+    public void testHalfOpenProbeAmount() throws BlockException {
+        String key = "test_degrade_probe_amount";
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT)
+            .setCount(1)
+            .setTimeWindow(1)
+            .setProbeRequestAmount(2);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, true);
+        assertFalse(pass(key));
+
+        sleep(1000);
+        Entry probe1 = SphU.entry(key);
+        Entry probe2 = SphU.entry(key);
+        // Only two probes are permitted.
+        assertFalse(pass(key));
+        assertEquals(State.HALF_OPEN, currentState(key));
+
+        probe2.exit();
+        assertEquals(State.HALF_OPEN, currentState(key));
+        assertFalse(pass(key));
+        probe1.exit();
+        assertEquals(State.CLOSED, currentState(key));
+        assertTrue(pass(key));
+    }
 
-        // Will fail.
-        assertFalse(rule.passCheck(context, node, 1));
+    @Test
+    public void testHalfOpenProbeTimeout() throws BlockException {
+        String key = "test_degrade_probe_timeout";
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT)
+            .setCount(1)
+            .setTimeWindow(1);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, true);
+        sleep(1000);
+        Entry probe = SphU.entry(key);
+        sleep(999);
+        assertFalse(pass(key));
+        sleep(1);
+        // The probe has not completed in the time window.
+        assertFalse(pass(key));
+        assertEquals(State.OPEN, currentState(key));
+        // A stale probe does not decide the state.
+        probe.exit();
+        assertEquals(State.OPEN, currentState(key));
+
+        sleep(1000);
+        assertTrue(pass(key));
+        assertEquals(State.CLOSED, currentState(key));
+    }
 
-        // Restore from the degrade timeout.
-        TimeUnit.MILLISECONDS.sleep(2200);
+    @Test
+    public void testProbeNotTakenWithoutEntry() throws BlockException {
+        String key = "test_degrade_probe_without_entry";
+        DegradeRule rule = new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT)
+            .setCount(1)
+            .setTimeWindow(1);
+        DegradeRuleManager.loadRules(Collections.singletonList(rule));
+
+        request(key, 0, true);
+        sleep(1000);
+        CircuitBreaker circuitBreaker = DegradeRuleManager.getCircuitBreakers(key).get(0);
+        assertFalse(circuitBreaker.tryPass(new Context(null, "test_context")));
+        assertFalse(circuitBreaker.tryPass(null));
+        assertEquals(State.HALF_OPEN, currentState(key));
+
+        // The only probe is still available.
+        assertTrue(pass(key));
+        assertEquals(State.CLOSED, currentState(key));
+    }
 
-        when(cn.totalException()).thenReturn(0L);
-        // Will pass.
-        assertTrue(rule.passCheck(context, node, 1));
+    @Test
+    public void testCircuitBreakerKeptWhenReloadingEqualRule() throws BlockException {
+        String key = "test_degrade_reload";
+        DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT).setCount(1).setTimeWindow(10)));
+        request(key, 0, true);
+        assertFalse(pass(key));
+
+        DegradeRuleManager.loadRules(Arrays.asList(new DegradeRule(key)
+                .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT).setCount(1).setTimeWindow(10),
+            new DegradeRule("another_resource").setCount(10).setTimeWindow(10)));
+        assertFalse(pass(key));
+
+        DegradeRuleManager.loadRules(Collections.singletonList(new DegradeRule(key)
+            .setGrade(RuleConstant.DEGRADE_GRADE_EXCEPTION_COUNT).setCount(2).setTimeWindow(10)));
+        assertTrue(pass(key));
     }
 
     @Test
@@ -176,7 +331,33 @@ public class DegradeTest {
         degradeRule2.setMinRequestAmount(100);
         assertFalse(degradeRule1.equals(degradeRule2));
 
+        degradeRule2.setMinRequestAmount(minRequestAmount);
+        degradeRule2.setProbeRequestAmount(3);
+        assertFalse(degradeRule1.equals(degradeRule2));
+    }
 
+    private void request(String key, int rt, boolean error) throws BlockException {
+        Entry entry = SphU.entry(key);
+        sleep(rt);
+        if (error) {
+            Tracer.traceEntry(new IllegalStateException("biz"), entry);
+        }
+        entry.exit();
     }
 
+    private boolean pass(String key) {
+        try {
+            SphU.entry(key).exit();
+            return true;
+        } catch (BlockException e) {
+            assertTrue(e instanceof DegradeException);
+            return false;
+        }
+    }
+
+    private State currentState(String key) {
+        List<CircuitBreaker> circuitBreakers = DegradeRuleManager.getCircuitBreakers(key);
+        assertEquals(1, circuitBreakers.size());
+        return circuitBreakers.get(0).currentState();
+    }
 }
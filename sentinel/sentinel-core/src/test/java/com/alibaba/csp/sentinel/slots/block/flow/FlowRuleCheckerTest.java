@@ -15,10 +15,19 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 
+import com.alibaba.csp.sentinel.Entry;
 import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.SphU;
+import com.alibaba.csp.sentinel.cluster.ConcurrentTokenService;
+import com.alibaba.csp.sentinel.cluster.TokenResult;
+import com.alibaba.csp.sentinel.cluster.TokenResultStatus;
 import com.alibaba.csp.sentinel.context.Context;
+import com.alibaba.csp.sentinel.context.ContextUtil;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
@@ -166,6 +175,78 @@ public class FlowRuleCheckerTest {
         assertTrue(checker.canPassCheck(rule, context, node, 1));
     }
 
+    @Test
+    public void testReleaseConcurrentTokenWithoutCurEntry() {
+        FakeConcurrentTokenService service = new FakeConcurrentTokenService();
+        FlowRule rule = new FlowRule("testReleaseConcurrentTokenWithoutCurEntry").setCount(1)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD);
+        Context context = mock(Context.class);
+
+        assertTrue(FlowRuleChecker.passClusterConcurrencyCheck(service, 1L, rule, context,
+            mock(DefaultNode.class), 1));
+        // Nothing would release the tokens on exit, so released at once.
+        assertEquals(Arrays.asList(FakeConcurrentTokenService.TOKEN_ID), service.released);
+    }
+
+    @Test
+    public void testReleaseConcurrentTokenWhenBlockedByLaterRule() throws Exception {
+        String resourceName = "testReleaseConcurrentTokenWhenBlockedByLaterRule";
+        FakeConcurrentTokenService service = new FakeConcurrentTokenService();
+        FlowRule rule = new FlowRule(resourceName).setCount(1).setGrade(RuleConstant.FLOW_GRADE_THREAD);
+
+        Entry entry = SphU.entry(resourceName);
+        try {
+            assertTrue(FlowRuleChecker.passClusterConcurrencyCheck(service, 1L, rule, ContextUtil.getContext(),
+                mock(DefaultNode.class), 1));
+            assertTrue(service.released.isEmpty());
+        } finally {
+            // The same as what CtSph does when the entry is blocked by the rules checked later.
+            entry.exit();
+            ContextUtil.exit();
+        }
+        assertEquals(Arrays.asList(FakeConcurrentTokenService.TOKEN_ID), service.released);
+    }
+
+    @Test
+    public void testNoReleaseWhenConcurrentTokenBlocked() {
+        FakeConcurrentTokenService service = new FakeConcurrentTokenService();
+        service.status = TokenResultStatus.BLOCKED;
+        FlowRule rule = new FlowRule("testNoReleaseWhenConcurrentTokenBlocked").setCount(1)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD);
+
+        assertFalse(FlowRuleChecker.passClusterConcurrencyCheck(service, 1L, rule, mock(Context.class),
+            mock(DefaultNode.class), 1));
+        assertTrue(service.released.isEmpty());
+    }
+
+    private static class FakeConcurrentTokenService implements ConcurrentTokenService {
+
+        static final long TOKEN_ID = 2020L;
+
+        final List<Long> released = new ArrayList<>();
+        int status = TokenResultStatus.OK;
+
+        @Override
+        public TokenResult requestConcurrentToken(Long ruleId, int acquireCount) {
+            return new TokenResult(status).setTokenId(TOKEN_ID);
+        }
+
+        @Override
+        public void releaseConcurrentToken(Long ruleId, long tokenId) {
+            released.add(tokenId);
+        }
+
+        @Override
+        public TokenResult requestToken(Long ruleId, int acquireCount, boolean prioritized) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public TokenResult requestParamToken(Long ruleId, int acquireCount, Collection<Object> params) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         FlowRuleManager.loadRules(null);
@@ -15,6 +15,8 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow;
 
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -26,7 +28,9 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.ClusterNode;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
 import com.alibaba.csp.sentinel.slots.block.flow.controller.DefaultController;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.ShardedTokenBucketController;
 
 /**
  * @author jialiang.linjl
@@ -91,6 +95,30 @@ public class FlowRuleTest {
         assertTrue(flowRule.passCheck(context, dn, 1));
     }
 
+    @Test
+    public void testShardedTokenBucketRater() {
+        FlowRule flowRule = new FlowRule("testShardedTokenBucketRater").setCount(1000)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_SHARDED_TOKEN_BUCKET);
+        assertTrue(FlowRuleUtil.isValidRule(flowRule));
+        FlowRuleUtil.buildFlowRuleMap(Collections.singletonList(flowRule));
+        assertTrue(flowRule.getRater() instanceof ShardedTokenBucketController);
+    }
+
+    @Test
+    public void testAdaptiveConcurrencyRater() {
+        FlowRule flowRule = new FlowRule("testAdaptiveConcurrencyRater").setCount(10)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY);
+        assertTrue(FlowRuleUtil.isValidRule(flowRule));
+        flowRule.setAdaptiveConfig(new AdaptiveConcurrencyConfig().setMinLimit(10).setMaxLimit(5));
+        assertFalse(FlowRuleUtil.isValidRule(flowRule));
+
+        flowRule.setAdaptiveConfig(new AdaptiveConcurrencyConfig().setMaxLimit(50));
+        FlowRuleUtil.buildFlowRuleMap(Collections.singletonList(flowRule));
+        assertTrue(flowRule.getRater() instanceof AdaptiveConcurrencyController);
+        assertEquals(10, ((AdaptiveConcurrencyController)flowRule.getRater()).getLimit());
+    }
+
     @Test
     public void testOrigin() {
         FlowRule flowRule = new FlowRule();
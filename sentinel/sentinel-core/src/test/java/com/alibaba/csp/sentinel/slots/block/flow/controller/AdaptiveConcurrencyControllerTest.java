@@ -0,0 +1,192 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.slots.block.flow.AdaptiveConcurrencyConfig;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleUtil;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for {@link AdaptiveConcurrencyController}.
+ */
+public class AdaptiveConcurrencyControllerTest extends AbstractTimeBasedTest {
+
+    private Node mockNode(int concurrency, double avgRt, double minRt) {
+        Node node = mock(Node.class);
+        when(node.curThreadNum()).thenReturn(concurrency);
+        when(node.successQps()).thenReturn(100d);
+        when(node.avgRt()).thenReturn(avgRt);
+        when(node.minRt()).thenReturn(minRt);
+        return node;
+    }
+
+    private void updateTimes(AdaptiveConcurrencyController controller, Node node, int times) {
+        for (int i = 0; i < times; i++) {
+            sleep(AdaptiveConcurrencyConfig.DEFAULT_UPDATE_INTERVAL_MS);
+            controller.canPass(node, 1);
+        }
+    }
+
+    @Test
+    public void testBlockWhenExceedsLimit() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, null);
+        assertEquals(10, controller.getLimit());
+
+        assertTrue(controller.canPass(mockNode(9, 10, 10), 1));
+        assertFalse(controller.canPass(mockNode(10, 10, 10), 1));
+    }
+
+    @Test
+    public void testGrowWhenRtIsStable() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, null);
+        Node node = mockNode(10, 10, 10);
+        updateTimes(controller, node, 5);
+
+        assertTrue(controller.getLimit() > 10);
+        assertEquals(10, controller.getNoLoadRt(), 0.01);
+        assertEquals(10, controller.getLastRt(), 0.01);
+    }
+
+    @Test
+    public void testNotGrowWhenConcurrencyIsLow() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, null);
+        updateTimes(controller, mockNode(2, 10, 10), 5);
+
+        assertEquals(10, controller.getLimit());
+    }
+
+    @Test
+    public void testShrinkWhenRtIncreases() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100, null);
+        updateTimes(controller, mockNode(100, 10, 10), 1);
+        int limit = controller.getLimit();
+
+        // Requests start queueing downstream.
+        updateTimes(controller, mockNode(limit, 40, 12), 5);
+        assertTrue(controller.getLimit() < limit);
+        // The no-load RT drifts slowly towards the higher min RT.
+        assertTrue(controller.getNoLoadRt() > 10 && controller.getNoLoadRt() < 12);
+    }
+
+    @Test
+    public void testLimitBounded() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyConfig config = new AdaptiveConcurrencyConfig()
+            .setMinLimit(5)
+            .setMaxLimit(20)
+            .setSmoothing(1);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(100, config);
+        assertEquals(20, controller.getLimit());
+
+        updateTimes(controller, mockNode(20, 10, 10), 10);
+        assertEquals(20, controller.getLimit());
+
+        updateTimes(controller, mockNode(20, 1000, 10), 10);
+        assertEquals(5, controller.getLimit());
+    }
+
+    @Test
+    public void testMaxLimitDerivedFromInitialLimit() {
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(2000, null);
+        assertEquals(2000, controller.getLimit());
+        assertEquals(2000 * AdaptiveConcurrencyConfig.DEFAULT_MAX_LIMIT_FACTOR, controller.getMaxLimit());
+    }
+
+    @Test
+    public void testNotShrinkForSubMillisecondRt() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, null);
+        // Most requests finish within 1 ms and are recorded as 0 ms.
+        updateTimes(controller, mockNode(10, 0.4, 0), 5);
+
+        assertTrue(controller.getLimit() > 10);
+        assertEquals(1, controller.getNoLoadRt(), 0.01);
+    }
+
+    @Test
+    public void testUpdateOncePerInterval() {
+        setCurrentMillis(10000);
+        AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(10, null);
+        Node node = mockNode(10, 10, 10);
+        controller.canPass(node, 1);
+        int limit = controller.getLimit();
+        for (int i = 0; i < 10; i++) {
+            controller.canPass(node, 1);
+        }
+        assertEquals(limit, controller.getLimit());
+    }
+
+    @Test
+    public void testOnlyValidForThreadGrade() {
+        FlowRule rule = adaptiveRule("testOnlyValidForThreadGrade", 10);
+        assertTrue(FlowRuleUtil.isValidRule(rule));
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        assertFalse(FlowRuleUtil.isValidRule(rule));
+    }
+
+    @Test
+    public void testKeepLearnedLimitWhenReloadingRules() {
+        setCurrentMillis(10000);
+        String resource = "testKeepLearnedLimitWhenReloadingRules";
+        try {
+            FlowRuleManager.loadRules(Collections.singletonList(adaptiveRule(resource, 10)));
+            AdaptiveConcurrencyController controller = getLoadedController();
+            updateTimes(controller, mockNode(10, 10, 10), 5);
+            int learnedLimit = controller.getLimit();
+            assertTrue(learnedLimit > 10);
+
+            FlowRuleManager.loadRules(Arrays.asList(adaptiveRule(resource, 10),
+                new FlowRule("anotherResource").setCount(1)));
+            assertSame(controller, getLoadedController());
+            assertEquals(learnedLimit, getLoadedController().getLimit());
+
+            // The rule is changed, so learn from scratch.
+            FlowRuleManager.loadRules(Collections.singletonList(adaptiveRule(resource, 20)));
+            assertNotSame(controller, getLoadedController());
+            assertEquals(20, getLoadedController().getLimit());
+        } finally {
+            FlowRuleManager.loadRules(new ArrayList<FlowRule>());
+        }
+    }
+
+    private FlowRule adaptiveRule(String resource, int count) {
+        return new FlowRule(resource).setCount(count)
+            .setGrade(RuleConstant.FLOW_GRADE_THREAD)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_ADAPTIVE_CONCURRENCY);
+    }
+
+    private AdaptiveConcurrencyController getLoadedController() {
+        return FlowRuleManager.getAdaptiveConcurrencyControllers().values().iterator().next();
+    }
+}
@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.controller;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
@@ -26,6 +27,7 @@ import org.junit.Test;
 
 import com.alibaba.csp.sentinel.util.TimeUtil;
 import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.slots.block.flow.PacedTrafficShapingController;
 
 /**
  * @author jialiang.linjl
@@ -85,6 +87,25 @@ public class RateLimiterControllerTest {
 
     }
 
+    @Test
+    public void testPaceController_reservePassTime() {
+        RateLimiterController paceController = new RateLimiterController(500, 10d);
+        Node node = mock(Node.class);
+
+        long start = TimeUtil.currentTimeMillis();
+        long previous = paceController.reservePassTime(node, 1, false);
+        assertTrue(previous >= start);
+        for (int i = 0; i < 5; i++) {
+            long passTime = paceController.reservePassTime(node, 1, false);
+            assertEquals(previous + 100, passTime);
+            previous = passTime;
+        }
+        // Exceeds the max queueing time.
+        assertEquals(PacedTrafficShapingController.REJECTED, paceController.reservePassTime(node, 1, false));
+        // Reserving should never wait.
+        assertTrue(TimeUtil.currentTimeMillis() - start < 400);
+    }
+
     @Test
     public void testPaceController_zeroattack() throws InterruptedException {
         RateLimiterController paceController = new RateLimiterController(500, 0d);
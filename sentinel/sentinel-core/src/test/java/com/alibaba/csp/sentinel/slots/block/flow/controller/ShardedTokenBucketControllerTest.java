@@ -0,0 +1,238 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test cases for {@link ShardedTokenBucketController}.
+ */
+public class ShardedTokenBucketControllerTest extends AbstractTimeBasedTest {
+
+    @Test
+    public void testQuotaOfEachPeriod() {
+        setCurrentMillis(10000);
+        ShardedTokenBucketController controller = new ShardedTokenBucketController(100, 4, 100);
+        Node node = mock(Node.class);
+
+        // All tokens of the period are available to a single thread by stealing.
+        for (int i = 0; i < 10; i++) {
+            assertTrue(controller.canPass(node, 1));
+        }
+        assertFalse(controller.canPass(node, 1));
+
+        sleep(50);
+        assertFalse(controller.canPass(node, 1));
+
+        sleep(50);
+        assertTrue(controller.canPass(node, 3));
+        assertEquals(7, controller.getAvailableTokens());
+        assertFalse(controller.canPass(node, 8));
+    }
+
+    @Test
+    public void testUnusedTokensNotAccumulated() {
+        setCurrentMillis(10000);
+        ShardedTokenBucketController controller = new ShardedTokenBucketController(100, 4, 100);
+        Node node = mock(Node.class);
+
+        assertTrue(controller.canPass(node, 1));
+        // Idle for a while, the quota of the new period should not include the unused tokens.
+        sleep(1000);
+        int passed = 0;
+        for (int i = 0; i < 50; i++) {
+            if (controller.canPass(node, 1)) {
+                passed++;
+            }
+        }
+        assertEquals(10, passed);
+    }
+
+    @Test
+    public void testFractionalCount() {
+        setCurrentMillis(10000);
+        ShardedTokenBucketController controller = new ShardedTokenBucketController(5, 2, 100);
+        Node node = mock(Node.class);
+
+        int passed = 0;
+        for (int period = 0; period < 10; period++) {
+            while (controller.canPass(node, 1)) {
+                passed++;
+            }
+            sleep(100);
+        }
+        assertEquals(5, passed);
+    }
+
+    @Test
+    public void testCarryTokenOfLowCount() {
+        setCurrentMillis(10000);
+        ShardedTokenBucketController controller = new ShardedTokenBucketController(1, 4, 100);
+        Node node = mock(Node.class);
+
+        // The token of the first second is granted in the last period of it.
+        assertFalse(controller.canPass(node, 1));
+        sleep(1000);
+
+        // One request per second at different offsets of the second, the token granted in one of the
+        // periods should be kept until it's used.
+        int passed = 0;
+        for (int i = 0; i < 10; i++) {
+            if (controller.canPass(node, 1)) {
+                passed++;
+            }
+            assertFalse(controller.canPass(node, 1));
+            sleep(1030);
+        }
+        assertEquals(10, passed);
+        // Tokens never accumulate beyond the capacity.
+        sleep(5000);
+        assertTrue(controller.canPass(node, 1));
+        assertFalse(controller.canPass(node, 1));
+    }
+
+    @Test
+    public void testAcquireMoreThanTokensOfOneShard() {
+        setCurrentMillis(10000);
+        ShardedTokenBucketController controller = new ShardedTokenBucketController(100, 4, 100);
+        Node node = mock(Node.class);
+
+        // The quota (10) is split among 4 shards, so none of them holds 6 tokens.
+        assertTrue(controller.canPass(node, 6));
+        assertEquals(4, controller.getAvailableTokens());
+        assertFalse(controller.canPass(node, 5));
+        // Tokens gathered for a failed acquisition are given back.
+        assertEquals(4, controller.getAvailableTokens());
+        assertTrue(controller.canPass(node, 4));
+
+        sleep(100);
+        // More than the capacity of one period can never pass.
+        assertFalse(controller.canPass(node, 11));
+        assertTrue(controller.canPass(node, 10));
+    }
+
+    @Test
+    public void testConcurrentPassNeverExceedsQuota() throws Exception {
+        setCurrentMillis(10000);
+        final ShardedTokenBucketController controller = new ShardedTokenBucketController(10000, 8, 100);
+        final Node node = mock(Node.class);
+        final AtomicInteger passed = new AtomicInteger();
+        int threadCount = 8;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < threadCount; t++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 500; i++) {
+                        if (controller.canPass(node, 1)) {
+                            passed.incrementAndGet();
+                        }
+                    }
+                    latch.countDown();
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        latch.await();
+
+        assertEquals(1000, passed.get());
+        assertEquals(0, controller.getAvailableTokens());
+    }
+
+    @Test
+    public void testNoRejectionWhileRebalancing() throws Exception {
+        setCurrentMillis(10000);
+        // Capacity of each period is 1000, much more than the acquisitions in a period.
+        final ShardedTokenBucketController controller = new ShardedTokenBucketController(10000, 8, 100);
+        final Node node = mock(Node.class);
+        final AtomicInteger rejected = new AtomicInteger();
+        final int threadCount = 8;
+        final int rounds = 100;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        // Each round moves to a new period, so the first acquisition of the round rebalances the shards
+        // while others are acquiring.
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount, new Runnable() {
+            @Override
+            public void run() {
+                sleep(100);
+            }
+        });
+        for (int t = 0; t < threadCount; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int r = 0; r < rounds; r++) {
+                            barrier.await();
+                            for (int i = 0; i < 50; i++) {
+                                if (!controller.canPass(node, 1)) {
+                                    rejected.incrementAndGet();
+                                }
+                            }
+                        }
+                    } catch (Exception ex) {
+                        rejected.incrementAndGet();
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertEquals(0, rejected.get());
+    }
+
+    @Test
+    public void testRebalanceByDemand() throws Exception {
+        setCurrentMillis(10000);
+        ShardedTokenBucketController controller = new ShardedTokenBucketController(1000, 4, 100);
+        Node node = mock(Node.class);
+        // Quota of the first period is split evenly.
+        assertTrue(controller.canPass(node, 1));
+        assertEquals(99, controller.getAvailableTokens());
+        while (controller.canPass(node, 1)) {
+            // Drain the quota of first period in current thread.
+        }
+
+        // Only current thread requested in last period, so its shard gets the whole quota.
+        sleep(100);
+        assertTrue(controller.canPass(node, 1));
+        int shardsWithTokens = 0;
+        for (int i = 0; i < controller.getShardCount(); i++) {
+            long tokens = controller.getShardTokens(i);
+            if (tokens > 0) {
+                assertEquals(99, tokens);
+                shardsWithTokens++;
+            }
+        }
+        assertEquals(1, shardsWithTokens);
+    }
+}
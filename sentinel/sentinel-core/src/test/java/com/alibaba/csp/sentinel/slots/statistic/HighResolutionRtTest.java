@@ -0,0 +1,66 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic;
+
+import com.alibaba.csp.sentinel.Entry;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test cases for the high-resolution RT mode.
+ */
+public class HighResolutionRtTest {
+
+    @Before
+    public void setUp() {
+        Whitebox.setInternalState(SentinelConfig.class, "highResolutionRt", true);
+    }
+
+    @After
+    public void tearDown() {
+        Whitebox.setInternalState(SentinelConfig.class, "highResolutionRt", false);
+    }
+
+    @Test
+    public void testCalculateRtInMicroseconds() {
+        Entry entry = mock(Entry.class);
+        when(entry.getCreateNanoTime()).thenReturn(System.nanoTime() - 300 * 1000);
+
+        long rt = StatisticSlot.calculateRt(entry);
+        assertTrue(rt >= 300);
+        assertTrue(rt < 1000 * 1000);
+        assertEquals(SentinelConfig.statisticMaxRt() * 1000L, SentinelConfig.statisticMaxRecordedRt());
+    }
+
+    @Test
+    public void testSubMillisecondRtReadInMilliseconds() {
+        StatisticNode node = new StatisticNode();
+        node.addRtAndSuccess(200, 1);
+        node.addRtAndSuccess(300, 1);
+
+        assertEquals(0.25, node.avgRt(), 0.0001);
+        assertEquals(0.2, node.minRt(), 0.0001);
+    }
+}
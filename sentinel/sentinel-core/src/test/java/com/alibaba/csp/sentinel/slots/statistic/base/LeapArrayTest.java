@@ -15,7 +15,12 @@
  */
 package com.alibaba.csp.sentinel.slots.statistic.base;
 
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.Test;
 
@@ -62,4 +67,109 @@ public class LeapArrayTest extends AbstractTimeBasedTest {
         assertSame(expected2, leapArray.getValidHead());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testConcurrentRotationAtBoundary() throws Exception {
+        final int windowLengthInMs = 500;
+        final AtomicLong retiredCount = new AtomicLong(0);
+        final LeapArray<AtomicInteger> leapArray = new LeapArray<AtomicInteger>(2, 1000) {
+            @Override
+            public AtomicInteger newEmptyBucket(long time) {
+                return new AtomicInteger(0);
+            }
+
+            @Override
+            protected WindowWrap<AtomicInteger> resetWindowTo(WindowWrap<AtomicInteger> windowWrap, long startTime) {
+                windowWrap.value().set(0);
+                windowWrap.resetTo(startTime);
+                return windowWrap;
+            }
+
+            @Override
+            protected void onWindowRetired(long windowStart, AtomicInteger value) {
+                retiredCount.addAndGet(value.get());
+            }
+        };
+        final int threadCount = 16;
+        final int rounds = 500;
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final AtomicInteger mismatch = new AtomicInteger(0);
+        final AtomicInteger finished = new AtomicInteger(0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int r = 0; r < rounds; r++) {
+                            // All threads hit the same (deprecated) bucket right at a window boundary.
+                            barrier.await();
+                            long time = (r + 1) * windowLengthInMs;
+                            WindowWrap<AtomicInteger> wrap = leapArray.currentWindow(time);
+                            if (wrap == null || wrap.windowStart() != time) {
+                                mismatch.incrementAndGet();
+                            } else {
+                                wrap.value().incrementAndGet();
+                            }
+                        }
+                        finished.incrementAndGet();
+                    } catch (Exception ex) {
+                        mismatch.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(threadCount, finished.get());
+        assertEquals(0, mismatch.get());
+        assertEquals(2, leapArray.listAll().size());
+        // No update is dropped by the rotation.
+        long totalCount = retiredCount.get();
+        for (WindowWrap<AtomicInteger> wrap : leapArray.listAll()) {
+            totalCount += wrap.value().get();
+        }
+        assertEquals(threadCount * rounds, totalCount);
+    }
+
+    @Test
+    public void testDeprecatedBucketReplacedByCleanBucket() {
+        final AtomicLong retiredCount = new AtomicLong(0);
+        LeapArray<AtomicInteger> leapArray = new LeapArray<AtomicInteger>(2, 1000) {
+            @Override
+            public AtomicInteger newEmptyBucket(long time) {
+                return new AtomicInteger(0);
+            }
+
+            @Override
+            protected WindowWrap<AtomicInteger> resetWindowTo(WindowWrap<AtomicInteger> windowWrap, long startTime) {
+                windowWrap.resetTo(startTime);
+                windowWrap.value().set(0);
+                return windowWrap;
+            }
+
+            @Override
+            protected void onWindowRetired(long windowStart, AtomicInteger value) {
+                retiredCount.addAndGet(value.get());
+            }
+        };
+
+        WindowWrap<AtomicInteger> old = leapArray.currentWindow(0);
+        old.value().addAndGet(3);
+        WindowWrap<AtomicInteger> current = leapArray.currentWindow(1000);
+        // The published bucket is clean, and the deprecated one is left untouched for its stale readers.
+        assertNotSame(old, current);
+        assertEquals(1000, current.windowStart());
+        assertEquals(0, current.value().get());
+        assertEquals(3, old.value().get());
+        assertEquals(3, retiredCount.get());
+        assertSame(current, leapArray.currentWindow(1000));
+
+        current.value().addAndGet(5);
+        WindowWrap<AtomicInteger> next = leapArray.currentWindow(2000);
+        assertEquals(2000, next.windowStart());
+        assertEquals(0, next.value().get());
+        assertEquals(8, retiredCount.get());
+    }
+}
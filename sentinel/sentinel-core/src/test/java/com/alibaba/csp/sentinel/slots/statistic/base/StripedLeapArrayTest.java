@@ -0,0 +1,108 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.base;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedLeapArray}.
+ */
+public class StripedLeapArrayTest {
+
+    @Test
+    public void testRotateAndRetireBucket() {
+        final AtomicLong retiredCount = new AtomicLong(0);
+        StripedLeapArray leapArray = new StripedLeapArray(2, 1000, 1, 4) {
+            @Override
+            protected void onBucketRetired(int bucket, long windowStart) {
+                retiredCount.addAndGet(get(bucket, 0));
+            }
+        };
+
+        int bucket = leapArray.currentBucket(0);
+        leapArray.add(bucket, 0, 3);
+        assertEquals(bucket, leapArray.bucketAt(200));
+        assertEquals(0, leapArray.windowStart(bucket));
+
+        assertEquals(bucket, leapArray.currentBucket(1000));
+        assertEquals(1000, leapArray.windowStart(bucket));
+        assertEquals(0, leapArray.get(bucket, 0));
+        assertEquals(3, retiredCount.get());
+        assertEquals(-1, leapArray.bucketAt(200));
+    }
+
+    @Test
+    public void testConcurrentRotationAtBoundary() throws Exception {
+        final int windowLengthInMs = 500;
+        final AtomicLong retiredCount = new AtomicLong(0);
+        final StripedLeapArray leapArray = new StripedLeapArray(2, 1000, 1, 4) {
+            @Override
+            protected void onBucketRetired(int bucket, long windowStart) {
+                retiredCount.addAndGet(get(bucket, 0));
+            }
+        };
+        final int threadCount = 16;
+        final int rounds = 500;
+        final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+        final AtomicInteger mismatch = new AtomicInteger(0);
+        final AtomicInteger finished = new AtomicInteger(0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            pool.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int r = 0; r < rounds; r++) {
+                            // All threads hit the same (deprecated) bucket right at a window boundary.
+                            barrier.await();
+                            long time = (r + 1) * windowLengthInMs;
+                            int bucket = leapArray.currentBucket(time);
+                            if (bucket < 0 || leapArray.windowStart(bucket) != time) {
+                                mismatch.incrementAndGet();
+                            } else {
+                                leapArray.add(bucket, 0, 1);
+                            }
+                        }
+                        finished.incrementAndGet();
+                    } catch (Exception ex) {
+                        mismatch.incrementAndGet();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(threadCount, finished.get());
+        assertEquals(0, mismatch.get());
+        // No update is dropped by the rotation.
+        long totalCount = retiredCount.get();
+        for (int i = 0; i < leapArray.getSampleCount(); i++) {
+            totalCount += leapArray.get(i, 0);
+        }
+        assertEquals(threadCount * rounds, totalCount);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.data;
+
+import java.util.Arrays;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link HistogramBucket}.
+ */
+public class HistogramBucketTest {
+
+    @Test
+    public void testIndexAndEquivalentValue() {
+        for (long v = 0; v < 100000; v++) {
+            int idx = HistogramBucket.indexOf(v);
+            long highest = HistogramBucket.highestEquivalentValue(idx);
+            assertTrue(highest >= v);
+            // Relative error should be bounded by 1/8.
+            assertTrue(highest - v <= v / 8);
+            if (v > 0) {
+                assertTrue(idx >= HistogramBucket.indexOf(v - 1));
+            }
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        HistogramBucket bucket = new HistogramBucket(4900);
+        assertEquals(0, bucket.percentile(99));
+        for (int i = 1; i <= 100; i++) {
+            bucket.record(i);
+        }
+        assertEquals(100, bucket.totalCount());
+        assertEquals(50, bucket.percentile(50), 50 / 8);
+        assertEquals(99, bucket.percentile(99), 99 / 8);
+        assertEquals(100, bucket.percentile(100), 100 / 8);
+
+        // Values exceeding the max value are recorded as max value.
+        bucket.record(100000);
+        assertEquals(4900, bucket.percentile(100));
+
+        bucket.reset();
+        assertEquals(0, bucket.totalCount());
+    }
+
+    @Test
+    public void testMergedPercentile() {
+        HistogramBucket b1 = new HistogramBucket(4900);
+        HistogramBucket b2 = new HistogramBucket(4900);
+        for (int i = 0; i < 99; i++) {
+            b1.record(2);
+        }
+        b2.record(1000);
+
+        assertEquals(2, HistogramBucket.percentile(Arrays.asList(b1, b2), 99));
+        assertEquals(1000, HistogramBucket.percentile(Arrays.asList(b1, b2), 99.9), 1000 / 8);
+    }
+
+    @Test
+    public void testRtPercentileOfStatisticNode() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM_ENABLED, "true");
+        try {
+            StatisticNode node = new StatisticNode();
+            for (int i = 0; i < 9; i++) {
+                node.addRtAndSuccess(5, 1);
+            }
+            node.addRtAndSuccess(300, 1);
+
+            assertEquals(5, node.rtPercentile(50), 0.01);
+            assertEquals(300, node.rtPercentile(99.9), 300 / 8);
+        } finally {
+            SentinelConfig.removeConfig(SentinelConfig.STATISTIC_RT_HISTOGRAM_ENABLED);
+        }
+        assertEquals(0, new StatisticNode().rtPercentile(99), 0.01);
+    }
+}
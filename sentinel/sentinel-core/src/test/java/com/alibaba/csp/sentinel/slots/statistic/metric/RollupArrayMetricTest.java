@@ -0,0 +1,121 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.List;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link RollupArrayMetric}.
+ */
+public class RollupArrayMetricTest extends AbstractTimeBasedTest {
+
+    private static final int HOUR = 60 * 60 * 1000;
+    private static final long START = 10L * HOUR;
+
+    @Test
+    public void testRollupFromBucketLeapArray() {
+        RollupArrayMetric hour = new RollupArrayMetric(60, HOUR);
+        Metric minute = new ArrayMetric(new RollupBucketLeapArray(60, 60 * 1000, hour));
+        verifyRollup(hour, minute);
+    }
+
+    @Test
+    public void testRollupFromStripedArrayMetric() {
+        RollupArrayMetric hour = new RollupArrayMetric(60, HOUR);
+        Metric minute = new StripedArrayMetric(60, 60 * 1000, false, 2, hour);
+        verifyRollup(hour, minute);
+    }
+
+    private void verifyRollup(RollupArrayMetric hour, Metric minute) {
+        setCurrentMillis(START);
+        minute.addPass(3);
+        minute.addBlock(1);
+        minute.addSuccess(2);
+        minute.addRT(20);
+        sleep(500);
+        minute.addPass(1);
+        // Nothing has been rotated yet.
+        assertEquals(0, hour.pass());
+
+        // The bucket of START is rotated by the request in the next minute.
+        sleep(60 * 1000 - 500);
+        minute.addPass(2);
+        MetricNode node = findByTimestamp(hour.details(), START);
+        assertNotNull(node);
+        assertEquals(4, node.getPassQps());
+        assertEquals(1, node.getBlockQps());
+        assertEquals(10, node.getRt());
+
+        // Deprecated buckets are rolled up on read even if no request comes.
+        sleep(5 * 60 * 1000);
+        node = findByTimestamp(hour.details(), START + 60 * 1000);
+        assertNotNull(node);
+        assertEquals(2, node.getPassQps());
+        assertEquals(6, hour.pass());
+        assertEquals(0, minute.pass());
+
+        // Retired buckets are reset without being rolled up again.
+        minute.addPass(1);
+        sleep(60 * 1000);
+        minute.addPass(1);
+        assertEquals(7, hour.pass());
+
+        // Data older than the hour-level window is dropped.
+        sleep(2 * HOUR);
+        hour.details();
+        assertEquals(0, hour.pass());
+    }
+
+    @Test
+    public void testStatisticNodeRawMetricsInHour() {
+        SentinelConfig.setConfig(SentinelConfig.STATISTIC_HOUR_ROLLUP_ENABLED, "true");
+        try {
+            setCurrentMillis(START);
+            StatisticNode node = new StatisticNode();
+            node.addPassRequest(5);
+            node.addRtAndSuccess(30, 3);
+            sleep(60 * 1000);
+            node.addPassRequest(1);
+
+            MetricNode metric = findByTimestamp(node.rawMetricsInHour(null), START);
+            assertNotNull(metric);
+            assertEquals(5, metric.getPassQps());
+            assertEquals(3, metric.getSuccessQps());
+            assertEquals(10, metric.getRt());
+        } finally {
+            SentinelConfig.setConfig(SentinelConfig.STATISTIC_HOUR_ROLLUP_ENABLED, "false");
+        }
+        assertTrue(new StatisticNode().rawMetricsInHour(null).isEmpty());
+    }
+
+    private static MetricNode findByTimestamp(List<MetricNode> nodes, long timestamp) {
+        for (MetricNode node : nodes) {
+            if (node.getTimestamp() == timestamp) {
+                return node;
+            }
+        }
+        return null;
+    }
+}
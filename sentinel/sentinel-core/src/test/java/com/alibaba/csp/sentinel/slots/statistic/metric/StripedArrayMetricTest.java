@@ -0,0 +1,129 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic.metric;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link StripedArrayMetric}.
+ */
+public class StripedArrayMetricTest extends AbstractTimeBasedTest {
+
+    private final int sampleCount = 2;
+    private final int intervalInMs = 1000;
+
+    @Test
+    public void testAddAndSumInSlidingWindow() {
+        StripedArrayMetric metric = new StripedArrayMetric(sampleCount, intervalInMs, false, 4);
+        setCurrentMillis(1000);
+
+        metric.addPass(3);
+        metric.addBlock(2);
+        metric.addSuccess(3);
+        metric.addException(1);
+        metric.addRT(20);
+        metric.addRT(8);
+
+        sleep(500);
+        metric.addPass(2);
+
+        assertEquals(5, metric.pass());
+        assertEquals(2, metric.block());
+        assertEquals(3, metric.success());
+        assertEquals(1, metric.exception());
+        assertEquals(28, metric.rt());
+        assertEquals(8, metric.minRt());
+        assertEquals(3, metric.previousWindowPass());
+        assertEquals(3, metric.getWindowPass(1000));
+        assertEquals(2, metric.getWindowPass(1500));
+
+        // The first bucket has been deprecated and will be reused.
+        sleep(1001);
+        metric.addPass(1);
+        assertEquals(1, metric.pass());
+        assertEquals(0, metric.block());
+        assertEquals(0, metric.getWindowPass(1500));
+        assertEquals(1, metric.getWindowPass(2500));
+    }
+
+    @Test
+    public void testDetails() {
+        StripedArrayMetric metric = new StripedArrayMetric(60, 60 * 1000, false, 2);
+        setCurrentMillis(60 * 1000);
+        metric.addPass(1);
+        metric.addSuccess(2);
+        metric.addRT(10);
+        sleep(1000);
+        metric.addBlock(3);
+
+        List<MetricNode> details = metric.details();
+        assertEquals(2, details.size());
+        for (MetricNode node : details) {
+            if (node.getTimestamp() == 60 * 1000) {
+                assertEquals(1, node.getPassQps());
+                assertEquals(5, node.getRt());
+            } else {
+                assertEquals(61 * 1000, node.getTimestamp());
+                assertEquals(3, node.getBlockQps());
+            }
+        }
+    }
+
+    @Test
+    public void testOccupiedPassCarriedToFutureBucket() {
+        StripedArrayMetric metric = new StripedArrayMetric(sampleCount, intervalInMs, true, 1);
+        setCurrentMillis(1000);
+        metric.addPass(1);
+        metric.addWaiting(1500, 4);
+        assertEquals(4, metric.waiting());
+
+        sleep(500);
+        assertEquals(5, metric.pass());
+        assertEquals(4, metric.getWindowPass(1500));
+        assertEquals(0, metric.waiting());
+    }
+
+    @Test
+    public void testConcurrentAddOnStripes() throws Exception {
+        final StripedArrayMetric metric = new StripedArrayMetric(sampleCount, intervalInMs, false, 8);
+        setCurrentMillis(1000);
+        final int threadCount = 16;
+        final int times = 1000;
+        final CountDownLatch latch = new CountDownLatch(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < times; j++) {
+                        metric.addPass(1);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+
+        assertEquals(threadCount * times, metric.pass());
+    }
+}
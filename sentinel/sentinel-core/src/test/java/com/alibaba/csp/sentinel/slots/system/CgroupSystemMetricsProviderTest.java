@@ -0,0 +1,177 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.system;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link CgroupSystemMetricsProvider}, against a fake cgroup filesystem.
+ */
+public class CgroupSystemMetricsProviderTest {
+
+    private static final long INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Rule
+    public TemporaryFolder cgroupRoot = new TemporaryFolder();
+
+    @Test
+    public void testCgroupV2() throws IOException {
+        File root = cgroupRoot.getRoot();
+        write(root, "cgroup.controllers", "cpu memory");
+        // 2 cores.
+        write(root, "cpu.max", "200000 100000");
+        writeV2CpuStat(root, 0, 0, 0, 0);
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root.getPath(), 1);
+        assertTrue(provider.isAvailable());
+        assertEquals(2.0d, provider.getCpuLimit(), 0.001);
+        provider.sample(0);
+        assertEquals(-1, provider.getCpuUsage(), 0.001);
+
+        // 150ms of CPU time in 100ms, throttled for 50ms in 5 of 10 periods.
+        writeV2CpuStat(root, 150000, 10, 5, 50000);
+        provider.sample(INTERVAL_NANOS);
+        assertEquals(0.75d, provider.getCpuUsage(), 0.001);
+        assertEquals(2.0d, provider.getSystemAverageLoad(), 0.001);
+        assertEquals(0.5d, provider.getThrottledRatio(), 0.001);
+
+        provider.sample(INTERVAL_NANOS * 2);
+        assertEquals(0, provider.getCpuUsage(), 0.001);
+    }
+
+    @Test
+    public void testCgroupV1() throws IOException {
+        File root = cgroupRoot.getRoot();
+        File cpu = new File(root, "cpu,cpuacct");
+        write(cpu, "cpu.cfs_quota_us", "50000");
+        write(cpu, "cpu.cfs_period_us", "100000");
+        write(cpu, "cpu.stat", "nr_periods 0\nnr_throttled 0\nthrottled_time 0\n");
+        write(cpu, "cpuacct.usage", "1000000000");
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root.getPath(), 1);
+        assertTrue(provider.isAvailable());
+        assertEquals(0.5d, provider.getCpuLimit(), 0.001);
+        provider.sample(0);
+
+        // 40ms of CPU time in 100ms with half a core, throttled for 20ms.
+        write(cpu, "cpuacct.usage", String.valueOf(1000000000 + 40000000));
+        write(cpu, "cpu.stat", "nr_periods 1\nnr_throttled 1\nthrottled_time 20000000\n");
+        provider.sample(INTERVAL_NANOS);
+        assertEquals(0.8d, provider.getCpuUsage(), 0.001);
+        assertEquals(0.6d, provider.getSystemAverageLoad(), 0.001);
+        assertEquals(1.0d, provider.getThrottledRatio(), 0.001);
+
+        write(cpu, "cpu.cfs_quota_us", "-1");
+        assertEquals(-1, provider.getCpuLimit(), 0.001);
+    }
+
+    @Test
+    public void testNestedCgroupV2() throws IOException {
+        File root = cgroupRoot.getRoot();
+        write(root, "cgroup.controllers", "cpu memory");
+        write(root, "cpu.max", "max 100000");
+        File nested = new File(root, "kubepods.slice/pod1.slice");
+        write(nested, "cpu.max", "50000 100000");
+        writeV2CpuStat(nested, 0, 0, 0, 0);
+        File procSelfCgroup = write(root, "proc-self-cgroup", "0::/kubepods.slice/pod1.slice\n");
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root.getPath(),
+            procSelfCgroup.getPath(), 1);
+        assertTrue(provider.isAvailable());
+        assertEquals(0.5d, provider.getCpuLimit(), 0.001);
+    }
+
+    @Test
+    public void testNestedCgroupV1() throws IOException {
+        File root = cgroupRoot.getRoot();
+        File cpu = new File(root, "cpu,cpuacct");
+        write(cpu, "cpu.cfs_quota_us", "-1");
+        write(cpu, "cpu.cfs_period_us", "100000");
+        write(cpu, "cpuacct.usage", "0");
+        File nested = new File(cpu, "docker/abc");
+        write(nested, "cpu.cfs_quota_us", "200000");
+        write(nested, "cpu.cfs_period_us", "100000");
+        write(nested, "cpuacct.usage", "0");
+        File procSelfCgroup = write(root, "proc-self-cgroup",
+            "5:memory:/docker/abc\n4:cpu,cpuacct:/docker/abc\n1:name=systemd:/docker/abc\n");
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root.getPath(),
+            procSelfCgroup.getPath(), 1);
+        assertEquals(2.0d, provider.getCpuLimit(), 0.001);
+
+        // The mount point is the cgroup itself if the path does not exist under it (e.g. cgroup namespace).
+        procSelfCgroup = write(root, "proc-self-cgroup", "4:cpu,cpuacct:/docker/other\n");
+        provider = new CgroupSystemMetricsProvider(root.getPath(), procSelfCgroup.getPath(), 1);
+        assertEquals(-1, provider.getCpuLimit(), 0.001);
+    }
+
+    @Test
+    public void testSmoothing() throws IOException {
+        File root = cgroupRoot.getRoot();
+        write(root, "cgroup.controllers", "cpu");
+        write(root, "cpu.max", "100000 100000");
+        writeV2CpuStat(root, 0, 0, 0, 0);
+
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(root.getPath(), 0.5d);
+        provider.sample(0);
+        writeV2CpuStat(root, 100000, 0, 0, 0);
+        provider.sample(INTERVAL_NANOS);
+        // The first value is not smoothed.
+        assertEquals(1.0d, provider.getCpuUsage(), 0.001);
+
+        writeV2CpuStat(root, 100000, 0, 0, 0);
+        provider.sample(INTERVAL_NANOS * 2);
+        assertEquals(0.5d, provider.getCpuUsage(), 0.001);
+        provider.sample(INTERVAL_NANOS * 3);
+        assertEquals(0.25d, provider.getCpuUsage(), 0.001);
+    }
+
+    @Test
+    public void testNotAvailable() {
+        CgroupSystemMetricsProvider provider = new CgroupSystemMetricsProvider(
+            new File(cgroupRoot.getRoot(), "absent").getPath(), 1);
+        assertFalse(provider.isAvailable());
+        assertEquals(-1, provider.getCpuLimit(), 0.001);
+        provider.run();
+        assertEquals(-1, provider.getCpuUsage(), 0.001);
+        assertEquals(-1, provider.getSystemAverageLoad(), 0.001);
+    }
+
+    private void writeV2CpuStat(File root, long usageUsec, long periods, long throttled, long throttledUsec)
+        throws IOException {
+        write(root, "cpu.stat", "usage_usec " + usageUsec + "\nuser_usec 0\nsystem_usec 0\nnr_periods " + periods
+            + "\nnr_throttled " + throttled + "\nthrottled_usec " + throttledUsec + "\n");
+    }
+
+    private File write(File dir, String name, String content) throws IOException {
+        if (!dir.exists()) {
+            assertTrue(dir.mkdirs());
+        }
+        File file = new File(dir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
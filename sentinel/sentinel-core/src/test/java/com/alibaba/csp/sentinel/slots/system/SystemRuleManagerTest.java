@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.alibaba.csp.sentinel.EntryType;
 import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
@@ -99,6 +101,53 @@ public class SystemRuleManagerTest {
         assertTrue("The entry should be blocked under SystemRule maxCpuUsage=0", blocked);
     }
 
+    @Test
+    public void testJmxMetricsProviderByDefault() {
+        assertTrue(SystemRuleManager.getSystemMetricsProvider() instanceof SystemStatusListener);
+    }
+
+    @Test
+    public void testCheckSystemWithMetricsProvider() throws Exception {
+        final CountDownLatch sampled = new CountDownLatch(2);
+        SystemMetricsProvider provider = new SystemMetricsProvider() {
+            @Override
+            public double getSystemAverageLoad() {
+                return 0.3d;
+            }
+
+            @Override
+            public double getCpuUsage() {
+                return 0.9d;
+            }
+
+            @Override
+            public void run() {
+                sampled.countDown();
+            }
+        };
+        SystemMetricsProvider former = SystemRuleManager.getSystemMetricsProvider();
+        try {
+            SystemRuleManager.setSystemMetricsProvider(provider, 100);
+            assertSame(provider, SystemRuleManager.getSystemMetricsProvider());
+            assertTrue(sampled.await(1, TimeUnit.SECONDS));
+            assertEquals(0.9d, SystemRuleManager.getCurrentCpuUsage(), 0.001);
+
+            SystemRule rule = new SystemRule();
+            rule.setHighestCpuUsage(0.8d);
+            SystemRuleManager.loadRules(Collections.singletonList(rule));
+            assertEquals("cpu", SystemRuleManager.getExceededLimitType(
+                new StringResourceWrapper("testCheckSystemWithMetricsProvider", EntryType.IN)));
+
+            SystemRule rule2 = new SystemRule();
+            rule2.setHighestCpuUsage(0.95d);
+            SystemRuleManager.loadRules(Collections.singletonList(rule2));
+            assertNull(SystemRuleManager.getExceededLimitType(
+                new StringResourceWrapper("testCheckSystemWithMetricsProvider", EntryType.IN)));
+        } finally {
+            SystemRuleManager.setSystemMetricsProvider(former, 1000);
+        }
+    }
+
     @Before
     public void setUp() throws Exception {
         SystemRuleManager.loadRules(new ArrayList<SystemRule>());
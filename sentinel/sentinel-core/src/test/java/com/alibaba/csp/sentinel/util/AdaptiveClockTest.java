@@ -0,0 +1,135 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.util;
+
+import java.util.concurrent.TimeUnit;
+
+import com.alibaba.csp.sentinel.util.AdaptiveClock.Mode;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link AdaptiveClock} and {@link TimeUtil#setClock(Clock)}.
+ */
+public class AdaptiveClockTest {
+
+    @Test
+    public void testSwitchBetweenModes() {
+        ManualClock source = new ManualClock(10000);
+        AdaptiveClock clock = new AdaptiveClock(100, 50, 10, source, false);
+        assertEquals(Mode.IDLE, clock.getMode());
+
+        // Reads in idle mode return the time of the source directly.
+        for (int i = 0; i < 49; i++) {
+            assertEquals(10000, clock.currentTimeMillis());
+        }
+        assertEquals(Mode.IDLE, clock.getMode());
+        source.advance(1);
+        assertEquals(10001, clock.currentTimeMillis());
+        assertEquals(Mode.TICKING, clock.getMode());
+        clock.startTicking();
+
+        // Reads in ticking mode return the cached time, which is refreshed by ticks.
+        source.advance(1);
+        assertEquals(10001, clock.currentTimeMillis());
+        clock.tick();
+        assertEquals(10002, clock.currentTimeMillis());
+
+        // Keep reading the clock in every tick, so that it stays in ticking mode.
+        for (int i = 0; i < 300; i++) {
+            source.advance(1);
+            clock.tick();
+            assertEquals(source.currentTimeMillis(), clock.currentTimeMillis());
+        }
+        assertEquals(Mode.TICKING, clock.getMode());
+
+        // Stop reading, then the clock switches back to idle mode in a check interval.
+        for (int i = 0; i < 200 && clock.getMode() == Mode.TICKING; i++) {
+            source.advance(1);
+            clock.tick();
+        }
+        assertEquals(Mode.IDLE, clock.getMode());
+        source.advance(5);
+        assertEquals(source.currentTimeMillis(), clock.currentTimeMillis());
+    }
+
+    @Test
+    public void testStayIdleWithSparseReads() {
+        ManualClock source = new ManualClock(10000);
+        AdaptiveClock clock = new AdaptiveClock(100, 50, 10, source, false);
+
+        // Reads in different check intervals are not accumulated.
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 40; i++) {
+                clock.currentTimeMillis();
+            }
+            source.advance(100);
+        }
+        assertEquals(Mode.IDLE, clock.getMode());
+    }
+
+    @Test
+    public void testTickThread() throws Exception {
+        AdaptiveClock clock = new AdaptiveClock(100, 1, 0);
+        long start = System.currentTimeMillis();
+        // The first read switches the clock to ticking mode.
+        assertTrue(clock.currentTimeMillis() >= start);
+        assertEquals(Mode.TICKING, clock.getMode());
+        // The cached time is refreshed by the tick thread.
+        long deadline = System.currentTimeMillis() + 5000;
+        while (clock.currentTimeMillis() == start && System.currentTimeMillis() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertTrue(clock.currentTimeMillis() > start);
+    }
+
+    @Test
+    public void testSetVirtualClock() {
+        Clock origin = TimeUtil.getClock();
+        try {
+            TimeUtil.setClock(new Clock() {
+                @Override
+                public long currentTimeMillis() {
+                    return 12345L;
+                }
+            });
+            assertEquals(12345L, TimeUtil.currentTimeMillis());
+        } finally {
+            TimeUtil.setClock(origin);
+        }
+        assertNotEquals(12345L, TimeUtil.currentTimeMillis());
+    }
+
+    private static class ManualClock implements Clock {
+
+        private volatile long millis;
+
+        ManualClock(long millis) {
+            this.millis = millis;
+        }
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return millis;
+        }
+    }
+}
@@ -361,7 +361,7 @@ public class MetricFetcher {
     }
 
     private boolean shouldFilterOut(String resource) {
-        return RES_EXCLUSION_SET.contains(resource);
+        return RES_EXCLUSION_SET.contains(resource) || resource.startsWith(Constants.HOT_PARAM_RESOURCE_NAME_PREFIX);
     }
 
     private static final Set<String> RES_EXCLUSION_SET = new HashSet<String>() {{
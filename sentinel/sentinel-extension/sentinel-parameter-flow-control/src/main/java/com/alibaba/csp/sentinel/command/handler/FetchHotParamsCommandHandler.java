@@ -0,0 +1,62 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.slots.block.flow.param.HotParameterTracker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+import com.alibaba.csp.sentinel.util.StringUtil;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * Get the heavy hitters of parameter values in the last complete window, grouped by resource and parameter index.
+ *
+ * @since 1.8.0
+ */
+@CommandMapping(name = "hotParams", desc = "get the hottest parameter values of resources with parameter flow rules,"
+    + " accept param: resource={resourceName}")
+public class FetchHotParamsCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        String resource = request.getParam("resource");
+        long now = TimeUtil.currentTimeMillis();
+        Map<String, Map<Integer, JSONObject>> result = new HashMap<>();
+        for (Map.Entry<String, ParameterMetric> entry : ParameterMetricStorage.getParamMetrics().entrySet()) {
+            if (StringUtil.isNotBlank(resource) && !resource.equals(entry.getKey())) {
+                continue;
+            }
+            Map<Integer, JSONObject> trackers = new HashMap<>();
+            for (Map.Entry<Integer, HotParameterTracker> e : entry.getValue().getHotParameterTrackers().entrySet()) {
+                HotParameterTracker tracker = e.getValue();
+                trackers.put(e.getKey(), new JSONObject()
+                    .fluentPut("windowStart", tracker.getLastWindowStart(now))
+                    .fluentPut("items", tracker.getTopValues(now)));
+            }
+            result.put(entry.getKey(), trackers);
+        }
+        return CommandResponse.ofSuccess(JSON.toJSONString(result));
+    }
+}
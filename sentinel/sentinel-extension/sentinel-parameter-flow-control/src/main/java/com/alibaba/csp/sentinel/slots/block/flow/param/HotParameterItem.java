@@ -0,0 +1,61 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+/**
+ * A heavy hitter of parameter values reported by {@link HotParameterTracker}.
+ *
+ * @since 1.8.0
+ */
+public class HotParameterItem {
+
+    private final Object value;
+    private final long count;
+    private final long error;
+
+    public HotParameterItem(Object value, long count, long error) {
+        this.value = value;
+        this.count = count;
+        this.error = error;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    /**
+     * @return the estimated pass count in the window, which never under-counts
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return the max possible over-count of {@link #getCount()}
+     */
+    public long getError() {
+        return error;
+    }
+
+    @Override
+    public String toString() {
+        return "HotParameterItem{" +
+            "value=" + value +
+            ", count=" + count +
+            ", error=" + error +
+            '}';
+    }
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Streaming tracker of the most frequent values of a parameter, based on the Space-Saving algorithm.
+ * It takes bounded memory no matter how many distinct values there are, and the pass count of each value is
+ * tracked in tumbling windows, so the heavy hitters of the last complete window are always available without
+ * the per-value counters of parameter flow rules.
+ * </p>
+ * <p>
+ * To reduce contention, the values are tracked in several stripes, and the stripes are merged on reading.
+ * A request is tracked in the stripe selected by the current thread, or any other stripe which is not busy,
+ * so it rarely waits for a lock. The estimated count of a value never under-counts, and over-counts by at most
+ * the {@link HotParameterItem#getError() error} of the value, which is bounded by {@code N / capacity} of each
+ * stripe ({@code N} is the total count of the stripe in the window).
+ * </p>
+ * <p>
+ * Parameter values might be sensitive (e.g. user IDs), so the values are reported as their digests
+ * (see {@link #digest(Object)}) rather than the raw values. Tracking is disabled by default, and can be
+ * enabled by {@code csp.sentinel.param.hot.tracking.enabled=true}.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class HotParameterTracker {
+
+    public static final String TRACKING_ENABLED = "csp.sentinel.param.hot.tracking.enabled";
+
+    public static final int DEFAULT_CAPACITY = 16;
+    public static final long DEFAULT_WINDOW_LENGTH_MS = 1000;
+
+    private static final int MAX_STRIPES = 8;
+
+    private final int capacity;
+    private final long windowLengthMs;
+    private final Stripe[] stripes;
+
+    public HotParameterTracker() {
+        this(DEFAULT_CAPACITY, DEFAULT_WINDOW_LENGTH_MS);
+    }
+
+    /**
+     * @param capacity       amount of values tracked in each stripe
+     * @param windowLengthMs length of the statistic window in milliseconds
+     */
+    public HotParameterTracker(int capacity, long windowLengthMs) {
+        this(capacity, windowLengthMs, Math.min(Runtime.getRuntime().availableProcessors(), MAX_STRIPES));
+    }
+
+    HotParameterTracker(int capacity, long windowLengthMs, int stripeCount) {
+        AssertUtil.isTrue(capacity > 0, "capacity should be positive");
+        AssertUtil.isTrue(windowLengthMs > 0, "windowLengthMs should be positive");
+        AssertUtil.isTrue(stripeCount > 0, "stripeCount should be positive");
+        this.capacity = capacity;
+        this.windowLengthMs = windowLengthMs;
+        // Round up to power of 2.
+        int size = Integer.highestOneBit(stripeCount);
+        if (size < stripeCount) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe(capacity);
+        }
+    }
+
+    /**
+     * Check whether hot parameter tracking is enabled by {@link #TRACKING_ENABLED}.
+     *
+     * @return true if enabled
+     */
+    public static boolean isTrackingEnabled() {
+        return Boolean.parseBoolean(SentinelConfig.getConfig(TRACKING_ENABLED));
+    }
+
+    /**
+     * Get the digest of given parameter value reported instead of the value, i.e. the first 8 bytes of the
+     * SHA-256 hash of {@code String.valueOf(value)} in hex.
+     *
+     * @param value the parameter value
+     * @return the digest of the value
+     */
+    public static String digest(Object value) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256")
+                .digest(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                sb.append(Character.forDigit((hash[i] >> 4) & 0xF, 16)).append(Character.forDigit(hash[i] & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is always supported by the JRE.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Add pass count of given value.
+     *
+     * @param value the parameter value
+     * @param count the pass count
+     * @param now   current time in milliseconds
+     */
+    public void add(Object value, int count, long now) {
+        long windowStart = now - now % windowLengthMs;
+        int hash = value.hashCode();
+        int home = (int)(Thread.currentThread().getId() & (stripes.length - 1));
+        // All the stripes are merged on reading, so track in any stripe which is not busy.
+        for (int i = 0; i < stripes.length; i++) {
+            Stripe stripe = stripes[(home + i) & (stripes.length - 1)];
+            if (stripe.lock.tryLock()) {
+                try {
+                    stripe.add(value, hash, count, windowStart, windowLengthMs);
+                } finally {
+                    stripe.lock.unlock();
+                }
+                return;
+            }
+        }
+        Stripe stripe = stripes[home];
+        stripe.lock.lock();
+        try {
+            stripe.add(value, hash, count, windowStart, windowLengthMs);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Get the start time of the last complete window.
+     *
+     * @param now current time in milliseconds
+     * @return start time of the last complete window
+     */
+    public long getLastWindowStart(long now) {
+        return now - now % windowLengthMs - windowLengthMs;
+    }
+
+    /**
+     * Get the heavy hitters in the last complete window, in descending order of the estimated counts.
+     * The values of the items are the {@link #digest(Object) digests} of the parameter values.
+     *
+     * @param now current time in milliseconds
+     * @return the heavy hitters, at most {@code capacity} items
+     */
+    public List<HotParameterItem> getTopValues(long now) {
+        long windowStart = getLastWindowStart(now);
+        Map<Object, long[]> merged = new LinkedHashMap<>();
+        List<Object[]> stripeValues = new ArrayList<>(stripes.length);
+        long[] stripeMinCounts = new long[stripes.length];
+
+        for (int i = 0; i < stripes.length; i++) {
+            Object[] values;
+            long[] counts;
+            long[] errors;
+            Stripe stripe = stripes[i];
+            stripe.lock.lock();
+            try {
+                int size = stripe.sizeOf(windowStart);
+                values = Arrays.copyOf(stripe.valuesOf(windowStart), size);
+                counts = Arrays.copyOf(stripe.countsOf(windowStart), size);
+                errors = Arrays.copyOf(stripe.errorsOf(windowStart), size);
+            } finally {
+                stripe.lock.unlock();
+            }
+            stripeValues.add(values);
+            long minCount = Long.MAX_VALUE;
+            for (int j = 0; j < values.length; j++) {
+                long[] countAndError = merged.get(values[j]);
+                if (countAndError == null) {
+                    countAndError = new long[2];
+                    merged.put(values[j], countAndError);
+                }
+                countAndError[0] += counts[j];
+                countAndError[1] += errors[j];
+                minCount = Math.min(minCount, counts[j]);
+            }
+            // A value absent from a full stripe might have been counted at most the min count of the stripe.
+            stripeMinCounts[i] = values.length == capacity ? minCount : 0;
+        }
+        for (int i = 0; i < stripes.length; i++) {
+            if (stripeMinCounts[i] == 0) {
+                continue;
+            }
+            List<Object> values = Arrays.asList(stripeValues.get(i));
+            for (Map.Entry<Object, long[]> entry : merged.entrySet()) {
+                if (!values.contains(entry.getKey())) {
+                    entry.getValue()[0] += stripeMinCounts[i];
+                    entry.getValue()[1] += stripeMinCounts[i];
+                }
+            }
+        }
+
+        List<Map.Entry<Object, long[]>> entries = new ArrayList<>(merged.entrySet());
+        Collections.sort(entries, new Comparator<Map.Entry<Object, long[]>>() {
+            @Override
+            public int compare(Map.Entry<Object, long[]> a, Map.Entry<Object, long[]> b) {
+                return Long.compare(b.getValue()[0], a.getValue()[0]);
+            }
+        });
+        List<HotParameterItem> items = new ArrayList<>(Math.min(entries.size(), capacity));
+        for (Map.Entry<Object, long[]> entry : entries) {
+            if (items.size() == capacity) {
+                break;
+            }
+            items.add(new HotParameterItem(digest(entry.getKey()), entry.getValue()[0], entry.getValue()[1]));
+        }
+        return items;
+    }
+
+    /**
+     * Space-Saving counters of a stripe, for the current window and the previous window.
+     * Guarded by the lock of the stripe.
+     */
+    private static class Stripe {
+
+        final ReentrantLock lock = new ReentrantLock();
+
+        private long windowStart = -1;
+        private Object[] values;
+        /**
+         * Hash codes of the values in current window, compared before {@code equals}.
+         */
+        private final int[] hashes;
+        private long[] counts;
+        private long[] errors;
+        private int size = 0;
+
+        private long previousWindowStart = -1;
+        private Object[] previousValues;
+        private long[] previousCounts;
+        private long[] previousErrors;
+        private int previousSize = 0;
+
+        Stripe(int capacity) {
+            this.values = new Object[capacity];
+            this.hashes = new int[capacity];
+            this.counts = new long[capacity];
+            this.errors = new long[capacity];
+            this.previousValues = new Object[capacity];
+            this.previousCounts = new long[capacity];
+            this.previousErrors = new long[capacity];
+        }
+
+        void add(Object value, int hash, int count, long currentWindowStart, long windowLengthMs) {
+            if (currentWindowStart != windowStart) {
+                if (currentWindowStart < windowStart) {
+                    // Time goes back, just ignore.
+                    return;
+                }
+                rotate(currentWindowStart, windowLengthMs);
+            }
+            int slot = -1;
+            int minSlot = 0;
+            for (int i = 0; i < size; i++) {
+                if (hashes[i] == hash && values[i].equals(value)) {
+                    slot = i;
+                    break;
+                }
+                if (counts[i] < counts[minSlot]) {
+                    minSlot = i;
+                }
+            }
+            if (slot >= 0) {
+                counts[slot] += count;
+            } else if (size < values.length) {
+                values[size] = value;
+                hashes[size] = hash;
+                counts[size] = count;
+                errors[size] = 0;
+                size++;
+            } else {
+                // Replace the value with min count, which is the max possible count of the new value before.
+                values[minSlot] = value;
+                hashes[minSlot] = hash;
+                errors[minSlot] = counts[minSlot];
+                counts[minSlot] += count;
+            }
+        }
+
+        private void rotate(long currentWindowStart, long windowLengthMs) {
+            // Swap the arrays to avoid allocation.
+            Object[] tmpValues = previousValues;
+            long[] tmpCounts = previousCounts;
+            long[] tmpErrors = previousErrors;
+            previousValues = values;
+            previousCounts = counts;
+            previousErrors = errors;
+            values = tmpValues;
+            counts = tmpCounts;
+            errors = tmpErrors;
+            if (currentWindowStart - windowStart == windowLengthMs) {
+                previousWindowStart = windowStart;
+                previousSize = size;
+            } else {
+                previousWindowStart = -1;
+                previousSize = 0;
+            }
+            Arrays.fill(values, null);
+            size = 0;
+            windowStart = currentWindowStart;
+        }
+
+        int sizeOf(long window) {
+            if (window == windowStart) {
+                return size;
+            }
+            return window == previousWindowStart ? previousSize : 0;
+        }
+
+        Object[] valuesOf(long window) {
+            return window == windowStart ? values : previousValues;
+        }
+
+        long[] countsOf(long window) {
+            return window == windowStart ? counts : previousCounts;
+        }
+
+        long[] errorsOf(long window) {
+            return window == windowStart ? errors : previousErrors;
+        }
+    }
+}
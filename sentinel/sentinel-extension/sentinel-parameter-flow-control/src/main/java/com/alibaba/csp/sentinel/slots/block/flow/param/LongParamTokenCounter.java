@@ -0,0 +1,290 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Token counters of parameter flow rules whose parameter is an integral number (see
+ * {@link ParamFlowRule#getParamType()}), keyed by primitive {@code long} in open-addressing tables.
+ * It's the specialized version of the token counter and time counter in {@link ParameterMetric}, with the same
+ * token bucket algorithm as {@link ParamFlowChecker#passDefaultLocalCheck}, but no boxing of keys and no
+ * allocation on checking.
+ * </p>
+ * <p>
+ * The tables are split into segments guarded by their own locks. The tables of a segment are allocated lazily
+ * and grow with the tracked values, like {@link com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap}.
+ * The capacity is bounded: when the probe sequence of a new value is full at the max capacity, the least recently
+ * refilled value in the sequence is evicted, which approximates the LRU eviction of the exact counters.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class LongParamTokenCounter {
+
+    private static final int SEGMENT_COUNT = 16;
+    private static final int MAX_PROBES = 8;
+    private static final int INITIAL_SEGMENT_CAPACITY = 16;
+
+    private final Segment[] segments;
+
+    /**
+     * Sorted values of hot items and their thresholds.
+     */
+    private final long[] hotValues;
+    private final int[] hotThresholds;
+
+    /**
+     * @param capacity max amount of values to track
+     * @param hotItems parsed hot items of the rule, whose integral values are applied
+     */
+    public LongParamTokenCounter(long capacity, Map<Object, Integer> hotItems) {
+        AssertUtil.isTrue(capacity > 0, "capacity should be positive");
+        int segmentCapacity = MAX_PROBES;
+        while (segmentCapacity * SEGMENT_COUNT < capacity) {
+            segmentCapacity <<= 1;
+        }
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+
+        TreeMap<Long, Integer> sortedItems = new TreeMap<>();
+        if (hotItems != null) {
+            for (Map.Entry<Object, Integer> item : hotItems.entrySet()) {
+                if (ParamFlowRuleUtil.isIntegralValue(item.getKey())) {
+                    sortedItems.put(((Number)item.getKey()).longValue(), item.getValue());
+                }
+            }
+        }
+        this.hotValues = new long[sortedItems.size()];
+        this.hotThresholds = new int[sortedItems.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> item : sortedItems.entrySet()) {
+            hotValues[i] = item.getKey();
+            hotThresholds[i++] = item.getValue();
+        }
+    }
+
+    /**
+     * Get the threshold of given value.
+     *
+     * @param value            the parameter value
+     * @param defaultThreshold threshold of the rule
+     * @return threshold of the hot item if the value is hot item, otherwise the default threshold
+     */
+    public long getThreshold(long value, long defaultThreshold) {
+        if (hotValues.length == 0) {
+            return defaultThreshold;
+        }
+        int index = Arrays.binarySearch(hotValues, value);
+        return index >= 0 ? hotThresholds[index] : defaultThreshold;
+    }
+
+    /**
+     * Try to acquire tokens of given value.
+     *
+     * @param value        the parameter value
+     * @param acquireCount count of tokens to acquire
+     * @param tokenCount   threshold of the value
+     * @param maxCount     max tokens of the value (threshold and burst count)
+     * @param durationMs   statistic duration of the rule in milliseconds
+     * @param now          current time in milliseconds
+     * @return true if acquired, otherwise false
+     */
+    public boolean tryAcquire(long value, int acquireCount, long tokenCount, long maxCount, long durationMs,
+                              long now) {
+        long hash = hash(value);
+        Segment segment = segments[(int)(hash >>> 32) & (SEGMENT_COUNT - 1)];
+        synchronized (segment) {
+            return segment.tryAcquire(value, (int)hash, acquireCount, tokenCount, maxCount, durationMs, now);
+        }
+    }
+
+    /**
+     * Get the remaining tokens of given value. Only for test.
+     *
+     * @param value the parameter value
+     * @return remaining tokens, or -1 if the value is not tracked
+     */
+    long getRestTokens(long value) {
+        long hash = hash(value);
+        Segment segment = segments[(int)(hash >>> 32) & (SEGMENT_COUNT - 1)];
+        synchronized (segment) {
+            int slot = segment.find(value, (int)hash);
+            return slot >= 0 ? segment.tokens[slot] : -1;
+        }
+    }
+
+    /**
+     * Get the total capacity of the allocated tables. Only for test.
+     *
+     * @return allocated capacity
+     */
+    int getAllocatedCapacity() {
+        int capacity = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                capacity += segment.used == null ? 0 : segment.used.length;
+            }
+        }
+        return capacity;
+    }
+
+    private static long hash(long value) {
+        // The finalizer of MurmurHash3, as IDs are often sequential.
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static class Segment {
+
+        private final int maxCapacity;
+        private int mask = -1;
+        private int size = 0;
+        /**
+         * Tables are allocated on the first value and grow with the values until the max capacity,
+         * so that rules with few distinct values take little memory.
+         */
+        private boolean[] used;
+        private long[] values;
+        private long[] lastAddTokenTimes;
+        private long[] tokens;
+
+        Segment(int maxCapacity) {
+            this.maxCapacity = maxCapacity;
+        }
+
+        private void allocate(int capacity) {
+            this.mask = capacity - 1;
+            this.used = new boolean[capacity];
+            this.values = new long[capacity];
+            this.lastAddTokenTimes = new long[capacity];
+            this.tokens = new long[capacity];
+        }
+
+        int find(long value, int hash) {
+            if (used == null) {
+                return -1;
+            }
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (hash + i) & mask;
+                if (!used[slot]) {
+                    // Slots are never released, so the value is absent.
+                    return -1;
+                }
+                if (values[slot] == value) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        boolean tryAcquire(long value, int hash, int acquireCount, long tokenCount, long maxCount,
+                           long durationMs, long now) {
+            if (used == null) {
+                allocate(Math.min(INITIAL_SEGMENT_CAPACITY, maxCapacity));
+            }
+            int victim = -1;
+            for (int i = 0; i < MAX_PROBES; i++) {
+                int slot = (hash + i) & mask;
+                if (!used[slot]) {
+                    victim = slot;
+                    break;
+                }
+                if (values[slot] == value) {
+                    return acquireExisting(slot, acquireCount, tokenCount, maxCount, durationMs, now);
+                }
+                if (victim < 0 || lastAddTokenTimes[slot] < lastAddTokenTimes[victim]) {
+                    victim = slot;
+                }
+            }
+            if (mask + 1 < maxCapacity && (used[victim] || (size + 1) * 4 > (mask + 1) * 3)) {
+                // Grow rather than evict before reaching the max capacity.
+                resize((mask + 1) << 1);
+                return tryAcquire(value, hash, acquireCount, tokenCount, maxCount, durationMs, now);
+            }
+            if (!used[victim]) {
+                size++;
+            }
+            // Token never added (or evicted), just replenish the tokens and consume {@code acquireCount} immediately.
+            used[victim] = true;
+            values[victim] = value;
+            lastAddTokenTimes[victim] = now;
+            tokens[victim] = maxCount - acquireCount;
+            return true;
+        }
+
+        private void resize(int capacity) {
+            boolean[] oldUsed = used;
+            long[] oldValues = values;
+            long[] oldLastAddTokenTimes = lastAddTokenTimes;
+            long[] oldTokens = tokens;
+            allocate(capacity);
+            this.size = 0;
+            for (int i = 0; i < oldUsed.length; i++) {
+                if (!oldUsed[i]) {
+                    continue;
+                }
+                int hash = (int)hash(oldValues[i]);
+                for (int j = 0; j < MAX_PROBES; j++) {
+                    int slot = (hash + j) & mask;
+                    if (!used[slot]) {
+                        used[slot] = true;
+                        values[slot] = oldValues[i];
+                        lastAddTokenTimes[slot] = oldLastAddTokenTimes[i];
+                        tokens[slot] = oldTokens[i];
+                        size++;
+                        break;
+                    }
+                }
+                // Otherwise the value is dropped, as if evicted.
+            }
+        }
+
+        private boolean acquireExisting(int slot, int acquireCount, long tokenCount, long maxCount, long durationMs,
+                                        long now) {
+            long passTime = now - lastAddTokenTimes[slot];
+            long restTokens = tokens[slot];
+            if (passTime > durationMs) {
+                long toAddCount = (passTime * tokenCount) / durationMs;
+                long newTokens = toAddCount + restTokens > maxCount ? (maxCount - acquireCount)
+                    : (restTokens + toAddCount - acquireCount);
+                if (newTokens < 0) {
+                    return false;
+                }
+                tokens[slot] = newTokens;
+                lastAddTokenTimes[slot] = now;
+                return true;
+            }
+            if (restTokens - acquireCount >= 0) {
+                tokens[slot] = restTokens - acquireCount;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -69,16 +69,28 @@ public final class ParamFlowChecker {
         return passLocalCheck(resourceWrapper, rule, count, value);
     }
 
+    @SuppressWarnings("rawtypes")
     private static boolean passLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int count,
                                           Object value) {
         try {
-            if (Collection.class.isAssignableFrom(value.getClass())) {
+            LongParamTokenCounter longCounter = getLongTokenCounter(resourceWrapper, rule);
+            if (longCounter != null) {
+                return passLongLocalCheck(resourceWrapper, rule, longCounter, count, value);
+            }
+            if (value instanceof Collection) {
                 for (Object param : ((Collection)value)) {
                     if (!passSingleValueCheck(resourceWrapper, rule, count, param)) {
                         return false;
                     }
                 }
+            } else if (value instanceof Object[]) {
+                for (Object param : (Object[])value) {
+                    if (!passSingleValueCheck(resourceWrapper, rule, count, param)) {
+                        return false;
+                    }
+                }
             } else if (value.getClass().isArray()) {
+                // Arrays of primitive types.
                 int length = Array.getLength(value);
                 for (int i = 0; i < length; i++) {
                     Object param = Array.get(value, i);
@@ -96,11 +108,81 @@ public final class ParamFlowChecker {
         return true;
     }
 
+    private static LongParamTokenCounter getLongTokenCounter(ResourceWrapper resourceWrapper, ParamFlowRule rule) {
+        if (rule.getParamType() == null || !ParamFlowRuleUtil.isLongParamRule(rule)) {
+            return null;
+        }
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        return metric == null ? null : metric.getRuleLongTokenCounter(rule);
+    }
+
+    /**
+     * Check the parameter values of integral number type without boxing, falling back to
+     * {@link #passSingleValueCheck} for the values of other types.
+     */
+    @SuppressWarnings("rawtypes")
+    private static boolean passLongLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule,
+                                              LongParamTokenCounter counter, int count, Object value) {
+        if (value instanceof long[]) {
+            for (long param : (long[])value) {
+                if (!passLongValueCheck(rule, counter, count, param)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof int[]) {
+            for (int param : (int[])value) {
+                if (!passLongValueCheck(rule, counter, count, param)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Collection) {
+            for (Object param : ((Collection)value)) {
+                if (!passLongOrSingleValueCheck(resourceWrapper, rule, counter, count, param)) {
+                    return false;
+                }
+            }
+        } else if (value instanceof Object[]) {
+            for (Object param : (Object[])value) {
+                if (!passLongOrSingleValueCheck(resourceWrapper, rule, counter, count, param)) {
+                    return false;
+                }
+            }
+        } else {
+            return passLongOrSingleValueCheck(resourceWrapper, rule, counter, count, value);
+        }
+        return true;
+    }
+
+    private static boolean passLongOrSingleValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule,
+                                                      LongParamTokenCounter counter, int count, Object value) {
+        if (ParamFlowRuleUtil.isIntegralValue(value)) {
+            return passLongValueCheck(rule, counter, count, ((Number)value).longValue());
+        }
+        return passSingleValueCheck(resourceWrapper, rule, count, value);
+    }
+
+    static boolean passLongValueCheck(ParamFlowRule rule, LongParamTokenCounter counter, int acquireCount,
+                                      long value) {
+        long tokenCount = counter.getThreshold(value, (long)rule.getCount());
+        if (tokenCount == 0) {
+            return false;
+        }
+
+        long maxCount = tokenCount + rule.getBurstCount();
+        if (acquireCount > maxCount) {
+            return false;
+        }
+        return counter.tryAcquire(value, acquireCount, tokenCount, maxCount, rule.getDurationInSec() * 1000,
+            TimeUtil.currentTimeMillis());
+    }
+
     static boolean passSingleValueCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                         Object value) {
         if (rule.getGrade() == RuleConstant.FLOW_GRADE_QPS) {
             if (rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER) {
                 return passThrottleLocalCheck(resourceWrapper, rule, acquireCount, value);
+            } else if (rule.getStatisticMode() == ParamFlowRule.STATISTIC_MODE_SKETCH) {
+                return passSketchLocalCheck(resourceWrapper, rule, acquireCount, value);
             } else {
                 return passDefaultLocalCheck(resourceWrapper, rule, acquireCount, value);
             }
@@ -195,6 +277,27 @@ public final class ParamFlowChecker {
         }
     }
 
+    static boolean passSketchLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
+                                        Object value) {
+        ParameterMetric metric = getParameterMetric(resourceWrapper);
+        ParameterSketch sketch = metric == null ? null : metric.getRuleSketch(rule);
+        if (sketch == null) {
+            return true;
+        }
+
+        Integer itemThreshold = rule.getParsedHotItems().get(value);
+        long tokenCount = itemThreshold == null ? (long)rule.getCount() : itemThreshold;
+        if (tokenCount == 0) {
+            return false;
+        }
+
+        long maxCount = tokenCount + rule.getBurstCount();
+        if (acquireCount > maxCount) {
+            return false;
+        }
+        return sketch.tryAdd(value, acquireCount, maxCount, TimeUtil.currentTimeMillis());
+    }
+
     static boolean passThrottleLocalCheck(ResourceWrapper resourceWrapper, ParamFlowRule rule, int acquireCount,
                                           Object value) {
         ParameterMetric metric = getParameterMetric(resourceWrapper);
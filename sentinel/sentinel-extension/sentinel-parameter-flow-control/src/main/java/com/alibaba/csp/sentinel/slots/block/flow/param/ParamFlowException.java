@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import com.alibaba.csp.sentinel.slots.block.BlockException;
+import com.alibaba.csp.sentinel.slots.block.BlockReason;
 
 /**
  * Block exception for frequent ("hot-spot") parameter flow control.
@@ -43,6 +44,24 @@ public class ParamFlowException extends BlockException {
         this.rule = rule;
     }
 
+    private ParamFlowException(String resourceName, String param, ParamFlowRule rule, boolean shared) {
+        super(param, param, rule, shared);
+        this.resourceName = resourceName;
+    }
+
+    /**
+     * Create the exception shared by all requests of the parameter value blocked by the rule.
+     *
+     * @param resourceName the blocked resource
+     * @param param        the parameter value that triggered the parameter flow control
+     * @param rule         the triggered rule
+     * @return the shared exception
+     * @since 1.8.0
+     */
+    static ParamFlowException shared(String resourceName, String param, ParamFlowRule rule) {
+        return new ParamFlowException(resourceName, param, rule, true);
+    }
+
     public String getResourceName() {
         return resourceName;
     }
@@ -73,4 +92,9 @@ public class ParamFlowException extends BlockException {
     public ParamFlowRule getRule() {
         return rule.as(ParamFlowRule.class);
     }
+
+    @Override
+    public BlockReason getReason() {
+        return BlockReason.PARAM_FLOW;
+    }
 }
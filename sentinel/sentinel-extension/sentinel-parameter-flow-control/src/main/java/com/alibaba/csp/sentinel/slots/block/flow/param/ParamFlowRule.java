@@ -24,6 +24,7 @@ import java.util.Objects;
 import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slots.block.AbstractRule;
+import com.alibaba.csp.sentinel.slots.block.BlockExceptionCache;
 import com.alibaba.csp.sentinel.slots.block.RuleConstant;
 
 /**
@@ -35,6 +36,20 @@ import com.alibaba.csp.sentinel.slots.block.RuleConstant;
  */
 public class ParamFlowRule extends AbstractRule {
 
+    /**
+     * Count the parameter values exactly, with a counter for each value (bounded by LRU capacity).
+     *
+     * @since 1.8.0
+     */
+    public static final int STATISTIC_MODE_EXACT = 0;
+    /**
+     * Count the parameter values approximately, with fixed-memory count-min sketch (see {@link ParameterSketch}).
+     * Only available for QPS grade with default control behavior.
+     *
+     * @since 1.8.0
+     */
+    public static final int STATISTIC_MODE_SKETCH = 1;
+
     public ParamFlowRule() {}
 
     public ParamFlowRule(String resourceName) {
@@ -51,6 +66,12 @@ public class ParamFlowRule extends AbstractRule {
      */
     private Integer paramIdx;
 
+    /**
+     * Declared class type of the parameter (e.g. {@code long}, {@code java.lang.String}), optional.
+     * Parameters of integral number types are checked without boxing (since 1.8.0).
+     */
+    private String paramType;
+
     /**
      * The threshold count.
      */
@@ -65,6 +86,11 @@ public class ParamFlowRule extends AbstractRule {
     private int burstCount = 0;
     private long durationInSec = 1;
 
+    /**
+     * Statistic mode of the parameter values (since 1.8.0).
+     */
+    private int statisticMode = STATISTIC_MODE_EXACT;
+
     /**
      * Original exclusion items of parameters.
      */
@@ -84,6 +110,12 @@ public class ParamFlowRule extends AbstractRule {
      */
     private ParamFlowClusterConfig clusterConfig;
 
+    /**
+     * Exceptions shared by all requests of the same parameter value blocked by the rule.
+     */
+    private final BlockExceptionCache<Object, ParamFlowException> blockExceptions
+        = new BlockExceptionCache<Object, ParamFlowException>();
+
     public int getControlBehavior() {
         return controlBehavior;
     }
@@ -120,6 +152,24 @@ public class ParamFlowRule extends AbstractRule {
         return this;
     }
 
+    public String getParamType() {
+        return paramType;
+    }
+
+    public ParamFlowRule setParamType(String paramType) {
+        this.paramType = paramType;
+        return this;
+    }
+
+    public int getStatisticMode() {
+        return statisticMode;
+    }
+
+    public ParamFlowRule setStatisticMode(int statisticMode) {
+        this.statisticMode = statisticMode;
+        return this;
+    }
+
     public int getGrade() {
         return grade;
     }
@@ -163,6 +213,35 @@ public class ParamFlowRule extends AbstractRule {
         return hotItems.get(value);
     }
 
+    /**
+     * Get the exception shared by requests blocked by the rule with the same parameter value.
+     *
+     * @param resourceName the blocked resource
+     * @param args         arguments of the blocked request
+     * @return the exception to throw
+     */
+    ParamFlowException getBlockException(String resourceName, Object[] args) {
+        Object value = "";
+        if (paramIdx != null && paramIdx >= 0 && args.length > paramIdx) {
+            value = args[paramIdx];
+            if (!isImmutableValue(value)) {
+                // Mutable values (e.g. collections) could not be cache keys.
+                value = String.valueOf(value);
+            }
+        }
+        ParamFlowException e = blockExceptions.get(value);
+        if (e == null) {
+            e = blockExceptions.cache(value, ParamFlowException.shared(resourceName, String.valueOf(value), this));
+        }
+        return e;
+    }
+
+    private static boolean isImmutableValue(Object value) {
+        return value instanceof String || value instanceof Integer || value instanceof Long
+            || value instanceof Short || value instanceof Byte || value instanceof Double || value instanceof Float
+            || value instanceof Boolean || value instanceof Character;
+    }
+
     Map<Object, Integer> getParsedHotItems() {
         return hotItems;
     }
@@ -210,8 +289,10 @@ public class ParamFlowRule extends AbstractRule {
         if (maxQueueingTimeMs != that.maxQueueingTimeMs) { return false; }
         if (burstCount != that.burstCount) { return false; }
         if (durationInSec != that.durationInSec) { return false; }
+        if (statisticMode != that.statisticMode) { return false; }
         if (clusterMode != that.clusterMode) { return false; }
         if (!Objects.equals(paramIdx, that.paramIdx)) { return false; }
+        if (!Objects.equals(paramType, that.paramType)) { return false; }
         if (!Objects.equals(paramFlowItemList, that.paramFlowItemList)) { return false; }
         return Objects.equals(clusterConfig, that.clusterConfig);
     }
@@ -222,12 +303,14 @@ public class ParamFlowRule extends AbstractRule {
         long temp;
         result = 31 * result + grade;
         result = 31 * result + (paramIdx != null ? paramIdx.hashCode() : 0);
+        result = 31 * result + (paramType != null ? paramType.hashCode() : 0);
         temp = Double.doubleToLongBits(count);
         result = 31 * result + (int)(temp ^ (temp >>> 32));
         result = 31 * result + controlBehavior;
         result = 31 * result + maxQueueingTimeMs;
         result = 31 * result + burstCount;
         result = 31 * result + (int)(durationInSec ^ (durationInSec >>> 32));
+        result = 31 * result + statisticMode;
         result = 31 * result + (paramFlowItemList != null ? paramFlowItemList.hashCode() : 0);
         result = 31 * result + (clusterMode ? 1 : 0);
         result = 31 * result + (clusterConfig != null ? clusterConfig.hashCode() : 0);
@@ -239,11 +322,13 @@ public class ParamFlowRule extends AbstractRule {
         return "ParamFlowRule{" +
             "grade=" + grade +
             ", paramIdx=" + paramIdx +
+            ", paramType='" + paramType + '\'' +
             ", count=" + count +
             ", controlBehavior=" + controlBehavior +
             ", maxQueueingTimeMs=" + maxQueueingTimeMs +
             ", burstCount=" + burstCount +
             ", durationInSec=" + durationInSec +
+            ", statisticMode=" + statisticMode +
             ", paramFlowItemList=" + paramFlowItemList +
             ", clusterMode=" + clusterMode +
             ", clusterConfig=" + clusterConfig +
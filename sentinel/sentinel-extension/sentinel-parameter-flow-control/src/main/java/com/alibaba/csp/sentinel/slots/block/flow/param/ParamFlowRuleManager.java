@@ -25,6 +25,7 @@ import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.property.DynamicSentinelProperty;
 import com.alibaba.csp.sentinel.property.PropertyListener;
 import com.alibaba.csp.sentinel.property.SentinelProperty;
+import com.alibaba.csp.sentinel.slotchain.SlotChainSpecializer;
 import com.alibaba.csp.sentinel.util.AssertUtil;
 
 /**
@@ -106,6 +107,7 @@ public final class ParamFlowRuleManager {
                 paramFlowRules.clear();
                 paramFlowRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: " + paramFlowRules);
         }
 
@@ -116,6 +118,7 @@ public final class ParamFlowRuleManager {
                 paramFlowRules.clear();
                 paramFlowRules.putAll(rules);
             }
+            SlotChainSpecializer.invalidate();
             RecordLog.info("[ParamFlowRuleManager] Parameter flow rules received: " + paramFlowRules);
         }
 
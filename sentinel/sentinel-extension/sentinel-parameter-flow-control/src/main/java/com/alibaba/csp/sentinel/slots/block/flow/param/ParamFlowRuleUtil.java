@@ -16,6 +16,7 @@
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -37,6 +38,10 @@ import com.alibaba.csp.sentinel.util.function.Predicate;
  */
 public final class ParamFlowRuleUtil {
 
+    private static final Set<String> INTEGRAL_PARAM_TYPES = new HashSet<>(Arrays.asList(
+        long.class.toString(), Long.class.getName(), int.class.toString(), Integer.class.getName(),
+        short.class.toString(), Short.class.getName(), byte.class.toString(), Byte.class.getName()));
+
     /**
      * Check whether the provided rule is valid.
      *
@@ -48,7 +53,20 @@ public final class ParamFlowRuleUtil {
             && rule.getGrade() >= 0 && rule.getParamIdx() != null
             && rule.getBurstCount() >= 0 && rule.getControlBehavior() >= 0
             && rule.getDurationInSec() > 0 && rule.getMaxQueueingTimeMs() >= 0
-            && checkCluster(rule);
+            && checkStatisticMode(rule) && checkCluster(rule);
+    }
+
+    private static boolean checkStatisticMode(/*@PreChecked*/ ParamFlowRule rule) {
+        switch (rule.getStatisticMode()) {
+            case ParamFlowRule.STATISTIC_MODE_EXACT:
+                return true;
+            case ParamFlowRule.STATISTIC_MODE_SKETCH:
+                // The sketch only counts passed requests in the sliding window.
+                return rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+                    && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_DEFAULT;
+            default:
+                return false;
+        }
     }
 
     private static boolean checkCluster(/*@PreChecked*/ ParamFlowRule rule) {
@@ -185,6 +203,30 @@ public final class ParamFlowRuleUtil {
         return newRuleMap;
     }
 
+    /**
+     * Check whether the parameter values of the rule can be counted by {@link LongParamTokenCounter},
+     * i.e. the rule is in exact statistic mode with QPS grade and default control behavior,
+     * and the declared parameter type is integral number.
+     *
+     * @param rule valid parameter flow rule
+     * @return true if applicable, otherwise false
+     * @since 1.8.0
+     */
+    static boolean isLongParamRule(/*@Valid*/ ParamFlowRule rule) {
+        return rule.getGrade() == RuleConstant.FLOW_GRADE_QPS
+            && rule.getControlBehavior() == RuleConstant.CONTROL_BEHAVIOR_DEFAULT
+            && rule.getStatisticMode() == ParamFlowRule.STATISTIC_MODE_EXACT
+            && isIntegralParamType(rule.getParamType());
+    }
+
+    static boolean isIntegralParamType(String paramType) {
+        return paramType != null && INTEGRAL_PARAM_TYPES.contains(paramType);
+    }
+
+    static boolean isIntegralValue(Object value) {
+        return value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte;
+    }
+
     static Map<Object, Integer> parseHotItems(List<ParamFlowItem> items) {
         if (items == null || items.isEmpty()) {
             return new HashMap<>();
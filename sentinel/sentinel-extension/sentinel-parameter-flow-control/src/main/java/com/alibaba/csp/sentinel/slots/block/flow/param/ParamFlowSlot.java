@@ -21,6 +21,7 @@ import com.alibaba.csp.sentinel.context.Context;
 import com.alibaba.csp.sentinel.node.DefaultNode;
 import com.alibaba.csp.sentinel.slotchain.AbstractLinkedProcessorSlot;
 import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.RuleCheckSlot;
 import com.alibaba.csp.sentinel.slots.block.BlockException;
 
 /**
@@ -30,7 +31,7 @@ import com.alibaba.csp.sentinel.slots.block.BlockException;
  * @author Eric Zhao
  * @since 0.2.0
  */
-public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
+public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> implements RuleCheckSlot {
 
     @Override
     public void entry(Context context, ResourceWrapper resourceWrapper, DefaultNode node, int count,
@@ -44,6 +45,11 @@ public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
         fireEntry(context, resourceWrapper, node, count, prioritized, args);
     }
 
+    @Override
+    public boolean hasRules(ResourceWrapper resourceWrapper) {
+        return ParamFlowRuleManager.hasRules(resourceWrapper.getName());
+    }
+
     @Override
     public void exit(Context context, ResourceWrapper resourceWrapper, int count, Object... args) {
         fireExit(context, resourceWrapper, count, args);
@@ -77,12 +83,7 @@ public class ParamFlowSlot extends AbstractLinkedProcessorSlot<DefaultNode> {
             ParameterMetricStorage.initParamMetricsFor(resourceWrapper, rule);
 
             if (!ParamFlowChecker.passCheck(resourceWrapper, rule, count, args)) {
-                String triggeredParam = "";
-                if (args.length > rule.getParamIdx()) {
-                    Object value = args[rule.getParamIdx()];
-                    triggeredParam = String.valueOf(value);
-                }
-                throw new ParamFlowException(resourceWrapper.getName(), triggeredParam, rule);
+                throw rule.getBlockException(resourceWrapper.getName(), args);
             }
         }
     }
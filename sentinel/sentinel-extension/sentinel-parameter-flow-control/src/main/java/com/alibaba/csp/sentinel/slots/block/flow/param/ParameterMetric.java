@@ -17,6 +17,7 @@ package com.alibaba.csp.sentinel.slots.block.flow.param;
 
 import java.lang.reflect.Array;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -25,6 +26,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.slots.statistic.cache.CacheMap;
 import com.alibaba.csp.sentinel.slots.statistic.cache.ConcurrentLinkedHashMapWrapper;
+import com.alibaba.csp.sentinel.util.TimeUtil;
 
 /**
  * Metrics for frequent ("hot spot") parameters.
@@ -52,7 +54,25 @@ public class ParameterMetric {
      * @since 1.6.0
      */
     private final Map<ParamFlowRule, CacheMap<Object, AtomicLong>> ruleTokenCounter = new HashMap<>();
+    /**
+     * Format: (rule, longTokenCounter), only for rules of integral parameter type.
+     *
+     * @since 1.8.0
+     */
+    private final Map<ParamFlowRule, LongParamTokenCounter> ruleLongTokenCounters = new HashMap<>();
     private final Map<Integer, CacheMap<Object, AtomicInteger>> threadCountMap = new HashMap<>();
+    /**
+     * Format: (rule, sketch), only for rules in {@link ParamFlowRule#STATISTIC_MODE_SKETCH}.
+     *
+     * @since 1.8.0
+     */
+    private final Map<ParamFlowRule, ParameterSketch> ruleSketches = new HashMap<>();
+    /**
+     * Format: (paramIdx, tracker)
+     *
+     * @since 1.8.0
+     */
+    private final Map<Integer, HotParameterTracker> hotParameterTrackers = new HashMap<>();
 
     /**
      * Get the token counter for given parameter rule.
@@ -76,15 +96,100 @@ public class ParameterMetric {
         return ruleTimeCounters.get(rule);
     }
 
+    /**
+     * Get the primitive-keyed token counter for given parameter rule of integral parameter type.
+     *
+     * @param rule valid parameter rule
+     * @return the associated token counter, or null if the rule is not applicable
+     * @since 1.8.0
+     */
+    public LongParamTokenCounter getRuleLongTokenCounter(ParamFlowRule rule) {
+        return ruleLongTokenCounters.get(rule);
+    }
+
+    /**
+     * Get the count-min sketch for given parameter rule in {@link ParamFlowRule#STATISTIC_MODE_SKETCH}.
+     *
+     * @param rule valid parameter rule
+     * @return the associated sketch
+     * @since 1.8.0
+     */
+    public ParameterSketch getRuleSketch(ParamFlowRule rule) {
+        return ruleSketches.get(rule);
+    }
+
+    /**
+     * Get the heavy hitter tracker of given parameter index.
+     *
+     * @param index the parameter index
+     * @return the associated tracker, or null if absent
+     * @since 1.8.0
+     */
+    public HotParameterTracker getHotParameterTracker(int index) {
+        return hotParameterTrackers.get(index);
+    }
+
+    /**
+     * Get the heavy hitter trackers of all parameter indexes with parameter flow rules, if hot parameter tracking
+     * is enabled (see {@link HotParameterTracker#TRACKING_ENABLED}).
+     *
+     * @return unmodifiable map of (paramIdx, tracker)
+     * @since 1.8.0
+     */
+    public Map<Integer, HotParameterTracker> getHotParameterTrackers() {
+        synchronized (lock) {
+            return Collections.unmodifiableMap(new HashMap<>(hotParameterTrackers));
+        }
+    }
+
     public void clear() {
         synchronized (lock) {
             threadCountMap.clear();
             ruleTimeCounters.clear();
             ruleTokenCounter.clear();
+            ruleLongTokenCounters.clear();
+            ruleSketches.clear();
+            hotParameterTrackers.clear();
         }
     }
 
     public void initialize(ParamFlowRule rule) {
+        if (rule.getStatisticMode() == ParamFlowRule.STATISTIC_MODE_SKETCH) {
+            initializeSketch(rule);
+        } else {
+            initializeCounters(rule);
+        }
+
+        if (!threadCountMap.containsKey(rule.getParamIdx())) {
+            synchronized (lock) {
+                if (threadCountMap.get(rule.getParamIdx()) == null) {
+                    threadCountMap.put(rule.getParamIdx(),
+                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
+                }
+            }
+        }
+
+        if (HotParameterTracker.isTrackingEnabled() && !hotParameterTrackers.containsKey(rule.getParamIdx())) {
+            synchronized (lock) {
+                if (hotParameterTrackers.get(rule.getParamIdx()) == null) {
+                    hotParameterTrackers.put(rule.getParamIdx(), new HotParameterTracker());
+                }
+            }
+        }
+    }
+
+    private void initializeSketch(ParamFlowRule rule) {
+        if (!ruleSketches.containsKey(rule)) {
+            synchronized (lock) {
+                if (ruleSketches.get(rule) == null) {
+                    ruleSketches.put(rule,
+                        new ParameterSketch(rule.getDurationInSec() * 1000, TimeUtil.currentTimeMillis()));
+                }
+            }
+        }
+    }
+
+    private void initializeCounters(ParamFlowRule rule) {
         if (!ruleTimeCounters.containsKey(rule)) {
             synchronized (lock) {
                 if (ruleTimeCounters.get(rule) == null) {
@@ -103,11 +208,11 @@ public class ParameterMetric {
             }
         }
 
-        if (!threadCountMap.containsKey(rule.getParamIdx())) {
+        if (ParamFlowRuleUtil.isLongParamRule(rule) && !ruleLongTokenCounters.containsKey(rule)) {
             synchronized (lock) {
-                if (threadCountMap.get(rule.getParamIdx()) == null) {
-                    threadCountMap.put(rule.getParamIdx(),
-                        new ConcurrentLinkedHashMapWrapper<Object, AtomicInteger>(THREAD_COUNT_MAX_CAPACITY));
+                if (ruleLongTokenCounters.get(rule) == null) {
+                    long size = Math.min(BASE_PARAM_MAX_CAPACITY * rule.getDurationInSec(), TOTAL_MAX_CAPACITY);
+                    ruleLongTokenCounters.put(rule, new LongParamTokenCounter(size, rule.getParsedHotItems()));
                 }
             }
         }
@@ -230,6 +335,51 @@ public class ParameterMetric {
         }
     }
 
+    /**
+     * Add the pass count of the parameter values to the heavy hitter trackers.
+     *
+     * @param count pass count
+     * @param args  the parameters
+     * @since 1.8.0
+     */
+    @SuppressWarnings("rawtypes")
+    public void addHotParameters(int count, Object... args) {
+        if (args == null) {
+            return;
+        }
+
+        try {
+            long now = TimeUtil.currentTimeMillis();
+            for (int index = 0; index < args.length; index++) {
+                HotParameterTracker tracker = hotParameterTrackers.get(index);
+                Object arg = args[index];
+                if (tracker == null || arg == null) {
+                    continue;
+                }
+
+                if (Collection.class.isAssignableFrom(arg.getClass())) {
+                    for (Object value : ((Collection)arg)) {
+                        if (value != null) {
+                            tracker.add(value, count, now);
+                        }
+                    }
+                } else if (arg.getClass().isArray()) {
+                    int length = Array.getLength(arg);
+                    for (int i = 0; i < length; i++) {
+                        Object value = Array.get(arg, i);
+                        if (value != null) {
+                            tracker.add(value, count, now);
+                        }
+                    }
+                } else {
+                    tracker.add(arg, count, now);
+                }
+            }
+        } catch (Throwable e) {
+            RecordLog.warn("[ParameterMetric] Param exception", e);
+        }
+    }
+
     public long getThreadCount(int index, Object value) {
         CacheMap<Object, AtomicInteger> cacheMap = threadCountMap.get(index);
         if (cacheMap == null) {
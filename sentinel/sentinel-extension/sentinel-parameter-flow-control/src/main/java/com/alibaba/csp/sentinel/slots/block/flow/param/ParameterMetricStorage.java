@@ -15,6 +15,7 @@
  */
 package com.alibaba.csp.sentinel.slots.block.flow.param;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -83,6 +84,16 @@ public final class ParameterMetricStorage {
         RecordLog.info("[ParameterMetricStorage] Clearing parameter metric for: " + resourceName);
     }
 
+    /**
+     * Get the parameter metrics of all resources.
+     *
+     * @return unmodifiable map of (resourceName, metric)
+     * @since 1.8.0
+     */
+    public static Map<String, ParameterMetric> getParamMetrics() {
+        return Collections.unmodifiableMap(metricsMap);
+    }
+
     static Map<String, ParameterMetric> getMetricsMap() {
         return metricsMap;
     }
@@ -0,0 +1,369 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.alibaba.csp.sentinel.concurrent.NamedThreadFactory;
+import com.alibaba.csp.sentinel.util.AssertUtil;
+
+/**
+ * <p>
+ * Windowed count-min sketch of the pass count of parameter values, used by parameter flow rules in
+ * {@link ParamFlowRule#STATISTIC_MODE_SKETCH}. Unlike the exact per-value counters, the sketch takes fixed memory
+ * ({@code 2 * depth * width} counters, plus a spare set) no matter how many distinct values there are, and
+ * allocates nothing when checking a request, except when the window rotates.
+ * </p>
+ * <p>
+ * The counts are kept in two tumbling windows of {@code durationInSec}, and the count of a value is estimated
+ * as the count in the current window plus the count in the previous window weighted by its overlap with
+ * the sliding window ending now. The estimate never under-counts, and over-counts by at most {@code 2N / width}
+ * with probability at least {@code 1 - 2^-depth}, where {@code N} is the total count in the windows.
+ * The counter of each row is selected by its own hash, derived from the hash code of the value mixed with
+ * a per-row seed.
+ * </p>
+ * <p>
+ * Checking and adding the count of a value is lock-free: the counter of the value in the first row acts as
+ * its stripe. The other rows are added first, and then the first counter is updated by a CAS from the value
+ * read before estimating, so concurrent requests of the same value never pass more than the max count.
+ * A request that loses the CAS takes back its counts and retries, which might over-count other values for
+ * a moment, but never under-counts.
+ * </p>
+ * <p>
+ * Rotating the windows swaps in a pre-cleared set of counters, so requests never wait for a reset.
+ * The counters retired by the rotation are cleared in background, and then kept as the next spare set.
+ * </p>
+ * <p>
+ * A small top-K table of heavy hitters is maintained alongside the sketch for observability.
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class ParameterSketch {
+
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_WIDTH = 2048;
+    public static final int DEFAULT_TOP_K = 16;
+
+    private static final long ROW_SEED = 0x9e3779b97f4a7c15L;
+
+    @SuppressWarnings("PMD.ThreadPoolCreationRule")
+    private static final ExecutorService CLEANER = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<Runnable>(1024), new NamedThreadFactory("sentinel-param-sketch-cleaner", true),
+        new ThreadPoolExecutor.DiscardPolicy());
+
+    private final int depth;
+    private final int width;
+    private final int mask;
+    private final long windowLengthMs;
+
+    private final AtomicReference<Windows> windows;
+    /**
+     * A cleared set of counters for the next rotation.
+     */
+    private final AtomicReference<AtomicLongArray> spareCounters = new AtomicReference<>();
+
+    private final ReentrantLock topLock = new ReentrantLock();
+    private final Object[] topValues;
+    private final long[] topCounts;
+    private volatile int topSize = 0;
+    private volatile long topMinCount = 0;
+
+    public ParameterSketch(long windowLengthMs, long now) {
+        this(DEFAULT_DEPTH, DEFAULT_WIDTH, DEFAULT_TOP_K, windowLengthMs, now);
+    }
+
+    /**
+     * @param depth          amount of hash functions (rows)
+     * @param width          amount of counters in a row, should be power of 2
+     * @param topK           capacity of the heavy hitter table
+     * @param windowLengthMs length of the statistic window in milliseconds
+     * @param now            current time in milliseconds
+     */
+    public ParameterSketch(int depth, int width, int topK, long windowLengthMs, long now) {
+        AssertUtil.isTrue(depth > 0, "depth should be positive");
+        AssertUtil.isTrue(width > 0 && (width & (width - 1)) == 0, "width should be positive power of 2");
+        AssertUtil.isTrue(topK >= 0, "topK should not be negative");
+        AssertUtil.isTrue(windowLengthMs > 0, "windowLengthMs should be positive");
+        this.depth = depth;
+        this.width = width;
+        this.mask = width - 1;
+        this.windowLengthMs = windowLengthMs;
+        this.windows = new AtomicReference<>(new Windows(now - now % windowLengthMs,
+            new AtomicLongArray(depth * width), null));
+        this.topValues = new Object[topK];
+        this.topCounts = new long[topK];
+    }
+
+    /**
+     * Add {@code acquireCount} to the count of given value if the estimated count after adding does not
+     * exceed {@code maxCount}.
+     *
+     * @param value        the parameter value
+     * @param acquireCount count to add
+     * @param maxCount     max count of the value in the statistic window
+     * @param now          current time in milliseconds
+     * @return true if added, otherwise false
+     */
+    public boolean tryAdd(Object value, int acquireCount, long maxCount, long now) {
+        Windows w = rotate(now);
+        long hash = hash(value);
+        AtomicLongArray current = w.current;
+        int first = counterIndex(hash, 0);
+        double previousWeight = previousWeight(w, now);
+        while (true) {
+            // Read the first counter before the others, see the doc of the class.
+            long firstCount = current.get(first);
+            long estimate = estimate(hash, w, previousWeight, firstCount);
+            if (estimate + acquireCount > maxCount) {
+                return false;
+            }
+            for (int i = 1; i < depth; i++) {
+                current.addAndGet(counterIndex(hash, i), acquireCount);
+            }
+            if (current.compareAndSet(first, firstCount, firstCount + acquireCount)) {
+                offerTop(value, estimate + acquireCount);
+                return true;
+            }
+            // Another request of the value (or of a colliding value) has been added meanwhile.
+            for (int i = 1; i < depth; i++) {
+                current.addAndGet(counterIndex(hash, i), -acquireCount);
+            }
+        }
+    }
+
+    /**
+     * Get the estimated count of given value in the sliding window ending at {@code now}.
+     *
+     * @param value the parameter value
+     * @param now   current time in milliseconds
+     * @return the estimated count
+     */
+    public long estimate(Object value, long now) {
+        Windows w = rotate(now);
+        long hash = hash(value);
+        return estimate(hash, w, previousWeight(w, now), w.current.get(counterIndex(hash, 0)));
+    }
+
+    /**
+     * Get the heavy hitters with their estimated counts, in descending order of the counts.
+     *
+     * @param now current time in milliseconds
+     * @return the heavy hitters and their estimated counts
+     */
+    public Map<Object, Long> getTopValues(long now) {
+        Object[] values;
+        topLock.lock();
+        try {
+            values = Arrays.copyOf(topValues, topSize);
+        } finally {
+            topLock.unlock();
+        }
+        List<Map.Entry<Object, Long>> estimates = new ArrayList<>(values.length);
+        for (Object value : values) {
+            long estimate = estimate(value, now);
+            if (estimate > 0) {
+                estimates.add(new SimpleImmutableEntry<>(value, estimate));
+            }
+        }
+        Collections.sort(estimates, new Comparator<Map.Entry<Object, Long>>() {
+            @Override
+            public int compare(Map.Entry<Object, Long> a, Map.Entry<Object, Long> b) {
+                return Long.compare(b.getValue(), a.getValue());
+            }
+        });
+        Map<Object, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<Object, Long> entry : estimates) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    private double previousWeight(Windows w, long now) {
+        return 1 - Math.min(Math.max(now - w.start, 0), windowLengthMs) * 1.0d / windowLengthMs;
+    }
+
+    private long estimate(long hash, Windows w, double previousWeight, long firstCount) {
+        AtomicLongArray previous = w.previous;
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < depth; i++) {
+            int index = counterIndex(hash, i);
+            long count = i == 0 ? firstCount : w.current.get(index);
+            if (previous != null) {
+                count += (long)Math.ceil(previous.get(index) * previousWeight);
+            }
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    /**
+     * Rotate the windows if the current window has expired.
+     *
+     * @return the up-to-date windows
+     */
+    private Windows rotate(long now) {
+        Windows w = windows.get();
+        while (now - w.start >= windowLengthMs) {
+            long newWindowStart = now - now % windowLengthMs;
+            // The previous window is kept only if it is adjacent to the new window.
+            boolean adjacent = newWindowStart - w.start == windowLengthMs;
+            AtomicLongArray counters = takeSpareCounters();
+            Windows next = new Windows(newWindowStart, counters, adjacent ? w.current : null);
+            if (windows.compareAndSet(w, next)) {
+                retire(w.previous);
+                if (!adjacent) {
+                    retire(w.current);
+                }
+                resetTop();
+                return next;
+            }
+            // Rotated by another thread, the counters are still clear.
+            spareCounters.compareAndSet(null, counters);
+            w = windows.get();
+        }
+        return w;
+    }
+
+    private AtomicLongArray takeSpareCounters() {
+        AtomicLongArray counters = spareCounters.getAndSet(null);
+        return counters == null ? new AtomicLongArray(depth * width) : counters;
+    }
+
+    private void retire(final AtomicLongArray counters) {
+        if (counters == null) {
+            return;
+        }
+        // If the cleaner is busy, the counters are just dropped and the next rotation allocates new ones.
+        CLEANER.execute(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < counters.length(); i++) {
+                    counters.set(i, 0);
+                }
+                spareCounters.compareAndSet(null, counters);
+            }
+        });
+    }
+
+    private void offerTop(Object value, long count) {
+        int capacity = topValues.length;
+        if (capacity == 0 || (topSize == capacity && count <= topMinCount)) {
+            return;
+        }
+        // Heavy hitters are best-effort, so never wait for the lock on the hot path.
+        if (!topLock.tryLock()) {
+            return;
+        }
+        try {
+            int size = topSize;
+            int slot = -1;
+            for (int i = 0; i < size; i++) {
+                if (topValues[i].equals(value)) {
+                    slot = i;
+                    break;
+                }
+            }
+            if (slot < 0) {
+                if (size < capacity) {
+                    slot = size;
+                    topSize = size + 1;
+                } else {
+                    slot = minTopSlot();
+                    if (count <= topCounts[slot]) {
+                        return;
+                    }
+                }
+                topValues[slot] = value;
+            }
+            topCounts[slot] = Math.max(topCounts[slot], count);
+            topMinCount = topSize == capacity ? topCounts[minTopSlot()] : 0;
+        } finally {
+            topLock.unlock();
+        }
+    }
+
+    private int minTopSlot() {
+        int slot = 0;
+        for (int i = 1; i < topSize; i++) {
+            if (topCounts[i] < topCounts[slot]) {
+                slot = i;
+            }
+        }
+        return slot;
+    }
+
+    private void resetTop() {
+        topLock.lock();
+        try {
+            // Keep the heavy hitters but let new values compete with them in the new window.
+            Arrays.fill(topCounts, 0);
+            topMinCount = 0;
+        } finally {
+            topLock.unlock();
+        }
+    }
+
+    private int counterIndex(long hash, int row) {
+        // Each row has its own hash, mixed from the hash of the value with a per-row seed.
+        return row * width + (int)(mix(hash + (row + 1) * ROW_SEED) & mask);
+    }
+
+    private static long hash(Object value) {
+        return mix(value.hashCode());
+    }
+
+    /**
+     * The finalizer of MurmurHash3 to spread the bits.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Windows {
+        private final long start;
+        private final AtomicLongArray current;
+        /**
+         * Counters of the previous window, or null if it's not adjacent to the current window.
+         */
+        private final AtomicLongArray previous;
+
+        Windows(long start, AtomicLongArray current, AtomicLongArray previous) {
+            this.start = start;
+            this.current = current;
+            this.previous = previous;
+        }
+    }
+}
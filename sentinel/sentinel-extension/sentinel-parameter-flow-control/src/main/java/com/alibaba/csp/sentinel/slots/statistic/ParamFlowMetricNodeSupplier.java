@@ -0,0 +1,63 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.statistic;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricNodeSupplier;
+import com.alibaba.csp.sentinel.slots.block.flow.param.HotParameterItem;
+import com.alibaba.csp.sentinel.slots.block.flow.param.HotParameterTracker;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetric;
+import com.alibaba.csp.sentinel.slots.block.flow.param.ParameterMetricStorage;
+
+/**
+ * <p>
+ * Supplies the heavy hitters of parameter values in the last complete window to the {@code metric} command.
+ * Each heavy hitter is a virtual resource named
+ * {@code __hot_param__{resourceName}#{paramIdx}#{valueDigest}}, whose pass QPS is the estimated pass count.
+ * The raw parameter values never appear in the metrics (see {@link HotParameterTracker#digest(Object)}).
+ * </p>
+ *
+ * @since 1.8.0
+ */
+public class ParamFlowMetricNodeSupplier implements MetricNodeSupplier {
+
+    static final String SEPARATOR = "#";
+
+    @Override
+    public List<MetricNode> getMetricNodes(long currentTime) {
+        List<MetricNode> nodes = new ArrayList<>();
+        for (Map.Entry<String, ParameterMetric> entry : ParameterMetricStorage.getParamMetrics().entrySet()) {
+            for (Map.Entry<Integer, HotParameterTracker> e : entry.getValue().getHotParameterTrackers().entrySet()) {
+                HotParameterTracker tracker = e.getValue();
+                long windowStart = tracker.getLastWindowStart(currentTime);
+                for (HotParameterItem item : tracker.getTopValues(currentTime)) {
+                    MetricNode node = new MetricNode();
+                    node.setTimestamp(windowStart);
+                    node.setResource(Constants.HOT_PARAM_RESOURCE_NAME_PREFIX + entry.getKey() + SEPARATOR
+                        + e.getKey() + SEPARATOR + item.getValue());
+                    node.setPassQps(item.getCount());
+                    nodes.add(node);
+                }
+            }
+        }
+        return nodes;
+    }
+}
@@ -36,6 +36,7 @@ public class ParamFlowStatisticEntryCallback implements ProcessorSlotEntryCallba
 
         if (parameterMetric != null) {
             parameterMetric.addThreadCount(args);
+            parameterMetric.addHotParameters(count, args);
         }
     }
 
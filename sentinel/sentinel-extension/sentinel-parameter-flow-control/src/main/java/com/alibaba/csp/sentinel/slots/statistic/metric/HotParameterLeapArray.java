@@ -48,8 +48,8 @@ public class HotParameterLeapArray extends LeapArray<ParamMapBucket> {
 
     @Override
     protected WindowWrap<ParamMapBucket> resetWindowTo(WindowWrap<ParamMapBucket> w, long startTime) {
-        w.resetTo(startTime);
         w.value().reset();
+        w.resetTo(startTime);
         return w;
     }
 
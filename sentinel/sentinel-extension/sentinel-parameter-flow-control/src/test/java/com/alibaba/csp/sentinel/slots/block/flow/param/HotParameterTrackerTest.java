@@ -0,0 +1,177 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.statistic.ParamFlowMetricNodeSupplier;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link HotParameterTracker}.
+ */
+public class HotParameterTrackerTest extends AbstractTimeBasedTest {
+
+    @Before
+    @After
+    public void clearMetrics() {
+        ParameterMetricStorage.getMetricsMap().clear();
+        SentinelConfig.removeConfig(HotParameterTracker.TRACKING_ENABLED);
+    }
+
+    @Test
+    public void testSpaceSaving() {
+        HotParameterTracker tracker = new HotParameterTracker(3, 1000, 1);
+        for (int i = 0; i < 10; i++) {
+            tracker.add("a", 1, 100);
+        }
+        for (int i = 0; i < 5; i++) {
+            tracker.add("b", 1, 200);
+        }
+        tracker.add("c", 1, 300);
+        // Replaces "c", the value with min count.
+        tracker.add("d", 2, 400);
+        // Not available until the window completes.
+        assertTrue(tracker.getTopValues(999).isEmpty());
+
+        List<HotParameterItem> items = tracker.getTopValues(1000);
+        assertEquals(3, items.size());
+        assertItem(items.get(0), "a", 10, 0);
+        assertItem(items.get(1), "b", 5, 0);
+        assertItem(items.get(2), "d", 3, 1);
+        assertEquals(0, tracker.getLastWindowStart(1500));
+
+        // Counts of the next window are separated.
+        tracker.add("e", 7, 1100);
+        assertEquals(HotParameterTracker.digest("a"), tracker.getTopValues(1999).get(0).getValue());
+        items = tracker.getTopValues(2000);
+        assertEquals(1, items.size());
+        assertItem(items.get(0), "e", 7, 0);
+        assertTrue(tracker.getTopValues(3000).isEmpty());
+    }
+
+    @Test
+    public void testHeavyHittersFound() {
+        HotParameterTracker tracker = new HotParameterTracker(8, 1000, 1);
+        for (int i = 0; i < 10000; i++) {
+            tracker.add("user" + i, 1, 0);
+            if (i % 4 == 0) {
+                tracker.add("tenant", 1, 0);
+            }
+        }
+        HotParameterItem top = tracker.getTopValues(1000).get(0);
+        assertEquals(HotParameterTracker.digest("tenant"), top.getValue());
+        // Never under-counts, and the over-count is bounded by the error.
+        assertTrue(top.getCount() >= 2500);
+        assertTrue(top.getCount() - top.getError() <= 2500);
+    }
+
+    @Test
+    public void testMergeStripes() throws InterruptedException {
+        final HotParameterTracker tracker = new HotParameterTracker(2, 1000, 2);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            final int n = i;
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    tracker.add("hot", 5, 0);
+                    tracker.add("cold" + n, 1, 0);
+                    tracker.add("cold" + n + "_2", 1, 0);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        HotParameterItem top = tracker.getTopValues(1000).get(0);
+        assertEquals(HotParameterTracker.digest("hot"), top.getValue());
+        assertTrue(top.getCount() >= 20);
+        assertTrue(top.getCount() - top.getError() <= 20);
+    }
+
+    @Test
+    public void testDigest() {
+        String digest = HotParameterTracker.digest("user|1\n2");
+        assertTrue(digest.matches("[0-9a-f]{16}"));
+        assertEquals(digest, HotParameterTracker.digest("user|1\n2"));
+        assertNotEquals(digest, HotParameterTracker.digest("user|1\n3"));
+        assertEquals(HotParameterTracker.digest("123"), HotParameterTracker.digest(123));
+    }
+
+    @Test
+    public void testNotTrackedByDefault() {
+        String resourceName = "testNotTrackedByDefault";
+        ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        ParameterMetricStorage.initParamMetricsFor(resourceWrapper, new ParamFlowRule(resourceName)
+            .setParamIdx(0).setCount(10));
+        ParameterMetric metric = ParameterMetricStorage.getParamMetric(resourceWrapper);
+        assertNull(metric.getHotParameterTracker(0));
+        assertTrue(metric.getHotParameterTrackers().isEmpty());
+        metric.addHotParameters(1, "user");
+        assertTrue(new ParamFlowMetricNodeSupplier().getMetricNodes(TimeUtil.currentTimeMillis()).isEmpty());
+    }
+
+    @Test
+    public void testTrackedFromParameterMetric() {
+        SentinelConfig.setConfig(HotParameterTracker.TRACKING_ENABLED, "true");
+        String resourceName = "testTrackedFromParameterMetric";
+        ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        ParameterMetricStorage.initParamMetricsFor(resourceWrapper, new ParamFlowRule(resourceName)
+            .setParamIdx(1).setCount(10));
+        ParameterMetric metric = ParameterMetricStorage.getParamMetric(resourceWrapper);
+        assertNotNull(metric.getHotParameterTracker(1));
+        assertNull(metric.getHotParameterTracker(0));
+
+        setCurrentMillis(10000);
+        metric.addHotParameters(2, "ignored", "tenantA");
+        metric.addHotParameters(1, "ignored", Arrays.asList("tenantA", "tenantB"));
+        metric.addHotParameters(1, "ignored", new String[] {"tenantB", null});
+        sleep(1000);
+
+        List<HotParameterItem> items = metric.getHotParameterTracker(1).getTopValues(10000 + 1000);
+        assertItem(items.get(0), "tenantA", 3, 0);
+        assertItem(items.get(1), "tenantB", 2, 0);
+
+        List<MetricNode> nodes = new ParamFlowMetricNodeSupplier().getMetricNodes(10000 + 1000);
+        assertEquals(2, nodes.size());
+        assertEquals(Constants.HOT_PARAM_RESOURCE_NAME_PREFIX + resourceName + "#1#"
+            + HotParameterTracker.digest("tenantA"), nodes.get(0).getResource());
+        assertEquals(3, nodes.get(0).getPassQps());
+        assertEquals(10000, nodes.get(0).getTimestamp());
+    }
+
+    private void assertItem(HotParameterItem item, Object value, long count, long error) {
+        assertEquals(HotParameterTracker.digest(value), item.getValue());
+        assertEquals(count, item.getCount());
+        assertEquals(error, item.getError());
+    }
+}
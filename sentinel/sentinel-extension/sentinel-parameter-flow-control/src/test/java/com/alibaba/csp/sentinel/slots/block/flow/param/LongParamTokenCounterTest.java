@@ -0,0 +1,153 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link LongParamTokenCounter} and the integral parameter fast path of {@link ParamFlowChecker}.
+ */
+public class LongParamTokenCounterTest extends AbstractTimeBasedTest {
+
+    @After
+    public void tearDown() {
+        ParameterMetricStorage.getMetricsMap().clear();
+    }
+
+    @Test
+    public void testTokenBucket() {
+        LongParamTokenCounter counter = new LongParamTokenCounter(100, null);
+        long now = 100000;
+        // Threshold 5 per 2 seconds with 1 burst.
+        for (int i = 0; i < 6; i++) {
+            assertTrue(counter.tryAcquire(42L, 1, 5, 6, 2000, now));
+        }
+        assertFalse(counter.tryAcquire(42L, 1, 5, 6, 2000, now + 1000));
+        assertEquals(0, counter.getRestTokens(42L));
+        assertEquals(-1, counter.getRestTokens(43L));
+
+        // 6 tokens are added 2.6 seconds after the last refilling.
+        assertTrue(counter.tryAcquire(42L, 3, 5, 6, 2000, now + 2600));
+        assertEquals(6 - 3, counter.getRestTokens(42L));
+        assertFalse(counter.tryAcquire(42L, 4, 5, 6, 2000, now + 2700));
+    }
+
+    @Test
+    public void testBoundedCapacity() {
+        LongParamTokenCounter counter = new LongParamTokenCounter(128, null);
+        for (long i = 0; i < 100000; i++) {
+            assertTrue(counter.tryAcquire(i, 1, 1, 1, 1000, i));
+        }
+        int tracked = 0;
+        for (long i = 0; i < 100000; i++) {
+            if (counter.getRestTokens(i) >= 0) {
+                tracked++;
+            }
+        }
+        assertEquals(128, tracked);
+        // The recently refilled values are kept.
+        assertEquals(0, counter.getRestTokens(99999L));
+    }
+
+    @Test
+    public void testLazyAllocation() {
+        LongParamTokenCounter counter = new LongParamTokenCounter(200000, null);
+        assertEquals(0, counter.getAllocatedCapacity());
+        assertTrue(counter.tryAcquire(-1L, 1, 1, 1, 1000, 0));
+        assertEquals(16, counter.getAllocatedCapacity());
+
+        // Tables grow with the values rather than evicting them.
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(counter.tryAcquire(i, 1, 1, 1, 1000, i));
+        }
+        for (long i = 0; i < 1000; i++) {
+            assertTrue(counter.getRestTokens(i) >= 0);
+        }
+        assertTrue(counter.getAllocatedCapacity() <= 16 * 256);
+    }
+
+    @Test
+    public void testHotItemThreshold() {
+        Map<Object, Integer> hotItems = new HashMap<>();
+        hotItems.put(7L, 100);
+        hotItems.put(3, 30);
+        hotItems.put("7", 70);
+        LongParamTokenCounter counter = new LongParamTokenCounter(100, hotItems);
+        assertEquals(100, counter.getThreshold(7L, 5));
+        assertEquals(30, counter.getThreshold(3L, 5));
+        assertEquals(5, counter.getThreshold(4L, 5));
+    }
+
+    @Test
+    public void testLongParamFastPath() {
+        String resourceName = "testLongParamFastPath";
+        ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        ParamFlowRule rule = new ParamFlowRule(resourceName)
+            .setParamIdx(0)
+            .setCount(2)
+            .setParamType("long");
+        ParamFlowRule objectRule = new ParamFlowRule(resourceName)
+            .setParamIdx(0)
+            .setCount(2);
+        ParamFlowRule rateLimiterRule = new ParamFlowRule(resourceName)
+            .setParamIdx(0)
+            .setCount(2)
+            .setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)
+            .setParamType("long");
+        for (ParamFlowRule r : Arrays.asList(rule, objectRule, rateLimiterRule)) {
+            ParamFlowRuleUtil.fillExceptionFlowItems(r);
+            ParameterMetricStorage.initParamMetricsFor(resourceWrapper, r);
+        }
+        ParameterMetric metric = ParameterMetricStorage.getParamMetric(resourceWrapper);
+        LongParamTokenCounter counter = metric.getRuleLongTokenCounter(rule);
+        assertNotNull(counter);
+        assertNull(metric.getRuleLongTokenCounter(objectRule));
+        assertNull(metric.getRuleLongTokenCounter(rateLimiterRule));
+
+        setCurrentMillis(100000);
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, 1L));
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, 1));
+        assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, new long[] {2L, 1L}));
+        assertEquals(0, counter.getRestTokens(1L));
+        assertEquals(1, counter.getRestTokens(2L));
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, new int[] {2, 3}));
+        assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, Collections.singletonList(2L)));
+        // Passed as one parameter of array type, rather than as the varargs.
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, (Object)new Long[] {3L}));
+        assertEquals(0, counter.getRestTokens(3L));
+        assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, (Object)new Long[] {4L, 3L}));
+
+        // Values of other types fall back to the object counters.
+        assertTrue(ParamFlowChecker.passCheck(resourceWrapper, rule, 2, "1"));
+        assertFalse(ParamFlowChecker.passCheck(resourceWrapper, rule, 1, Arrays.<Object>asList(4L, "1")));
+        assertNotNull(metric.getRuleTokenCounter(rule).get("1"));
+        assertNull(metric.getRuleTokenCounter(rule).get(1L));
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.slots.block.flow.param;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.alibaba.csp.sentinel.EntryType;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slotchain.StringResourceWrapper;
+import com.alibaba.csp.sentinel.slots.block.RuleConstant;
+import com.alibaba.csp.sentinel.test.AbstractTimeBasedTest;
+import com.alibaba.csp.sentinel.util.TimeUtil;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test cases for {@link ParameterSketch} and {@link ParamFlowRule#STATISTIC_MODE_SKETCH}.
+ */
+public class ParameterSketchTest extends AbstractTimeBasedTest {
+
+    @After
+    public void tearDown() {
+        ParameterMetricStorage.getMetricsMap().clear();
+    }
+
+    @Test
+    public void testTryAddInWindow() {
+        ParameterSketch sketch = new ParameterSketch(1000, 0);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(sketch.tryAdd("a", 1, 5, 100));
+        }
+        assertFalse(sketch.tryAdd("a", 1, 5, 200));
+        assertTrue(sketch.tryAdd("b", 3, 5, 200));
+        assertFalse(sketch.tryAdd("b", 3, 5, 200));
+        assertEquals(5, sketch.estimate("a", 300));
+        assertEquals(3, sketch.estimate("b", 300));
+        assertEquals(0, sketch.estimate("c", 300));
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        ParameterSketch sketch = new ParameterSketch(1000, 0);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(sketch.tryAdd("a", 1, 10, 900));
+        }
+        // Weighted by the overlap with the previous window.
+        assertEquals(8, sketch.estimate("a", 1200));
+        assertTrue(sketch.tryAdd("a", 2, 10, 1200));
+        assertFalse(sketch.tryAdd("a", 1, 10, 1200));
+        assertEquals(2 + 5, sketch.estimate("a", 1500));
+        // Only the windows adjacent to the current window are counted.
+        assertEquals(2, sketch.estimate("a", 2000));
+        assertEquals(0, sketch.estimate("a", 4000));
+    }
+
+    @Test
+    public void testConcurrentTryAddInOneWindow() throws Exception {
+        final ParameterSketch sketch = new ParameterSketch(1000, 0);
+        final AtomicInteger passed = new AtomicInteger();
+        int threadCount = 8;
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 1000; i++) {
+                        if (sketch.tryAdd("a", 1, 1000, 500)) {
+                            passed.incrementAndGet();
+                        }
+                    }
+                    done.countDown();
+                }
+            }).start();
+        }
+        done.await();
+
+        assertEquals(1000, passed.get());
+        assertEquals(1000, sketch.estimate("a", 500));
+    }
+
+    @Test
+    public void testConcurrentTryAddWhenRotating() throws Exception {
+        final ParameterSketch sketch = new ParameterSketch(1000, 0);
+        assertTrue(sketch.tryAdd("a", 50, 100, 500));
+        assertTrue(sketch.tryAdd("a", 30, 100, 1100));
+        final AtomicInteger passed = new AtomicInteger();
+        int threadCount = 8;
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        // The first requests race with resetting the stale window.
+                        for (int i = 0; i < 100; i++) {
+                            if (sketch.tryAdd("a", 1, 100, 2500)) {
+                                passed.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException ignore) {
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        // Half of the previous window is counted.
+        assertEquals(100 - 15, passed.get());
+        assertEquals(100, sketch.estimate("a", 2500));
+    }
+
+    @Test
+    public void testBoundedOverCount() {
+        int width = 1024;
+        ParameterSketch sketch = new ParameterSketch(4, width, 16, 1000, 0);
+        int distinct = 100000;
+        for (int i = 0; i < distinct; i++) {
+            assertTrue(sketch.tryAdd("user" + i, 1, Long.MAX_VALUE, 0));
+        }
+        int exceeded = 0;
+        for (int i = 0; i < distinct; i++) {
+            long estimate = sketch.estimate("user" + i, 0);
+            assertTrue(estimate >= 1);
+            if (estimate - 1 > 2L * distinct / width) {
+                exceeded++;
+            }
+        }
+        // Expected ratio is at most 2^-depth.
+        assertTrue(exceeded < distinct / 16);
+    }
+
+    @Test
+    public void testRowsHashedIndependently() {
+        // With 2 counters in a row, a value collides with another one in a row by half chance,
+        // but rarely in all rows if the rows are hashed independently.
+        ParameterSketch sketch = new ParameterSketch(8, 2, 0, 1000, 0);
+        assertTrue(sketch.tryAdd(-1, 10, 100, 100));
+        int fullyCollided = 0;
+        for (int i = 0; i < 100; i++) {
+            if (sketch.estimate(i, 100) > 0) {
+                fullyCollided++;
+            }
+        }
+        assertTrue(fullyCollided < 10);
+    }
+
+    @Test
+    public void testRotateWithReusedCounters() throws Exception {
+        ParameterSketch sketch = new ParameterSketch(1000, 0);
+        for (int i = 0; i < 10; i++) {
+            long now = i * 2000L + 100;
+            assertEquals(0, sketch.estimate("a", now));
+            for (int j = 0; j < 5; j++) {
+                assertTrue(sketch.tryAdd("a", 1, 5, now));
+            }
+            assertFalse(sketch.tryAdd("a", 1, 5, now));
+            // Let the retired counters be cleared for reuse.
+            Thread.sleep(20);
+        }
+    }
+
+    @Test
+    public void testTopValues() {
+        ParameterSketch sketch = new ParameterSketch(4, 1024, 2, 1000, 0);
+        for (int i = 0; i < 10; i++) {
+            sketch.tryAdd("hot", 1, Long.MAX_VALUE, 0);
+            sketch.tryAdd("cold" + i, 1, Long.MAX_VALUE, 0);
+        }
+        for (int i = 0; i < 5; i++) {
+            sketch.tryAdd("warm", 1, Long.MAX_VALUE, 0);
+        }
+        List<Object> topValues = new ArrayList<Object>(sketch.getTopValues(0).keySet());
+        assertEquals(2, topValues.size());
+        assertEquals("hot", topValues.get(0));
+        assertEquals("warm", topValues.get(1));
+        assertEquals(10, (long)sketch.getTopValues(0).get("hot"));
+
+        // Values in the previous window fade out.
+        Map<Object, Long> topValuesLater = sketch.getTopValues(2000);
+        assertTrue(topValuesLater.isEmpty());
+    }
+
+    @Test
+    public void testSketchModeCheck() {
+        String resourceName = "testSketchModeCheck";
+        ResourceWrapper resourceWrapper = new StringResourceWrapper(resourceName, EntryType.IN);
+        ParamFlowRule rule = new ParamFlowRule(resourceName)
+            .setCount(2)
+            .setParamIdx(0)
+            .setStatisticMode(ParamFlowRule.STATISTIC_MODE_SKETCH);
+        ParamFlowItem item = new ParamFlowItem().setObject("vip").setClassType(String.class.getName()).setCount(4);
+        rule.setParamFlowItemList(Collections.singletonList(item));
+        rule.setParsedHotItems(ParamFlowRuleUtil.parseHotItems(rule.getParamFlowItemList()));
+        assertTrue(ParamFlowRuleUtil.isValidRule(rule));
+
+        setCurrentMillis(100000);
+        ParameterMetricStorage.initParamMetricsFor(resourceWrapper, rule);
+        ParameterMetric metric = ParameterMetricStorage.getParamMetric(resourceWrapper);
+        assertNotNull(metric.getRuleSketch(rule));
+        assertNull(metric.getRuleTokenCounter(rule));
+
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "user"));
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "user"));
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "user"));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "vip"));
+        }
+        assertFalse(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 1, "vip"));
+
+        sleep(2000);
+        assertTrue(ParamFlowChecker.passSingleValueCheck(resourceWrapper, rule, 2, "user"));
+        assertEquals(2, metric.getRuleSketch(rule).estimate("user", TimeUtil.currentTimeMillis()));
+    }
+
+    @Test
+    public void testInvalidSketchModeRule() {
+        ParamFlowRule rule = new ParamFlowRule("abc")
+            .setCount(2)
+            .setParamIdx(0)
+            .setStatisticMode(ParamFlowRule.STATISTIC_MODE_SKETCH);
+        assertTrue(ParamFlowRuleUtil.isValidRule(rule));
+        assertFalse(ParamFlowRuleUtil.isValidRule(rule.setGrade(RuleConstant.FLOW_GRADE_THREAD)));
+        rule.setGrade(RuleConstant.FLOW_GRADE_QPS);
+        assertFalse(ParamFlowRuleUtil.isValidRule(
+            rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_RATE_LIMITER)));
+        assertFalse(ParamFlowRuleUtil.isValidRule(
+            rule.setControlBehavior(RuleConstant.CONTROL_BEHAVIOR_DEFAULT).setStatisticMode(2)));
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.Map;
+
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRule;
+import com.alibaba.csp.sentinel.slots.block.flow.FlowRuleManager;
+import com.alibaba.csp.sentinel.slots.block.flow.controller.AdaptiveConcurrencyController;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * Fetches the current concurrency limits of flow rules with adaptive concurrency behavior.
+ *
+ * @since 1.8.0
+ */
+@CommandMapping(name = "adaptiveLimits", desc = "get current concurrency limits of adaptive concurrency flow rules")
+public class FetchAdaptiveLimitCommandHandler implements CommandHandler<String> {
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        String resource = request.getParam("id");
+        JSONArray array = new JSONArray();
+        for (Map.Entry<FlowRule, AdaptiveConcurrencyController> e
+            : FlowRuleManager.getAdaptiveConcurrencyControllers().entrySet()) {
+            FlowRule rule = e.getKey();
+            if (resource != null && !resource.equals(rule.getResource())) {
+                continue;
+            }
+            AdaptiveConcurrencyController controller = e.getValue();
+            JSONObject item = new JSONObject(true);
+            item.put("resource", rule.getResource());
+            item.put("limitApp", rule.getLimitApp());
+            item.put("limit", controller.getLimit());
+            item.put("minLimit", controller.getConfig().getMinLimit());
+            item.put("maxLimit", controller.getMaxLimit());
+            item.put("noLoadRt", controller.getNoLoadRt());
+            item.put("lastRt", controller.getLastRt());
+            ClusterNode node = ClusterBuilderSlot.getClusterNode(rule.getResource());
+            item.put("concurrency", node == null ? 0 : node.curThreadNum());
+            array.add(item);
+        }
+        return CommandResponse.ofSuccess(array.toJSONString());
+    }
+}
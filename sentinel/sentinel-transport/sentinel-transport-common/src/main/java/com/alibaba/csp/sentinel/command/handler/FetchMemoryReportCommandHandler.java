@@ -0,0 +1,149 @@
+/*
+ * Copyright 1999-2018 Alibaba Group Holding Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.alibaba.csp.sentinel.command.handler;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import com.alibaba.csp.sentinel.Constants;
+import com.alibaba.csp.sentinel.command.CommandHandler;
+import com.alibaba.csp.sentinel.command.CommandRequest;
+import com.alibaba.csp.sentinel.command.CommandResponse;
+import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
+import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.node.ClusterNode;
+import com.alibaba.csp.sentinel.node.DefaultNode;
+import com.alibaba.csp.sentinel.node.EntranceNode;
+import com.alibaba.csp.sentinel.node.Node;
+import com.alibaba.csp.sentinel.node.NodeMemoryEstimator;
+import com.alibaba.csp.sentinel.node.StatisticNode;
+import com.alibaba.csp.sentinel.slotchain.ResourceWrapper;
+import com.alibaba.csp.sentinel.slots.clusterbuilder.ClusterBuilderSlot;
+import com.alibaba.fastjson.JSONObject;
+
+/**
+ * Reports the estimated heap size of statistic nodes, per resource and per node type.
+ *
+ * @since 1.8.0
+ */
+@CommandMapping(name = "memoryReport", desc = "get estimated memory (bytes) of statistic nodes per resource and per node type")
+public class FetchMemoryReportCommandHandler implements CommandHandler<String> {
+
+    private static final String CLUSTER_NODE = "clusterNode";
+    private static final String DEFAULT_NODE = "defaultNode";
+    private static final String ENTRANCE_NODE = "entranceNode";
+    private static final String ORIGIN_NODE = "originNode";
+
+    @Override
+    public CommandResponse<String> handle(CommandRequest request) {
+        Map<String, Usage> types = new TreeMap<String, Usage>();
+        Map<String, Map<String, Usage>> resources = new TreeMap<String, Map<String, Usage>>();
+
+        for (Map.Entry<ResourceWrapper, ClusterNode> e : ClusterBuilderSlot.getClusterNodeMap().entrySet()) {
+            String resource = e.getKey().getName();
+            ClusterNode clusterNode = e.getValue();
+            record(types, resources, resource, CLUSTER_NODE, clusterNode);
+            for (StatisticNode originNode : clusterNode.getOriginCountMap().values()) {
+                record(types, resources, resource, ORIGIN_NODE, originNode);
+            }
+        }
+        visit(Constants.ROOT, types, resources, Collections.newSetFromMap(new IdentityHashMap<Node, Boolean>()));
+
+        JSONObject result = new JSONObject(true);
+        result.put("totalBytes", sum(types));
+        result.put("lazyMinuteStatistics", SentinelConfig.lazyMinuteStatisticEnabled());
+        result.put("nodeTypes", toJson(types));
+        JSONObject resourceJson = new JSONObject(true);
+        for (Map.Entry<String, Map<String, Usage>> e : resources.entrySet()) {
+            JSONObject item = toJson(e.getValue());
+            item.put("totalBytes", sum(e.getValue()));
+            resourceJson.put(e.getKey(), item);
+        }
+        result.put("resources", resourceJson);
+        return CommandResponse.ofSuccess(result.toJSONString());
+    }
+
+    /**
+     * Preorder traversal of the invocation tree.
+     */
+    private void visit(DefaultNode node, Map<String, Usage> types, Map<String, Map<String, Usage>> resources,
+                       Set<Node> visited) {
+        if (!visited.add(node)) {
+            return;
+        }
+        String type = node instanceof EntranceNode ? ENTRANCE_NODE : DEFAULT_NODE;
+        record(types, resources, node.getId().getName(), type, node);
+        for (Node child : node.getChildList()) {
+            if (child instanceof DefaultNode) {
+                visit((DefaultNode)child, types, resources, visited);
+            }
+        }
+    }
+
+    private void record(Map<String, Usage> types, Map<String, Map<String, Usage>> resources, String resource,
+                        String type, StatisticNode node) {
+        long bytes = NodeMemoryEstimator.estimate(node);
+        usageOf(types, type).add(bytes);
+        Map<String, Usage> usages = resources.get(resource);
+        if (usages == null) {
+            usages = new TreeMap<String, Usage>();
+            resources.put(resource, usages);
+        }
+        usageOf(usages, type).add(bytes);
+    }
+
+    private static Usage usageOf(Map<String, Usage> map, String type) {
+        Usage usage = map.get(type);
+        if (usage == null) {
+            usage = new Usage();
+            map.put(type, usage);
+        }
+        return usage;
+    }
+
+    private static long sum(Map<String, Usage> usages) {
+        long total = 0;
+        for (Usage usage : usages.values()) {
+            total += usage.bytes;
+        }
+        return total;
+    }
+
+    private static JSONObject toJson(Map<String, Usage> usages) {
+        JSONObject json = new JSONObject(true);
+        for (Map.Entry<String, Usage> e : usages.entrySet()) {
+            JSONObject item = new JSONObject(true);
+            item.put("count", e.getValue().count);
+            item.put("bytes", e.getValue().bytes);
+            item.put("bytesPerNode", e.getValue().bytes / e.getValue().count);
+            json.put(e.getKey(), item);
+        }
+        return json;
+    }
+
+    private static class Usage {
+        private int count;
+        private long bytes;
+
+        private void add(long bytes) {
+            this.count++;
+            this.bytes += bytes;
+        }
+    }
+}
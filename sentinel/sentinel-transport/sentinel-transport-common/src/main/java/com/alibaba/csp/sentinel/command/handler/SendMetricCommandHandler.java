@@ -24,11 +24,14 @@ import com.alibaba.csp.sentinel.command.CommandRequest;
 import com.alibaba.csp.sentinel.command.CommandResponse;
 import com.alibaba.csp.sentinel.command.annotation.CommandMapping;
 import com.alibaba.csp.sentinel.config.SentinelConfig;
+import com.alibaba.csp.sentinel.log.RecordLog;
 import com.alibaba.csp.sentinel.node.metric.MetricNode;
+import com.alibaba.csp.sentinel.node.metric.MetricNodeSupplier;
 import com.alibaba.csp.sentinel.node.metric.MetricSearcher;
 import com.alibaba.csp.sentinel.node.metric.MetricWriter;
 import com.alibaba.csp.sentinel.slots.system.SystemRuleManager;
 import com.alibaba.csp.sentinel.util.PidUtil;
+import com.alibaba.csp.sentinel.util.SpiLoader;
 import com.alibaba.csp.sentinel.util.StringUtil;
 import com.alibaba.csp.sentinel.util.TimeUtil;
 
@@ -39,10 +42,12 @@ import com.alibaba.csp.sentinel.util.TimeUtil;
  * @author Eric Zhao
  */
 @CommandMapping(name = "metric", desc = "get and aggregate metrics, accept param: "
-    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}")
+    + "startTime={startTime}&endTime={endTime}&maxLines={maxLines}&identify={resourceName}"
+    + "&rtPercentiles={true|false} (RT percentile fields are only appended if rtPercentiles=true)")
 public class SendMetricCommandHandler implements CommandHandler<String> {
 
     private MetricSearcher searcher;
+    private volatile List<MetricNodeSupplier> suppliers;
 
     private final Object lock = new Object();
 
@@ -58,6 +63,7 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
                 if (searcher == null) {
                     searcher = new MetricSearcher(MetricWriter.METRIC_BASE_DIR,
                         MetricWriter.formMetricFileName(appName, PidUtil.getPid()));
+                    suppliers = SpiLoader.loadInstanceList(MetricNodeSupplier.class);
                 }
             }
         }
@@ -65,6 +71,8 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         String endTimeStr = request.getParam("endTime");
         String maxLinesStr = request.getParam("maxLines");
         String identity = request.getParam("identity");
+        // Percentile fields are opt-in so that the dashboards of older versions can still parse the lines.
+        boolean withRtPercentiles = "true".equalsIgnoreCase(request.getParam("rtPercentiles"));
         long startTime = -1;
         int maxLines = 6000;
         if (StringUtil.isNotBlank(startTimeStr)) {
@@ -93,10 +101,11 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         }
         if (StringUtil.isBlank(identity)) {
             addCpuUsageAndLoad(list);
+            addSuppliedNodes(list);
         }
         StringBuilder sb = new StringBuilder();
         for (MetricNode node : list) {
-            sb.append(node.toThinString()).append("\n");
+            sb.append(node.toThinString(withRtPercentiles)).append("\n");
         }
         return CommandResponse.ofSuccess(sb.toString());
     }
@@ -120,6 +129,26 @@ public class SendMetricCommandHandler implements CommandHandler<String> {
         }
     }
 
+    /**
+     * add the real-time metric nodes from {@link MetricNodeSupplier}s to the metric list.
+     *
+     * @param list metric list, should not be null
+     */
+    private void addSuppliedNodes(List<MetricNode> list) {
+        List<MetricNodeSupplier> suppliers = this.suppliers;
+        if (suppliers == null) {
+            return;
+        }
+        long currentTime = TimeUtil.currentTimeMillis();
+        for (MetricNodeSupplier supplier : suppliers) {
+            try {
+                list.addAll(supplier.getMetricNodes(currentTime));
+            } catch (Throwable t) {
+                RecordLog.warn("[SendMetricCommandHandler] Failed to get metric nodes from " + supplier, t);
+            }
+        }
+    }
+
     /**
      * transfer the value to a MetricNode, the value will multiply 10000 then truncate
      * to long value, and as the {@link MetricNode#passQps}.